@@ -0,0 +1,204 @@
+package com.kulucka.mkv5.benchmark;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * jmh/ kaynak kümesi JVM'de çalışır (android.util.Log için jvm-shims/java kaynak yoluna eklenir).
+ * Sonuç almak: java -cp <sınıflar> org.openjdk.jmh.Main -prof gc -rf json -rff jmh-result.json
+ *
+ * İki JMH JSON sonucunu (-rf json) karşılaştırır:
+ * java ... BaselineCheck jmh/baseline/baseline.json jmh-result.json [tolerans%]
+ * Her benchmark/mod için birincil skoru ve varsa döngü başına ayrılan baytı
+ * (gc.alloc.rate.norm) yan yana yazar. Sample modunda ortalama yerine p50 karşılaştırılır.
+ * Kötüleşme toleransı (varsayılan %10) aşıyor ve iki sonucun hata aralıkları örtüşmüyorsa
+ * gerileme sayılır; aralıklar örtüşüyorsa satır "belirsiz" yazılır. Gerileme varsa 1 ile çıkar.
+ *
+ * Baseline, ham sonucun yalnızca özet skorlarıyla saklanır (rawData, JVM yolu vb. atılır):
+ * java ... BaselineCheck --ozet jmh-result.json jmh/baseline/baseline.json
+ */
+public final class BaselineCheck {
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final String MEDIAN = "50.0";
+    private static final String[] KEPT_PERCENTILES = {"50.0", "90.0", "99.0"};
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && "--ozet".equals(args[0])) {
+            writeSummary(args[1], args[2]);
+            return;
+        }
+        if (args.length < 2) {
+            System.err.println("Kullanım: BaselineCheck <baseline.json> <sonuç.json> [tolerans%]");
+            System.err.println("          BaselineCheck --ozet <sonuç.json> <baseline.json>");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100.0 : 0.10;
+
+        Map<String, JsonObject> baseline = load(args[0]);
+        Map<String, JsonObject> current = load(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+            JsonObject base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(entry.getKey() + ": yeni (baseline yok)");
+                continue;
+            }
+
+            String mode = entry.getValue().get("mode").getAsString();
+            String unit = unit(entry.getValue());
+            if ("sample".equals(mode)) {
+                // Yüzdelikler için JMH hata payı vermez; örnek sayısı yüksek olduğundan p50 kararlıdır
+                regressions += compare(entry.getKey() + " [p50]", median(base), 0,
+                        median(entry.getValue()), 0, unit, false, tolerance);
+            } else {
+                // Throughput'ta büyük, süre modlarında küçük değer iyidir
+                boolean higherIsBetter = "thrpt".equals(mode);
+                JsonObject basePrimary = base.getAsJsonObject("primaryMetric");
+                JsonObject currentPrimary = entry.getValue().getAsJsonObject("primaryMetric");
+                regressions += compare(entry.getKey(), score(basePrimary), error(basePrimary),
+                        score(currentPrimary), error(currentPrimary), unit, higherIsBetter, tolerance);
+            }
+
+            JsonObject baseAlloc = allocNorm(base);
+            JsonObject currentAlloc = allocNorm(entry.getValue());
+            // 1 B/op altı ayırma ölçüm gürültüsüdür
+            if (baseAlloc != null && currentAlloc != null && score(baseAlloc) >= 1) {
+                regressions += compare(entry.getKey() + " [alloc]", score(baseAlloc), error(baseAlloc),
+                        score(currentAlloc), error(currentAlloc), "B/op", false, tolerance);
+            }
+        }
+
+        System.out.println(regressions == 0 ? "Gerileme yok" : regressions + " gerileme bulundu");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static int compare(String name, double base, double baseError, double current, double currentError,
+                               String unit, boolean higherIsBetter, double tolerance) {
+        double change = base == 0 ? 0 : (current - base) / base;
+        boolean worse = higherIsBetter ? change < -tolerance : change > tolerance;
+        // Hata aralıkları örtüşüyorsa fark ölçüm gürültüsünden ayırt edilemez
+        boolean overlapping = Math.abs(current - base) <= baseError + currentError;
+        boolean regressed = worse && !overlapping;
+        System.out.println(String.format(Locale.US, "%-70s %12.3f -> %12.3f %-10s %+7.1f%%%s",
+                name, base, current, unit, change * 100,
+                regressed ? "  GERİLEME" : worse ? "  belirsiz (hata aralıkları örtüşüyor)" : ""));
+        return regressed ? 1 : 0;
+    }
+
+    // Ham JMH sonucundan karşılaştırmanın kullandığı alanları yazar
+    private static void writeSummary(String resultPath, String summaryPath) throws IOException {
+        JsonArray summary = new JsonArray();
+        for (JsonObject result : load(resultPath).values()) {
+            JsonObject row = new JsonObject();
+            for (String key : new String[]{"benchmark", "mode", "forks", "warmupIterations",
+                    "warmupTime", "measurementIterations", "measurementTime"}) {
+                row.add(key, result.get(key));
+            }
+
+            JsonObject primary = result.getAsJsonObject("primaryMetric");
+            JsonObject metric = summarizeMetric(primary);
+            if ("sample".equals(result.get("mode").getAsString())) {
+                JsonObject percentiles = new JsonObject();
+                for (String percentile : KEPT_PERCENTILES) {
+                    percentiles.add(percentile, primary.getAsJsonObject("scorePercentiles").get(percentile));
+                }
+                metric.add("scorePercentiles", percentiles);
+            }
+            row.add("primaryMetric", metric);
+
+            JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+            if (secondary != null) {
+                JsonObject kept = new JsonObject();
+                for (Map.Entry<String, JsonElement> entry : secondary.entrySet()) {
+                    if (entry.getKey().endsWith(ALLOC_NORM)) {
+                        kept.add(entry.getKey(), summarizeMetric(entry.getValue().getAsJsonObject()));
+                    }
+                }
+                row.add("secondaryMetrics", kept);
+            }
+            summary.add(row);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(summaryPath), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(summary, writer);
+            writer.write('\n');
+        }
+        System.out.println(summary.size() + " sonuç özeti yazıldı: " + summaryPath);
+    }
+
+    private static JsonObject summarizeMetric(JsonObject metric) {
+        JsonObject summary = new JsonObject();
+        summary.add("score", metric.get("score"));
+        summary.add("scoreError", metric.get("scoreError"));
+        summary.add("scoreUnit", metric.get("scoreUnit"));
+        return summary;
+    }
+
+    // Anahtar: benchmark adı + mod (ör. ...StatusCycleBenchmark.statusCycle/sample)
+    private static Map<String, JsonObject> load(String path) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                String key = result.get("benchmark").getAsString() + "/" + result.get("mode").getAsString();
+                results.put(key, result);
+            }
+        }
+        return results;
+    }
+
+    private static double score(JsonObject metric) {
+        return metric.get("score").getAsDouble();
+    }
+
+    // Tek iterasyonla alınmış sonuçlarda JMH hata payını NaN yazar; sıfır sayılır
+    private static double error(JsonObject metric) {
+        JsonElement error = metric.get("scoreError");
+        if (error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber()) {
+            return 0;
+        }
+        double value = Math.abs(error.getAsDouble());
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    private static double median(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").getAsJsonObject("scorePercentiles")
+                .get(MEDIAN).getAsDouble();
+    }
+
+    private static String unit(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("scoreUnit").getAsString();
+    }
+
+    // -prof gc olmadan alınmış sonuçlarda null
+    private static JsonObject allocNorm(JsonObject result) {
+        JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+        if (secondary == null) {
+            return null;
+        }
+        for (Map.Entry<String, JsonElement> metric : secondary.entrySet()) {
+            if (metric.getKey().endsWith(ALLOC_NORM)) {
+                return metric.getValue().getAsJsonObject();
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.kulucka.mkv5.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * jmh/resources/payloads altındaki, ESP32 firmware'inin döndürdüğü
+ * yanıtlardan alınmış sabit JSON örnekleri.
+ */
+final class Payloads {
+    static final String STATUS = "status.json";
+    static final String PID_STATUS = "pid_status.json";
+    static final String MOTOR_STATUS = "motor_status.json";
+
+    private Payloads() {
+    }
+
+    static String load(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Payload bulunamadı: " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new IllegalStateException("Payload okunamadı: " + name, e);
+        }
+    }
+}
\ No newline at end of file
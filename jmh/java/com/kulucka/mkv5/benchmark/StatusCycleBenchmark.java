@@ -0,0 +1,206 @@
+package com.kulucka.mkv5.benchmark;
+
+import com.google.gson.Gson;
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.models.StatusDiff;
+import com.kulucka.mkv5.network.ApiService;
+import com.kulucka.mkv5.network.RetrofitClient;
+import com.kulucka.mkv5.utils.AlarmEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Uygulamanın bir durum döngüsü: yerel MockWebServer'dan /api/status alınır,
+ * RetrofitClient'ın interceptor zinciri ve converter'ı ile çözülür, ardından
+ * StatusDiff ve alarm değerlendirmesinden geçer.
+ * Çağrılar uygulamadaki gibi enqueue ile yapılır; böylece PriorityCallAdapterFactory'nin
+ * cihaz sırası ve RetryCallAdapterFactory de ölçülür (execute ikisini de atlar).
+ * Yalnızca SampleTime (p50/p90/p99 gecikme) raporlanır: loopback sunucu ve istemci aynı
+ * çekirdekleri paylaştığından throughput'un hata payı toleransın çok üstündedir. BaselineCheck
+ * p50'yi karşılaştırır; döngü başına bellek ayırma için "-prof gc" ile çalıştırılır.
+ * rawOkHttpStatus, interceptor'sız çıplak istemciyle aynı isteği asenkron yapar ve
+ * RetrofitClient'taki katmanların maliyetini ayırmak için karşılaştırma noktasıdır.
+ * Sunucu soketlerinde TCP_NODELAY açıktır; aksi halde başlık ve gövdenin ayrı
+ * yazılması loopback'te ~40 ms gecikmeli ACK beklemesine yol açar ve ölçümü bastırır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// Loopback sunucu ve istemci aynı çekirdekleri paylaşır; gürültü için çok fork ve iterasyon gerekir
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class StatusCycleBenchmark {
+    private static final long CALL_TIMEOUT_SECONDS = 5;
+
+    private MockWebServer server;
+    private ApiService apiService;
+    private OkHttpClient rawClient;
+    private Request rawStatusRequest;
+    private Gson gson;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final StatusDiff statusDiff = new StatusDiff();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final String status = Payloads.load(Payloads.STATUS);
+        final String pid = Payloads.load(Payloads.PID_STATUS);
+        final String motor = Payloads.load(Payloads.MOTOR_STATUS);
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String body;
+                if ("/api/status".equals(path)) {
+                    body = status;
+                } else if ("/api/pid/status".equals(path)) {
+                    body = pid;
+                } else if ("/api/motor/status".equals(path)) {
+                    body = motor;
+                } else {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(body);
+            }
+        });
+        server.start();
+
+        // Uygulamadaki gibi tek cihaz istemcisi; DeviceRouter istekleri yerel sunucuya yönlendirir
+        RetrofitClient.getDeviceRouter().switchTo(server.url("/").toString());
+        apiService = RetrofitClient.getDeviceClient().create(ApiService.class);
+        gson = RetrofitClient.getGson();
+
+        rawClient = new OkHttpClient();
+        rawStatusRequest = new Request.Builder().url(server.url("/api/status")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        RetrofitClient.resetClient();
+        rawClient.dispatcher().executorService().shutdown();
+        rawClient.connectionPool().evictAll();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void statusCycle(ThreadState state, Blackhole blackhole) throws Exception {
+        DeviceStatus status = enqueueAndWait(apiService.getStatus());
+        blackhole.consume(state.statusDiff.diff(status));
+        blackhole.consume(AlarmEvaluator.evaluate(status));
+    }
+
+    @Benchmark
+    public DeviceStatus fetchStatus() throws Exception {
+        return enqueueAndWait(apiService.getStatus());
+    }
+
+    @Benchmark
+    public ApiService.PidStatusResponse fetchPidStatus() throws Exception {
+        return enqueueAndWait(apiService.getPidStatus());
+    }
+
+    @Benchmark
+    public DeviceStatus rawOkHttpStatus() throws Exception {
+        final CompletableFuture<DeviceStatus> result = new CompletableFuture<>();
+        rawClient.newCall(rawStatusRequest).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onResponse(okhttp3.Call call, okhttp3.Response response) {
+                try (ResponseBody body = response.body()) {
+                    result.complete(gson.fromJson(body.charStream(), DeviceStatus.class));
+                }
+            }
+
+            @Override
+            public void onFailure(okhttp3.Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Sonuç JVM'de callback executor olmadığından OkHttp thread'inde gelir
+    private static <T> T enqueueAndWait(Call<T> call) throws Exception {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                result.complete(response.body());
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result.get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
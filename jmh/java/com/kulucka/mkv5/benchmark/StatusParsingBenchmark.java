@@ -0,0 +1,62 @@
+package com.kulucka.mkv5.benchmark;
+
+import com.google.gson.Gson;
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.network.ApiService;
+import com.kulucka.mkv5.network.RetrofitClient;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sabit yanıtların DeviceStatus ve yan modellere, RetrofitClient'ın Gson'uyla çözümlenmesi.
+ * El yazımı akış adapter'ları bu ölçümde reflection'dan belirgin hızlı çıkmadığı için kaldırıldı;
+ * burada yalnızca uygulamanın kullandığı yol ölçülür.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// Tek fork'un hata payı BaselineCheck toleransını (%10) aşıyordu
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 2)
+@Fork(5)
+public class StatusParsingBenchmark {
+    private Gson gson;
+
+    private String statusJson;
+    private String pidJson;
+    private String motorJson;
+
+    @Setup
+    public void setup() {
+        gson = RetrofitClient.getGson();
+        statusJson = Payloads.load(Payloads.STATUS);
+        pidJson = Payloads.load(Payloads.PID_STATUS);
+        motorJson = Payloads.load(Payloads.MOTOR_STATUS);
+    }
+
+    @Benchmark
+    public DeviceStatus status() {
+        return gson.fromJson(statusJson, DeviceStatus.class);
+    }
+
+    @Benchmark
+    public ApiService.PidStatusResponse pidStatus() {
+        return gson.fromJson(pidJson, ApiService.PidStatusResponse.class);
+    }
+
+    @Benchmark
+    public ApiService.MotorStatusResponse motorStatus() {
+        return gson.fromJson(motorJson, ApiService.MotorStatusResponse.class);
+    }
+}
\ No newline at end of file
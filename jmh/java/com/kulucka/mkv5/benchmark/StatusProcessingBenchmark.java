@@ -0,0 +1,74 @@
+package com.kulucka.mkv5.benchmark;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.models.StatusDiff;
+import com.kulucka.mkv5.network.RetrofitClient;
+import com.kulucka.mkv5.utils.AlarmEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Çözümlenmiş durum üzerindeki işlemler: görünüm farkı (StatusDiff) ve
+ * alarm değerlendirmesi; StatusPipeline bunları işçi thread'inde çalıştırır.
+ * Diff, ekranda görünmeyen bir değişim (37.54 -> 37.56) ile görünür bir değişim
+ * arasında dönüşümlü çalışır.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// Tek fork'un hata payı BaselineCheck toleransını (%10) aşıyordu
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 2)
+@Fork(5)
+public class StatusProcessingBenchmark {
+    private DeviceStatus[] statuses;
+    private DeviceStatus inAlarm;
+    private StatusDiff statusDiff;
+    private int index;
+
+    @Setup
+    public void setup() {
+        String json = Payloads.load(Payloads.STATUS);
+        statuses = new DeviceStatus[3];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = RetrofitClient.getGson().fromJson(json, DeviceStatus.class);
+        }
+        statuses[1].setTemperature(37.56f);
+        statuses[2].setTemperature(37.71f);
+        statuses[2].setHeaterState(false);
+
+        inAlarm = RetrofitClient.getGson().fromJson(json, DeviceStatus.class);
+        inAlarm.setTemperature(38.9f);
+        inAlarm.setHumidity(45f);
+
+        statusDiff = new StatusDiff();
+        statusDiff.diff(statuses[0]);
+    }
+
+    @Benchmark
+    public int diff() {
+        index = (index + 1) % statuses.length;
+        return statusDiff.diff(statuses[index]);
+    }
+
+    @Benchmark
+    public String alarmsWithinLimits() {
+        return AlarmEvaluator.evaluate(statuses[0]);
+    }
+
+    @Benchmark
+    public String alarmsTriggered() {
+        return AlarmEvaluator.evaluate(inAlarm);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package android.util;
+
+/**
+ * jmh/ ve simulator/ kaynak kümeleri JVM'de çalışır; android.jar'daki Log "Stub!" hatası fırlatır.
+ * İkisi de bu dizini kaynak yoluna ekler. Ağ katmanının log çağrıları burada sessizce
+ * yutulur; ölçüme ve yüzlerce cihazlık soak testine log G/Ç'su karışmaz.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    public static int v(String tag, String msg) {
+        return 0;
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
\ No newline at end of file
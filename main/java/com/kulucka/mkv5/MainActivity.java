@@ -9,12 +9,6 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import java.io.IOException;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.IntentFilter;
@@ -24,27 +18,29 @@ import android.net.wifi.WifiManager;
 import androidx.appcompat.widget.Toolbar;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.kulucka.mkv5.activities.SettingsActivity;
-import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.network.ConnectionRacer;
+import com.kulucka.mkv5.network.FleetDevice;
+import com.kulucka.mkv5.network.FleetManager;
+import com.kulucka.mkv5.network.MdnsResolver;
 import com.kulucka.mkv5.network.NetworkDiscoveryManager;
 import com.kulucka.mkv5.network.NetworkManager;
-import com.kulucka.mkv5.services.BackgroundService;
+import com.kulucka.mkv5.network.StatusPipeline;
+import com.kulucka.mkv5.network.StatusSnapshot;
+import com.kulucka.mkv5.network.StatusSnapshotStore;
+import com.kulucka.mkv5.network.StatusStream;
+import com.kulucka.mkv5.network.StatusViewModel;
+import com.kulucka.mkv5.services.MonitorJobService;
 import com.kulucka.mkv5.utils.Constants;
 import com.kulucka.mkv5.utils.SharedPreferencesManager;
-import com.kulucka.mkv5.network.ApiService;
 import com.kulucka.mkv5.utils.NetworkUtils;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
-public class MainActivity extends AppCompatActivity implements NetworkDiscoveryManager.DiscoveryCallback {
+public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
     private static final int SETTINGS_REQUEST_CODE = 1001;
 
@@ -65,28 +61,29 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
     // Variables
     private NetworkManager networkManager;
     private NetworkDiscoveryManager discoveryManager;
+    private ConnectionRacer connectionRacer;
+    private FleetManager fleetManager;
     private SharedPreferencesManager prefsManager;
     private Handler updateHandler;
-    private Runnable updateRunnable;
-    private boolean isUpdating = false;
     private boolean isConnected = false;
-    private AtomicBoolean isDiscovering = new AtomicBoolean(false); // Thread-safe
     private boolean isSystemVerified = false;
     private WifiStateReceiver wifiStateReceiver;
     private boolean isAutoConnectEnabled = true;
     private Timer autoConnectTimer;
     private static final long AUTO_CONNECT_INTERVAL = 10000; // 10 saniye olarak artırıldı
     private long lastAutoConnectAttempt = 0;
+
+    // Karşılaştırma ve biçimlendirme arka planda; ekrana yalnızca değişen kartlar yazılır
+    private final StatusPipeline statusPipeline = new StatusPipeline();
+    // Ekrandaki değerler kayıtlı snapshot'tan geliyorsa o snapshot'ın zamanı, canlıysa 0
+    private long staleSnapshotTime = 0;
+    private static final float STALE_ALPHA = 0.5f;
     private int autoConnectAttemptCount = 0;
     private static final int MAX_AUTO_CONNECT_ATTEMPTS = 5; // 5'e çıkarıldı
     private static final long WIFI_STATE_CHECK_INTERVAL = 3000; // 3 saniyeye çıkarıldı
     private Handler wifiCheckHandler = new Handler();
     private Runnable wifiCheckRunnable;
     private boolean wasConnectedBefore = false;
-    private long lastDiscoveryTime = 0;
-    private static final long DISCOVERY_COOLDOWN = 30000; // 30 saniye discovery cooldown
-    private int connectionRetryCount = 0;
-    private static final int MAX_CONNECTION_RETRIES = 3;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -96,19 +93,35 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         initializeViews();
         setupListeners();
 
+        // Bağlantı kurulana kadar son bilinen değerler soluk gösterilir
+        statusPipeline.setSnapshotStore(StatusSnapshotStore.getInstance(this));
+        statusPipeline.restore(viewModelCallback);
+
         registerWifiStateReceiver();
 
         networkManager = NetworkManager.getInstance(this);
         discoveryManager = new NetworkDiscoveryManager(this);
+        discoveryManager.setTimingListener(new NetworkDiscoveryManager.DiscoveryTimingListener() {
+            @Override
+            public void onFirstDevice(long elapsedMs, String source) {
+                Log.d(TAG, "İlk cihaz " + elapsedMs + " ms'de bulundu (" + source + ")");
+            }
+
+            @Override
+            public void onDiscoveryFinished(long elapsedMs, int deviceCount) {
+                Log.d(TAG, "Keşif " + elapsedMs + " ms sürdü, " + deviceCount + " cihaz");
+            }
+        });
+        connectionRacer = new ConnectionRacer(this, discoveryManager);
+        fleetManager = FleetManager.getInstance(this);
         prefsManager = SharedPreferencesManager.getInstance(this);
         updateHandler = new Handler();
 
-        startBackgroundService();
+        MonitorJobService.schedule(this);
 
         // İlk başlatmada biraz bekle
         updateHandler.postDelayed(() -> {
             startAutoConnectSystem();
-            startPeriodicUpdates();
             startWifiMonitoring();
         }, 1000);
     }
@@ -133,7 +146,6 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
             wasConnectedBefore = false;
             isConnected = false;
             updateConnectionStatus(false, "WiFi bağlantısı kesildi");
-            connectionRetryCount = 0; // Retry sayacını sıfırla
         }
         // WiFi bağlantısı yeniden kuruldu
         else if (currentlyConnected && !wasConnectedBefore) {
@@ -153,47 +165,77 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         }
     }
 
+    // Kayıtlı IP, mDNS, AP adresi ve ağ keşfi aynı anda yarışır; ilk doğrulanan adrese bağlanılır
     private void attemptConnection() {
-        if (isConnected || isDiscovering.get()) {
+        if (isConnected || connectionRacer.isRunning()) {
             return;
         }
 
-        connectionRetryCount++;
+        updateConnectionStatus(false, "Cihaz aranıyor...");
+        connectionRacer.start(raceCallback);
+    }
 
-        if (connectionRetryCount <= MAX_CONNECTION_RETRIES) {
-            Log.d(TAG, "Bağlantı denemesi " + connectionRetryCount + "/" + MAX_CONNECTION_RETRIES);
-            tryAutoConnect();
-        } else {
-            Log.d(TAG, "Maksimum bağlantı denemesi aşıldı, discovery başlatılıyor");
-            connectionRetryCount = 0;
-            startSmartDiscovery();
+    private final ConnectionRacer.RaceCallback raceCallback = new ConnectionRacer.RaceCallback() {
+        @Override
+        public void onConnected(ConnectionRacer.Path path, String ipAddress, int port) {
+            networkManager.resetConnection();
+            handleSuccessfulConnection(getConnectionPathName(path) + " (" + ipAddress + ")");
+
+            // Bağlanılan her cihaz filoya kaydedilir; birden fazlaysa diğerleri de izlenir
+            fleetManager.addDevice("Kuluçka " + ipAddress, ipAddress, port);
+            startFleetMonitoring();
         }
-    }
 
-    private void startSmartDiscovery() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastDiscoveryTime < DISCOVERY_COOLDOWN) {
-            Log.d(TAG, "Discovery cooldown aktif, bekleniyor...");
-            return;
+        @Override
+        public void onFailed(String reason) {
+            updateConnectionStatus(false, reason);
         }
+    };
 
-        if (!isDiscovering.compareAndSet(false, true)) {
-            Log.d(TAG, "Discovery zaten çalışıyor");
-            return;
+    private final FleetManager.FleetListener fleetListener = new FleetManager.FleetListener() {
+        @Override
+        public void onDeviceStatus(FleetDevice device) {
+            updateFleetSummary();
         }
 
-        lastDiscoveryTime = currentTime;
-        updateConnectionStatus(false, "Cihaz aranıyor...");
+        @Override
+        public void onDeviceError(FleetDevice device, Throwable t) {
+            updateFleetSummary();
+        }
+    };
 
-        // Önce bilinen IP'leri kontrol et
-        String savedIP = prefsManager.getDeviceIp();
-        if (savedIP != null && !savedIP.isEmpty() && !savedIP.equals("0.0.0.0")) {
-            testDirectConnection(savedIP, () -> {
-                // Başarısızsa discovery başlat
-                startNetworkDiscovery();
-            });
-        } else {
-            startNetworkDiscovery();
+    // Tek cihazda filo sorgusu ana durum akışını tekrarlardı; yalnızca birden fazla cihazda başlar
+    private void startFleetMonitoring() {
+        if (fleetManager.getDevices().size() > 1) {
+            fleetManager.addListener(fleetListener);
+        }
+        updateFleetSummary();
+    }
+
+    private void stopFleetMonitoring() {
+        fleetManager.removeListener(fleetListener);
+    }
+
+    private void updateFleetSummary() {
+        if (getSupportActionBar() == null) {
+            return;
+        }
+        int total = fleetManager.getDevices().size();
+        getSupportActionBar().setSubtitle(total > 1
+                ? "Filo: " + fleetManager.getOnlineCount() + "/" + total + " çevrimiçi"
+                : null);
+    }
+
+    private String getConnectionPathName(ConnectionRacer.Path path) {
+        switch (path) {
+            case SAVED:
+                return "Doğrudan";
+            case MDNS:
+                return "mDNS";
+            case AP:
+                return "AP modu";
+            default:
+                return "Ağ keşfi";
         }
     }
 
@@ -252,203 +294,42 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         });
     }
 
-    private void startBackgroundService() {
-        Intent serviceIntent = new Intent(this, BackgroundService.class);
-        startService(serviceIntent);
-    }
-
-    private void tryMDNSConnection(final Runnable onFailure) {
-        updateConnectionStatus(false, "mDNS ile bağlanıyor: " + Constants.MDNS_HOSTNAME);
-
-        new Thread(() -> {
-            int retryCount = 0;
-            final int maxRetries = 3;
-            boolean resolved = false;
-            String resolvedIP = null;
-
-            while (retryCount < maxRetries && !resolved) {
-                try {
-                    InetAddress address = InetAddress.getByName(Constants.MDNS_HOSTNAME);
-                    resolvedIP = address.getHostAddress();
-
-                    if (resolvedIP != null && !resolvedIP.isEmpty() && !resolvedIP.equals("127.0.0.1")) {
-                        resolved = true;
-                        Log.d(TAG, "mDNS çözümlendi (deneme " + (retryCount + 1) + "): " +
-                                Constants.MDNS_HOSTNAME + " -> " + resolvedIP);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "mDNS çözümleme hatası (deneme " + (retryCount + 1) + "): " + e.getMessage());
-                    retryCount++;
-
-                    if (retryCount < maxRetries) {
-                        try {
-                            Thread.sleep(2000); // 2 saniye bekle
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
-                    }
-                }
-            }
-
-            final String finalIP = resolvedIP;
-            final boolean finalResolved = resolved;
-
-            runOnUiThread(() -> {
-                if (finalResolved && finalIP != null) {
-                    prefsManager.saveDeviceIp(finalIP);
-                    prefsManager.saveDevicePort(Constants.DEFAULT_PORT);
-                    networkManager.resetConnection();
-                    testMDNSConnection(finalIP);
-                } else {
-                    Log.w(TAG, "mDNS çözümlenemedi (" + maxRetries + " deneme sonrası)");
-                    if (onFailure != null) onFailure.run();
-                }
-            });
-        }).start();
-    }
-
-    private void tryAPModeConnection(final Runnable onFailure) {
-        updateConnectionStatus(false, "AP modu kontrol ediliyor...");
-
-        String originalIP = prefsManager.getDeviceIp();
-        prefsManager.saveDeviceIp(Constants.DEFAULT_AP_IP);
-        prefsManager.saveDevicePort(Constants.DEFAULT_PORT);
-        prefsManager.saveConnectionMode(Constants.MODE_AP);
-        networkManager.resetConnection();
-
-        new Handler().postDelayed(() -> {
-            networkManager.getSystemVerification(new Callback<ApiService.SystemVerificationResponse>() {
-                @Override
-                public void onResponse(Call<ApiService.SystemVerificationResponse> call,
-                                       Response<ApiService.SystemVerificationResponse> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        isSystemVerified = true;
-                        updateConnectionStatus(true, "AP modunda bağlandı");
-                        refreshData();
-                        Log.d(TAG, "AP modu bağlantısı başarılı");
-                    } else {
-                        prefsManager.saveDeviceIp(originalIP);
-                        networkManager.resetConnection();
-                        if (onFailure != null) onFailure.run();
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<ApiService.SystemVerificationResponse> call, Throwable t) {
-                    Log.e(TAG, "AP modu bağlantı testi başarısız: " + t.getMessage());
-                    prefsManager.saveDeviceIp(originalIP);
-                    networkManager.resetConnection();
-                    if (onFailure != null) onFailure.run();
-                }
-            });
-        }, 2000);
-    }
-
-    private void testMDNSConnection(String ip) {
-        updateConnectionStatus(false, "mDNS bağlantısı test ediliyor...");
+    // Durum, PID ve RTC ortak akıştan tek snapshot içinde gelir
+    private final StatusStream.StatusListener statusListener = new StatusStream.StatusListener() {
+        @Override
+        public void onStatusSnapshot(StatusSnapshot snapshot) {
+            statusPipeline.process(snapshot, viewModelCallback);
+            updateConnectionStatus(true);
+            prefsManager.saveLastUpdateTime(System.currentTimeMillis());
+            isConnected = true;
+            isSystemVerified = true;
+            swipeRefresh.setRefreshing(false);
+        }
 
-        networkManager.getSystemVerification(new Callback<ApiService.SystemVerificationResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.SystemVerificationResponse> call,
-                                   Response<ApiService.SystemVerificationResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    isSystemVerified = true;
-                    updateConnectionStatus(true, "mDNS bağlantısı başarılı");
-                    prefsManager.saveConnectionMode(Constants.MODE_STATION);
-                    refreshData();
-                    Log.d(TAG, "mDNS bağlantısı başarılı: " + ip);
-                } else {
-                    Log.w(TAG, "mDNS IP doğru ancak sistem yanıt vermiyor");
-                    startSmartDiscovery();
-                }
-            }
+        @Override
+        public void onStatusError(Throwable t) {
+            swipeRefresh.setRefreshing(false);
+            Log.e(TAG, "Network error: " + t.getMessage());
 
-            @Override
-            public void onFailure(Call<ApiService.SystemVerificationResponse> call, Throwable t) {
-                Log.e(TAG, "mDNS bağlantı testi başarısız: " + t.getMessage());
-                updateConnectionStatus(false, "mDNS bağlantısı başarısız");
-                startSmartDiscovery();
+            // Bağlantı kurulana kadar hataları bağlantı akışı yönetir
+            if (isConnected) {
+                handleConnectionError("Bağlantı hatası: " + t.getMessage());
             }
-        });
-    }
-
-    private void startNetworkDiscovery() {
-        if (!isDiscovering.get()) {
-            Log.d(TAG, "Network discovery zaten çalışmıyor, iptal");
-            return;
         }
+    };
 
-        updateConnectionStatus(false, "Ağda cihaz aranıyor...");
-        Log.d(TAG, "Cihaz keşfi başlatılıyor...");
-        discoveryManager.startDiscovery(this);
+    private final StatusPipeline.Callback viewModelCallback = this::render;
 
-        updateHandler.postDelayed(() -> {
-            discoveryManager.stopDiscovery();
-            isDiscovering.set(false);
-
-            if (!isConnected) {
-                int connectionMode = prefsManager.getConnectionMode();
-                if (connectionMode == Constants.MODE_AP) {
-                    tryDirectConnection(Constants.DEFAULT_AP_IP);
-                } else {
-                    updateConnectionStatus(false, "Cihaz bulunamadı");
-                    connectionRetryCount = 0;
-                }
-            }
-        }, 15000);
+    private void startPeriodicUpdates() {
+        networkManager.subscribeStatus(statusListener, Constants.STATUS_UPDATE_INTERVAL);
     }
 
-    private void startPeriodicUpdates() {
-        updateRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (!isUpdating && isConnected) {
-                    refreshData();
-                }
-                updateHandler.postDelayed(this, Constants.STATUS_UPDATE_INTERVAL);
-            }
-        };
-        updateHandler.post(updateRunnable);
+    private void stopPeriodicUpdates() {
+        networkManager.unsubscribeStatus(statusListener);
     }
 
     private void refreshData() {
-        if (isUpdating) {
-            return;
-        }
-
-        isUpdating = true;
-
-        networkManager.getDeviceStatus(new Callback<DeviceStatus>() {
-            @Override
-            public void onResponse(Call<DeviceStatus> call, Response<DeviceStatus> response) {
-                runOnUiThread(() -> {
-                    if (response.isSuccessful() && response.body() != null) {
-                        updateUI(response.body());
-                        updateConnectionStatus(true);
-                        prefsManager.saveLastUpdateTime(System.currentTimeMillis());
-                        isConnected = true;
-                        isSystemVerified = true;
-                        connectionRetryCount = 0; // Başarılı bağlantıda sıfırla
-                        loadDetailedStatus();
-                    } else {
-                        handleConnectionError("Veri alınamadı - HTTP: " + response.code());
-                    }
-                    isUpdating = false;
-                    swipeRefresh.setRefreshing(false);
-                });
-            }
-
-            @Override
-            public void onFailure(Call<DeviceStatus> call, Throwable t) {
-                runOnUiThread(() -> {
-                    isUpdating = false;
-                    swipeRefresh.setRefreshing(false);
-                    handleConnectionError("Bağlantı hatası: " + t.getMessage());
-                    Log.e(TAG, "Network error: " + t.getMessage());
-                });
-            }
-        });
+        networkManager.refreshStatus();
     }
 
     private void handleConnectionError(String error) {
@@ -457,87 +338,79 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         updateConnectionStatus(false, error);
 
         // Hemen yeniden deneme yerine biraz bekle
-        if (!isDiscovering.get()) {
+        if (!connectionRacer.isRunning()) {
             updateHandler.postDelayed(() -> {
                 attemptConnection();
             }, 5000);
         }
     }
 
-    private void updateUI(DeviceStatus status) {
-        // Temperature
-        tvCurrentTemp.setText(String.format("%.1f°C", status.getTemperature()));
-        tvTargetTemp.setText(String.format("Hedef: %.1f°C", status.getTargetTemp()));
-        updateDeviceState(tvHeaterStatus, status.isHeaterState());
-
-        // Humidity
-        tvCurrentHumid.setText(String.format("%d%%", Math.round(status.getHumidity())));
-        tvTargetHumid.setText(String.format("Hedef: %d%%", Math.round(status.getTargetHumid())));
-        updateDeviceState(tvHumidifierStatus, status.isHumidifierState());
-
-        // Incubation
-        tvIncubationType.setText(getIncubationTypeName(status.getIncubationType()));
-        tvDayCount.setText(String.format("%d/%d", status.getDisplayDay(), status.getTotalDays()));
-        updateIncubationStatus(status);
-
-        // Motor
-        if (status.getMotor() != null) {
-            DeviceStatus.MotorInfo motorInfo = status.getMotor();
-            updateDeviceState(tvMotorStatus, motorInfo.isState());
-            tvMotorTiming.setText(String.format("Bekleme: %d dk\nÇalışma: %d sn",
-                    motorInfo.getWaitTime(), motorInfo.getRunTime()));
-        } else {
-            updateDeviceState(tvMotorStatus, status.isMotorState());
-            tvMotorTiming.setText(String.format("Bekleme: %d dk\nÇalışma: %d sn",
-                    status.getMotorWaitTime(), status.getMotorRunTime()));
+    // Model arka planda hazırlandı; burada yalnızca değişen görünümlere yazılır
+    private void render(StatusViewModel model) {
+        if (model.isStale()) {
+            staleSnapshotTime = model.getSnapshot().getTimestamp();
+            setValuesAlpha(STALE_ALPHA);
+            if (!isConnected) {
+                updateConnectionStatus(false);
+            }
+        } else if (staleSnapshotTime != 0) {
+            staleSnapshotTime = 0;
+            setValuesAlpha(1f);
         }
 
-        // PID
-        updatePidStatus(status);
+        apply(tvCurrentTemp, model.getCurrentTemp());
+        apply(tvTargetTemp, model.getTargetTemp());
+        apply(tvHeaterStatus, model.getHeater());
 
-        // Alarm
-        updateAlarmStatus(status.isAlarmEnabled());
+        apply(tvCurrentHumid, model.getCurrentHumid());
+        apply(tvTargetHumid, model.getTargetHumid());
+        apply(tvHumidifierStatus, model.getHumidifier());
 
-        // Güvenilirlik bilgilerini göster
-        if (status.getReliability() != null) {
-            DeviceStatus.ReliabilityInfo reliability = status.getReliability();
+        apply(tvIncubationType, model.getIncubationType());
+        apply(tvDayCount, model.getDayCount());
+        apply(tvIncubationStatus, model.getIncubationStatus());
+        apply(tvCompletionStatus, model.getCompletionStatus());
 
-            long lastSaveSeconds = reliability.getLastSave();
-            if (lastSaveSeconds < 60) {
-                tvLastSave.setText(lastSaveSeconds + " saniye önce");
-            } else if (lastSaveSeconds < 3600) {
-                tvLastSave.setText((lastSaveSeconds / 60) + " dakika önce");
-            } else {
-                tvLastSave.setText((lastSaveSeconds / 3600) + " saat önce");
-            }
+        apply(tvMotorStatus, model.getMotorStatus());
+        apply(tvMotorTiming, model.getMotorTiming());
 
-            tvPendingChanges.setText(String.valueOf(reliability.getPendingChanges()));
+        apply(tvPidMode, model.getPidMode());
+        apply(tvPidValues, model.getPidValues());
 
-            if (reliability.isAutoSaveEnabled()) {
-                tvAutoSaveStatus.setText("✓ Otomatik kayıt aktif");
-                tvAutoSaveStatus.setTextColor(getColor(R.color.success));
-            } else {
-                tvAutoSaveStatus.setText("✗ Otomatik kayıt kapalı");
-                tvAutoSaveStatus.setTextColor(getColor(R.color.error));
-            }
-        }
+        apply(tvAlarmStatus, model.getAlarmStatus());
 
-        // RTC durumunu göster
-        if (status.getTimestamp() > 0) {
-            networkManager.getRTCStatus(new Callback<ApiService.RTCStatusResponse>() {
-                @Override
-                public void onResponse(Call<ApiService.RTCStatusResponse> call,
-                                       Response<ApiService.RTCStatusResponse> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        tvRTCTime.setText(response.body().getTime());
-                    }
-                }
+        apply(tvLastSave, model.getLastSave());
+        apply(tvPendingChanges, model.getPendingChanges());
+        apply(tvAutoSaveStatus, model.getAutoSaveStatus());
 
-                @Override
-                public void onFailure(Call<ApiService.RTCStatusResponse> call, Throwable t) {
-                    tvRTCTime.setText("--:--");
-                }
-            });
+        apply(tvRTCTime, model.getRtcTime());
+    }
+
+    private void setValuesAlpha(float alpha) {
+        TextView[] views = {
+                tvCurrentTemp, tvTargetTemp, tvHeaterStatus,
+                tvCurrentHumid, tvTargetHumid, tvHumidifierStatus,
+                tvIncubationType, tvDayCount, tvIncubationStatus, tvCompletionStatus,
+                tvMotorStatus, tvMotorTiming, tvPidMode, tvPidValues, tvAlarmStatus,
+                tvLastSave, tvPendingChanges, tvAutoSaveStatus, tvRTCTime
+        };
+        for (TextView view : views) {
+            view.setAlpha(alpha);
+        }
+    }
+
+    private void apply(TextView textView, StatusViewModel.Text text) {
+        if (text == null) {
+            return;
+        }
+        if (!text.isVisible()) {
+            textView.setVisibility(View.GONE);
+            return;
+        }
+        textView.setVisibility(View.VISIBLE);
+        textView.setText(text.getText());
+        if (text.getColorRes() != 0) {
+            textView.setTextColor(getColor(text.getColorRes()));
         }
     }
 
@@ -568,6 +441,10 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
             }
             color = getColor(R.color.error);
             iconRes = R.drawable.ic_wifi_off;
+
+            if (staleSnapshotTime != 0) {
+                message += "\nSon bilinen değerler (" + formatAge(System.currentTimeMillis() - staleSnapshotTime) + ")";
+            }
         }
 
         tvConnectionStatus.setText(message);
@@ -576,128 +453,16 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         ivConnectionStatus.setColorFilter(color);
     }
 
-    private void updateDeviceState(TextView textView, boolean isOn) {
-        if (isOn) {
-            textView.setText("AÇIK");
-            textView.setTextColor(getColor(R.color.active));
-        } else {
-            textView.setText("KAPALI");
-            textView.setTextColor(getColor(R.color.inactive));
-        }
-    }
-
-    private void updateIncubationStatus(DeviceStatus status) {
-        if (status.isIncubationRunning()) {
-            tvIncubationStatus.setText("Çalışıyor");
-            tvIncubationStatus.setTextColor(getColor(R.color.success));
-
-            if (status.isIncubationCompleted()) {
-                tvCompletionStatus.setVisibility(View.VISIBLE);
-                tvCompletionStatus.setText(String.format("Kuluçka süresi tamamlandı! (Gerçek Gün: %d)",
-                        status.getActualDay()));
-            } else {
-                tvCompletionStatus.setVisibility(View.GONE);
-            }
-        } else {
-            tvIncubationStatus.setText("Durduruldu");
-            tvIncubationStatus.setTextColor(getColor(R.color.error));
-            tvCompletionStatus.setVisibility(View.GONE);
-        }
-    }
-
-    private void updatePidStatus(DeviceStatus status) {
-        String pidModeText;
-        int pidColor;
-
-        switch (status.getPidMode()) {
-            case Constants.PID_MODE_MANUAL:
-                pidModeText = "Manuel";
-                pidColor = R.color.warning;
-                break;
-            case Constants.PID_MODE_AUTO:
-                pidModeText = "Otomatik";
-                pidColor = R.color.success;
-                break;
-            default:
-                pidModeText = "Kapalı";
-                pidColor = R.color.inactive;
-                break;
-        }
-
-        tvPidMode.setText(pidModeText);
-        tvPidMode.setTextColor(getColor(pidColor));
-
-        tvPidValues.setText(String.format("Kp: %.2f\nKi: %.2f\nKd: %.2f",
-                status.getPidKp(), status.getPidKi(), status.getPidKd()));
-    }
-
-    private void updateAlarmStatus(boolean enabled) {
-        if (enabled) {
-            tvAlarmStatus.setText("Açık");
-            tvAlarmStatus.setTextColor(getColor(R.color.success));
-        } else {
-            tvAlarmStatus.setText("Kapalı");
-            tvAlarmStatus.setTextColor(getColor(R.color.error));
+    private static String formatAge(long ageMs) {
+        long minutes = ageMs / 60000;
+        if (minutes < 1) {
+            return "az önce";
+        } else if (minutes < 60) {
+            return minutes + " dakika önce";
+        } else if (minutes < 24 * 60) {
+            return (minutes / 60) + " saat önce";
         }
-    }
-
-    private String getIncubationTypeName(String type) {
-        if (type == null) return "--";
-
-        switch (type) {
-            case "0":
-                return "Tavuk";
-            case "1":
-                return "Bıldırcın";
-            case "2":
-                return "Kaz";
-            case "3":
-                return "Manuel";
-            default:
-                switch (type.toLowerCase()) {
-                    case "tavuk":
-                        return "Tavuk";
-                    case "bıldırcın":
-                        return "Bıldırcın";
-                    case "kaz":
-                        return "Kaz";
-                    case "manuel":
-                        return "Manuel";
-                    default:
-                        return type;
-                }
-        }
-    }
-
-    private void tryDirectConnection(String ip) {
-        updateConnectionStatus(false, "Bağlantı deneniyor: " + ip);
-
-        prefsManager.saveDeviceIp(ip);
-        networkManager.resetConnection();
-
-        networkManager.getSystemVerification(new Callback<ApiService.SystemVerificationResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.SystemVerificationResponse> call,
-                                   Response<ApiService.SystemVerificationResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Direct connection successful for IP: " + ip);
-                    isSystemVerified = true;
-                    runOnUiThread(() -> {
-                        isConnected = true;
-                        connectionRetryCount = 0;
-                        refreshData();
-                    });
-                } else {
-                    runOnUiThread(() -> updateConnectionStatus(false, "Cihaz yanıt vermiyor"));
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiService.SystemVerificationResponse> call, Throwable t) {
-                Log.e(TAG, "Direct connection failed for IP: " + ip);
-                runOnUiThread(() -> updateConnectionStatus(false, "Bağlantı başarısız"));
-            }
-        });
+        return (minutes / (24 * 60)) + " gün önce";
     }
 
     private void registerWifiStateReceiver() {
@@ -719,7 +484,7 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         autoConnectTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                if (isAutoConnectEnabled && !isConnected && !isDiscovering.get()) {
+                if (isAutoConnectEnabled && !isConnected) {
                     long currentTime = System.currentTimeMillis();
                     if (currentTime - lastAutoConnectAttempt > AUTO_CONNECT_INTERVAL) {
                         runOnUiThread(() -> tryAutoConnect());
@@ -732,7 +497,7 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
     }
 
     private void tryAutoConnect() {
-        if (isConnected || isDiscovering.get()) {
+        if (isConnected || connectionRacer.isRunning()) {
             return;
         }
 
@@ -745,59 +510,14 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
             return;
         }
 
-        String savedIP = prefsManager.getDeviceIp();
-        int connectionMode = prefsManager.getConnectionMode();
-
-        Log.d(TAG, "Otomatik bağlantı denemesi " + autoConnectAttemptCount + " - IP: " + savedIP +
-                ", Mod: " + (connectionMode == Constants.MODE_AP ? "AP" : "Station"));
-
-        if (savedIP != null && !savedIP.isEmpty() && !savedIP.equals("0.0.0.0")) {
-            testDirectConnection(savedIP, () -> {
-                if (connectionMode == Constants.MODE_AP) {
-                    tryAPModeConnection(null);
-                } else {
-                    tryMDNSConnection(() -> startSmartDiscovery());
-                }
-            });
-        } else {
-            if (connectionMode == Constants.MODE_AP) {
-                tryAPModeConnection(() -> startSmartDiscovery());
-            } else {
-                tryMDNSConnection(() -> startSmartDiscovery());
-            }
-        }
-    }
-
-    private void testDirectConnection(String ip, Runnable onFailure) {
-        updateConnectionStatus(false, "Bağlantı test ediliyor: " + ip);
-
-        networkManager.getSystemVerification(new Callback<ApiService.SystemVerificationResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.SystemVerificationResponse> call,
-                                   Response<ApiService.SystemVerificationResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    handleSuccessfulConnection("Doğrudan Bağlantı");
-                    refreshData();
-                } else if (onFailure != null) {
-                    onFailure.run();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiService.SystemVerificationResponse> call, Throwable t) {
-                Log.e(TAG, "Doğrudan bağlantı başarısız: " + t.getMessage());
-                if (onFailure != null) {
-                    onFailure.run();
-                }
-            }
-        });
+        Log.d(TAG, "Otomatik bağlantı denemesi " + autoConnectAttemptCount);
+        attemptConnection();
     }
 
     private void handleSuccessfulConnection(String mode) {
         isConnected = true;
         isSystemVerified = true;
         autoConnectAttemptCount = 0;
-        connectionRetryCount = 0;
 
         updateConnectionStatus(true);
         refreshData();
@@ -808,43 +528,6 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
     private void resetAutoConnectAttempts() {
         autoConnectAttemptCount = 0;
         lastAutoConnectAttempt = 0;
-        connectionRetryCount = 0;
-    }
-
-    private void loadDetailedStatus() {
-        networkManager.getPidStatus(new Callback<ApiService.PidStatusResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.PidStatusResponse> call,
-                                   Response<ApiService.PidStatusResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiService.PidStatusResponse pidStatus = response.body();
-                    updatePidCard(pidStatus);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiService.PidStatusResponse> call, Throwable t) {
-                // Hata durumunda mevcut gösterimi koru
-            }
-        });
-    }
-
-    private void updatePidCard(ApiService.PidStatusResponse status) {
-        tvPidMode.setText(status.getModeString());
-
-        if (status.isActive()) {
-            tvPidMode.setTextColor(getColor(R.color.success));
-            tvPidValues.setText(String.format(
-                    "Kp: %.2f Ki: %.2f Kd: %.2f\nHata: %.2f°C Çıkış: %.1f%%",
-                    status.getKp(), status.getKi(), status.getKd(),
-                    status.getError(), status.getOutput()
-            ));
-        } else {
-            tvPidMode.setTextColor(getColor(R.color.inactive));
-            tvPidValues.setText(String.format("Kp: %.2f\nKi: %.2f\nKd: %.2f",
-                    status.getKp(), status.getKi(), status.getKd()
-            ));
-        }
     }
 
     private class WifiStateReceiver extends BroadcastReceiver {
@@ -888,41 +571,6 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
         }
     }
 
-    @Override
-    public void onDeviceFound(String ipAddress, int port) {
-        runOnUiThread(() -> {
-            Log.d(TAG, "Cihaz bulundu: " + ipAddress + ":" + port);
-
-            prefsManager.saveDeviceIp(ipAddress);
-            prefsManager.saveDevicePort(port);
-            networkManager.resetConnection();
-
-            isSystemVerified = true;
-            isConnected = true;
-            isDiscovering.set(false);
-            connectionRetryCount = 0;
-
-            updateConnectionStatus(true, "Cihaz bulundu: " + ipAddress);
-            refreshData();
-        });
-    }
-
-    @Override
-    public void onDiscoveryComplete() {
-        runOnUiThread(() -> {
-            isDiscovering.set(false);
-            Log.d(TAG, "Cihaz keşfi tamamlandı");
-        });
-    }
-
-    @Override
-    public void onError(String error) {
-        runOnUiThread(() -> {
-            isDiscovering.set(false);
-            Log.e(TAG, "Discovery hatası: " + error);
-        });
-    }
-
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
@@ -945,20 +593,24 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
     protected void onResume() {
         super.onResume();
 
+        // Ekran açılınca cihaz duyuruları ilk cihaz bulunana kadar dinlenir; mDNS önbelleği bağlantı anında hazır olur
+        MdnsResolver.getInstance(this).start();
+        startPeriodicUpdates();
+        startFleetMonitoring();
+
         if (!isConnected) {
             attemptConnection();
         } else {
             refreshData();
         }
-
-        updateHandler.removeCallbacks(updateRunnable);
-        updateHandler.post(updateRunnable);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        updateHandler.removeCallbacks(updateRunnable);
+        stopPeriodicUpdates();
+        stopFleetMonitoring();
+        MdnsResolver.getInstance(this).stop();
     }
 
     @Override
@@ -982,12 +634,12 @@ public class MainActivity extends AppCompatActivity implements NetworkDiscoveryM
             autoConnectTimer = null;
         }
 
-        if (updateHandler != null && updateRunnable != null) {
-            updateHandler.removeCallbacks(updateRunnable);
+        if (connectionRacer != null) {
+            connectionRacer.shutdown();
         }
 
         if (discoveryManager != null) {
-            discoveryManager.stopDiscovery();
+            discoveryManager.shutdown();
         }
     }
 }
\ No newline at end of file
@@ -255,34 +255,17 @@ public class CalibrationSettingsActivity extends AppCompatActivity {
     private void resetAllCalibration() {
         showProgressDialog("Kalibrasyon sıfırlanıyor...");
 
-        // Reset sensor 1
-        networkManager.setCalibration(1, 0.0f, 0.0f, new Callback<ResponseBody>() {
+        // İki sensör tek istekte sıfırlanır
+        networkManager.updateAllCalibrationSettings(0.0f, 0.0f, 0.0f, 0.0f, new Callback<ResponseBody>() {
             @Override
             public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
-                if (response.isSuccessful()) {
-                    // Reset sensor 2
-                    networkManager.setCalibration(2, 0.0f, 0.0f, new Callback<ResponseBody>() {
-                        @Override
-                        public void onResponse(Call<ResponseBody> call2, Response<ResponseBody> response2) {
-                            hideProgressDialog();
-
-                            if (response2.isSuccessful()) {
-                                showSuccess("Tüm kalibrasyonlar sıfırlandı");
-                                loadCurrentValues();
-                            } else {
-                                showError("Sensör 2 kalibrasyonu sıfırlanamadı");
-                            }
-                        }
+                hideProgressDialog();
 
-                        @Override
-                        public void onFailure(Call<ResponseBody> call2, Throwable t) {
-                            hideProgressDialog();
-                            showError("Bağlantı hatası: " + t.getMessage());
-                        }
-                    });
+                if (response.isSuccessful()) {
+                    showSuccess("Tüm kalibrasyonlar sıfırlandı");
+                    loadCurrentValues();
                 } else {
-                    hideProgressDialog();
-                    showError("Sensör 1 kalibrasyonu sıfırlanamadı");
+                    showError("Kalibrasyonlar sıfırlanamadı");
                 }
             }
 
@@ -8,7 +8,6 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
-import android.os.Handler;
 import android.util.Log;
 
 import androidx.appcompat.app.AlertDialog;
@@ -18,7 +17,11 @@ import androidx.appcompat.widget.Toolbar;
 import com.kulucka.mkv5.R;
 import com.kulucka.mkv5.models.DeviceStatus;
 import com.kulucka.mkv5.network.ApiService;
+import com.kulucka.mkv5.network.CommandBatcher;
 import com.kulucka.mkv5.network.NetworkManager;
+import com.kulucka.mkv5.network.StatusSnapshot;
+import com.kulucka.mkv5.network.StatusStream;
+import com.kulucka.mkv5.utils.Constants;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -34,8 +37,6 @@ public class MotorSettingsActivity extends AppCompatActivity {
     private NetworkManager networkManager;
     private ProgressDialog progressDialog;
     private boolean isMotorRunning = false;
-    private Handler motorStatusHandler = new Handler();
-    private Runnable motorStatusRunnable;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,22 +52,23 @@ public class MotorSettingsActivity extends AppCompatActivity {
         loadCurrentValues();
     }
 
-    private void loadMotorStatus() {
-        networkManager.getMotorStatus(new Callback<ApiService.MotorStatusResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.MotorStatusResponse> call,
-                                   Response<ApiService.MotorStatusResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    updateMotorStatusUI(response.body());
-                }
+    // Motor durumu ortak durum akışından gelir, ayrı sorgu döngüsü yok
+    private final StatusStream.StatusListener motorStatusListener = new StatusStream.StatusListener() {
+        @Override
+        public void onStatusSnapshot(StatusSnapshot snapshot) {
+            if (snapshot.getMotorStatus() != null) {
+                updateMotorStatusUI(snapshot.getMotorStatus());
+            } else {
+                // Eski firmware: complete yanıtı yok, ana status verisini kullan
+                updateMotorState(snapshot.getDeviceStatus());
             }
+        }
 
-            @Override
-            public void onFailure(Call<ApiService.MotorStatusResponse> call, Throwable t) {
-                Log.e(TAG, "Motor status yükleme hatası: " + t.getMessage());
-            }
-        });
-    }
+        @Override
+        public void onStatusError(Throwable t) {
+            Log.e(TAG, "Motor status yükleme hatası: " + t.getMessage());
+        }
+    };
 
     private void updateMotorStatusUI(ApiService.MotorStatusResponse status) {
         isMotorRunning = status.isRunning();
@@ -103,12 +105,14 @@ public class MotorSettingsActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        loadCurrentValues(); // Sadece bir kez yükle
+        loadCurrentValues(); // Form alanları için bir kez yükle
+        networkManager.subscribeStatusFixed(motorStatusListener, Constants.MOTOR_STATUS_POLL_INTERVAL);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
+        networkManager.unsubscribeStatus(motorStatusListener);
     }
 
     private void setupToolbar() {
@@ -162,15 +166,20 @@ public class MotorSettingsActivity extends AppCompatActivity {
 
     private void updateUI(DeviceStatus status) {
         // Sadece ana status verisini kullan
+        etWaitTime.setText(String.valueOf(status.getMotorWaitTime()));
+        etRunTime.setText(String.valueOf(status.getMotorRunTime()));
+
+        updateMotorState(status);
+    }
+
+    // Periyodik güncellemede input alanlarına dokunulmaz
+    private void updateMotorState(DeviceStatus status) {
         tvCurrentWaitTime.setText(status.getMotorWaitTime() + " dakika");
         tvCurrentRunTime.setText(status.getMotorRunTime() + " saniye");
 
         isMotorRunning = status.isMotorState();
         btnTestMotor.setEnabled(!isMotorRunning);
 
-        etWaitTime.setText(String.valueOf(status.getMotorWaitTime()));
-        etRunTime.setText(String.valueOf(status.getMotorRunTime()));
-
         if (isMotorRunning) {
             tvMotorStatus.setText("Motor şu anda AÇIK");
             tvMotorStatus.setTextColor(getColor(R.color.success));
@@ -306,13 +315,15 @@ public class MotorSettingsActivity extends AppCompatActivity {
 
             showProgressDialog("Ayarlar kaydediliyor...");
 
+            // Kayıt (saveSystem) ayar yazmasının ardından NetworkManager tarafından yapılır
             networkManager.setMotorSettings(waitTime, runTime, new Callback<ResponseBody>() {
                 @Override
                 public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                    hideProgressDialog();
                     if (response.isSuccessful()) {
-                        saveSystemState();
+                        showSuccess("Motor ayarları güncellendi ve kaydedildi");
+                        loadCurrentValues();
                     } else {
-                        hideProgressDialog();
                         showError("Ayarlar güncellenemedi");
                     }
                 }
@@ -320,6 +331,12 @@ public class MotorSettingsActivity extends AppCompatActivity {
                 @Override
                 public void onFailure(Call<ResponseBody> call, Throwable t) {
                     hideProgressDialog();
+                    if (t instanceof CommandBatcher.SaveFailedException) {
+                        // Ayar cihazda geçerli, yalnızca kalıcı kayıt yapılamadı
+                        showError(t.getMessage());
+                        loadCurrentValues();
+                        return;
+                    }
                     showError("Bağlantı hatası: " + t.getMessage());
                 }
             });
@@ -329,31 +346,6 @@ public class MotorSettingsActivity extends AppCompatActivity {
         }
     }
 
-    private void saveSystemState() {
-        networkManager.saveSystem(new Callback<ApiService.SystemSaveResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.SystemSaveResponse> call,
-                                   Response<ApiService.SystemSaveResponse> response) {
-                hideProgressDialog();
-
-                if (response.isSuccessful()) {
-                    showSuccess("Motor ayarları güncellendi ve kaydedildi");
-                    loadCurrentValues();
-                } else {
-                    showSuccess("Motor ayarları güncellendi");
-                    loadCurrentValues();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiService.SystemSaveResponse> call, Throwable t) {
-                hideProgressDialog();
-                showSuccess("Motor ayarları güncellendi");
-                loadCurrentValues();
-            }
-        });
-    }
-
     private void showProgressDialog(String message) {
         if (progressDialog == null) {
             progressDialog = new ProgressDialog(this);
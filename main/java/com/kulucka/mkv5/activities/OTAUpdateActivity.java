@@ -22,12 +22,6 @@ import com.kulucka.mkv5.R;
 import com.kulucka.mkv5.network.ApiService;
 import com.kulucka.mkv5.network.NetworkManager;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.security.MessageDigest;
-
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -46,7 +40,10 @@ public class OTAUpdateActivity extends AppCompatActivity {
     private Button btnStartUpdate;
 
     private NetworkManager networkManager;
-    private File selectedFile;
+    // Seçilen firmware kopyalanmaz; yükleme sırasında doğrudan URI'den okunur
+    private Uri selectedUri;
+    private String selectedFileName;
+    private long selectedFileSize = -1;
     private ProgressDialog progressDialog;
     private Handler progressHandler;
     private Runnable progressRunnable;
@@ -146,32 +143,18 @@ public class OTAUpdateActivity extends AppCompatActivity {
 
     private void handleSelectedFile(Uri uri) {
         try {
-            // Dosya adını al
-            String fileName = getFileName(uri);
-
-            // Geçici dosya oluştur
-            selectedFile = new File(getCacheDir(), fileName);
-
-            // Dosyayı kopyala
-            InputStream inputStream = getContentResolver().openInputStream(uri);
-            OutputStream output = new FileOutputStream(selectedFile);
-
-            byte[] buffer = new byte[4096];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                output.write(buffer, 0, read);
-            }
-
-            output.flush();
-            output.close();
-            inputStream.close();
+            // Sadece ad ve boyut sorgulanır, içerik yüklemede tek seferde okunur
+            selectedUri = uri;
+            selectedFileName = getFileName(uri);
+            selectedFileSize = getFileSize(uri);
 
             // UI güncelle
-            tvSelectedFile.setText("Seçilen: " + fileName +
-                    "\nBoyut: " + formatBytes(selectedFile.length()));
+            tvSelectedFile.setText("Seçilen: " + selectedFileName +
+                    "\nBoyut: " + (selectedFileSize >= 0 ? formatBytes(selectedFileSize) : "bilinmiyor"));
             btnStartUpdate.setEnabled(true);
 
         } catch (Exception e) {
+            selectedUri = null;
             showError("Dosya okuma hatası: " + e.getMessage());
             Log.e(TAG, "File handling error", e);
         }
@@ -179,7 +162,7 @@ public class OTAUpdateActivity extends AppCompatActivity {
 
     private String getFileName(Uri uri) {
         String result = null;
-        if (uri.getScheme().equals("content")) {
+        if ("content".equals(uri.getScheme())) {
             Cursor cursor = getContentResolver().query(uri, null, null, null, null);
             try {
                 if (cursor != null && cursor.moveToFirst()) {
@@ -204,8 +187,24 @@ public class OTAUpdateActivity extends AppCompatActivity {
         return result;
     }
 
+    // Sağlayıcı boyut bildirmezse -1
+    private long getFileSize(Uri uri) {
+        Cursor cursor = getContentResolver().query(uri,
+                new String[]{OpenableColumns.SIZE}, null, null, null);
+        try {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return -1;
+    }
+
     private void startUpdate() {
-        if (selectedFile == null || !selectedFile.exists()) {
+        if (selectedUri == null) {
             showError("Lütfen firmware dosyası seçin");
             return;
         }
@@ -224,11 +223,12 @@ public class OTAUpdateActivity extends AppCompatActivity {
         isUpdating = true;
         showProgressDialog("Güncelleme hazırlanıyor...");
 
-        // MD5 checksum hesapla
-        String md5 = calculateMD5(selectedFile);
-
-        // Güncellemeyi başlat
-        networkManager.uploadFirmware(selectedFile, md5, new Callback<ResponseBody>() {
+        // Güncellemeyi başlat; dosya bir kez okunur, MD5 aynı okumada hesaplanıp sona eklenir
+        networkManager.uploadFirmware(selectedUri, selectedFileName, selectedFileSize,
+                (written, total) -> updateProgressDialog(
+                        "Yükleniyor... " + formatBytes(written) + " / " + formatBytes(total),
+                        total > 0 ? (int) (written * 100 / total) : 0),
+                new Callback<ResponseBody>() {
             @Override
             public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
                 if (response.isSuccessful()) {
@@ -326,31 +326,6 @@ public class OTAUpdateActivity extends AppCompatActivity {
                 .show();
     }
 
-    private String calculateMD5(File file) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            InputStream is = new java.io.FileInputStream(file);
-            byte[] buffer = new byte[8192];
-            int read;
-
-            while ((read = is.read(buffer)) > 0) {
-                md.update(buffer, 0, read);
-            }
-            is.close();
-
-            byte[] md5sum = md.digest();
-            StringBuilder result = new StringBuilder();
-            for (byte b : md5sum) {
-                result.append(String.format("%02x", b));
-            }
-
-            return result.toString();
-        } catch (Exception e) {
-            Log.e(TAG, "MD5 calculation error", e);
-            return "";
-        }
-    }
-
     private String formatBytes(long bytes) {
         if (bytes < 1024) return bytes + " B";
         if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
@@ -406,10 +381,5 @@ public class OTAUpdateActivity extends AppCompatActivity {
         if (progressHandler != null && progressRunnable != null) {
             progressHandler.removeCallbacks(progressRunnable);
         }
-
-        // Geçici dosyayı sil
-        if (selectedFile != null && selectedFile.exists()) {
-            selectedFile.delete();
-        }
     }
 }
\ No newline at end of file
@@ -11,7 +11,6 @@ import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.util.Log;
-import android.os.Handler;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
@@ -21,6 +20,8 @@ import androidx.cardview.widget.CardView;
 import com.kulucka.mkv5.R;
 import com.kulucka.mkv5.models.DeviceStatus;
 import com.kulucka.mkv5.network.NetworkManager;
+import com.kulucka.mkv5.network.StatusSnapshot;
+import com.kulucka.mkv5.network.StatusStream;
 import com.kulucka.mkv5.utils.Constants;
 import com.kulucka.mkv5.network.ApiService;
 
@@ -45,8 +46,6 @@ public class PidSettingsActivity extends AppCompatActivity {
     private NetworkManager networkManager;
     private ProgressDialog progressDialog;
     private DeviceStatus currentStatus;
-    private Handler statusUpdateHandler = new Handler();
-    private Runnable statusUpdateRunnable;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -63,38 +62,27 @@ public class PidSettingsActivity extends AppCompatActivity {
         loadCurrentValues();
     }
 
-    private void startPidStatusUpdates() {
-        statusUpdateRunnable = new Runnable() {
-            @Override
-            public void run() {
-                loadPidStatus();
-                statusUpdateHandler.postDelayed(this, 2000); // Her 2 saniyede bir güncelle
+    // PID durumu ortak durum akışından gelir, ayrı sorgu döngüsü yok
+    private final StatusStream.StatusListener pidStatusListener = new StatusStream.StatusListener() {
+        @Override
+        public void onStatusSnapshot(StatusSnapshot snapshot) {
+            if (snapshot.getPidStatus() != null) {
+                updatePidStatusUI(snapshot.getPidStatus());
             }
-        };
-        statusUpdateHandler.post(statusUpdateRunnable);
-    }
+        }
 
-    private void stopPidStatusUpdates() {
-        if (statusUpdateHandler != null && statusUpdateRunnable != null) {
-            statusUpdateHandler.removeCallbacks(statusUpdateRunnable);
+        @Override
+        public void onStatusError(Throwable t) {
+            Log.e(TAG, "PID status yükleme hatası: " + t.getMessage());
         }
-    }
+    };
 
-    private void loadPidStatus() {
-        networkManager.getPidStatus(new Callback<ApiService.PidStatusResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.PidStatusResponse> call,
-                                   Response<ApiService.PidStatusResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    updatePidStatusUI(response.body());
-                }
-            }
+    private void startPidStatusUpdates() {
+        networkManager.subscribeStatusFixed(pidStatusListener, Constants.PID_STATUS_POLL_INTERVAL);
+    }
 
-            @Override
-            public void onFailure(Call<ApiService.PidStatusResponse> call, Throwable t) {
-                Log.e(TAG, "PID status yükleme hatası: " + t.getMessage());
-            }
-        });
+    private void stopPidStatusUpdates() {
+        networkManager.unsubscribeStatus(pidStatusListener);
     }
 
     private void updatePidStatusUI(ApiService.PidStatusResponse status) {
@@ -288,14 +276,14 @@ public class PidSettingsActivity extends AppCompatActivity {
 
             showProgressDialog("Parametreler kaydediliyor...");
 
-            // NetworkManager üzerinden direkt olarak çağır
+            // Kayıt (saveSystem) parametre yazmasının ardından NetworkManager tarafından yapılır
             networkManager.setPidParameters(kp, ki, kd, new Callback<ResponseBody>() {
                 @Override
                 public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
                     hideProgressDialog();
                     if (response.isSuccessful()) {
                         showSuccess("PID parametreleri güncellendi");
-                        saveSystemState();
+                        loadCurrentValues();
                     } else {
                         showError("Parametreler güncellenemedi");
                     }
@@ -313,25 +301,6 @@ public class PidSettingsActivity extends AppCompatActivity {
         }
     }
 
-    private void saveSystemState() {
-        networkManager.saveSystem(new Callback<ApiService.SystemSaveResponse>() {
-            @Override
-            public void onResponse(Call<ApiService.SystemSaveResponse> call,
-                                   Response<ApiService.SystemSaveResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Sistem durumu kaydedildi");
-                }
-                loadCurrentValues();
-            }
-
-            @Override
-            public void onFailure(Call<ApiService.SystemSaveResponse> call, Throwable t) {
-                Log.e(TAG, "Sistem kaydetme hatası: " + t.getMessage());
-                loadCurrentValues();
-            }
-        });
-    }
-
     private void startPid() {
         int mode = getSelectedMode();
 
@@ -23,6 +23,7 @@ import com.kulucka.mkv5.R;
 import com.kulucka.mkv5.adapters.WifiNetworkAdapter;
 import com.kulucka.mkv5.models.WifiNetwork;
 import com.kulucka.mkv5.network.ApiService;
+import com.kulucka.mkv5.network.MdnsResolver;
 import com.kulucka.mkv5.network.NetworkManager;
 import com.kulucka.mkv5.utils.Constants;
 import com.kulucka.mkv5.utils.SharedPreferencesManager;
@@ -32,7 +33,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.net.InetAddress;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -500,27 +500,19 @@ public class WifiSettingsActivity extends AppCompatActivity {
         updateProgressDialog("mDNS adresi kontrol ediliyor...");
 
         new Thread(() -> {
-            try {
-                // mDNS hostname'i IP adresine çözümle
-                InetAddress address = InetAddress.getByName(Constants.MDNS_HOSTNAME);
-                String resolvedIP = address.getHostAddress();
-
-                if (resolvedIP != null && !resolvedIP.isEmpty()) {
-                    runOnUiThread(() -> {
-                        prefsManager.saveDeviceIp(resolvedIP);
-                        networkManager.resetConnection();
-                        verifySystemStatus();
-                    });
-                } else {
-                    runOnUiThread(() -> {
-                        // mDNS çözümlenemedi, doğrudan sistem durumunu kontrol et
-                        verifySystemStatus();
-                    });
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "mDNS çözümleme hatası: " + e.getMessage());
+            // mDNS hostname'i IP adresine çözümle; sistem çözümleyicisi .local adlarını çoğu zaman çözmez
+            String resolvedIP = MdnsResolver.getInstance(this).resolveHost(
+                    Constants.MDNS_HOSTNAME, Constants.MDNS_RESOLUTION_TIMEOUT);
+
+            if (resolvedIP != null) {
+                runOnUiThread(() -> {
+                    prefsManager.saveDeviceIp(resolvedIP);
+                    networkManager.resetConnection();
+                    verifySystemStatus();
+                });
+            } else {
                 runOnUiThread(() -> {
-                    // mDNS başarısız, normal doğrulama yap
+                    // mDNS çözümlenemedi, doğrudan sistem durumunu kontrol et
                     verifySystemStatus();
                 });
             }
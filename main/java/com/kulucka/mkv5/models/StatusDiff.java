@@ -0,0 +1,188 @@
+package com.kulucka.mkv5.models;
+
+import java.util.ArrayDeque;
+
+/**
+ * Art arda gelen iki DeviceStatus'u ekranda gösterildikleri hassasiyette karşılaştırır
+ * ve değişen görünüm gruplarını bit maskesi olarak döndürür.
+ * Örneğin sıcaklık %.1f ile gösterildiği için 37.51 -> 37.54 değişim sayılmaz.
+ * Her karşılaştırmada değişmeyen gruplar "atlanan güncelleme" olarak sayılır.
+ * Ekranlar kendi örneğini tutar; ilk karşılaştırma ve reset() sonrası tüm gruplar değişmiş sayılır.
+ */
+public final class StatusDiff {
+    public static final int TEMPERATURE = 1;
+    public static final int TARGET_TEMP = 1 << 1;
+    public static final int HEATER = 1 << 2;
+    public static final int HUMIDITY = 1 << 3;
+    public static final int TARGET_HUMID = 1 << 4;
+    public static final int HUMIDIFIER = 1 << 5;
+    public static final int INCUBATION_TYPE = 1 << 6;
+    public static final int DAY = 1 << 7;
+    public static final int INCUBATION_STATE = 1 << 8;
+    public static final int MOTOR_STATE = 1 << 9;
+    public static final int MOTOR_TIMING = 1 << 10;
+    public static final int PID_MODE = 1 << 11;
+    public static final int PID_VALUES = 1 << 12;
+    public static final int ALARM = 1 << 13;
+    public static final int LAST_SAVE = 1 << 14;
+    public static final int RELIABILITY = 1 << 15;
+
+    private static final int GROUP_COUNT = 16;
+    public static final int ALL = (1 << GROUP_COUNT) - 1;
+
+    private static final long WINDOW_MS = 60000;
+
+    private DeviceStatus previous;
+    private long totalAvoided = 0;
+
+    // Son bir dakikadaki (saniye, o saniyede atlanan grup sayısı) kayıtları; en fazla 60 giriş
+    private final ArrayDeque<long[]> avoidedWindow = new ArrayDeque<>();
+
+    /**
+     * Önceki duruma göre değişen grupları döndürür ve current'ı yeni referans yapar.
+     * Dönen maske 0 ise hiçbir görünüm güncellenmemelidir.
+     */
+    public synchronized int diff(DeviceStatus current) {
+        if (current == null) {
+            return 0;
+        }
+
+        DeviceStatus old = previous;
+        previous = current;
+        if (old == null) {
+            return ALL;
+        }
+
+        int changes = 0;
+        // Sensör arızalanıp düzeldiğinde değer aynı kalsa da "--" ile sayı arasında geçiş gerekir
+        if (isReadingValid(old) != isReadingValid(current)) changes |= TEMPERATURE | HUMIDITY;
+        if (tenths(old.getTemperature()) != tenths(current.getTemperature())) changes |= TEMPERATURE;
+        if (tenths(old.getTargetTemp()) != tenths(current.getTargetTemp())) changes |= TARGET_TEMP;
+        if (old.isHeaterState() != current.isHeaterState()) changes |= HEATER;
+
+        if (Math.round(old.getHumidity()) != Math.round(current.getHumidity())) changes |= HUMIDITY;
+        if (Math.round(old.getTargetHumid()) != Math.round(current.getTargetHumid())) changes |= TARGET_HUMID;
+        if (old.isHumidifierState() != current.isHumidifierState()) changes |= HUMIDIFIER;
+
+        if (!equals(old.getIncubationType(), current.getIncubationType())) changes |= INCUBATION_TYPE;
+        if (old.getDisplayDay() != current.getDisplayDay() ||
+                old.getTotalDays() != current.getTotalDays()) changes |= DAY;
+        if (old.isIncubationRunning() != current.isIncubationRunning() ||
+                old.isIncubationCompleted() != current.isIncubationCompleted() ||
+                old.getActualDay() != current.getActualDay()) changes |= INCUBATION_STATE;
+
+        if (motorState(old) != motorState(current)) changes |= MOTOR_STATE;
+        if (motorWaitTime(old) != motorWaitTime(current) ||
+                motorRunTime(old) != motorRunTime(current)) changes |= MOTOR_TIMING;
+
+        if (old.getPidMode() != current.getPidMode()) changes |= PID_MODE;
+        if (hundredths(old.getPidKp()) != hundredths(current.getPidKp()) ||
+                hundredths(old.getPidKi()) != hundredths(current.getPidKi()) ||
+                hundredths(old.getPidKd()) != hundredths(current.getPidKd())) changes |= PID_VALUES;
+
+        if (old.isAlarmEnabled() != current.isAlarmEnabled()) changes |= ALARM;
+
+        DeviceStatus.ReliabilityInfo oldReliability = old.getReliability();
+        DeviceStatus.ReliabilityInfo newReliability = current.getReliability();
+        if (oldReliability == null || newReliability == null) {
+            if (oldReliability != newReliability) changes |= LAST_SAVE | RELIABILITY;
+        } else {
+            if (lastSaveKey(oldReliability.getLastSave()) != lastSaveKey(newReliability.getLastSave())) {
+                changes |= LAST_SAVE;
+            }
+            if (oldReliability.getPendingChanges() != newReliability.getPendingChanges() ||
+                    oldReliability.isAutoSaveEnabled() != newReliability.isAutoSaveEnabled()) {
+                changes |= RELIABILITY;
+            }
+        }
+
+        recordAvoided(System.currentTimeMillis(), GROUP_COUNT - Integer.bitCount(changes));
+        return changes;
+    }
+
+    // Sayı olmayan değer ya da tüm sensörlerin çalışmadığını bildiren cihaz geçersiz okuma sayılır
+    public static boolean isReadingValid(DeviceStatus status) {
+        if (!isFinite(status.getTemperature()) || !isFinite(status.getHumidity())) {
+            return false;
+        }
+        DeviceStatus.SensorsInfo sensors = status.getSensors();
+        if (sensors == null || (sensors.getSensor1() == null && sensors.getSensor2() == null)) {
+            return true;
+        }
+        return (sensors.getSensor1() != null && sensors.getSensor1().isWorking()) ||
+                (sensors.getSensor2() != null && sensors.getSensor2().isWorking());
+    }
+
+    // Bir sonraki diff tüm grupları değişmiş döndürür (ör. görünümler sıfırlandığında)
+    public synchronized void reset() {
+        previous = null;
+    }
+
+    // Son bir dakikada güncellenmeden bırakılan görünüm grubu sayısı
+    public synchronized int getAvoidedUpdatesPerMinute() {
+        pruneWindow(System.currentTimeMillis());
+        int total = 0;
+        for (long[] entry : avoidedWindow) {
+            total += (int) entry[1];
+        }
+        return total;
+    }
+
+    public synchronized long getTotalAvoidedUpdates() {
+        return totalAvoided;
+    }
+
+    private void recordAvoided(long now, int avoided) {
+        totalAvoided += avoided;
+        long second = now / 1000 * 1000;
+        long[] last = avoidedWindow.peekLast();
+        if (last != null && last[0] == second) {
+            last[1] += avoided;
+        } else {
+            avoidedWindow.addLast(new long[]{second, avoided});
+        }
+        pruneWindow(now);
+    }
+
+    private void pruneWindow(long now) {
+        while (!avoidedWindow.isEmpty() && now - avoidedWindow.peekFirst()[0] > WINDOW_MS) {
+            avoidedWindow.removeFirst();
+        }
+    }
+
+    private static boolean isFinite(float value) {
+        return !Float.isNaN(value) && !Float.isInfinite(value);
+    }
+
+    private static int tenths(float value) {
+        return Math.round(value * 10);
+    }
+
+    private static int hundredths(float value) {
+        return Math.round(value * 100);
+    }
+
+    // "x saniye/dakika/saat önce" metni aynı kaldığı sürece değişim sayılmaz
+    private static long lastSaveKey(long seconds) {
+        if (seconds < 60) return seconds;
+        if (seconds < 3600) return 60 + seconds / 60;
+        return 3600 + seconds / 3600;
+    }
+
+    // Motor bilgisi iç nesnede varsa o, yoksa düz alanlar kullanılır (MainActivity ile aynı)
+    private static boolean motorState(DeviceStatus status) {
+        return status.getMotor() != null ? status.getMotor().isState() : status.isMotorState();
+    }
+
+    private static int motorWaitTime(DeviceStatus status) {
+        return status.getMotor() != null ? status.getMotor().getWaitTime() : status.getMotorWaitTime();
+    }
+
+    private static int motorRunTime(DeviceStatus status) {
+        return status.getMotor() != null ? status.getMotor().getRunTime() : status.getMotorRunTime();
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
\ No newline at end of file
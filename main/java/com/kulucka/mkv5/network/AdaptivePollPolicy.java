@@ -0,0 +1,104 @@
+package com.kulucka.mkv5.network;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+/**
+ * Durum sorgu aralığını makinenin durumuna göre ölçekler.
+ * Sıcaklık/nem hızlı değişirken, PID hatası büyükken, motor dönerken veya değerler alarm
+ * sınırlarına yaklaşmışken aralık kısalır (en fazla yarıya); değerler setpoint'te düz
+ * seyrederken uzar (en fazla 4 katına). Uzatma, en kötü sapma hızıyla alarm sınırına
+ * varış süresinin yarısını geçmez; böylece sakin dönemde de alarm gecikmesi sınırlı kalır.
+ */
+final class AdaptivePollPolicy {
+    private static final double MIN_FACTOR = Constants.ADAPTIVE_POLL_MIN_FACTOR;
+    private static final double MAX_FACTOR = Constants.ADAPTIVE_POLL_MAX_FACTOR;
+
+    // Değişim hızı (birim/dakika); sensör gürültüsü baskın çıkmasın diye en az
+    // ADAPTIVE_RATE_WINDOW aralıklı iki örnekten hesaplanır
+    private double tempRate;
+    private double humidRate;
+    private float referenceTemp;
+    private float referenceHumid;
+    private long referenceTime = -1;
+
+    private double factor = 1.0;
+    private long slowdownLimit = Long.MAX_VALUE;
+
+    void update(DeviceStatus status, long now) {
+        if (status == null) {
+            return;
+        }
+        updateRates(status, now);
+
+        double urgency = Math.max(
+                Math.abs(tempRate) / Constants.ADAPTIVE_TEMP_RATE_FAST,
+                Math.abs(humidRate) / Constants.ADAPTIVE_HUMID_RATE_FAST);
+        if (status.isPidActive()) {
+            urgency = Math.max(urgency, Math.abs(status.getPidError()) / Constants.ADAPTIVE_PID_ERROR_FAST);
+        }
+        if (status.isMotorState()) {
+            urgency = Math.max(urgency, 0.5);
+        }
+
+        slowdownLimit = Long.MAX_VALUE;
+        if (status.isAlarmEnabled()) {
+            float temp = status.getTemperature();
+            float humid = status.getHumidity();
+            float tempMargin = Math.min(temp - status.getTempLowAlarm(), status.getTempHighAlarm() - temp);
+            float humidMargin = Math.min(humid - status.getHumidLowAlarm(), status.getHumidHighAlarm() - humid);
+
+            // Sınıra NEAR mesafede en hızlı, iki katı mesafede etkisiz
+            urgency = Math.max(urgency, 2 - tempMargin / Constants.ADAPTIVE_TEMP_ALARM_NEAR);
+            urgency = Math.max(urgency, 2 - humidMargin / Constants.ADAPTIVE_HUMID_ALARM_NEAR);
+
+            long tempHorizon = (long) (Math.max(0, tempMargin) / Constants.ADAPTIVE_WORST_TEMP_DRIFT * 60000);
+            long humidHorizon = (long) (Math.max(0, humidMargin) / Constants.ADAPTIVE_WORST_HUMID_DRIFT * 60000);
+            slowdownLimit = Math.min(tempHorizon, humidHorizon) / 2;
+        }
+
+        // 0 -> en yavaş, 1 ve üzeri -> en hızlı; arası logaritmik geçiş
+        urgency = Math.max(0, Math.min(1, urgency));
+        factor = Math.exp(Math.log(MAX_FACTOR) * (1 - urgency) + Math.log(MIN_FACTOR) * urgency);
+    }
+
+    private void updateRates(DeviceStatus status, long now) {
+        if (referenceTime < 0) {
+            referenceTemp = status.getTemperature();
+            referenceHumid = status.getHumidity();
+            referenceTime = now;
+            return;
+        }
+        long elapsed = now - referenceTime;
+        if (elapsed < Constants.ADAPTIVE_RATE_WINDOW) {
+            return;
+        }
+        double minutes = elapsed / 60000.0;
+        tempRate = (status.getTemperature() - referenceTemp) / minutes;
+        humidRate = (status.getHumidity() - referenceHumid) / minutes;
+        referenceTemp = status.getTemperature();
+        referenceHumid = status.getHumidity();
+        referenceTime = now;
+    }
+
+    // Abonenin istediği aralığın güncel duruma göre ölçeklenmiş hali
+    long apply(long interval) {
+        long scaled = (long) (interval * factor);
+        if (scaled > interval) {
+            return Math.max(interval, Math.min(scaled, slowdownLimit));
+        }
+        return Math.max(Math.min(interval, Constants.ADAPTIVE_POLL_MIN_INTERVAL), scaled);
+    }
+
+    double getFactor() {
+        return factor;
+    }
+
+    void reset() {
+        referenceTime = -1;
+        tempRate = 0;
+        humidRate = 0;
+        factor = 1.0;
+        slowdownLimit = Long.MAX_VALUE;
+    }
+}
\ No newline at end of file
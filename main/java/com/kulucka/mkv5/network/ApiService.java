@@ -2,6 +2,7 @@ package com.kulucka.mkv5.network;
 
 import com.kulucka.mkv5.models.DeviceStatus;
 import com.kulucka.mkv5.models.WifiNetwork;
+import com.kulucka.mkv5.utils.Constants;
 
 import java.util.List;
 import java.util.Map;
@@ -15,11 +16,14 @@ import retrofit2.http.Header;
 import retrofit2.http.Multipart;
 import retrofit2.http.POST;
 import retrofit2.http.Part;
+import retrofit2.http.Url;
 
+// Timeout, yeniden deneme ve öncelik politikaları metod üzerindeki @EndpointPolicy ile tanımlanır
 public interface ApiService {
 
     // Temel cihaz durumu
     @GET("/api/status")
+    @EndpointPolicy(maxRetries = 1, idempotent = true)
     Call<DeviceStatus> getStatus();
 
     // Sıcaklık ve nem kontrolleri
@@ -34,6 +38,7 @@ public interface ApiService {
     Call<ResponseBody> setPidParameters(@Body Map<String, Object> params);
 
     @GET("/api/pid/status")
+    @EndpointPolicy(idempotent = true)
     Call<PidStatusResponse> getPidStatus();
 
     // Motor kontrolleri
@@ -41,9 +46,11 @@ public interface ApiService {
     Call<ResponseBody> setMotorSettings(@Body Map<String, Object> params);
 
     @POST("/api/motor/test")
+    @EndpointPolicy(connectTimeout = 10, readTimeout = Constants.MOTOR_TEST_TIMEOUT, writeTimeout = 10)
     Call<MotorTestResponse> testMotor(@Body Map<String, Object> params);
 
     @GET("/api/motor/status")
+    @EndpointPolicy(idempotent = true)
     Call<MotorStatusResponse> getMotorStatus();
 
     // Alarm ayarları
@@ -58,14 +65,24 @@ public interface ApiService {
     @POST("/api/incubation")
     Call<ResponseBody> setIncubationSettings(@Body Map<String, Object> params);
 
+    // Yukarıdaki ayar endpoint'lerine idempotency anahtarıyla yazma (CommandBatcher/CommandOutbox)
+    @POST
+    Call<ResponseBody> sendCommand(@Url String path,
+                                   @Header(Constants.HEADER_IDEMPOTENCY_KEY) String idempotencyKey,
+                                   @Body Map<String, Object> params);
+
     // WiFi işlemleri
     @GET("/api/wifi/networks")
+    @EndpointPolicy(connectTimeout = 15, readTimeout = 20, writeTimeout = 15, idempotent = true,
+            priority = PriorityCallAdapterFactory.PRIORITY_BACKGROUND)
     Call<WifiNetworksResponse> getWifiNetworks();
 
     @POST("/api/wifi/connect")
+    @EndpointPolicy(connectTimeout = 20, readTimeout = 25, writeTimeout = 20)
     Call<ResponseBody> connectToWifi(@Body Map<String, Object> params);
 
     @POST("/api/wifi/connect")
+    @EndpointPolicy(connectTimeout = 20, readTimeout = 25, writeTimeout = 20)
     Call<WifiModeChangeResponse> connectToWifiWithDetails(@Body Map<String, Object> params);
 
     @POST("/api/wifi/ap")
@@ -78,31 +95,47 @@ public interface ApiService {
     Call<ResponseBody> saveWifiSettings();
 
     @POST("/api/wifi/mode")
+    @EndpointPolicy(connectTimeout = 20, readTimeout = 25, writeTimeout = 20)
     Call<WifiModeChangeResponse> changeWifiMode(@Body Map<String, Object> params);
 
     @GET("/api/wifi/mode/status")
+    @EndpointPolicy(connectTimeout = 20, readTimeout = 25, writeTimeout = 20, idempotent = true)
     Call<WifiModeChangeStatusResponse> getWifiModeChangeStatus();
 
     @GET("/api/wifi/credentials")
+    @EndpointPolicy(connectTimeout = 5, readTimeout = 8, writeTimeout = 5, idempotent = true)
     Call<WifiCredentialsResponse> getWifiCredentials();
 
     // Sistem işlemleri
     @GET("/api/system/verify")
+    @EndpointPolicy(connectTimeout = 8, readTimeout = 10, writeTimeout = 8, idempotent = true)
     Call<SystemVerificationResponse> getSystemVerification();
 
+    // Bağlantı yarışında aday adresin doğrulanması; tam URL verilir, yarış kendi süresini yönettiği için kısa ve tekrarsız
+    @GET
+    @EndpointPolicy(connectTimeout = 3, readTimeout = 5, writeTimeout = 3,
+            priority = PriorityCallAdapterFactory.PRIORITY_USER)
+    Call<SystemVerificationResponse> verifySystemAt(@Url String url);
+
     @POST("/api/system/save")
+    @EndpointPolicy(connectTimeout = 5, readTimeout = Constants.SYSTEM_SAVE_TIMEOUT, writeTimeout = 5)
     Call<SystemSaveResponse> saveSystem();
 
     @GET("/api/system/health")
+    @EndpointPolicy(connectTimeout = 8, readTimeout = Constants.HEALTH_CHECK_TIMEOUT, writeTimeout = 8, idempotent = true)
     Call<SystemHealthResponse> getSystemHealth();
 
     @GET("/api/system/logs")
+    @EndpointPolicy(connectTimeout = 10, readTimeout = Constants.LOG_FETCH_TIMEOUT, writeTimeout = 10, idempotent = true,
+            priority = PriorityCallAdapterFactory.PRIORITY_BACKGROUND)
     Call<SystemLogsResponse> getSystemLogs();
 
     @POST("/api/system/action")
+    @EndpointPolicy(connectTimeout = 15, readTimeout = Constants.SYSTEM_ACTION_TIMEOUT, writeTimeout = 15)
     Call<ResponseBody> systemAction(@Body Map<String, Object> params);
 
     @GET("/api/status/complete")
+    @EndpointPolicy(maxRetries = 1, idempotent = true)
     Call<CompleteSystemStatusResponse> getCompleteSystemStatus();
 
     // Keşif ve test işlemleri
@@ -110,9 +143,11 @@ public interface ApiService {
     Call<DiscoveryResponse> getDiscoveryInfo();
 
     @GET("/api/ping")
+    @EndpointPolicy(maxRetries = 1, idempotent = true)
     Call<ResponseBody> ping();
 
     @POST("/api/network/test")
+    @EndpointPolicy(connectTimeout = 10, readTimeout = 15, writeTimeout = 10)
     Call<NetworkTestResponse> testNetworkConnection(@Body Map<String, Object> params);
 
     // Manuel kuluçka parametreleri toplu güncelleme
@@ -125,6 +160,7 @@ public interface ApiService {
 
     // RTC işlemleri
     @GET("/api/rtc/status")
+    @EndpointPolicy(idempotent = true)
     Call<RTCStatusResponse> getRTCStatus();
 
     @POST("/api/rtc/time")
@@ -139,14 +175,17 @@ public interface ApiService {
     @GET("/api/ota/info")
     Call<OTAInfoResponse> getOTAInfo();
 
-    // OTA güncelleme
+    // OTA güncelleme; X-MD5 başlığı eski firmware için, md5 parçası firmware'den sonra gelir
     @Multipart
     @POST("/api/ota/update")
+    // Yükleme sürerken ilerleme sorguları cevaplanabilsin diye sıraya girmez
+    @EndpointPolicy(connectTimeout = 30, readTimeout = 300, writeTimeout = 300, scheduled = false)
     Call<ResponseBody> uploadFirmware(@Part MultipartBody.Part file,
-                                      @Header("X-MD5") String md5);
+                                      @Part MultipartBody.Part checksum);
 
     // OTA ilerleme durumu
     @GET("/api/ota/progress")
+    @EndpointPolicy(connectTimeout = 3, readTimeout = 5, writeTimeout = 3, idempotent = true)
     Call<OTAProgressResponse> getOTAProgress();
 
     // OTA Response sınıfları
@@ -1035,6 +1074,7 @@ public interface ApiService {
         private WifiStatusResponse wifiStatus;
         private MotorStatusResponse motorStatus;
         private PidStatusResponse pidStatus;
+        private RTCStatusResponse rtcStatus;
 
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
@@ -1053,6 +1093,10 @@ public interface ApiService {
 
         public PidStatusResponse getPidStatus() { return pidStatus; }
         public void setPidStatus(PidStatusResponse pidStatus) { this.pidStatus = pidStatus; }
+
+        // Eski firmware'ler bu alanı göndermez
+        public RTCStatusResponse getRtcStatus() { return rtcStatus; }
+        public void setRtcStatus(RTCStatusResponse rtcStatus) { this.rtcStatus = rtcStatus; }
     }
 
     public static class WifiNetworksResponse {
@@ -0,0 +1,373 @@
+package com.kulucka.mkv5.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Ayar yazmalarını COMMAND_BATCH_WINDOW_MS boyunca toplar ve hedef endpoint'e göre birleştirir.
+ * Pencere dolunca her endpoint'e tek istek, ardından tek bir saveSystem gönderilir; aynı
+ * parametre pencerede birden fazla yazılırsa son değer gider. Çağıranın callback'i kendi
+ * endpoint yanıtıyla, kayıt tamamlandıktan sonra çağrılır. Yazma uygulandığı halde kayıt
+ * başarısız olursa çağıran bunu SaveFailedException ile öğrenir; gruptaki hiçbir yazma
+ * uygulanmadıysa kayıt gönderilmez ve kayıt bekleyenler WriteFailedException alır.
+ * Ağ yokken ya da istek cihaza ulaşamadığında yazma CommandOutbox'a alınır ve
+ * bağlantı gelince gönderilir; çağıran bunu QueuedException ile öğrenir.
+ * Tüm çağrılar ve bildirimler ana thread üzerinde yapılır.
+ */
+public class CommandBatcher {
+    private static final String TAG = "CommandBatcher";
+    private static final String QUEUED_MESSAGE = "Ağ bağlantısı yok, değişiklik bağlantı gelince gönderilecek";
+    private static final String SAVE_FAILED_MESSAGE = "Ayar uygulandı ancak kalıcı olarak kaydedilemedi";
+    private static final String WRITE_FAILED_MESSAGE = "Ayarlar yazılamadı, kayıt yapılmadı";
+
+    // Yazma cihaza uygulandı ama saveSystem başarısız oldu; cihaz yeniden başlarsa değer kaybolur
+    public static class SaveFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SaveFailedException(String message) {
+            super(message);
+        }
+    }
+
+    // Yazma gönderilmedi ya da gruptaki hiçbir yazma uygulanmadı; saveSystem gönderilmez
+    public static class WriteFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        WriteFailedException(String message) {
+            super(message);
+        }
+    }
+
+    enum Target {
+        TEMPERATURE("/api/temperature"),
+        HUMIDITY("/api/humidity"),
+        PID("/api/pid"),
+        MOTOR("/api/motor"),
+        ALARM("/api/alarm"),
+        CALIBRATION("/api/calibration"),
+        INCUBATION("/api/incubation");
+
+        final String path;
+
+        Target(String path) {
+            this.path = path;
+        }
+    }
+
+    // Parametre adı -> yazıldığı endpoint
+    private static final Map<String, Target> TARGETS = new HashMap<>();
+
+    static {
+        TARGETS.put("targetTemp", Target.TEMPERATURE);
+        TARGETS.put("targetHumid", Target.HUMIDITY);
+        for (String key : new String[]{"pidMode", "kp", "ki", "kd", "pidKp", "pidKi", "pidKd"}) {
+            TARGETS.put(key, Target.PID);
+        }
+        TARGETS.put("waitTime", Target.MOTOR);
+        TARGETS.put("runTime", Target.MOTOR);
+        for (String key : new String[]{"alarmEnabled", "tempLowAlarm", "tempHighAlarm",
+                "humidLowAlarm", "humidHighAlarm"}) {
+            TARGETS.put(key, Target.ALARM);
+        }
+        for (String key : new String[]{"tempCalibration1", "humidCalibration1",
+                "tempCalibration2", "humidCalibration2"}) {
+            TARGETS.put(key, Target.CALIBRATION);
+        }
+        for (String key : new String[]{"incubationType", "isIncubationRunning", "manualDevTemp",
+                "manualHatchTemp", "manualDevHumid", "manualHatchHumid", "manualDevDays",
+                "manualHatchDays"}) {
+            TARGETS.put(key, Target.INCUBATION);
+        }
+    }
+
+    // Bir çağıranın yazması ve dokunduğu endpoint'ler
+    private static class Write {
+        final Callback<ResponseBody> callback;
+        final Set<Target> targets = new LinkedHashSet<>();
+
+        Write(Callback<ResponseBody> callback) {
+            this.callback = callback;
+        }
+    }
+
+    private static class Batch {
+        final Map<Target, Map<String, Object>> params = new EnumMap<>(Target.class);
+        final List<Write> writes = new ArrayList<>();
+        final List<Callback<ApiService.SystemSaveResponse>> saveCallbacks = new ArrayList<>();
+        final Map<Target, Call<ResponseBody>> calls = new EnumMap<>(Target.class);
+        final Map<Target, Response<ResponseBody>> responses = new EnumMap<>(Target.class);
+        // Yanıt gövdeleri; aynı endpoint'e yazan her çağırana ayrı kopya verilir
+        final Map<Target, byte[]> bodies = new EnumMap<>(Target.class);
+        final Map<Target, Throwable> failures = new EnumMap<>(Target.class);
+        int remaining;
+        boolean anySuccess;
+        Throwable saveFailure;
+    }
+
+    private final CommandOutbox.DeviceSource deviceSource;
+    private final CommandOutbox outbox;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private Batch collecting;
+    private Batch sending;
+    private boolean flushPending = false;
+
+    private final Runnable flushRunnable = this::flush;
+
+    CommandBatcher(CommandOutbox.DeviceSource deviceSource, CommandOutbox outbox) {
+        this.deviceSource = deviceSource;
+        this.outbox = outbox;
+    }
+
+    /**
+     * Parametreleri sıradaki gruba ekler. Farklı endpoint'lere ait parametreler
+     * içerebilir; callback bunlardan başarısız olanın, yoksa ilkinin yanıtını alır.
+     */
+    public void write(Map<String, Object> parameters, Callback<ResponseBody> callback) {
+        Write write = new Write(callback);
+        Map<Target, Map<String, Object>> split = new EnumMap<>(Target.class);
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            Target target = TARGETS.get(entry.getKey());
+            if (target == null) {
+                Log.w(TAG, "Bilinmeyen parametre atlandı: " + entry.getKey());
+                continue;
+            }
+            Map<String, Object> params = split.get(target);
+            if (params == null) {
+                params = new HashMap<>();
+                split.put(target, params);
+            }
+            params.put(entry.getKey(), entry.getValue());
+            write.targets.add(target);
+        }
+
+        if (write.targets.isEmpty()) {
+            // Gönderilmeyen istek; çağıran yine de hangi yazmanın reddedildiğini görebilir
+            Call<ResponseBody> call = deviceSource.getService().sendCommand("/",
+                    CommandOutbox.newIdempotencyKey(), parameters);
+            callback.onFailure(call, new WriteFailedException("Geçerli parametre yok: " + parameters.keySet()));
+            return;
+        }
+
+        boolean opened = collecting == null;
+        if (opened) {
+            collecting = new Batch();
+        }
+        for (Map.Entry<Target, Map<String, Object>> entry : split.entrySet()) {
+            Map<String, Object> params = collecting.params.get(entry.getKey());
+            if (params == null) {
+                collecting.params.put(entry.getKey(), entry.getValue());
+            } else {
+                params.putAll(entry.getValue());
+            }
+        }
+        collecting.writes.add(write);
+
+        if (opened) {
+            handler.postDelayed(flushRunnable, Constants.COMMAND_BATCH_WINDOW_MS);
+        }
+    }
+
+    /**
+     * Bekleyen ya da gönderilmekte olan grup varsa kayıt onun saveSystem'ine eklenir,
+     * ayrıca bir kayıt isteği gönderilmez.
+     */
+    public void save(Callback<ApiService.SystemSaveResponse> callback) {
+        Batch batch = collecting != null ? collecting : sending;
+        if (batch != null) {
+            batch.saveCallbacks.add(callback);
+            return;
+        }
+        deviceSource.getService().saveSystem().enqueue(callback);
+    }
+
+    private void flush() {
+        if (collecting == null) {
+            return;
+        }
+        // Önceki grubun kaydı bitmeden yeni yazmalar gönderilmez
+        if (sending != null) {
+            flushPending = true;
+            return;
+        }
+
+        final Batch batch = collecting;
+        collecting = null;
+        sending = batch;
+        batch.remaining = batch.params.size();
+        Log.d(TAG, batch.writes.size() + " yazma " + batch.params.size() + " isteğe birleştirildi");
+
+        boolean online = outbox.isOnline();
+        ApiService service = deviceSource.getService();
+        for (Map.Entry<Target, Map<String, Object>> entry : batch.params.entrySet()) {
+            final Target target = entry.getKey();
+            final Map<String, Object> params = entry.getValue();
+            final String idempotencyKey = CommandOutbox.newIdempotencyKey();
+            Call<ResponseBody> call = service.sendCommand(target.path, idempotencyKey, params);
+            batch.calls.put(target, call);
+
+            if (!online) {
+                outbox.enqueue(target.path, params, idempotencyKey);
+                batch.failures.put(target, new CommandOutbox.QueuedException(QUEUED_MESSAGE));
+                onTargetDone(batch);
+                continue;
+            }
+
+            // Kuyrukta bekleyen eski değer bu yazmadan sonra gönderilip onu ezmesin
+            outbox.supersede(target.path, params.keySet());
+            call.enqueue(new Callback<ResponseBody>() {
+                @Override
+                public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                    try {
+                        batch.bodies.put(target, readBody(response));
+                    } catch (IOException e) {
+                        onFailure(call, e);
+                        return;
+                    }
+                    batch.responses.put(target, response);
+                    if (response.isSuccessful()) {
+                        batch.anySuccess = true;
+                    }
+                    onTargetDone(batch);
+                }
+
+                @Override
+                public void onFailure(Call<ResponseBody> call, Throwable t) {
+                    Log.e(TAG, target + " yazılamadı: " + t.getMessage());
+                    if (t instanceof IOException && !call.isCanceled()) {
+                        outbox.enqueue(target.path, params, idempotencyKey);
+                        t = new CommandOutbox.QueuedException(QUEUED_MESSAGE);
+                    }
+                    batch.failures.put(target, t);
+                    onTargetDone(batch);
+                }
+            });
+        }
+    }
+
+    private void onTargetDone(final Batch batch) {
+        if (--batch.remaining > 0) {
+            return;
+        }
+        if (!batch.anySuccess) {
+            // Kayıt isteği gönderilmez; bekleyen kayıt çağıranlarına gönderilmemiş çağrı verilir
+            complete(batch, deviceSource.getService().saveSystem(),
+                    new WriteFailedException(WRITE_FAILED_MESSAGE));
+            return;
+        }
+
+        // Cihaz yanıt veriyor; önceden kuyruğa alınmış yazmalar da gönderilebilir
+        outbox.onDeviceReachable();
+        deviceSource.getService().saveSystem().enqueue(new Callback<ApiService.SystemSaveResponse>() {
+            @Override
+            public void onResponse(Call<ApiService.SystemSaveResponse> call,
+                                   Response<ApiService.SystemSaveResponse> response) {
+                if (!response.isSuccessful()) {
+                    Log.w(TAG, "Sistem kaydı başarısız - HTTP: " + response.code());
+                    batch.saveFailure = new SaveFailedException(SAVE_FAILED_MESSAGE);
+                }
+                complete(batch, call, null);
+                for (Callback<ApiService.SystemSaveResponse> callback : batch.saveCallbacks) {
+                    callback.onResponse(call, response);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiService.SystemSaveResponse> call, Throwable t) {
+                Log.e(TAG, "Sistem kaydı hatası: " + t.getMessage());
+                batch.saveFailure = new SaveFailedException(SAVE_FAILED_MESSAGE);
+                complete(batch, call, null);
+                for (Callback<ApiService.SystemSaveResponse> callback : batch.saveCallbacks) {
+                    callback.onFailure(call, t);
+                }
+            }
+        });
+    }
+
+    // Yazma sonuçlarını çağıranlara iletir; saveError verilmişse kayıt hiç gönderilmemiştir
+    private void complete(Batch batch, Call<ApiService.SystemSaveResponse> saveCall, Throwable saveError) {
+        sending = null;
+
+        for (Write write : batch.writes) {
+            deliver(batch, write);
+        }
+        if (saveError != null) {
+            for (Callback<ApiService.SystemSaveResponse> callback : batch.saveCallbacks) {
+                callback.onFailure(saveCall, saveError);
+            }
+        }
+
+        if (flushPending) {
+            flushPending = false;
+            flush();
+        }
+    }
+
+    private void deliver(Batch batch, Write write) {
+        Target first = null;
+        for (Target target : write.targets) {
+            if (first == null) {
+                first = target;
+            }
+            Throwable failure = batch.failures.get(target);
+            if (failure != null) {
+                write.callback.onFailure(batch.calls.get(target), failure);
+                return;
+            }
+            if (!batch.responses.get(target).isSuccessful()) {
+                write.callback.onResponse(batch.calls.get(target), responseFor(batch, target));
+                return;
+            }
+        }
+        if (batch.saveFailure != null) {
+            write.callback.onFailure(batch.calls.get(first), batch.saveFailure);
+            return;
+        }
+        write.callback.onResponse(batch.calls.get(first), responseFor(batch, first));
+    }
+
+    // Retrofit gövdeyi zaten belleğe almıştır; okumak ağ beklemez
+    private static byte[] readBody(Response<ResponseBody> response) throws IOException {
+        ResponseBody body = response.isSuccessful() ? response.body() : response.errorBody();
+        if (body == null) {
+            return null;
+        }
+        try {
+            return body.bytes();
+        } finally {
+            body.close();
+        }
+    }
+
+    // Gövde tek seferlik akış olduğundan her çağırana yeni bir yanıt nesnesi verilir
+    private static Response<ResponseBody> responseFor(Batch batch, Target target) {
+        Response<ResponseBody> response = batch.responses.get(target);
+        byte[] bytes = batch.bodies.get(target);
+        if (bytes == null) {
+            return response;
+        }
+        ResponseBody source = response.isSuccessful() ? response.body() : response.errorBody();
+        MediaType contentType = source != null ? source.contentType() : null;
+        ResponseBody copy = ResponseBody.create(contentType, bytes);
+        return response.isSuccessful() ? Response.success(copy, response.raw())
+                : Response.<ResponseBody>error(copy, response.raw());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.kulucka.mkv5.utils.Constants;
+import com.kulucka.mkv5.utils.SharedPreferencesManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Bağlantı yokken gönderilemeyen ayar yazmalarının kalıcı, sıralı kuyruğu.
+ * Her endpoint için cihaz başına tek kayıt tutulur; aynı endpoint'e yeni yazma gelirse
+ * parametreler birleştirilir ve eski değerler gönderilmez. Bağlantı geri geldiğinde
+ * (WiFi ağı ya da cihazdan başarılı yanıt) rastgele bir beklemeden sonra kayıtlar
+ * sırayla, tek tek gönderilir ve sonunda tek bir saveSystem yapılır.
+ * Her kayıt bir idempotency anahtarıyla gönderilir; yanıtı kaybolan yazma tekrar
+ * gönderildiğinde cihaz bunu aynı komut olarak tanıyabilir.
+ * Tüm çağrılar ana thread üzerinde yapılır.
+ */
+public class CommandOutbox {
+    private static final String TAG = "CommandOutbox";
+
+    // Komutların gönderileceği cihaz; adres değişince NetworkManager yenisini verir
+    interface DeviceSource {
+        ApiService getService();
+        String getBaseUrl();
+        boolean isNetworkAvailable();
+    }
+
+    // Kuyruğa alınan yazmanın çağırana bildirildiği hata
+    public static class QueuedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        QueuedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Entry {
+        String baseUrl;
+        String path;
+        Map<String, JsonElement> params;
+        String idempotencyKey;
+        long createdAt;
+        int attempts;
+    }
+
+    private final Context context;
+    private final DeviceSource deviceSource;
+    private final SharedPreferencesManager prefsManager;
+    private final Gson gson = RetrofitClient.getGson();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+
+    // baseUrl + path -> kayıt; ekleme sırası gönderim sırasıdır
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private boolean replaying = false;
+    private boolean replayScheduled = false;
+    // Gönderilen komutlar henüz kalıcı belleğe kaydedilmedi
+    private boolean savePending = false;
+    private int failedReplays = 0;
+    // Yalnızca bekleyen kayıt varken kayıtlı tutulur
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    private final Runnable replayRunnable = () -> {
+        replayScheduled = false;
+        replay();
+    };
+
+    CommandOutbox(Context context, DeviceSource deviceSource) {
+        this.context = context.getApplicationContext();
+        this.deviceSource = deviceSource;
+        this.prefsManager = SharedPreferencesManager.getInstance(context);
+        load();
+        updateNetworkCallback();
+    }
+
+    // Ayar yazması için yeni idempotency anahtarı
+    static String newIdempotencyKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    public boolean isOnline() {
+        return deviceSource.isNetworkAvailable();
+    }
+
+    // Bekleyen komut sayısı (güncel cihaz için)
+    public int getPendingCount() {
+        int count = 0;
+        String baseUrl = deviceSource.getBaseUrl();
+        for (Entry entry : entries.values()) {
+            if (entry.baseUrl.equals(baseUrl)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gönderilemeyen yazmayı kuyruğa ekler. Aynı endpoint için bekleyen kayıt varsa
+     * parametreler onunla birleşir; içerik değiştiği için yeni anahtar alır ve yaşı
+     * sıfırlanır, aksi halde yeni değer eski kaydın süresi dolunca birlikte atılırdı.
+     */
+    void enqueue(String path, Map<String, Object> params, String idempotencyKey) {
+        String baseUrl = deviceSource.getBaseUrl();
+        Entry entry = entries.get(baseUrl + path);
+        if (entry == null) {
+            entry = new Entry();
+            entry.baseUrl = baseUrl;
+            entry.path = path;
+            entry.params = new LinkedHashMap<>();
+            entry.idempotencyKey = idempotencyKey;
+            entry.createdAt = System.currentTimeMillis();
+            entries.put(baseUrl + path, entry);
+        } else {
+            entry.idempotencyKey = newIdempotencyKey();
+            entry.attempts = 0;
+            entry.createdAt = System.currentTimeMillis();
+        }
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            entry.params.put(param.getKey(), gson.toJsonTree(param.getValue()));
+        }
+        save();
+        Log.d(TAG, path + " kuyruğa alındı, bekleyen: " + entries.size());
+    }
+
+    /**
+     * Yeni gönderilen yazmanın üzerine yazdığı parametreler kuyruktan çıkarılır;
+     * böylece sonradan yapılan tekrar gönderim yeni değeri eskisiyle ezmez.
+     */
+    void supersede(String path, Collection<String> keys) {
+        Entry entry = entries.get(deviceSource.getBaseUrl() + path);
+        if (entry == null) {
+            return;
+        }
+        entry.params.keySet().removeAll(keys);
+        if (entry.params.isEmpty()) {
+            entries.remove(entry.baseUrl + entry.path);
+        }
+        save();
+    }
+
+    // Cihazdan başarılı yanıt alındı; bekleyen komut varsa gönderim planlanır
+    public void onDeviceReachable() {
+        if (failedReplays == 0) {
+            scheduleReplay(0);
+        }
+    }
+
+    private void scheduleReplay(long delay) {
+        if (replaying || replayScheduled || getPendingCount() == 0) {
+            return;
+        }
+        // Yeniden bağlanan telefonların aynı anda cihaza yüklenmemesi için rastgele yayılır
+        long jitter = random.nextInt((int) Constants.OUTBOX_REPLAY_JITTER_MS);
+        replayScheduled = true;
+        handler.postDelayed(replayRunnable, delay + jitter);
+    }
+
+    private void replay() {
+        if (replaying) {
+            return;
+        }
+        dropExpired();
+        if (getPendingCount() == 0) {
+            return;
+        }
+        if (!isOnline()) {
+            Log.d(TAG, "Ağ yok, gönderim bağlantı gelince yapılacak");
+            return;
+        }
+        replaying = true;
+        Log.d(TAG, getPendingCount() + " bekleyen komut gönderiliyor");
+        sendNext();
+    }
+
+    private void sendNext() {
+        final Entry entry = nextEntry();
+        if (entry == null) {
+            replaying = false;
+            failedReplays = 0;
+            if (savePending) {
+                savePending = false;
+                deviceSource.getService().saveSystem().enqueue(new Callback<ApiService.SystemSaveResponse>() {
+                    @Override
+                    public void onResponse(Call<ApiService.SystemSaveResponse> call,
+                                           Response<ApiService.SystemSaveResponse> response) {
+                        Log.d(TAG, "Bekleyen komutlar gönderildi ve kaydedildi");
+                    }
+
+                    @Override
+                    public void onFailure(Call<ApiService.SystemSaveResponse> call, Throwable t) {
+                        Log.e(TAG, "Sistem kaydı hatası: " + t.getMessage());
+                    }
+                });
+            }
+            return;
+        }
+
+        entry.attempts++;
+        final String sentKey = entry.idempotencyKey;
+        Map<String, Object> body = new LinkedHashMap<String, Object>(entry.params);
+        deviceSource.getService().sendCommand(entry.path, sentKey, body)
+                .enqueue(new Callback<ResponseBody>() {
+                    @Override
+                    public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                        if (response.isSuccessful()) {
+                            savePending = true;
+                            remove(entry, sentKey);
+                            sendNext();
+                        } else if (response.code() < 500 || entry.attempts >= Constants.OUTBOX_MAX_ATTEMPTS) {
+                            // Cihaz komutu reddetti; tekrar göndermek sonucu değiştirmez
+                            Log.w(TAG, entry.path + " reddedildi - HTTP: " + response.code());
+                            remove(entry, sentKey);
+                            sendNext();
+                        } else {
+                            retryLater();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<ResponseBody> call, Throwable t) {
+                        Log.w(TAG, entry.path + " gönderilemedi: " + t.getMessage());
+                        if (entry.attempts >= Constants.OUTBOX_MAX_ATTEMPTS) {
+                            Log.w(TAG, entry.path + " deneme sınırına ulaştı, gönderilmeyecek");
+                            remove(entry, sentKey);
+                            sendNext();
+                            return;
+                        }
+                        save();
+                        retryLater();
+                    }
+                });
+    }
+
+    // Gönderim yarıda kaldı; üstel artan beklemeyle tekrar denenir
+    private void retryLater() {
+        replaying = false;
+        failedReplays++;
+        long delay = Math.min(Constants.OUTBOX_RETRY_MAX_DELAY_MS,
+                Constants.OUTBOX_REPLAY_DELAY_MS << Math.min(failedReplays, 10));
+        scheduleReplay(delay);
+    }
+
+    private Entry nextEntry() {
+        String baseUrl = deviceSource.getBaseUrl();
+        for (Entry entry : entries.values()) {
+            if (entry.baseUrl.equals(baseUrl)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // Gönderim sürerken kayda yeni yazma eklendiyse (anahtar değişti) kayıt kuyrukta kalır
+    private void remove(Entry entry, String sentKey) {
+        String key = entry.baseUrl + entry.path;
+        if (entries.get(key) == entry && sentKey.equals(entry.idempotencyKey)) {
+            entries.remove(key);
+        }
+        save();
+    }
+
+    // Uzun süre gönderilemeyen ayar artık kullanıcının beklediği değer olmayabilir
+    private void dropExpired() {
+        long now = System.currentTimeMillis();
+        boolean changed = false;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.createdAt > Constants.OUTBOX_MAX_AGE_MS) {
+                Log.w(TAG, entry.path + " zaman aşımına uğradı, gönderilmeyecek");
+                iterator.remove();
+                changed = true;
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    // WiFi dinleyicisi kuyruk dolunca kaydedilir, boşalınca bırakılır
+    private void updateNetworkCallback() {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return;
+        }
+        if (entries.isEmpty()) {
+            if (networkCallback != null) {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+                networkCallback = null;
+            }
+            return;
+        }
+        if (networkCallback != null) {
+            return;
+        }
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addTransportType(NetworkCapabilities.TRANSPORT_WIFI)
+                .build();
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                handler.post(() -> {
+                    failedReplays = 0;
+                    scheduleReplay(Constants.OUTBOX_REPLAY_DELAY_MS);
+                });
+            }
+        };
+        connectivityManager.registerNetworkCallback(request, networkCallback);
+    }
+
+    private void load() {
+        String json = prefsManager.getCommandOutbox();
+        if (json == null) {
+            return;
+        }
+        try {
+            List<Entry> saved = gson.fromJson(json, new TypeToken<List<Entry>>(){}.getType());
+            if (saved != null) {
+                for (Entry entry : saved) {
+                    entries.put(entry.baseUrl + entry.path, entry);
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Komut kuyruğu okunamadı: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        prefsManager.saveCommandOutbox(gson.toJson(new ArrayList<>(entries.values())));
+        updateNetworkCallback();
+    }
+}
\ No newline at end of file
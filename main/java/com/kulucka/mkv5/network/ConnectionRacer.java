@@ -0,0 +1,337 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+import com.kulucka.mkv5.utils.SharedPreferencesManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Cihaza bağlantıyı aday yolların yarışıyla kurar: kayıtlı IP, mDNS, AP adresi ve ağ keşfi.
+ * Yollar CONNECTION_RACE_STAGGER_MS arayla başlatılır; bir yol erken başarısız olursa sıradaki
+ * beklemeden başlar. /api/system/verify doğrulamasından ilk geçen adres kazanır, diğer denemeler iptal
+ * edilir. Kazanan adres ve yol kaydedilir; sonraki yarışta o yol ilk sırada başlar.
+ * Tüm çağrılar ve bildirimler ana thread üzerinde yapılır.
+ */
+public class ConnectionRacer {
+    private static final String TAG = "ConnectionRacer";
+
+    public enum Path {
+        SAVED,      // Son bağlanılan IP
+        MDNS,       // MdnsResolver ile bulunan kuluçka örnekleri
+        AP,         // Cihazın kendi erişim noktası
+        DISCOVERY   // UDP yayını ve alt ağ taraması
+    }
+
+    public interface RaceCallback {
+        void onConnected(Path path, String ipAddress, int port);
+        void onFailed(String reason);
+    }
+
+    // Tek bir yarışın durumu; biten yarışa geç gelen sonuçlar yok sayılır
+    private final class Race {
+        final RaceCallback callback;
+        final List<Path> order;
+        final long startTime = SystemClock.elapsedRealtime();
+        final Set<String> probedAddresses = new HashSet<>();
+        final List<Call<ApiService.SystemVerificationResponse>> probes = new ArrayList<>();
+        int nextPath = 0;
+        // Başlamış ve sonuçlanmamış işler: mDNS çözümlemesi, keşif ve doğrulama istekleri
+        int pending = 0;
+        boolean discoveryRunning = false;
+
+        Race(RaceCallback callback, List<Path> order) {
+            this.callback = callback;
+            this.order = order;
+        }
+
+        long elapsed() {
+            return SystemClock.elapsedRealtime() - startTime;
+        }
+    }
+
+    private final Context context;
+    private final SharedPreferencesManager prefsManager;
+    private final NetworkDiscoveryManager discoveryManager;
+    private final MdnsResolver mdnsResolver;
+    private final ApiService apiService;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService resolver = Executors.newSingleThreadExecutor();
+
+    private Race race;
+    private long lastDiscoveryTime = 0;
+
+    private final Runnable staggerRunnable = this::startNextPath;
+    private final Runnable timeoutRunnable = () -> fail("Cihaz bulunamadı");
+
+    public ConnectionRacer(Context context, NetworkDiscoveryManager discoveryManager) {
+        this.context = context.getApplicationContext();
+        this.prefsManager = SharedPreferencesManager.getInstance(context);
+        this.discoveryManager = discoveryManager;
+        this.mdnsResolver = MdnsResolver.getInstance(context);
+        this.apiService = RetrofitClient.getDeviceClient().create(ApiService.class);
+    }
+
+    public boolean isRunning() {
+        return race != null;
+    }
+
+    /**
+     * Yarışı başlatır; zaten sürüyorsa false döner ve sonucu mevcut yarış bildirir.
+     */
+    public boolean start(RaceCallback callback) {
+        if (race != null) {
+            return false;
+        }
+        if (!NetworkManager.getInstance(context).isNetworkAvailable()) {
+            callback.onFailed("Ağ bağlantısı yok");
+            return true;
+        }
+
+        race = new Race(callback, buildOrder());
+        Log.d(TAG, "Bağlantı yarışı başladı, sıra: " + race.order);
+        handler.postDelayed(timeoutRunnable, Constants.CONNECTION_RACE_TIMEOUT_MS);
+        startNextPath();
+        return true;
+    }
+
+    public void cancel() {
+        if (race != null) {
+            Log.d(TAG, "Bağlantı yarışı iptal edildi");
+            finish();
+        }
+    }
+
+    // Yarışçı artık kullanılmayacaksa (ör. Activity onDestroy) çözümleme thread'ini de kapatır
+    public void shutdown() {
+        cancel();
+        resolver.shutdownNow();
+    }
+
+    private List<Path> buildOrder() {
+        List<Path> order = new ArrayList<>();
+        Path remembered = rememberedPath();
+        if (remembered != null) {
+            order.add(remembered);
+        }
+        for (Path path : Path.values()) {
+            if (!order.contains(path)) {
+                order.add(path);
+            }
+        }
+
+        String savedIp = prefsManager.getDeviceIp();
+        if (savedIp == null || savedIp.isEmpty() || savedIp.equals("0.0.0.0") ||
+                savedIp.equals(Constants.DEFAULT_AP_IP)) {
+            order.remove(Path.SAVED);
+        }
+        // Alt ağ taraması ağa yük bindirir; son kazanan değilse her denemede yapılmaz
+        if (remembered != Path.DISCOVERY &&
+                SystemClock.elapsedRealtime() - lastDiscoveryTime < Constants.CONNECTION_RACE_DISCOVERY_COOLDOWN_MS) {
+            order.remove(Path.DISCOVERY);
+        }
+        return order;
+    }
+
+    private Path rememberedPath() {
+        String name = prefsManager.getConnectionPath();
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Path.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void startNextPath() {
+        Race current = race;
+        if (current == null) {
+            return;
+        }
+        handler.removeCallbacks(staggerRunnable);
+        if (current.nextPath >= current.order.size()) {
+            return;
+        }
+
+        Path path = current.order.get(current.nextPath++);
+        Log.d(TAG, path + " başlatıldı (" + current.elapsed() + " ms)");
+        switch (path) {
+            case SAVED:
+                probe(current, path, prefsManager.getDeviceIp(), prefsManager.getDevicePort());
+                break;
+            case MDNS:
+                resolveMdns(current);
+                break;
+            case AP:
+                probe(current, path, Constants.DEFAULT_AP_IP, Constants.DEFAULT_PORT);
+                break;
+            case DISCOVERY:
+                startDiscovery(current);
+                break;
+        }
+
+        if (current.nextPath < current.order.size()) {
+            handler.postDelayed(staggerRunnable, Constants.CONNECTION_RACE_STAGGER_MS);
+        }
+        checkExhausted(current);
+    }
+
+    // Ağdaki tüm kuluçka örnekleri taranır; her biri bulunduğu anda doğrulamaya gönderilir
+    private void resolveMdns(final Race current) {
+        current.pending++;
+        resolver.execute(() -> {
+            List<MdnsResolver.Instance> instances = mdnsResolver.browse(Constants.MDNS_BROWSE_WINDOW_MS,
+                    instance -> handler.post(() -> {
+                        if (race == current) {
+                            Log.d(TAG, "mDNS örneği: " + instance);
+                            probe(current, Path.MDNS, instance.getIpAddress(), instance.getPort());
+                        }
+                    }));
+            handler.post(() -> {
+                if (race != current) {
+                    return;
+                }
+                current.pending--;
+                if (instances.isEmpty()) {
+                    Log.d(TAG, "mDNS ile cihaz bulunamadı");
+                }
+                checkExhausted(current);
+            });
+        });
+    }
+
+    private void startDiscovery(final Race current) {
+        current.pending++;
+        current.discoveryRunning = true;
+        lastDiscoveryTime = SystemClock.elapsedRealtime();
+        discoveryManager.startDiscovery(new NetworkDiscoveryManager.DiscoveryCallback() {
+            @Override
+            public void onDeviceFound(String ipAddress, int port) {
+                handler.post(() -> {
+                    if (race == current) {
+                        probe(current, Path.DISCOVERY, ipAddress, port);
+                    }
+                });
+            }
+
+            @Override
+            public void onDiscoveryComplete() {
+                handler.post(() -> {
+                    if (race != current || !current.discoveryRunning) {
+                        return;
+                    }
+                    current.discoveryRunning = false;
+                    current.pending--;
+                    checkExhausted(current);
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Keşif hatası: " + error);
+            }
+        });
+    }
+
+    private void probe(final Race current, final Path path, final String ip, final int port) {
+        // Farklı yollar aynı adrese çıkabilir (ör. mDNS kayıtlı IP'yi verir)
+        if (!current.probedAddresses.add(ip + ":" + port)) {
+            return;
+        }
+
+        current.pending++;
+        Call<ApiService.SystemVerificationResponse> call =
+                apiService.verifySystemAt("http://" + ip + ":" + port + "/api/system/verify");
+        current.probes.add(call);
+        call.enqueue(new Callback<ApiService.SystemVerificationResponse>() {
+            @Override
+            public void onResponse(Call<ApiService.SystemVerificationResponse> call,
+                                   Response<ApiService.SystemVerificationResponse> response) {
+                if (race != current) {
+                    return;
+                }
+                current.pending--;
+                if (response.isSuccessful() && response.body() != null) {
+                    win(current, path, ip, port);
+                    return;
+                }
+                Log.d(TAG, path + " " + ip + " doğrulanamadı - HTTP: " + response.code());
+                checkExhausted(current);
+            }
+
+            @Override
+            public void onFailure(Call<ApiService.SystemVerificationResponse> call, Throwable t) {
+                if (race != current) {
+                    return;
+                }
+                current.pending--;
+                Log.d(TAG, path + " " + ip + " yanıt vermedi: " + t.getMessage());
+                checkExhausted(current);
+            }
+        });
+    }
+
+    // Süren iş kalmadıysa sıradaki yol beklemeden başlar; yol da kalmadıysa yarış kaybedilir
+    private void checkExhausted(Race current) {
+        if (race != current || current.pending > 0) {
+            return;
+        }
+        if (current.nextPath < current.order.size()) {
+            startNextPath();
+        } else {
+            fail("Cihaz bulunamadı");
+        }
+    }
+
+    private void win(Race current, Path path, String ip, int port) {
+        Log.d(TAG, path + " kazandı: " + ip + ":" + port + " (" + current.elapsed() + " ms)");
+        prefsManager.saveDeviceIp(ip);
+        prefsManager.saveDevicePort(port);
+        prefsManager.saveConnectionMode(path == Path.AP ? Constants.MODE_AP : Constants.MODE_STATION);
+        prefsManager.saveConnectionPath(path.name());
+
+        RaceCallback callback = current.callback;
+        finish();
+        callback.onConnected(path, ip, port);
+    }
+
+    private void fail(String reason) {
+        Race current = race;
+        if (current == null) {
+            return;
+        }
+        Log.d(TAG, "Bağlantı yarışı başarısız (" + current.elapsed() + " ms): " + reason);
+        finish();
+        current.callback.onFailed(reason);
+    }
+
+    // Kalan denemeleri iptal eder
+    private void finish() {
+        Race current = race;
+        race = null;
+        handler.removeCallbacks(staggerRunnable);
+        handler.removeCallbacks(timeoutRunnable);
+        for (Call<ApiService.SystemVerificationResponse> call : current.probes) {
+            call.cancel();
+        }
+        if (current.discoveryRunning) {
+            discoveryManager.stopDiscovery();
+        }
+    }
+}
\ No newline at end of file
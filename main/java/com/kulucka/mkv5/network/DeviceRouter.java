@@ -0,0 +1,197 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Aktif cihaza giden istekleri gerçek adrese yönlendirir. Cihaz Retrofit'i tek sefer,
+ * yer tutucu DEVICE_ROUTE_HOST adresiyle kurulur; adres değişince yeni client ya da
+ * Retrofit oluşturulmaz, yalnızca buradaki hedef atomik olarak değiştirilir.
+ * Adres değiştiğinde:
+ * - Henüz gönderilmemiş (kuyruktaki) istekler çalıştıkları anda yeni adrese gider.
+ * - Eski adreste süren okuma istekleri iptal edilir ve RouteChangedException ile biter.
+ *   Yalnızca @EndpointPolicy'de idempotent ve maxRetries > 0 olan çağrılar
+ *   RetryCallAdapterFactory'de hemen yeni adrese gönderilir; diğerlerinde hata çağırana
+ *   ulaşır ve yeniden istemek çağıranın işidir.
+ * - Eski adreste süren yazma istekleri tamamlanmaya bırakılır; cihaza ulaşmış olabilirler,
+ *   sonuçları (hata dahil) çağırana olduğu gibi iletilir.
+ * Bir istek gövdesi tamamen okunana ya da kapatılana, OkHttp çağrıyı bitirene (callEnd/callFailed,
+ * HttpMetrics bildirir) ya da sonraki adres değişimine kadar sürüyor sayılır; kapatılmayan gövde
+ * kaydı süresiz tutmaz.
+ * Yer tutucu dışındaki adresler (filo cihazları) olduğu gibi geçer.
+ */
+public class DeviceRouter implements Interceptor {
+    private static final String TAG = "DeviceRouter";
+
+    // Adres değiştiği için iptal edilen isteğin hatası
+    public static class RouteChangedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RouteChangedException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class InFlight {
+        final Call call;
+        final boolean drain;
+        volatile boolean rerouted;
+
+        InFlight(Call call, boolean drain) {
+            this.call = call;
+            this.drain = drain;
+        }
+    }
+
+    private HttpUrl target;
+    private final List<InFlight> inFlight = new ArrayList<>();
+    private int switchCount = 0;
+
+    /**
+     * Hedefi değiştirir. Adres aynıysa hiçbir şey yapılmaz ve false döner.
+     */
+    public synchronized boolean switchTo(String baseUrl) {
+        HttpUrl base = HttpUrl.parse(baseUrl);
+        if (base == null) {
+            Log.w(TAG, "Geçersiz cihaz adresi: " + baseUrl);
+            return false;
+        }
+        if (target != null && target.scheme().equals(base.scheme()) &&
+                target.host().equals(base.host()) && target.port() == base.port()) {
+            return false;
+        }
+
+        target = base;
+        switchCount++;
+
+        // Kayıtlı isteklerin hepsi eski hedefe gönderilmiş durumda
+        int canceled = 0;
+        int drained = 0;
+        for (InFlight entry : inFlight) {
+            if (entry.drain) {
+                drained++;
+            } else {
+                entry.rerouted = true;
+                entry.call.cancel();
+                canceled++;
+            }
+        }
+        // İptal edilen ve tamamlanmaya bırakılan istekler bundan sonraki değişimleri ilgilendirmez
+        inFlight.clear();
+        Log.d(TAG, "Cihaz adresi: " + base.host() + ":" + base.port() + " (değişim #" + switchCount +
+                ", iptal: " + canceled + ", tamamlanması beklenen: " + drained + ")");
+        return true;
+    }
+
+    public synchronized int getSwitchCount() {
+        return switchCount;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!Constants.DEVICE_ROUTE_HOST.equals(request.url().host())) {
+            return chain.proceed(request);
+        }
+
+        // Hedef okuma ve kayıt aynı kilit altında; araya giren değişim bu isteği kaçırmaz
+        HttpUrl base;
+        InFlight entry;
+        synchronized (this) {
+            base = target;
+            if (base == null) {
+                throw new IOException("Cihaz adresi belirlenmedi");
+            }
+            entry = new InFlight(chain.call(), !isRead(request));
+            inFlight.add(entry);
+        }
+
+        HttpUrl url = request.url().newBuilder()
+                .scheme(base.scheme())
+                .host(base.host())
+                .port(base.port())
+                .build();
+        Response response;
+        try {
+            response = chain.proceed(request.newBuilder().url(url).build());
+        } catch (IOException e) {
+            untrack(entry);
+            if (entry.rerouted) {
+                throw new RouteChangedException("Cihaz adresi değişti");
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            untrack(entry);
+            throw e;
+        }
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            untrack(entry);
+            return response;
+        }
+        return response.newBuilder().body(trackedBody(body, entry)).build();
+    }
+
+    // Gövde okunurken de adres değişimi isteği iptal edebilir; kayıt gövde bitince ya da kapanınca silinir
+    private ResponseBody trackedBody(final ResponseBody body, final InFlight entry) {
+        ForwardingSource source = new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read;
+                try {
+                    read = super.read(sink, byteCount);
+                } catch (IOException e) {
+                    untrack(entry);
+                    if (entry.rerouted) {
+                        throw new RouteChangedException("Cihaz adresi değişti");
+                    }
+                    throw e;
+                }
+                if (read == -1) {
+                    untrack(entry);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                untrack(entry);
+                super.close();
+            }
+        };
+        return ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source));
+    }
+
+    private synchronized void untrack(InFlight entry) {
+        inFlight.remove(entry);
+    }
+
+    // OkHttp çağrıyı bitirdi (callEnd/callFailed); gövde kapatılmamış olsa da kayıt silinir
+    synchronized void release(Call call) {
+        for (int i = inFlight.size() - 1; i >= 0; i--) {
+            if (inFlight.get(i).call == call) {
+                inFlight.remove(i);
+            }
+        }
+    }
+
+    private static boolean isRead(Request request) {
+        return "GET".equals(request.method()) || "HEAD".equals(request.method());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.kulucka.mkv5.network;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ApiService metoduna ait timeout ve yeniden deneme politikası.
+ * Timeout'lar EndpointPolicyInterceptor, yeniden denemeler RetryCallAdapterFactory,
+ * öncelik ve cihaz başına sıra PriorityCallAdapterFactory tarafından uygulanır.
+ * Anotasyonu olmayan metodlar client'ın varsayılan timeout'larıyla, yeniden denemesiz çalışır.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EndpointPolicy {
+    // Saniye; 0 ise client varsayılanı kullanılır
+    int connectTimeout() default 0;
+    int readTimeout() default 0;
+    int writeTimeout() default 0;
+
+    // İlk denemeye ek olarak en fazla kaç kez yeniden denenir
+    int maxRetries() default 0;
+
+    // İlk bekleme (ms); her denemede ikiye katlanır ve rastgele yayılır
+    long backoffMs() default 500;
+
+    // Tekrarlanması cihaz durumunu değiştirmeyen istek; yalnızca bunlar yeniden denenir
+    // ve sırada bekleyen aynı istekle birleştirilir
+    boolean idempotent() default false;
+
+    // PriorityCallAdapterFactory.PRIORITY_*; varsayılan GET için sorgu, diğerleri için kullanıcı komutu
+    int priority() default PriorityCallAdapterFactory.PRIORITY_DEFAULT;
+
+    // false ise cihazın istek sırasına girmez (ör. dakikalarca süren OTA yüklemesi)
+    boolean scheduled() default true;
+}
\ No newline at end of file
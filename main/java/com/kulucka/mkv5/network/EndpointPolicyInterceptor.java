@@ -0,0 +1,40 @@
+package com.kulucka.mkv5.network;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * İsteği üreten ApiService metodunun @EndpointPolicy timeout'larını uygular.
+ * Metod, Retrofit'in isteğe eklediği Invocation etiketinden okunur; URL karşılaştırması yapılmaz.
+ */
+public class EndpointPolicyInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Invocation invocation = request.tag(Invocation.class);
+        EndpointPolicy policy = invocation != null ?
+                invocation.method().getAnnotation(EndpointPolicy.class) : null;
+
+        if (policy == null) {
+            return chain.proceed(request);
+        }
+
+        Chain configured = chain;
+        if (policy.connectTimeout() > 0) {
+            configured = configured.withConnectTimeout(policy.connectTimeout(), TimeUnit.SECONDS);
+        }
+        if (policy.readTimeout() > 0) {
+            configured = configured.withReadTimeout(policy.readTimeout(), TimeUnit.SECONDS);
+        }
+        if (policy.writeTimeout() > 0) {
+            configured = configured.withWriteTimeout(policy.writeTimeout(), TimeUnit.SECONDS);
+        }
+        return configured.proceed(request);
+    }
+}
\ No newline at end of file
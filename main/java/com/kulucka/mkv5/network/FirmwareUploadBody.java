@@ -0,0 +1,150 @@
+package com.kulucka.mkv5.network;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Firmware dosyasını content URI'den doğrudan multipart gövdesine akıtır.
+ * Dosya önbelleğe kopyalanmaz ve bir kez okunur; MD5 aynı okuma sırasında hesaplanır
+ * ve firmware'den sonra gelen "md5" alanı olarak gönderilir (getChecksumBody).
+ * Yükleme ilerlemesi OkHttp'nin yazdığı bayt sayısından, ana thread'e bildirilir.
+ */
+public class FirmwareUploadBody extends RequestBody {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain");
+
+    public interface ProgressListener {
+        void onUploadProgress(long bytesWritten, long totalBytes);
+    }
+
+    private final ContentResolver contentResolver;
+    private final Uri uri;
+    private final long size;
+    private final ProgressListener progressListener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile String md5Hex;
+
+    /**
+     * @param size Dosya boyutu; bilinmiyorsa -1 (chunked gönderilir)
+     */
+    public FirmwareUploadBody(ContentResolver contentResolver, Uri uri, long size,
+                              ProgressListener progressListener) {
+        this.contentResolver = contentResolver;
+        this.uri = uri;
+        this.size = size;
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    @Override
+    public long contentLength() {
+        return size;
+    }
+
+    // Her yazımda URI yeniden açılır ve özet baştan hesaplanır; gövde tekrar gönderilebilir
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        MessageDigest digest = newDigest();
+
+        long written = 0;
+        int lastPercent = -1;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Firmware dosyası açılamadı");
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                sink.write(buffer, 0, read);
+                written += read;
+
+                // Her yüzde değişiminde bir kez bildir
+                if (size > 0) {
+                    int percent = (int) (written * 100 / size);
+                    if (percent != lastPercent) {
+                        lastPercent = percent;
+                        postProgress(written);
+                    }
+                }
+            }
+        }
+
+        if (size >= 0 && written != size) {
+            throw new IOException("Firmware boyutu değişti: " + written + " / " + size);
+        }
+        if (size < 0) {
+            postProgress(written);
+        }
+
+        md5Hex = toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("MD5 desteklenmiyor", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private void postProgress(long written) {
+        if (progressListener != null) {
+            long total = size >= 0 ? size : written;
+            mainHandler.post(() -> progressListener.onUploadProgress(written, total));
+        }
+    }
+
+    /**
+     * Firmware parçasından sonra yazılacak MD5 alanının gövdesi.
+     * Multipart parçaları sırayla yazıldığı için bu noktada özet hazırdır.
+     */
+    public RequestBody getChecksumBody() {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return TEXT_PLAIN;
+            }
+
+            @Override
+            public long contentLength() {
+                return 32; // 16 bayt MD5 = 32 hex karakter
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                String md5 = md5Hex;
+                if (md5 == null) {
+                    throw new IOException("MD5 hesaplanmadan önce yazılamaz");
+                }
+                sink.writeUtf8(md5);
+            }
+        };
+    }
+}
\ No newline at end of file
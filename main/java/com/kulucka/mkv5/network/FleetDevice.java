@@ -0,0 +1,73 @@
+package com.kulucka.mkv5.network;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+/**
+ * Filodaki tek bir kuluçka makinesi.
+ * Ad, IP ve port kalıcıdır; geri kalan alanlar çalışma anında doldurulur.
+ */
+public class FleetDevice {
+    private String name;
+    private String ip;
+    private int port;
+
+    // Çalışma anı durumu - kaydedilmez
+    private transient ApiService apiService;
+    private transient DeviceStatus lastStatus;
+    private transient long lastUpdateTime;
+    private transient long lastLatencyMs;
+    private transient int consecutiveFailures;
+    private transient boolean pollInFlight;
+
+    public FleetDevice(String name, String ip, int port) {
+        this.name = name;
+        this.ip = ip;
+        this.port = port;
+    }
+
+    public String getId() {
+        return ip + ":" + port;
+    }
+
+    public String getBaseUrl() {
+        return "http://" + ip + ":" + port;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getIp() { return ip; }
+    public int getPort() { return port; }
+
+    public DeviceStatus getLastStatus() { return lastStatus; }
+    public long getLastUpdateTime() { return lastUpdateTime; }
+
+    // Son başarılı isteğin ağ süresi (kuyrukta bekleme hariç)
+    public long getLastLatencyMs() { return lastLatencyMs; }
+    public int getConsecutiveFailures() { return consecutiveFailures; }
+
+    public boolean isOnline() {
+        return lastStatus != null && consecutiveFailures < Constants.FLEET_OFFLINE_THRESHOLD;
+    }
+
+    ApiService getApiService() {
+        if (apiService == null) {
+            apiService = RetrofitClient.createFleetClient(getBaseUrl()).create(ApiService.class);
+        }
+        return apiService;
+    }
+
+    boolean isPollInFlight() { return pollInFlight; }
+    void setPollInFlight(boolean pollInFlight) { this.pollInFlight = pollInFlight; }
+
+    void onStatus(DeviceStatus status, long latencyMs) {
+        lastStatus = status;
+        lastUpdateTime = System.currentTimeMillis();
+        lastLatencyMs = latencyMs;
+        consecutiveFailures = 0;
+    }
+
+    void onFailure() {
+        consecutiveFailures++;
+    }
+}
\ No newline at end of file
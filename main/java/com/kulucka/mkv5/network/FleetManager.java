@@ -0,0 +1,199 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+import com.kulucka.mkv5.utils.SharedPreferencesManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Aynı ağdaki birden fazla kuluçka makinesinin kaydı ve eşzamanlı izlenmesi.
+ * Her cihazın kendi ApiService'i vardır ama hepsi aynı OkHttp bağlantı havuzunu ve
+ * sınırlı filo dispatcher'ını kullanır. Sorgular tur boyunca eşit aralıklarla dağıtılır,
+ * önceki isteği bitmemiş cihaz atlanır; böylece cihaz sayısı arttıkça kuyruk birikmez.
+ */
+public class FleetManager {
+    private static final String TAG = "FleetManager";
+    private static FleetManager instance;
+
+    public interface FleetListener {
+        void onDeviceStatus(FleetDevice device);
+        void onDeviceError(FleetDevice device, Throwable t);
+    }
+
+    private final SharedPreferencesManager prefsManager;
+    private final Gson gson = RetrofitClient.getGson();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, FleetDevice> devices = new LinkedHashMap<>();
+    private final List<FleetListener> listeners = new CopyOnWriteArrayList<>();
+
+    private int pollCursor = 0;
+    private boolean polling = false;
+
+    private final Runnable pollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pollNext();
+            handler.postDelayed(this, getPollStep());
+        }
+    };
+
+    private FleetManager(Context context) {
+        prefsManager = SharedPreferencesManager.getInstance(context);
+        loadDevices();
+    }
+
+    public static synchronized FleetManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new FleetManager(context);
+        }
+        return instance;
+    }
+
+    private void loadDevices() {
+        String json = prefsManager.getFleetDevices();
+        if (json == null) {
+            return;
+        }
+        try {
+            List<FleetDevice> saved = gson.fromJson(json, new TypeToken<List<FleetDevice>>(){}.getType());
+            if (saved != null) {
+                for (FleetDevice device : saved) {
+                    devices.put(device.getId(), device);
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Filo listesi okunamadı: " + e.getMessage());
+        }
+    }
+
+    private void saveDevices() {
+        prefsManager.saveFleetDevices(gson.toJson(new ArrayList<>(devices.values())));
+    }
+
+    public FleetDevice addDevice(String name, String ip, int port) {
+        FleetDevice device = new FleetDevice(name, ip, port);
+        FleetDevice existing = devices.get(device.getId());
+        if (existing != null) {
+            existing.setName(name);
+            saveDevices();
+            return existing;
+        }
+
+        devices.put(device.getId(), device);
+        saveDevices();
+        Log.d(TAG, "Filoya eklendi: " + name + " (" + device.getId() + ")");
+        return device;
+    }
+
+    public void removeDevice(String id) {
+        if (devices.remove(id) != null) {
+            saveDevices();
+        }
+    }
+
+    public FleetDevice getDevice(String id) {
+        return devices.get(id);
+    }
+
+    public List<FleetDevice> getDevices() {
+        return new ArrayList<>(devices.values());
+    }
+
+    public int getOnlineCount() {
+        int count = 0;
+        for (FleetDevice device : devices.values()) {
+            if (device.isOnline()) count++;
+        }
+        return count;
+    }
+
+    // İlk dinleyici eklendiğinde sorgular başlar, sonuncusu çıkınca durur
+    public void addListener(FleetListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (!polling) {
+            polling = true;
+            handler.post(pollRunnable);
+        }
+    }
+
+    public void removeListener(FleetListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            polling = false;
+            handler.removeCallbacks(pollRunnable);
+        }
+    }
+
+    // Her cihaz FLEET_POLL_INTERVAL'da bir sorgulanacak şekilde adım süresi
+    private long getPollStep() {
+        return Math.max(50, Constants.FLEET_POLL_INTERVAL / Math.max(1, devices.size()));
+    }
+
+    private void pollNext() {
+        if (devices.isEmpty()) {
+            return;
+        }
+
+        List<FleetDevice> list = new ArrayList<>(devices.values());
+        FleetDevice device = list.get(pollCursor % list.size());
+        pollCursor = (pollCursor + 1) % list.size();
+
+        // Önceki sorgusu bitmemiş cihaz için yeni istek biriktirme
+        if (device.isPollInFlight()) {
+            return;
+        }
+        pollDevice(device);
+    }
+
+    private void pollDevice(FleetDevice device) {
+        device.setPollInFlight(true);
+        device.getApiService().getStatus().enqueue(new Callback<DeviceStatus>() {
+            @Override
+            public void onResponse(Call<DeviceStatus> call, Response<DeviceStatus> response) {
+                device.setPollInFlight(false);
+                if (response.isSuccessful() && response.body() != null) {
+                    okhttp3.Response raw = response.raw();
+                    device.onStatus(response.body(),
+                            raw.receivedResponseAtMillis() - raw.sentRequestAtMillis());
+                    for (FleetListener listener : listeners) {
+                        listener.onDeviceStatus(device);
+                    }
+                } else {
+                    notifyError(device, new Exception("Veri alınamadı - HTTP: " + response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<DeviceStatus> call, Throwable t) {
+                device.setPollInFlight(false);
+                notifyError(device, t);
+            }
+        });
+    }
+
+    private void notifyError(FleetDevice device, Throwable t) {
+        device.onFailure();
+        Log.w(TAG, device.getName() + " sorgulanamadı: " + t.getMessage());
+        for (FleetListener listener : listeners) {
+            listener.onDeviceError(device, t);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,475 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Invocation;
+import retrofit2.Retrofit;
+
+/**
+ * HTTP çağrılarının aşama sürelerini, yanıt boyutlarını ve hata nedenlerini ApiService
+ * metodu ve cihaz adresi bazında histogramlarda toplar.
+ * Aşamalar OkHttp EventListener olaylarından ölçülür: DNS, bağlantı kurma (yalnızca yeni
+ * bağlantıda), ilk bayta kadar geçen süre (istek gönderildikten yanıt başlıkları gelene kadar),
+ * gövde okuma ve çağrının toplam süresi. Çözümleme süresi Retrofit dönüştürücüsünün süresidir;
+ * Gson gövdeyi akış halinde okuduğundan gövde okuma ile örtüşür.
+ * Histogramlar sabit kovalıdır, kayıt sırasında bellek ayrılmaz. Veriler süreç boyunca tutulur;
+ * getEndpointStats/getDeviceStats ile sorgulanır, toJson ile dışa aktarılır.
+ */
+public class HttpMetrics implements EventListener.Factory {
+    private static final String TAG = "HttpMetrics";
+    private static final String UNKNOWN_DEVICE = "bilinmiyor";
+    private static HttpMetrics instance;
+
+    // Süre kovaları (µs): 100 µs .. 10 sn
+    private static final long[] TIME_BOUNDS = {
+            100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000,
+            250000, 500000, 1000000, 2500000, 5000000, 10000000
+    };
+    // Boyut kovaları (bayt): 256 B .. 1 MB
+    private static final long[] SIZE_BOUNDS = {
+            256, 1024, 4096, 16384, 65536, 262144, 1048576
+    };
+
+    /**
+     * Sabit sınırlı kovalarla histogram. Yüzdelikler, değerin düştüğü kovanın üst sınırıdır
+     * (görülen en büyük değeri aşmaz).
+     */
+    public static final class Histogram {
+        private final long[] bounds;
+        private final long[] counts;
+        private long count;
+        private long sum;
+        private long max;
+
+        Histogram(long[] bounds) {
+            this.bounds = bounds;
+            this.counts = new long[bounds.length + 1];
+        }
+
+        synchronized void record(long value) {
+            int index = Arrays.binarySearch(bounds, value);
+            counts[index >= 0 ? index : -index - 1]++;
+            count++;
+            sum += value;
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        public synchronized long getCount() { return count; }
+        public synchronized long getMax() { return max; }
+
+        public synchronized double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        // fraction: 0..1 (ör. 0.9 = p90)
+        public synchronized long getPercentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return i < bounds.length ? Math.min(bounds[i], max) : max;
+                }
+            }
+            return max;
+        }
+
+        synchronized Map<String, Object> toMap(double scale) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("mean", round(getMean() / scale));
+            map.put("p50", round(getPercentile(0.5) / scale));
+            map.put("p90", round(getPercentile(0.9) / scale));
+            map.put("p99", round(getPercentile(0.99) / scale));
+            map.put("max", round(max / scale));
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    buckets.put(i < bounds.length ? "<=" + formatBound(bounds[i] / scale) : ">" +
+                            formatBound(bounds[bounds.length - 1] / scale), counts[i]);
+                }
+            }
+            map.put("buckets", buckets);
+            return map;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+
+        private static String formatBound(double value) {
+            return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+        }
+    }
+
+    // Bir endpoint'in ya da bir cihazın toplu ölçümleri; süreler µs, boyutlar bayt
+    public static final class Stats {
+        private final Histogram dns = new Histogram(TIME_BOUNDS);
+        private final Histogram connect = new Histogram(TIME_BOUNDS);
+        private final Histogram ttfb = new Histogram(TIME_BOUNDS);
+        private final Histogram bodyRead = new Histogram(TIME_BOUNDS);
+        private final Histogram parse = new Histogram(TIME_BOUNDS);
+        private final Histogram total = new Histogram(TIME_BOUNDS);
+        private final Histogram responseBytes = new Histogram(SIZE_BOUNDS);
+        private final Map<String, Long> failureCauses = new TreeMap<>();
+        private long calls;
+        private long failures;
+
+        public Histogram getDns() { return dns; }
+        public Histogram getConnect() { return connect; }
+        public Histogram getTtfb() { return ttfb; }
+        public Histogram getBodyRead() { return bodyRead; }
+        public Histogram getParse() { return parse; }
+        public Histogram getTotal() { return total; }
+        public Histogram getResponseBytes() { return responseBytes; }
+
+        public synchronized long getCalls() { return calls; }
+        public synchronized long getFailures() { return failures; }
+
+        // Neden -> adet; ör. "SocketTimeoutException", "HTTP 503"
+        public synchronized Map<String, Long> getFailureCauses() {
+            return new TreeMap<>(failureCauses);
+        }
+
+        synchronized void recordCall(String failureCause) {
+            calls++;
+            if (failureCause != null) {
+                failures++;
+                Long current = failureCauses.get(failureCause);
+                failureCauses.put(failureCause, current == null ? 1 : current + 1);
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            synchronized (this) {
+                map.put("calls", calls);
+                map.put("failures", failures);
+                map.put("failureCauses", new TreeMap<>(failureCauses));
+            }
+            map.put("dnsMs", dns.toMap(1000.0));
+            map.put("connectMs", connect.toMap(1000.0));
+            map.put("ttfbMs", ttfb.toMap(1000.0));
+            map.put("bodyReadMs", bodyRead.toMap(1000.0));
+            map.put("parseMs", parse.toMap(1000.0));
+            map.put("totalMs", total.toMap(1000.0));
+            map.put("responseBytes", responseBytes.toMap(1.0));
+            return map;
+        }
+    }
+
+    private final ConcurrentMap<String, Stats> endpointStats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Stats> deviceStats = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    // Yanıt başlıklarını okuyan thread'de, dönüştürücünün hangi çağrıya ait olduğunu bulmak için
+    private final ThreadLocal<CallMetrics> parsingCall = new ThreadLocal<>();
+
+    private HttpMetrics() {
+    }
+
+    public static synchronized HttpMetrics getInstance() {
+        if (instance == null) {
+            instance = new HttpMetrics();
+        }
+        return instance;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallMetrics(call.request());
+    }
+
+    /**
+     * Çözümleme süresini ölçen dönüştürücü fabrikası; asıl dönüştürücüden (Gson) önce eklenmelidir.
+     */
+    public Converter.Factory converterFactory() {
+        return new Converter.Factory() {
+            @Override
+            public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                                    Retrofit retrofit) {
+                final Converter<ResponseBody, ?> delegate =
+                        retrofit.nextResponseBodyConverter(this, type, annotations);
+                return body -> {
+                    CallMetrics call = parsingCall.get();
+                    parsingCall.remove();
+                    long start = System.nanoTime();
+                    try {
+                        return delegate.convert(body);
+                    } finally {
+                        if (call != null) {
+                            call.recordParse((System.nanoTime() - start) / 1000);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public List<String> getEndpoints() {
+        List<String> names = new ArrayList<>(endpointStats.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    public List<String> getDevices() {
+        List<String> names = new ArrayList<>(deviceStats.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    // endpoint: ApiService metod adı (ör. "getDeviceStatus"); kayıt yoksa null
+    public Stats getEndpointStats(String endpoint) {
+        return endpointStats.get(endpoint);
+    }
+
+    // device: "ip:port"; kayıt yoksa null
+    public Stats getDeviceStats(String device) {
+        return deviceStats.get(device);
+    }
+
+    public void reset() {
+        endpointStats.clear();
+        deviceStats.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Tüm ölçümleri JSON olarak döndürür; süreler ms, boyutlar bayttır.
+     * Hata raporlarına eklemek ya da paylaşmak için kullanılır.
+     */
+    public String toJson() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("since", since);
+        root.put("exportedAt", System.currentTimeMillis());
+        root.put("endpoints", toMap(endpointStats));
+        root.put("devices", toMap(deviceStats));
+        Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+        return gson.toJson(root);
+    }
+
+    public void dumpToLog() {
+        for (String endpoint : getEndpoints()) {
+            Stats stats = endpointStats.get(endpoint);
+            Histogram total = stats.getTotal();
+            Log.i(TAG, String.format(Locale.US, "%s: %d çağrı, %d hata, toplam p50 %.1f ms p90 %.1f ms, ilk bayt p90 %.1f ms",
+                    endpoint, stats.getCalls(), stats.getFailures(),
+                    total.getPercentile(0.5) / 1000.0, total.getPercentile(0.9) / 1000.0,
+                    stats.getTtfb().getPercentile(0.9) / 1000.0));
+        }
+    }
+
+    private static Map<String, Object> toMap(Map<String, Stats> source) {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, Stats> entry : source.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return result;
+    }
+
+    private static Stats stats(ConcurrentMap<String, Stats> map, String key) {
+        Stats stats = map.get(key);
+        if (stats == null) {
+            Stats created = new Stats();
+            stats = map.putIfAbsent(key, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    // Tek bir OkHttp çağrısının olayları; zamanlar System.nanoTime
+    private final class CallMetrics extends EventListener {
+        private final String endpoint;
+        private String device;
+
+        private long callStart;
+        private long dnsStart;
+        private long dnsMicros = -1;
+        private long connectStart;
+        private long connectMicros = -1;
+        private long requestSent;
+        private long headersEnd;
+        private long ttfbMicros = -1;
+        private long bodyMicros = -1;
+        private long bodyBytes = -1;
+        private String failureCause;
+
+        CallMetrics(Request request) {
+            this.endpoint = endpointName(request);
+            HttpUrl url = request.url();
+            // Yer tutucu adres gerçek hedefe DeviceRouter'da çevrilir; cihaz bağlantıdan öğrenilir
+            this.device = Constants.DEVICE_ROUTE_HOST.equals(url.host()) ?
+                    UNKNOWN_DEVICE : url.host() + ":" + url.port();
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsMicros = (System.nanoTime() - dnsStart) / 1000;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            device = address(inetSocketAddress);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectMicros = (System.nanoTime() - connectStart) / 1000;
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            connectMicros = (System.nanoTime() - connectStart) / 1000;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            device = address(connection.route().socketAddress());
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestSent = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestSent = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            headersEnd = System.nanoTime();
+            if (requestSent > 0) {
+                ttfbMicros = (headersEnd - requestSent) / 1000;
+            }
+            if (response.code() >= 400) {
+                failureCause = "HTTP " + response.code();
+            }
+            // Retrofit gövdeyi bu thread'de çözümler
+            parsingCall.set(this);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            bodyBytes = byteCount;
+            if (headersEnd > 0) {
+                bodyMicros = (System.nanoTime() - headersEnd) / 1000;
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(null);
+            RetrofitClient.getDeviceRouter().release(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(ioe);
+            RetrofitClient.getDeviceRouter().release(call);
+        }
+
+        void recordParse(long micros) {
+            stats(endpointStats, endpoint).getParse().record(micros);
+            stats(deviceStats, device).getParse().record(micros);
+        }
+
+        private void finish(IOException error) {
+            if (parsingCall.get() == this) {
+                parsingCall.remove();
+            }
+            if (error != null) {
+                failureCause = error.getClass().getSimpleName();
+            }
+            long totalMicros = (System.nanoTime() - callStart) / 1000;
+            record(stats(endpointStats, endpoint), totalMicros);
+            record(stats(deviceStats, device), totalMicros);
+        }
+
+        private void record(Stats stats, long totalMicros) {
+            stats.recordCall(failureCause);
+            stats.getTotal().record(totalMicros);
+            if (dnsMicros >= 0) {
+                stats.getDns().record(dnsMicros);
+            }
+            if (connectMicros >= 0) {
+                stats.getConnect().record(connectMicros);
+            }
+            if (ttfbMicros >= 0) {
+                stats.getTtfb().record(ttfbMicros);
+            }
+            if (bodyMicros >= 0) {
+                stats.getBodyRead().record(bodyMicros);
+            }
+            if (bodyBytes >= 0) {
+                stats.getResponseBytes().record(bodyBytes);
+            }
+        }
+    }
+
+    // Retrofit çağrıları metod adıyla, diğerleri metod ve yolla adlandırılır
+    private static String endpointName(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            return invocation.method().getName();
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    private static String address(InetSocketAddress socketAddress) {
+        if (socketAddress.getAddress() != null) {
+            return socketAddress.getAddress().getHostAddress() + ":" + socketAddress.getPort();
+        }
+        return socketAddress.getHostString() + ":" + socketAddress.getPort();
+    }
+}
\ No newline at end of file
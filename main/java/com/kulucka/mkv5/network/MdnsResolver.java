@@ -0,0 +1,805 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.net.LinkProperties;
+import android.net.wifi.WifiManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multicast DNS (RFC 6762) çözümleyicisi ve DNS-SD (RFC 6763) servis tarayıcısı.
+ * Birçok Android sürümünde InetAddress.getByName .local adlarını çözmez; burada sorgular
+ * doğrudan 224.0.0.251:5353 grubuna gönderilir. Sorgu yanıtları ve cihazların kendiliğinden
+ * yaptığı duyurular TTL'leriyle önbelleğe alınır; önbellekte taze kayıt varsa ağa çıkılmaz.
+ * start() ile başlayan dinleme ilk kuluçka makinesi önbelleğe girene, MDNS_PREWARM_TIMEOUT
+ * dolana ya da stop() çağrılana kadar tek bir arka plan thread'inde sürer; multicast kilidi
+ * yalnızca soket açıkken tutulur.
+ * resolveHost ve browse bloklayıcıdır, ana thread'den çağrılmamalıdır.
+ */
+public class MdnsResolver {
+    private static final String TAG = "MdnsResolver";
+    private static final String MDNS_GROUP = "224.0.0.251";
+    private static final int MDNS_PORT = 5353;
+
+    private static final int TYPE_A = 1;
+    private static final int TYPE_PTR = 12;
+    private static final int TYPE_SRV = 33;
+    private static final int CLASS_IN = 1;
+    // Yanıtlarda sınıfın üst biti önbellek temizleme bayrağıdır
+    private static final int CLASS_MASK = 0x7fff;
+    private static final int FLAG_CACHE_FLUSH = 0x8000;
+    private static final int FLAG_RESPONSE = 0x8000;
+
+    // Sorgu gönderim anları (ms); ESP32 genelde ilk sorguya 20-120 ms içinde yanıt verir
+    private static final long[] QUERY_SCHEDULE = {0, 150, 450};
+    private static final int MAX_CACHE_ENTRIES = 256;
+    private static final int MAX_PACKET_SIZE = 9000;
+    // Dinleme thread'i ısıtma süresini kontrol etmek için bu aralıkla uyanır
+    private static final int RECEIVE_POLL_MS = 1000;
+
+    private static MdnsResolver instance;
+
+    // Ağda bulunan kuluçka makinesi
+    public static final class Instance {
+        private final String name;
+        private final String host;
+        private final String ipAddress;
+        private final int port;
+
+        Instance(String name, String host, String ipAddress, int port) {
+            this.name = name;
+            this.host = host;
+            this.ipAddress = ipAddress;
+            this.port = port;
+        }
+
+        public String getName() { return name; }
+        public String getHost() { return host; }
+        public String getIpAddress() { return ipAddress; }
+        public int getPort() { return port; }
+
+        @Override
+        public String toString() {
+            return name + " (" + host + " -> " + ipAddress + ":" + port + ")";
+        }
+    }
+
+    // Tarama sırasında her yeni örnek için, browse'u çağıran thread'de çağrılır
+    public interface BrowseListener {
+        void onInstance(Instance instance);
+    }
+
+    private static final class Record {
+        final String name;
+        final int type;
+        final String data;   // A: IP, PTR: hedef ad, SRV: hedef host
+        final int port;      // Yalnızca SRV
+        final long expiresAt;
+
+        Record(String name, int type, String data, int port, long expiresAt) {
+            this.name = name;
+            this.type = type;
+            this.data = data;
+            this.port = port;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Bir sorgu turunda sorulacak ad ve tür
+    private static final class Question {
+        final String name;
+        final int type;
+
+        Question(String name, int type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private final Context context;
+    // Önbellek ve bekleyenler bu kilidi paylaşır; yeni kayıt gelince notifyAll yapılır
+    private final Object lock = new Object();
+    private final Map<String, List<Record>> cache = new LinkedHashMap<>();
+
+    private volatile MulticastSocket socket;
+    private final List<NetworkInterface> interfaces = new ArrayList<>();
+    private WifiManager.MulticastLock multicastLock;
+    // 5353'e bağlanılamadıysa yalnızca kendi sorgularımızın yanıtları alınır
+    private boolean passive = false;
+    private long listeningSince = 0;
+    // start() çağrıldıysa dinleme son sorgu bittikten sonra da, önbellek dolana kadar sürer
+    private boolean keepListening = false;
+    private long keepListeningUntil = 0;
+    private int activeLookups = 0;
+
+    private MdnsResolver(Context context) {
+        this.context = context;
+    }
+
+    public static synchronized MdnsResolver getInstance(Context context) {
+        if (instance == null) {
+            instance = new MdnsResolver(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Önbelleği ısıtmak için dinlemeyi başlatır. İlk kuluçka makinesi önbelleğe girince ya da
+     * MDNS_PREWARM_TIMEOUT dolunca soket ve multicast kilidi bırakılır; sonraki sorgularda
+     * soket yalnızca sorgu süresince açık kalır.
+     */
+    public synchronized void start() {
+        keepListening = true;
+        keepListeningUntil = SystemClock.elapsedRealtime() + Constants.MDNS_PREWARM_TIMEOUT;
+        open();
+    }
+
+    // Önbellek korunur; sonraki açılışta TTL'i dolmamış kayıtlar kullanılmaya devam eder
+    public synchronized void stop() {
+        keepListening = false;
+        if (activeLookups == 0) {
+            close();
+        }
+    }
+
+    private synchronized void beginLookup() {
+        activeLookups++;
+        open();
+    }
+
+    private synchronized void endLookup() {
+        activeLookups--;
+        if (activeLookups == 0 && !keepListening) {
+            close();
+        }
+    }
+
+    private synchronized void open() {
+        if (socket != null) {
+            return;
+        }
+
+        MulticastSocket s = null;
+        try {
+            s = new MulticastSocket(null);
+            s.setReuseAddress(true);
+            try {
+                s.bind(new InetSocketAddress(MDNS_PORT));
+                passive = true;
+            } catch (IOException e) {
+                // Başka bir uygulama portu paylaşımsız tutuyor; yanıtlar tek yönlü (legacy) gelir
+                Log.w(TAG, "5353 portu alınamadı, yalnızca sorgu yanıtları dinlenecek: " + e.getMessage());
+                s.close();
+                s = new MulticastSocket(0);
+                passive = false;
+            }
+            s.setTimeToLive(255);
+            s.setSoTimeout(RECEIVE_POLL_MS);
+
+            InetSocketAddress group = new InetSocketAddress(InetAddress.getByName(MDNS_GROUP), MDNS_PORT);
+            interfaces.clear();
+            for (NetworkInterface networkInterface : getMulticastInterfaces()) {
+                try {
+                    s.joinGroup(group, networkInterface);
+                    interfaces.add(networkInterface);
+                } catch (IOException e) {
+                    Log.w(TAG, networkInterface.getName() + " gruba katılamadı: " + e.getMessage());
+                }
+            }
+            if (interfaces.isEmpty()) {
+                // Arayüz listesi boş döndü; bağlı WiFi arayüzü üzerinden katılınır
+                NetworkInterface wifi = getWifiInterface();
+                if (wifi == null) {
+                    throw new IOException("WiFi arayüzü bulunamadı");
+                }
+                s.joinGroup(group, wifi);
+                interfaces.add(wifi);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "mDNS soketi açılamadı: " + e.getMessage());
+            if (s != null) {
+                s.close();
+            }
+            return;
+        }
+
+        acquireMulticastLock();
+        socket = s;
+        listeningSince = SystemClock.elapsedRealtime();
+        final MulticastSocket listening = s;
+        Thread listener = new Thread(() -> listen(listening), "mdns-listener");
+        listener.setDaemon(true);
+        listener.start();
+        Log.d(TAG, "mDNS dinleniyor (" + (passive ? "duyurular dahil" : "yalnızca yanıtlar") +
+                ", arayüz: " + interfaces.size() + ")");
+    }
+
+    private synchronized void close() {
+        MulticastSocket s = socket;
+        if (s == null) {
+            return;
+        }
+        socket = null;
+        s.close();
+        if (multicastLock != null && multicastLock.isHeld()) {
+            multicastLock.release();
+        }
+        Log.d(TAG, "mDNS dinlemesi durduruldu");
+    }
+
+    /**
+     * hostname'in IPv4 adresini döner; timeoutMs içinde yanıt gelmezse null.
+     * Önbellekte taze kayıt varsa hemen döner.
+     */
+    public String resolveHost(String hostname, long timeoutMs) {
+        final String name = normalize(hostname);
+        long start = SystemClock.elapsedRealtime();
+
+        synchronized (lock) {
+            String cached = lookupAddress(name, start);
+            if (cached != null) {
+                Log.d(TAG, hostname + " -> " + cached + " (önbellek)");
+                return cached;
+            }
+        }
+
+        final List<Question> questions = Collections.singletonList(new Question(name, TYPE_A));
+        final String[] result = new String[1];
+        beginLookup();
+        try {
+            await(timeoutMs, () -> questions, now -> {
+                result[0] = lookupAddress(name, now);
+                return result[0] != null;
+            });
+        } finally {
+            endLookup();
+        }
+
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        if (result[0] != null) {
+            Log.d(TAG, hostname + " -> " + result[0] + " (" + elapsed + " ms)");
+        } else {
+            Log.w(TAG, hostname + " " + elapsed + " ms içinde çözümlenemedi");
+        }
+        return result[0];
+    }
+
+    /**
+     * Ağdaki kuluçka makinelerini bulur: Constants.MDNS_SERVICE_TYPE servisinin adı ya da
+     * hostu Constants.MDNS_INSTANCE_PREFIX ile başlayan örnekleri ve aynı önekle başlayan
+     * .local hostlarını. windowMs boyunca yanıt toplanır; her yeni örnek bulunduğu anda
+     * listener'a bildirilir. Dinleme pencere süresinden uzun süredir açıksa ve önbellekte
+     * örnek varsa ağa çıkılmadan önbellek döner.
+     */
+    public List<Instance> browse(long windowMs, BrowseListener listener) {
+        beginLookup();
+        try {
+            return collect(windowMs, listener);
+        } finally {
+            endLookup();
+        }
+    }
+
+    private List<Instance> collect(long windowMs, BrowseListener listener) {
+        final Set<String> reported = new LinkedHashSet<>();
+        final Map<String, Instance> found = new LinkedHashMap<>();
+        long start = SystemClock.elapsedRealtime();
+
+        boolean warm = isWarm(start, windowMs);
+        synchronized (lock) {
+            for (Instance item : collectInstances(start)) {
+                found.put(item.getIpAddress() + ":" + item.getPort(), item);
+            }
+        }
+        if (warm && !found.isEmpty()) {
+            for (Instance item : found.values()) {
+                listener.onInstance(item);
+            }
+            Log.d(TAG, found.size() + " örnek önbellekten döndü");
+            return new ArrayList<>(found.values());
+        }
+        for (String key : found.keySet()) {
+            reported.add(key);
+            listener.onInstance(found.get(key));
+        }
+
+        final List<Instance> fresh = new ArrayList<>();
+        await(windowMs, this::browseQuestions, now -> {
+            for (Instance item : collectInstances(now)) {
+                String key = item.getIpAddress() + ":" + item.getPort();
+                if (reported.add(key)) {
+                    found.put(key, item);
+                    fresh.add(item);
+                }
+            }
+            return false;
+        }, fresh, listener);
+
+        Log.d(TAG, found.size() + " örnek bulundu (" + (SystemClock.elapsedRealtime() - start) + " ms)");
+        return new ArrayList<>(found.values());
+    }
+
+    // Duyurular en az windowMs'dir dinleniyorsa önbellek ağdaki cihazları yansıtır
+    private synchronized boolean isWarm(long now, long windowMs) {
+        return passive && socket != null && now - listeningSince >= windowMs;
+    }
+
+    private interface QuestionSource {
+        List<Question> get();
+    }
+
+    private interface Condition {
+        boolean check(long now);
+    }
+
+    private void await(long timeoutMs, QuestionSource questions, Condition condition) {
+        await(timeoutMs, questions, condition, null, null);
+    }
+
+    // Sorguları QUERY_SCHEDULE'a göre gönderir, her yeni kayıtta koşulu kilit altında yeniden değerlendirir.
+    // Koşulun pending listesine eklediği örnekler kilit dışında listener'a iletilir.
+    private void await(long timeoutMs, QuestionSource questions, Condition condition,
+                       List<Instance> pending, BrowseListener listener) {
+        long start = SystemClock.elapsedRealtime();
+        int nextQuery = 0;
+        while (true) {
+            List<Instance> ready = null;
+            List<Question> toSend = null;
+            synchronized (lock) {
+                long elapsed = SystemClock.elapsedRealtime() - start;
+                boolean done = condition.check(start + elapsed);
+                if (pending != null && !pending.isEmpty()) {
+                    ready = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                if (done || elapsed >= timeoutMs) {
+                    deliver(ready, listener);
+                    return;
+                }
+                if (nextQuery < QUERY_SCHEDULE.length && elapsed >= QUERY_SCHEDULE[nextQuery]) {
+                    toSend = questions.get();
+                    nextQuery++;
+                } else if (ready == null) {
+                    long wakeAt = nextQuery < QUERY_SCHEDULE.length ?
+                            Math.min(QUERY_SCHEDULE[nextQuery], timeoutMs) : timeoutMs;
+                    try {
+                        lock.wait(Math.max(1, wakeAt - elapsed));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            deliver(ready, listener);
+            if (toSend != null) {
+                sendQuery(toSend);
+            }
+        }
+    }
+
+    private static void deliver(List<Instance> ready, BrowseListener listener) {
+        if (ready == null || listener == null) {
+            return;
+        }
+        for (Instance item : ready) {
+            listener.onInstance(item);
+        }
+    }
+
+    // Servis listesi, varsayılan host ve eksik kalan SRV/A kayıtları için sorular; kilit altında çağrılır
+    private List<Question> browseQuestions() {
+        long now = SystemClock.elapsedRealtime();
+        List<Question> questions = new ArrayList<>();
+        questions.add(new Question(normalize(Constants.MDNS_SERVICE_TYPE), TYPE_PTR));
+        questions.add(new Question(normalize(Constants.MDNS_HOSTNAME), TYPE_A));
+
+        for (Record ptr : fresh(normalize(Constants.MDNS_SERVICE_TYPE), TYPE_PTR, now)) {
+            if (!isKuluckaName(ptr.data)) {
+                continue;
+            }
+            List<Record> srv = fresh(ptr.data, TYPE_SRV, now);
+            if (srv.isEmpty()) {
+                questions.add(new Question(ptr.data, TYPE_SRV));
+            } else if (lookupAddress(srv.get(0).data, now) == null) {
+                questions.add(new Question(srv.get(0).data, TYPE_A));
+            }
+        }
+        return questions;
+    }
+
+    // Kilit altında çağrılır
+    private List<Instance> collectInstances(long now) {
+        Map<String, Instance> result = new LinkedHashMap<>();
+        Set<String> addresses = new LinkedHashSet<>();
+
+        for (Record ptr : fresh(normalize(Constants.MDNS_SERVICE_TYPE), TYPE_PTR, now)) {
+            for (Record srv : fresh(ptr.data, TYPE_SRV, now)) {
+                if (!isKuluckaName(ptr.data) && !isKuluckaName(srv.data)) {
+                    continue;
+                }
+                String ip = lookupAddress(srv.data, now);
+                if (ip != null) {
+                    result.put(ip + ":" + srv.port, new Instance(firstLabel(ptr.data), srv.data, ip, srv.port));
+                    addresses.add(ip);
+                }
+            }
+        }
+
+        // Servis duyurmayan cihazlar yalnızca host adıyla bulunur
+        for (List<Record> records : cache.values()) {
+            for (Record record : records) {
+                if (record.type == TYPE_A && record.expiresAt > now && isKuluckaName(record.name) &&
+                        record.name.endsWith(".local") && addresses.add(record.data)) {
+                    result.put(record.data + ":" + Constants.DEFAULT_PORT, new Instance(firstLabel(record.name),
+                            record.name, record.data, Constants.DEFAULT_PORT));
+                }
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private String lookupAddress(String name, long now) {
+        List<Record> records = fresh(name, TYPE_A, now);
+        return records.isEmpty() ? null : records.get(0).data;
+    }
+
+    private List<Record> fresh(String name, int type, long now) {
+        List<Record> records = cache.get(key(name, type));
+        if (records == null) {
+            return Collections.emptyList();
+        }
+        List<Record> result = new ArrayList<>();
+        for (Record record : records) {
+            if (record.expiresAt > now) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    private void listen(MulticastSocket s) {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (socket == s) {
+            try {
+                packet.setLength(buffer.length);
+                s.receive(packet);
+                handlePacket(buffer, packet.getLength());
+            } catch (SocketTimeoutException e) {
+                // Paket gelmedi; ısıtma süresi aşağıda kontrol edilir
+            } catch (IOException e) {
+                if (socket == s) {
+                    Log.e(TAG, "mDNS okuma hatası: " + e.getMessage());
+                    close();
+                }
+                return;
+            }
+            checkPrewarm();
+        }
+    }
+
+    // Isıtma dinlemesi önbellekte cihaz varsa ya da süresi dolduysa bırakılır
+    private void checkPrewarm() {
+        long until;
+        synchronized (this) {
+            if (!keepListening) {
+                return;
+            }
+            until = keepListeningUntil;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        boolean filled;
+        synchronized (lock) {
+            filled = !collectInstances(now).isEmpty();
+        }
+        if (filled || now >= until) {
+            Log.d(TAG, filled ? "Önbellek doldu, ısıtma dinlemesi bırakılıyor"
+                    : "Isıtma süresi doldu, cihaz duyurusu alınamadı");
+            stop();
+        }
+    }
+
+    private void handlePacket(byte[] data, int length) {
+        if (length < 12 || (u16(data, 2, length) & FLAG_RESPONSE) == 0) {
+            // Diğer cihazların sorguları
+            return;
+        }
+
+        List<Record> records = new ArrayList<>();
+        Set<String> flushed = new LinkedHashSet<>();
+        long now = SystemClock.elapsedRealtime();
+        try {
+            int questionCount = u16(data, 4, length);
+            int recordCount = u16(data, 6, length) + u16(data, 8, length) + u16(data, 10, length);
+            int pos = 12;
+            for (int i = 0; i < questionCount; i++) {
+                pos = skipName(data, pos, length) + 4;
+            }
+            for (int i = 0; i < recordCount; i++) {
+                String name = readName(data, pos, length);
+                pos = skipName(data, pos, length);
+                int type = u16(data, pos, length);
+                int recordClass = u16(data, pos + 2, length);
+                long ttl = u32(data, pos + 4, length);
+                int dataLength = u16(data, pos + 8, length);
+                int dataPos = pos + 10;
+                pos = dataPos + dataLength;
+                if (pos > length) {
+                    throw new IllegalArgumentException("kayıt paket dışına taşıyor");
+                }
+                if ((recordClass & CLASS_MASK) != CLASS_IN) {
+                    continue;
+                }
+
+                // TTL 0 "goodbye" kaydıdır: cihaz ağdan ayrılıyor
+                long expiresAt = now + ttl * 1000;
+                Record record = null;
+                if (type == TYPE_A && dataLength == 4) {
+                    record = new Record(name, type, (data[dataPos] & 0xff) + "." + (data[dataPos + 1] & 0xff) +
+                            "." + (data[dataPos + 2] & 0xff) + "." + (data[dataPos + 3] & 0xff), 0, expiresAt);
+                } else if (type == TYPE_PTR) {
+                    record = new Record(name, type, readName(data, dataPos, length), 0, expiresAt);
+                } else if (type == TYPE_SRV && dataLength > 6) {
+                    record = new Record(name, type, readName(data, dataPos + 6, length),
+                            u16(data, dataPos + 4, length), expiresAt);
+                }
+                if (record != null) {
+                    records.add(record);
+                    if ((recordClass & FLAG_CACHE_FLUSH) != 0) {
+                        flushed.add(key(name, type));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            Log.d(TAG, "Bozuk mDNS paketi yok sayıldı: " + e.getMessage());
+            return;
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        synchronized (lock) {
+            // Tekil kayıtlarda yeni yanıt eski kümenin yerini alır
+            for (String key : flushed) {
+                cache.remove(key);
+            }
+            for (Record record : records) {
+                put(record, now);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // Kilit altında çağrılır
+    private void put(Record record, long now) {
+        String key = key(record.name, record.type);
+        List<Record> records = cache.remove(key);
+        if (records == null) {
+            records = new ArrayList<>();
+        }
+        Iterator<Record> iterator = records.iterator();
+        while (iterator.hasNext()) {
+            Record existing = iterator.next();
+            if (existing.expiresAt <= now ||
+                    (existing.data.equals(record.data) && existing.port == record.port)) {
+                iterator.remove();
+            }
+        }
+        if (record.expiresAt > now) {
+            records.add(record);
+        }
+        if (!records.isEmpty()) {
+            // Yeniden eklenerek en sona taşınır; taşma olursa en uzun süredir duyulmayan atılır
+            cache.put(key, records);
+        }
+
+        if (cache.size() > MAX_CACHE_ENTRIES) {
+            Iterator<Map.Entry<String, List<Record>>> entries = cache.entrySet().iterator();
+            while (entries.hasNext() && cache.size() > MAX_CACHE_ENTRIES) {
+                entries.next();
+                entries.remove();
+            }
+        }
+    }
+
+    private void sendQuery(List<Question> questions) {
+        MulticastSocket s = socket;
+        if (s == null) {
+            return;
+        }
+        byte[] query = buildQuery(questions);
+        try {
+            DatagramPacket packet = new DatagramPacket(query, query.length,
+                    InetAddress.getByName(MDNS_GROUP), MDNS_PORT);
+            synchronized (this) {
+                if (interfaces.isEmpty()) {
+                    s.send(packet);
+                    return;
+                }
+                // Her arayüzden ayrı gönderilir (ör. hem WiFi hem hotspot açıkken)
+                for (NetworkInterface networkInterface : interfaces) {
+                    s.setNetworkInterface(networkInterface);
+                    s.send(packet);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "mDNS sorgusu gönderilemedi: " + e.getMessage());
+        }
+    }
+
+    private static byte[] buildQuery(List<Question> questions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Başlık: ID 0, bayraklar 0, yalnızca soru sayısı
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, questions.size());
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        for (Question question : questions) {
+            for (String label : question.name.split("\\.")) {
+                byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+                out.write(bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+            out.write(0);
+            writeShort(out, question.type);
+            writeShort(out, CLASS_IN);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write((value >> 8) & 0xff);
+        out.write(value & 0xff);
+    }
+
+    // Sıkıştırma işaretçilerini izleyerek adı okur
+    private static String readName(byte[] data, int pos, int length) {
+        StringBuilder name = new StringBuilder();
+        int jumps = 0;
+        while (true) {
+            if (pos >= length) {
+                throw new IllegalArgumentException("ad paket dışına taşıyor");
+            }
+            int labelLength = data[pos] & 0xff;
+            if (labelLength == 0) {
+                break;
+            }
+            if ((labelLength & 0xc0) == 0xc0) {
+                if (++jumps > 16 || pos + 1 >= length) {
+                    throw new IllegalArgumentException("geçersiz ad işaretçisi");
+                }
+                pos = ((labelLength & 0x3f) << 8) | (data[pos + 1] & 0xff);
+                continue;
+            }
+            if (pos + 1 + labelLength > length) {
+                throw new IllegalArgumentException("etiket paket dışına taşıyor");
+            }
+            if (name.length() > 0) {
+                name.append('.');
+            }
+            name.append(new String(data, pos + 1, labelLength, StandardCharsets.UTF_8));
+            pos += labelLength + 1;
+        }
+        return name.toString().toLowerCase(Locale.US);
+    }
+
+    // Addan sonraki ilk baytın konumu
+    private static int skipName(byte[] data, int pos, int length) {
+        while (true) {
+            if (pos >= length) {
+                throw new IllegalArgumentException("ad paket dışına taşıyor");
+            }
+            int labelLength = data[pos] & 0xff;
+            if (labelLength == 0) {
+                return pos + 1;
+            }
+            if ((labelLength & 0xc0) == 0xc0) {
+                return pos + 2;
+            }
+            pos += labelLength + 1;
+        }
+    }
+
+    private static int u16(byte[] data, int pos, int length) {
+        if (pos + 2 > length) {
+            throw new IllegalArgumentException("paket kısa");
+        }
+        return ((data[pos] & 0xff) << 8) | (data[pos + 1] & 0xff);
+    }
+
+    private static long u32(byte[] data, int pos, int length) {
+        return ((long) u16(data, pos, length) << 16) | u16(data, pos + 2, length);
+    }
+
+    private static String key(String name, int type) {
+        return name + "/" + type;
+    }
+
+    private static String normalize(String name) {
+        String result = name.toLowerCase(Locale.US);
+        return result.endsWith(".") ? result.substring(0, result.length() - 1) : result;
+    }
+
+    private static String firstLabel(String name) {
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static boolean isKuluckaName(String name) {
+        return name.startsWith(Constants.MDNS_INSTANCE_PREFIX);
+    }
+
+    private void acquireMulticastLock() {
+        // Çoğu cihazda WiFi sürücüsü kilit alınmadan multicast paketleri uygulamaya iletmez
+        if (multicastLock == null) {
+            WifiManager wifiManager = (WifiManager) context.getSystemService(Context.WIFI_SERVICE);
+            if (wifiManager == null) {
+                return;
+            }
+            multicastLock = wifiManager.createMulticastLock(TAG);
+            multicastLock.setReferenceCounted(false);
+        }
+        multicastLock.acquire();
+    }
+
+    private NetworkInterface getWifiInterface() {
+        LinkProperties linkProperties = SubnetScanner.getWifiLinkProperties(context);
+        if (linkProperties == null || linkProperties.getInterfaceName() == null) {
+            return null;
+        }
+        try {
+            return NetworkInterface.getByName(linkProperties.getInterfaceName());
+        } catch (SocketException e) {
+            Log.w(TAG, "WiFi arayüzü alınamadı: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<NetworkInterface> getMulticastInterfaces() {
+        List<NetworkInterface> result = new ArrayList<>();
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (networkInterface.isLoopback() || !networkInterface.isUp() ||
+                        !networkInterface.supportsMulticast()) {
+                    continue;
+                }
+                for (InterfaceAddress address : networkInterface.getInterfaceAddresses()) {
+                    if (address.getAddress() instanceof Inet4Address) {
+                        result.add(networkInterface);
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Ağ arayüzleri alınamadı: " + e.getMessage());
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -1,265 +1,307 @@
 package com.kulucka.mkv5.network;
 
 import android.content.Context;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.IOException;
+import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
 import java.net.NetworkInterface;
-import java.net.SocketTimeoutException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
-
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ağdaki kuluçka makinelerini UDP broadcast ve alt ağ taraması ile bulur.
+ * UDP tarafı tek bir arka plan thread'inde bloklamayan DatagramChannel ile çalışır:
+ * broadcast'ler sabit bir zaman çizelgesine göre tekrarlanır, yanıtlar aynı döngüde toplanır.
+ * Her keşif bir oturumdur; iptal edilen oturumun geç gelen sonuçları yok sayılır.
+ */
 public class NetworkDiscoveryManager {
     private static final String TAG = "NetworkDiscoveryManager";
     private static final int DISCOVERY_PORT = 8266;
     private static final String DISCOVERY_REQUEST = "KULUCKA_DISCOVERY";
     private static final String DISCOVERY_RESPONSE_PREFIX = "KULUCKA_DEVICE:";
-    private static final int TIMEOUT_MS = 3000; // 3 saniye timeout
-    private static final int MAX_DISCOVERY_TIME = 15000; // 15 saniye maksimum
+
+    // Başlangıçtan itibaren broadcast gönderim anları (ms)
+    private static final long[] BROADCAST_SCHEDULE = {0, 250, 750, 1750, 3750};
+    // Son broadcast'ten sonra yanıt bekleme süresi
+    private static final long LISTEN_TAIL_MS = 1500;
 
     private Context context;
-    private DiscoveryTask discoveryTask;
     private DiscoveryCallback callback;
+    private DiscoveryTimingListener timingListener;
     private boolean isDiscoveryActive = false;
 
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private DiscoverySession currentSession;
+
     public interface DiscoveryCallback {
         void onDeviceFound(String ipAddress, int port);
         void onDiscoveryComplete();
         void onError(String error);
     }
 
+    // Keşif süresini ölçmek için opsiyonel dinleyici
+    public interface DiscoveryTimingListener {
+        void onFirstDevice(long elapsedMs, String source);
+        void onDiscoveryFinished(long elapsedMs, int deviceCount);
+    }
+
+    private class DiscoverySession {
+        final long startTime = SystemClock.elapsedRealtime();
+        final Set<String> reportedDevices = new HashSet<>();
+        final SubnetScanner subnetScanner = new SubnetScanner(context);
+        volatile boolean cancelled = false;
+        volatile Selector selector;
+        int pendingSources = 2;
+
+        long elapsed() {
+            return SystemClock.elapsedRealtime() - startTime;
+        }
+
+        void cancel() {
+            cancelled = true;
+            subnetScanner.cancel();
+            Selector s = selector;
+            if (s != null) {
+                s.wakeup();
+            }
+        }
+    }
+
     public NetworkDiscoveryManager(Context context) {
         this.context = context;
     }
 
+    public void setTimingListener(DiscoveryTimingListener timingListener) {
+        this.timingListener = timingListener;
+    }
+
+    /**
+     * Keşfi başlatır. Keşif zaten sürüyorsa yeni oturum açılmaz; callback süren oturuma bağlanır,
+     * o ana kadar bulunan cihazlar hemen bildirilir ve oturum bitince onDiscoveryComplete gelir.
+     * Ana thread'den çağrılmalıdır.
+     */
     public void startDiscovery(DiscoveryCallback callback) {
-        if (isDiscoveryActive) {
-            Log.w(TAG, "Discovery zaten aktif, yeni discovery başlatılmıyor");
+        DiscoverySession running = currentSession;
+        if (isDiscoveryActive && running != null && !running.cancelled) {
+            Log.d(TAG, "Discovery zaten aktif, süren oturuma bağlanılıyor");
+            this.callback = callback;
+            for (String device : new ArrayList<>(running.reportedDevices)) {
+                int separator = device.lastIndexOf(':');
+                callback.onDeviceFound(device.substring(0, separator),
+                        Integer.parseInt(device.substring(separator + 1)));
+            }
             return;
         }
 
         this.callback = callback;
         this.isDiscoveryActive = true;
 
-        if (discoveryTask != null && !discoveryTask.isCancelled()) {
-            discoveryTask.cancel(true);
-        }
+        DiscoverySession session = new DiscoverySession();
+        currentSession = session;
+
+        executor.execute(() -> {
+            // Alt ağ taraması kendi OkHttp thread'lerinde yürür, burada sadece başlatılır
+            session.subnetScanner.start(new SubnetScanner.ScanListener() {
+                @Override
+                public void onHostFound(String ipAddress, int port, ApiService.DiscoveryResponse info) {
+                    reportDevice(session, ipAddress, port, "http");
+                }
+
+                @Override
+                public void onScanComplete(int probedHosts) {
+                    Log.d(TAG, "Alt ağ taraması bitti, " + probedHosts + " adres yoklandı");
+                    sourceFinished(session);
+                }
+            });
 
-        discoveryTask = new DiscoveryTask();
-        discoveryTask.execute();
+            try {
+                runUdpDiscovery(session);
+            } catch (IOException e) {
+                Log.e(TAG, "Discovery hatası: " + e.getMessage());
+                mainHandler.post(() -> {
+                    if (session == currentSession && callback != null) {
+                        callback.onError(e.getMessage());
+                    }
+                });
+            } finally {
+                mainHandler.post(() -> sourceFinished(session));
+            }
+        });
     }
 
     public void stopDiscovery() {
         isDiscoveryActive = false;
-        if (discoveryTask != null && !discoveryTask.isCancelled()) {
-            discoveryTask.cancel(true);
-            discoveryTask = null;
+        if (currentSession != null) {
+            currentSession.cancel();
+            currentSession = null;
         }
     }
 
-    private class DiscoveryTask extends AsyncTask<Void, String, String> {
-        private DatagramSocket socket;
-        private boolean deviceFound = false;
-
-        @Override
-        protected String doInBackground(Void... voids) {
-            try {
-                // UDP broadcast socket oluştur
-                socket = new DatagramSocket();
-                socket.setBroadcast(true);
-                socket.setSoTimeout(TIMEOUT_MS);
-                socket.setReuseAddress(true);
-
-                // Broadcast mesajını hazırla
-                byte[] sendData = DISCOVERY_REQUEST.getBytes();
-
-                // Farklı broadcast adreslerini dene
-                String[] broadcastAddresses = {
-                        "255.255.255.255",    // Genel broadcast
-                        "192.168.4.255",      // AP modu için
-                        "192.168.1.255",      // Yaygın ev ağları
-                        "192.168.0.255",      // Yaygın ev ağları
-                        "10.0.0.255",         // Bazı kurumsal ağlar
-                        "172.16.0.255"        // Bazı özel ağlar
-                };
-
-                // Aynı anda tüm adreslere broadcast gönder
-                for (String address : broadcastAddresses) {
-                    if (isCancelled()) break;
-                    tryBroadcast(sendData, address);
-                }
-
-                // Yanıt bekle
-                byte[] recvBuf = new byte[1024];
-                DatagramPacket receivePacket = new DatagramPacket(recvBuf, recvBuf.length);
-
-                long startTime = System.currentTimeMillis();
-                while (!isCancelled() && !deviceFound &&
-                        (System.currentTimeMillis() - startTime) < MAX_DISCOVERY_TIME) {
-                    try {
-                        socket.receive(receivePacket);
-                        String response = new String(receivePacket.getData(), 0, receivePacket.getLength()).trim();
-
-                        Log.d(TAG, "Yanıt alındı: " + response + " from " +
-                                receivePacket.getAddress().getHostAddress());
+    // Yönetici artık kullanılmayacaksa (ör. Activity onDestroy) keşif thread'ini de kapatır
+    public void shutdown() {
+        stopDiscovery();
+        executor.shutdownNow();
+    }
 
-                        if (response.startsWith(DISCOVERY_RESPONSE_PREFIX)) {
-                            String deviceInfo = response.substring(DISCOVERY_RESPONSE_PREFIX.length());
-                            String[] parts = deviceInfo.split(":");
+    private void runUdpDiscovery(DiscoverySession session) throws IOException {
+        try (DatagramChannel channel = DatagramChannel.open();
+             Selector selector = Selector.open()) {
+            channel.configureBlocking(false);
+            channel.socket().setBroadcast(true);
+            channel.bind(null);
+            channel.register(selector, SelectionKey.OP_READ);
+            session.selector = selector;
 
-                            if (parts.length >= 2) {
-                                String ip = receivePacket.getAddress().getHostAddress();
-                                int port = 80; // Varsayılan port
+            Set<InetSocketAddress> targets = getBroadcastTargets();
+            ByteBuffer request = ByteBuffer.wrap(DISCOVERY_REQUEST.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer receiveBuffer = ByteBuffer.allocate(1024);
 
-                                try {
-                                    port = Integer.parseInt(parts[1].trim());
-                                } catch (NumberFormatException e) {
-                                    Log.w(TAG, "Port parse hatası, varsayılan kullanılıyor: " + e.getMessage());
-                                }
+            long deadline = BROADCAST_SCHEDULE[BROADCAST_SCHEDULE.length - 1] + LISTEN_TAIL_MS;
+            int nextBroadcast = 0;
 
-                                deviceFound = true;
-                                publishProgress(ip + ":" + port);
+            while (!session.cancelled) {
+                long now = session.elapsed();
 
-                                Log.d(TAG, "Cihaz bulundu: " + ip + ":" + port);
-                                return ip + ":" + port;
-                            }
-                        }
-                    } catch (SocketTimeoutException e) {
-                        // Timeout normal, devam et
-
-                        // Her 3 saniyede bir yeniden broadcast gönder
-                        if ((System.currentTimeMillis() - startTime) % 3000 < 100) {
-                            for (String address : broadcastAddresses) {
-                                if (isCancelled()) break;
-                                tryBroadcast(sendData, address);
-                            }
+                if (nextBroadcast < BROADCAST_SCHEDULE.length && now >= BROADCAST_SCHEDULE[nextBroadcast]) {
+                    for (InetSocketAddress target : targets) {
+                        try {
+                            channel.send(request.duplicate(), target);
+                        } catch (IOException e) {
+                            Log.w(TAG, "Broadcast hatası (" + target + "): " + e.getMessage());
                         }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Receive hatası: " + e.getMessage());
                     }
+                    Log.d(TAG, "Broadcast #" + (nextBroadcast + 1) + " gönderildi (" + now + " ms)");
+                    nextBroadcast++;
+                    continue;
                 }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Discovery hatası: " + e.getMessage());
-                return "error:" + e.getMessage();
-            } finally {
-                if (socket != null && !socket.isClosed()) {
-                    socket.close();
+                if (now >= deadline) {
+                    break;
                 }
-                isDiscoveryActive = false;
-            }
 
-            return null;
+                long wakeAt = nextBroadcast < BROADCAST_SCHEDULE.length ?
+                        BROADCAST_SCHEDULE[nextBroadcast] : deadline;
+                selector.select(Math.max(1, wakeAt - now));
+                selector.selectedKeys().clear();
+
+                // Aynı anda gelen tüm yanıtları boşalt
+                SocketAddress from;
+                while (!session.cancelled && (from = channel.receive(receiveBuffer)) != null) {
+                    receiveBuffer.flip();
+                    String response = StandardCharsets.US_ASCII.decode(receiveBuffer).toString().trim();
+                    receiveBuffer.clear();
+                    handleReply(session, response, from);
+                }
+            }
+        } finally {
+            session.selector = null;
         }
+    }
 
-        private void tryBroadcast(byte[] data, String broadcastAddress) {
-            try {
-                InetAddress address = InetAddress.getByName(broadcastAddress);
-                DatagramPacket packet = new DatagramPacket(data, data.length, address, DISCOVERY_PORT);
-
-                // Birden fazla kez gönder güvenilirlik için
-                for (int i = 0; i < 3; i++) {
-                    if (!isCancelled()) {
-                        socket.send(packet);
-                        Thread.sleep(50); // 50ms bekle
-                    }
-                }
+    private void handleReply(DiscoverySession session, String response, SocketAddress from) {
+        if (!response.startsWith(DISCOVERY_RESPONSE_PREFIX) || !(from instanceof InetSocketAddress)) {
+            return;
+        }
 
-                Log.d(TAG, "Broadcast gönderildi: " + broadcastAddress);
-            } catch (Exception e) {
-                Log.w(TAG, "Broadcast hatası (" + broadcastAddress + "): " + e.getMessage());
-            }
+        String[] parts = response.substring(DISCOVERY_RESPONSE_PREFIX.length()).split(":");
+        if (parts.length < 2) {
+            return;
         }
 
-        @Override
-        protected void onProgressUpdate(String... values) {
-            // Cihaz bulunduğunda UI thread'e bildir
-            if (values.length > 0 && callback != null) {
-                String result = values[0];
-                String[] parts = result.split(":");
-                if (parts.length >= 2) {
-                    try {
-                        String ip = parts[0];
-                        int port = Integer.parseInt(parts[1]);
-                        callback.onDeviceFound(ip, port);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Progress update hatası: " + e.getMessage());
-                    }
-                }
-            }
+        String ip = ((InetSocketAddress) from).getAddress().getHostAddress();
+        int port = 80; // Varsayılan port
+        try {
+            port = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Port parse hatası, varsayılan kullanılıyor: " + e.getMessage());
         }
 
-        @Override
-        protected void onPostExecute(String result) {
-            isDiscoveryActive = false;
+        final int devicePort = port;
+        mainHandler.post(() -> reportDevice(session, ip, devicePort, "udp"));
+    }
 
-            if (result != null) {
-                if (result.startsWith("error:")) {
-                    if (callback != null) {
-                        callback.onError(result.substring(6));
-                    }
-                } else if (!deviceFound) {
-                    // Bu durumda zaten onProgressUpdate'te bildirildi
-                    String[] parts = result.split(":");
-                    if (parts.length >= 2 && callback != null) {
-                        try {
-                            callback.onDeviceFound(parts[0], Integer.parseInt(parts[1]));
-                        } catch (Exception e) {
-                            callback.onError("Port parse hatası: " + e.getMessage());
-                        }
-                    }
-                }
-            }
+    // Ana thread'de çağrılır; aynı cihaz iki kaynaktan gelse de bir kez bildirilir
+    private void reportDevice(DiscoverySession session, String ip, int port, String source) {
+        if (session != currentSession || session.cancelled) {
+            return;
+        }
+        if (!session.reportedDevices.add(ip + ":" + port)) {
+            return;
+        }
 
-            if (callback != null) {
-                callback.onDiscoveryComplete();
-            }
+        Log.d(TAG, "Cihaz bulundu (" + source + "): " + ip + ":" + port);
+        if (session.reportedDevices.size() == 1 && timingListener != null) {
+            timingListener.onFirstDevice(session.elapsed(), source);
+        }
+        if (callback != null) {
+            callback.onDeviceFound(ip, port);
         }
+    }
 
-        @Override
-        protected void onCancelled() {
-            isDiscoveryActive = false;
+    private void sourceFinished(DiscoverySession session) {
+        if (session.pendingSources == 0) {
+            return;
+        }
+        session.pendingSources--;
+        if (session.pendingSources > 0) {
+            return;
+        }
 
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
-            }
+        Log.d(TAG, "Keşif bitti: " + session.reportedDevices.size() + " cihaz, " +
+                session.elapsed() + " ms");
+        if (timingListener != null) {
+            timingListener.onDiscoveryFinished(session.elapsed(), session.reportedDevices.size());
+        }
 
+        if (session == currentSession) {
+            currentSession = null;
+            isDiscoveryActive = false;
             if (callback != null) {
                 callback.onDiscoveryComplete();
             }
         }
     }
 
-    // Utility metod - Mevcut ağ arayüzlerini kontrol et
-    private String getLocalBroadcastAddress() {
+    // Arayüzlerin gerçek broadcast adresleri + genel broadcast + AP modu ağı
+    private Set<InetSocketAddress> getBroadcastTargets() {
+        Set<InetSocketAddress> targets = new LinkedHashSet<>();
         try {
-            List<NetworkInterface> interfaces = Collections.list(NetworkInterface.getNetworkInterfaces());
-            for (NetworkInterface networkInterface : interfaces) {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
                 if (networkInterface.isLoopback() || !networkInterface.isUp()) {
                     continue;
                 }
-
-                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
-                    if (!address.isLoopbackAddress() && address.isSiteLocalAddress()) {
-                        String hostAddress = address.getHostAddress();
-                        if (hostAddress != null && hostAddress.indexOf(':') < 0) { // IPv4
-                            // Broadcast adresini hesapla
-                            String[] parts = hostAddress.split("\\.");
-                            if (parts.length == 4) {
-                                return parts[0] + "." + parts[1] + "." + parts[2] + ".255";
-                            }
-                        }
+                for (InterfaceAddress address : networkInterface.getInterfaceAddresses()) {
+                    InetAddress broadcast = address.getBroadcast();
+                    if (address.getAddress() instanceof Inet4Address && broadcast != null) {
+                        targets.add(new InetSocketAddress(broadcast, DISCOVERY_PORT));
                     }
                 }
             }
         } catch (Exception e) {
             Log.e(TAG, "Broadcast adresi alınamadı: " + e.getMessage());
         }
-        return "255.255.255.255"; // Varsayılan
+
+        targets.add(new InetSocketAddress("255.255.255.255", DISCOVERY_PORT));
+        targets.add(new InetSocketAddress("192.168.4.255", DISCOVERY_PORT)); // AP modu için
+        return targets;
     }
 }
\ No newline at end of file
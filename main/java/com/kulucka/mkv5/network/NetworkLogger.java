@@ -0,0 +1,260 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Endpoint bazlı seviyeli HTTP log interceptor'u.
+ * Her istek için yalnızca özet bilgi (metod, yol, kod, süre, boyut) halka tampona yazılır;
+ * gövde sadece BODY seviyesindeki endpoint'lerde ve sınırlı boyutta okunur.
+ * Sık sorgulanan endpoint'ler BASIC seviyede ve örneklenerek loglanır, gövdeleri kopyalanmaz.
+ */
+public class NetworkLogger implements Interceptor {
+    private static final String TAG = "HTTP";
+    private static NetworkLogger instance;
+
+    public enum Level {
+        NONE,       // Logcat'e yazma, sadece halka tampona özet
+        BASIC,      // Metod, yol, kod, süre, boyut
+        HEADERS,    // + header'lar
+        BODY        // + gövde (HTTP_LOG_MAX_BODY_BYTES ile sınırlı)
+    }
+
+    private static class Rule {
+        final Level level;
+        final int sampleRate; // Her N istekten biri Logcat'e yazılır
+        final AtomicLong counter = new AtomicLong();
+
+        Rule(Level level, int sampleRate) {
+            this.level = level;
+            this.sampleRate = Math.max(1, sampleRate);
+        }
+
+        boolean sampled() {
+            return counter.getAndIncrement() % sampleRate == 0;
+        }
+    }
+
+    // Tampondaki tek bir istek/yanıt özeti
+    private static class Exchange {
+        long time;
+        String method;
+        String path;
+        int code;
+        long durationMs;
+        long responseBytes;
+        String error;
+        String body;
+    }
+
+    // Yol önekine göre kurallar; en uzun eşleşen önek geçerli
+    private final TreeMap<String, Rule> rules = new TreeMap<>();
+    private volatile Rule defaultRule = new Rule(Level.HEADERS, 1);
+
+    private final Exchange[] ring = new Exchange[Constants.HTTP_LOG_RING_SIZE];
+    private int ringNext = 0;
+    private int ringCount = 0;
+
+    private NetworkLogger() {
+        // Dashboard ve arka plan sorguları: gövde yok, 30 istekte bir log
+        setEndpointLevel("/api/status", Level.BASIC, 30);
+        setEndpointLevel("/api/pid/status", Level.BASIC, 30);
+        setEndpointLevel("/api/rtc/status", Level.BASIC, 30);
+        setEndpointLevel("/api/motor/status", Level.BASIC, 30);
+        setEndpointLevel("/api/ping", Level.BASIC, 30);
+        setEndpointLevel("/api/ota/progress", Level.BASIC, 10);
+
+        // Büyük gövdeler: firmware yükleme ve loglar asla gövdeyle loglanmaz
+        setEndpointLevel("/api/ota/update", Level.BASIC, 1);
+        setEndpointLevel("/api/system/logs", Level.BASIC, 1);
+        setEndpointLevel("/api/wifi/networks", Level.BASIC, 1);
+    }
+
+    public static synchronized NetworkLogger getInstance() {
+        if (instance == null) {
+            instance = new NetworkLogger();
+        }
+        return instance;
+    }
+
+    public synchronized void setEndpointLevel(String pathPrefix, Level level, int sampleRate) {
+        rules.put(pathPrefix, new Rule(level, sampleRate));
+    }
+
+    public void setDefaultLevel(Level level) {
+        defaultRule = new Rule(level, 1);
+    }
+
+    private synchronized Rule ruleFor(String path) {
+        Map.Entry<String, Rule> entry = rules.floorEntry(path);
+        while (entry != null) {
+            if (path.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+            entry = rules.lowerEntry(entry.getKey());
+        }
+        return defaultRule;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String path = request.url().encodedPath();
+        Rule rule = ruleFor(path);
+        boolean logToLogcat = rule.level != Level.NONE && rule.sampled();
+
+        Exchange exchange = new Exchange();
+        exchange.time = System.currentTimeMillis();
+        exchange.method = request.method();
+        exchange.path = path;
+
+        if (logToLogcat) {
+            StringBuilder sb = new StringBuilder("--> ").append(request.method()).append(' ').append(path);
+            if (rule.level.compareTo(Level.HEADERS) >= 0) {
+                sb.append('\n').append(request.headers());
+            }
+            if (rule.level == Level.BODY) {
+                appendRequestBody(sb, request.body());
+            }
+            Log.d(TAG, sb.toString());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            exchange.durationMs = (System.nanoTime() - start) / 1_000_000;
+            exchange.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            record(exchange);
+            if (rule.level != Level.NONE) {
+                // Hatalar örneklemeden bağımsız her zaman loglanır
+                Log.w(TAG, "<-- HATA " + path + " (" + exchange.durationMs + " ms): " + exchange.error);
+            }
+            throw e;
+        }
+
+        exchange.durationMs = (System.nanoTime() - start) / 1_000_000;
+        exchange.code = response.code();
+        ResponseBody body = response.body();
+        // Content-Length yoksa -1; gövde okunmaz
+        exchange.responseBytes = body != null ? body.contentLength() : 0;
+
+        if (rule.level == Level.BODY && body != null) {
+            exchange.body = peekBody(response);
+        }
+        record(exchange);
+
+        if (logToLogcat || (!response.isSuccessful() && rule.level != Level.NONE)) {
+            StringBuilder sb = new StringBuilder("<-- ").append(response.code()).append(' ')
+                    .append(path).append(" (").append(exchange.durationMs).append(" ms, ")
+                    .append(exchange.responseBytes >= 0 ? exchange.responseBytes + " B" : "? B")
+                    .append(')');
+            if (rule.level.compareTo(Level.HEADERS) >= 0) {
+                sb.append('\n').append(response.headers());
+            }
+            if (exchange.body != null) {
+                sb.append('\n').append(exchange.body);
+            }
+            Log.d(TAG, sb.toString());
+        }
+
+        return response;
+    }
+
+    private void appendRequestBody(StringBuilder sb, RequestBody body) {
+        if (body == null) {
+            return;
+        }
+        try {
+            // Akış halindeki veya büyük gövdeler (firmware vb.) kopyalanmaz
+            long length = body.contentLength();
+            if (body.isOneShot() || body.isDuplex() || length < 0 || length > Constants.HTTP_LOG_MAX_BODY_BYTES) {
+                sb.append("\n(gövde ").append(length).append(" B, loglanmadı)");
+                return;
+            }
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            sb.append('\n').append(buffer.readUtf8());
+        } catch (IOException e) {
+            sb.append("\n(gövde okunamadı)");
+        }
+    }
+
+    private String peekBody(Response response) {
+        MediaType type = response.body().contentType();
+        if (type != null && !"json".equals(type.subtype()) && !"text".equals(type.type())) {
+            return "(ikili gövde)";
+        }
+        try {
+            return response.peekBody(Constants.HTTP_LOG_MAX_BODY_BYTES).string();
+        } catch (IOException e) {
+            return "(gövde okunamadı)";
+        }
+    }
+
+    private synchronized void record(Exchange exchange) {
+        ring[ringNext] = exchange;
+        ringNext = (ringNext + 1) % ring.length;
+        if (ringCount < ring.length) {
+            ringCount++;
+        }
+    }
+
+    /**
+     * Halka tampondaki son istekleri eskiden yeniye metin olarak döndürür.
+     * Hata raporlarına eklemek veya Logcat'e dökmek için kullanılır.
+     */
+    public synchronized String dump() {
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        StringBuilder sb = new StringBuilder();
+        int start = (ringNext - ringCount + ring.length) % ring.length;
+        for (int i = 0; i < ringCount; i++) {
+            Exchange e = ring[(start + i) % ring.length];
+            sb.append(format.format(new Date(e.time))).append(' ')
+                    .append(e.method).append(' ').append(e.path).append(' ');
+            if (e.error != null) {
+                sb.append("HATA ").append(e.error);
+            } else {
+                sb.append(e.code);
+            }
+            sb.append(' ').append(e.durationMs).append(" ms");
+            if (e.responseBytes >= 0) {
+                sb.append(' ').append(e.responseBytes).append(" B");
+            }
+            if (e.body != null) {
+                sb.append('\n').append(e.body);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void dumpToLog() {
+        for (String line : dump().split("\n")) {
+            Log.i(TAG, line);
+        }
+    }
+
+    public synchronized void clear() {
+        ringNext = 0;
+        ringCount = 0;
+    }
+}
\ No newline at end of file
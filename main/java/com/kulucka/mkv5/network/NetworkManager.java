@@ -2,10 +2,13 @@ package com.kulucka.mkv5.network;
 
 import android.content.Context;
 import android.net.ConnectivityManager;
+import android.net.Uri;
 import android.net.NetworkInfo;
 import android.util.Log;
 
 import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.storage.TelemetryStore;
+import com.kulucka.mkv5.utils.AlarmEvaluator;
 import com.kulucka.mkv5.utils.Constants;
 import com.kulucka.mkv5.utils.SharedPreferencesManager;
 
@@ -17,18 +20,39 @@ import retrofit2.Callback;
 import retrofit2.Response;
 import okhttp3.ResponseBody;
 
-import okhttp3.MediaType;
 import okhttp3.MultipartBody;
-import okhttp3.RequestBody;
-import java.io.File;
 
 public class NetworkManager {
     private static final String TAG = "NetworkManager";
     private static NetworkManager instance;
     private final Context context;
-    private ApiService apiService;
+    private final ApiService apiService;
     private String baseUrl;
     private SharedPreferencesManager prefsManager;
+    private final StatusSnapshotAggregator snapshotAggregator = new StatusSnapshotAggregator();
+    private final StatusPushChannel statusPushChannel = new StatusPushChannel();
+    private final StatusStream statusStream = new StatusStream(this::fetchStreamSnapshot, this::setPushReceiver);
+    private final TelemetryStore telemetryStore;
+    private final CommandOutbox commandOutbox;
+    private final CommandBatcher commandBatcher;
+
+    // Ayar komutlarının gideceği güncel cihaz
+    private final CommandOutbox.DeviceSource commandTarget = new CommandOutbox.DeviceSource() {
+        @Override
+        public ApiService getService() {
+            return apiService;
+        }
+
+        @Override
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        @Override
+        public boolean isNetworkAvailable() {
+            return NetworkManager.this.isNetworkAvailable();
+        }
+    };
 
     public void testMotor(int duration, Callback<ApiService.MotorTestResponse> callback) {
         Map<String, Object> params = new HashMap<>();
@@ -38,9 +62,9 @@ public class NetworkManager {
         apiService.testMotor(params).enqueue(callback);
     }
 
-    // YENİ: Sistem kaydetme metodu
+    // Bekleyen ayar yazması varsa onların ardından gelen tek kayda eklenir
     public void saveSystem(Callback<ApiService.SystemSaveResponse> callback) {
-        apiService.saveSystem().enqueue(callback);
+        commandBatcher.save(callback);
     }
 
     // YENİ: WiFi credential kontrolü
@@ -64,7 +88,11 @@ public class NetworkManager {
     private NetworkManager(Context context) {
         this.context = context.getApplicationContext();
         this.prefsManager = SharedPreferencesManager.getInstance(context);
+        this.telemetryStore = TelemetryStore.getInstance(context);
+        this.apiService = RetrofitClient.getDeviceClient().create(ApiService.class);
         updateBaseUrl();
+        this.commandOutbox = new CommandOutbox(context, commandTarget);
+        this.commandBatcher = new CommandBatcher(commandTarget, commandOutbox);
     }
 
     public static synchronized NetworkManager getInstance(Context context) {
@@ -78,8 +106,10 @@ public class NetworkManager {
         String ip = prefsManager.getDeviceIp();
         int port = prefsManager.getDevicePort();
         baseUrl = "http://" + ip + ":" + port;
-        apiService = RetrofitClient.getClient(baseUrl).create(ApiService.class);
-        Log.d(TAG, "Base URL updated: " + baseUrl);
+        if (RetrofitClient.getDeviceRouter().switchTo(baseUrl)) {
+            Log.d(TAG, "Base URL updated: " + baseUrl);
+        }
+        statusPushChannel.setBaseUrl(baseUrl);
     }
 
     public void resetConnection() {
@@ -106,22 +136,110 @@ public class NetworkManager {
         apiService.getStatus().enqueue(callback);
     }
 
+    // Dashboard için durum + PID + RTC bilgisini tek snapshot olarak getir
+    public void getStatusSnapshot(StatusSnapshotAggregator.SnapshotCallback callback) {
+        if (!isNetworkAvailable()) {
+            callback.onFailure(new Exception("Ağ bağlantısı yok"));
+            return;
+        }
+        snapshotAggregator.fetch(apiService, callback);
+    }
+
+    // Eski üç istekli akışa göre son bir dakikada kazanılan istek sayısı
+    public int getSavedRequestsPerMinute() {
+        return snapshotAggregator.getSavedRequestsPerMinute();
+    }
+
+    // Akıştan geçen her snapshot telemetri geçmişine de yazılır
+    // Son durum alarmdaysa sorgular diğer cihaz sorgularının önüne geçer
+    private void fetchStreamSnapshot(StatusSnapshotAggregator.SnapshotCallback callback) {
+        StatusSnapshot last = statusStream.getLastSnapshot();
+        boolean alarmActive = last != null && AlarmEvaluator.evaluate(last.getDeviceStatus()) != null;
+        PriorityCallAdapterFactory.runWithPriority(alarmActive ?
+                PriorityCallAdapterFactory.PRIORITY_ALARM : PriorityCallAdapterFactory.PRIORITY_POLL,
+                () -> fetchStreamSnapshotNow(callback));
+    }
+
+    private void fetchStreamSnapshotNow(StatusSnapshotAggregator.SnapshotCallback callback) {
+        getStatusSnapshot(new StatusSnapshotAggregator.SnapshotCallback() {
+            @Override
+            public void onSnapshot(StatusSnapshot snapshot) {
+                telemetryStore.record(snapshot.getDeviceStatus(), snapshot.getTimestamp());
+                commandOutbox.onDeviceReachable();
+                callback.onSnapshot(snapshot);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                callback.onFailure(t);
+            }
+        });
+    }
+
+    // Push kanalı yalnızca akışın abonesi varken açık tutulur; gelen durumlar telemetriye de yazılır
+    private void setPushReceiver(StatusStream.PushReceiver receiver) {
+        if (receiver == null) {
+            statusPushChannel.stop();
+            return;
+        }
+        statusPushChannel.start(baseUrl, new StatusStream.PushReceiver() {
+            @Override
+            public void onPushAvailable(boolean available) {
+                receiver.onPushAvailable(available);
+            }
+
+            @Override
+            public void onPushStatus(DeviceStatus status, long timestamp) {
+                telemetryStore.record(status, timestamp);
+                receiver.onPushStatus(status, timestamp);
+            }
+        });
+    }
+
+    // Cihaz push kanalı üzerinden anlık güncelleme gönderiyor mu
+    public boolean isStatusPushActive() {
+        return statusStream.isPushActive();
+    }
+
+    // Ortak durum akışına abone ol - ekranlar kendi sorgu döngüsünü çalıştırmaz
+    public void subscribeStatus(StatusStream.StatusListener listener, long intervalMs) {
+        statusStream.subscribe(listener, intervalMs);
+    }
+
+    // Sabit aralıklı abonelik: makine sakinken de yavaşlatılmaz (ör. motor testi izlenirken)
+    public void subscribeStatusFixed(StatusStream.StatusListener listener, long intervalMs) {
+        statusStream.subscribe(listener, intervalMs, false);
+    }
+
+    public void unsubscribeStatus(StatusStream.StatusListener listener) {
+        statusStream.unsubscribe(listener);
+    }
+
+    // Aboneler için hemen bir güncelleme iste (ör. swipe refresh)
+    public void refreshStatus() {
+        statusStream.refresh();
+    }
+
+    public StatusSnapshot getLastStatusSnapshot() {
+        return statusStream.getLastSnapshot();
+    }
+
     public void setTemperature(float temperature, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("targetTemp", temperature);
-        apiService.setTemperature(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setHumidity(float humidity, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("targetHumid", humidity);
-        apiService.setHumidity(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setPidMode(int mode, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("pidMode", mode);
-        apiService.setPidParameters(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setPidParameters(float kp, float ki, float kd, Callback<okhttp3.ResponseBody> callback) {
@@ -129,20 +247,20 @@ public class NetworkManager {
         params.put("kp", kp);  // ESP32 direkt kp, ki, kd bekliyor
         params.put("ki", ki);
         params.put("kd", kd);
-        apiService.setPidParameters(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setMotorSettings(int waitTime, int runTime, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("waitTime", waitTime);     // motorWaitTime yerine waitTime
         params.put("runTime", runTime);       // motorRunTime yerine runTime
-        apiService.setMotorSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setAlarmEnabled(boolean enabled, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("alarmEnabled", enabled);
-        apiService.setAlarmSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setAlarmLimits(float tempLow, float tempHigh, float humidLow, float humidHigh,
@@ -152,7 +270,7 @@ public class NetworkManager {
         params.put("tempHighAlarm", tempHigh);
         params.put("humidLowAlarm", humidLow);
         params.put("humidHighAlarm", humidHigh);
-        apiService.setAlarmSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setCalibration(int sensor, float tempCal, float humidCal,
@@ -165,25 +283,43 @@ public class NetworkManager {
             params.put("tempCalibration2", tempCal);
             params.put("humidCalibration2", humidCal);
         }
-        apiService.setCalibration(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setIncubationType(int type, Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("incubationType", type);
-        apiService.setIncubationSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
+    // Cihaz başlatmayı onaylayınca önceki kuluçkanın telemetri geçmişi silinir
     public void startIncubation(Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("isIncubationRunning", true);
-        apiService.setIncubationSettings(params).enqueue(callback);
+        commandBatcher.write(params, new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                if (response.isSuccessful()) {
+                    telemetryStore.clear();
+                }
+                callback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable t) {
+                // Kayıt başarısız olsa da cihazda kuluçka başlamıştır
+                if (t instanceof CommandBatcher.SaveFailedException) {
+                    telemetryStore.clear();
+                }
+                callback.onFailure(call, t);
+            }
+        });
     }
 
     public void stopIncubation(Callback<okhttp3.ResponseBody> callback) {
         Map<String, Object> params = new HashMap<>();
         params.put("isIncubationRunning", false);
-        apiService.setIncubationSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void setManualIncubationParams(float devTemp, float hatchTemp, int devHumid,
@@ -196,7 +332,7 @@ public class NetworkManager {
         params.put("manualHatchHumid", hatchHumid);
         params.put("manualDevDays", devDays);
         params.put("manualHatchDays", hatchDays);
-        apiService.setIncubationSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     public void getWifiNetworks(Callback<ApiService.WifiNetworksResponse> callback) {
@@ -317,26 +453,16 @@ public class NetworkManager {
         });
     }
 
-    // YENİ: Toplu parametre güncelleme metodu
+    // Toplu parametre güncelleme: parametreler endpoint'lerine ayrılır, her endpoint'e
+    // tek istek ve ardından tek kayıt gider (CommandBatcher)
     public void updateMultipleParameters(Map<String, Object> parameters,
                                          Callback<ResponseBody> callback) {
-        // Parametrelerin türüne göre uygun endpoint'i belirle
-        if (parameters.containsKey("targetTemp") || parameters.containsKey("targetHumid")) {
-            if (parameters.containsKey("targetTemp")) {
-                apiService.setTemperature(parameters).enqueue(callback);
-            } else {
-                apiService.setHumidity(parameters).enqueue(callback);
-            }
-        } else if (parameters.containsKey("pidKp") || parameters.containsKey("pidKi") ||
-                parameters.containsKey("pidKd") || parameters.containsKey("pidMode")) {
-            apiService.setPidParameters(parameters).enqueue(callback);
-        } else if (parameters.containsKey("alarmEnabled") ||
-                parameters.containsKey("tempLowAlarm")) {
-            apiService.setAlarmSettings(parameters).enqueue(callback);
-        } else if (parameters.containsKey("incubationType") ||
-                parameters.containsKey("isIncubationRunning")) {
-            apiService.setIncubationSettings(parameters).enqueue(callback);
-        }
+        commandBatcher.write(parameters, callback);
+    }
+
+    // Bağlantı yokken kuyruğa alınmış, henüz cihaza gitmemiş ayar komutu sayısı
+    public int getPendingCommandCount() {
+        return commandOutbox.getPendingCount();
     }
 
     // YENİ: Geliştirilmiş WiFi bağlantı metodu (detaylı response ile)
@@ -394,7 +520,7 @@ public class NetworkManager {
             params.put("humidHighAlarm", humidHigh);
         }
 
-        apiService.setAlarmSettings(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     // YENİ: Kalibrasyon ayarlarını toplu güncelleme
@@ -407,7 +533,7 @@ public class NetworkManager {
         params.put("tempCalibration2", temp2Cal);
         params.put("humidCalibration2", humid2Cal);
 
-        apiService.setCalibration(params).enqueue(callback);
+        commandBatcher.write(params, callback);
     }
 
     // YENİ: WiFi mod geçiş durumu kontrolü
@@ -526,19 +652,24 @@ public class NetworkManager {
         apiService.getOTAInfo().enqueue(callback);
     }
 
-    public void uploadFirmware(File firmwareFile, String md5,
+    // Firmware URI'den kopyalanmadan, yükleme sırasında bir kez okunur; özet aynı okumada
+    // hesaplanıp "md5" alanı olarak firmware parçasından sonra gönderilir
+    public void uploadFirmware(Uri firmwareUri, String fileName, long size,
+                               FirmwareUploadBody.ProgressListener progressListener,
                                Callback<ResponseBody> callback) {
         if (!isNetworkAvailable()) {
             callback.onFailure(null, new Exception("Ağ bağlantısı yok"));
             return;
         }
 
-        RequestBody requestFile = RequestBody.create(
-                MediaType.parse("application/octet-stream"), firmwareFile);
+        FirmwareUploadBody firmwareBody = new FirmwareUploadBody(
+                context.getContentResolver(), firmwareUri, size, progressListener);
         MultipartBody.Part body = MultipartBody.Part.createFormData(
-                "firmware", firmwareFile.getName(), requestFile);
+                "firmware", fileName, firmwareBody);
+        MultipartBody.Part checksum = MultipartBody.Part.createFormData(
+                "md5", null, firmwareBody.getChecksumBody());
 
-        apiService.uploadFirmware(body, md5).enqueue(callback);
+        apiService.uploadFirmware(body, checksum).enqueue(callback);
     }
 
     public void getOTAProgress(Callback<ApiService.OTAProgressResponse> callback) {
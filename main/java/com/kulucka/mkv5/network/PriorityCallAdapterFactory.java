@@ -0,0 +1,407 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * ESP32 web sunucusu aynı anda ancak bir-iki isteği işleyebildiği için her cihaza giden
+ * asenkron çağrıları tek bir sıradan geçirir. Cihaz başına en fazla DEVICE_MAX_IN_FLIGHT
+ * istek açıktır; boşalan yere öncelik sırasına göre (kullanıcı komutu > alarm > durum
+ * sorgusu > log/WiFi tarama) sıradaki istek girer. Sırada bekleyen aynı sorgu tekrar
+ * istenirse yeni istek gönderilmez, bekleyenin sonucu iki çağırana da iletilir.
+ * Birleştirilmiş çağıranlardan biri iptal ederse yalnızca o ayrılır; ortak istek
+ * ancak tüm çağıranlar iptal edince iptal edilir.
+ * Diğer call adapter'lardan (RetryCallAdapterFactory) önce eklenmelidir; yeniden denemeler
+ * isteğin sıradaki yeri içinde yapılır.
+ */
+public class PriorityCallAdapterFactory extends CallAdapter.Factory {
+    private static final String TAG = "RequestScheduler";
+
+    public static final int PRIORITY_USER = 0;
+    public static final int PRIORITY_ALARM = 1;
+    public static final int PRIORITY_POLL = 2;
+    public static final int PRIORITY_BACKGROUND = 3;
+
+    // @EndpointPolicy'de belirtilmemişse: GET sorgu, diğerleri kullanıcı komutu sayılır
+    public static final int PRIORITY_DEFAULT = -1;
+
+    private static final ThreadLocal<Integer> priorityOverride = new ThreadLocal<>();
+
+    // host:port -> cihazın istek sırası; boşalan sıra çıkarılır, tarama ve yarış adresleri birikmez
+    private static final Map<String, Lane> lanes = new HashMap<>();
+
+    public static PriorityCallAdapterFactory create() {
+        return new PriorityCallAdapterFactory();
+    }
+
+    private PriorityCallAdapterFactory() {
+    }
+
+    /**
+     * action içinde oluşturulan çağrılar verilen öncelikle sıraya girer.
+     * Örn. alarm durumundaki cihazın durum sorguları normal sorgulardan önce gider.
+     */
+    public static void runWithPriority(int priority, Runnable action) {
+        Integer previous = priorityOverride.get();
+        priorityOverride.set(priority);
+        try {
+            action.run();
+        } finally {
+            if (previous != null) {
+                priorityOverride.set(previous);
+            } else {
+                priorityOverride.remove();
+            }
+        }
+    }
+
+    // Tüm cihazlarda sırada bekleyen istek sayısı
+    public static int getQueuedCount() {
+        int total = 0;
+        synchronized (lanes) {
+            for (Lane lane : lanes.values()) {
+                total += lane.queuedCount();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !(returnType instanceof ParameterizedType)) {
+            return null;
+        }
+
+        EndpointPolicy policy = null;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof EndpointPolicy) {
+                policy = (EndpointPolicy) annotation;
+                break;
+            }
+        }
+        if (policy != null && !policy.scheduled()) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        final CallAdapter<Object, Call<Object>> delegate =
+                (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        final int declaredPriority = policy != null ? policy.priority() : PRIORITY_DEFAULT;
+        // ResponseBody akıştır, birden fazla çağırana paylaştırılamaz
+        final boolean coalescable = policy != null && policy.idempotent() &&
+                getParameterUpperBound(0, (ParameterizedType) returnType) != ResponseBody.class;
+
+        return new CallAdapter<Object, Call<?>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Call<?> adapt(Call<Object> call) {
+                Integer override = priorityOverride.get();
+                return new ScheduledCall<>(delegate.adapt(call),
+                        override != null ? override : declaredPriority, coalescable);
+            }
+        };
+    }
+
+    // Çağrı, harita kilidi altında sıraya eklenir; böylece aynı anda boşalıp çıkarılan bir sıraya girmez
+    private static <T> void submit(ScheduledCall<T> call, Callback<T> callback) {
+        HttpUrl url = call.request().url();
+        String key = url.host() + ":" + url.port();
+        Lane lane;
+        synchronized (lanes) {
+            lane = lanes.get(key);
+            if (lane == null) {
+                lane = new Lane(key);
+                lanes.put(key, lane);
+            }
+            call.lane = lane;
+            lane.add(call, callback);
+        }
+        lane.drain();
+    }
+
+    private static void retireIfIdle(Lane lane) {
+        synchronized (lanes) {
+            if (lane.isIdle() && lanes.get(lane.key) == lane) {
+                lanes.remove(lane.key);
+            }
+        }
+    }
+
+    private static final class ScheduledCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final int declaredPriority;
+        private final boolean coalescable;
+        private volatile boolean enqueued;
+        private volatile boolean canceled;
+        private volatile Lane lane;
+
+        ScheduledCall(Call<T> delegate, int declaredPriority, boolean coalescable) {
+            this.delegate = delegate;
+            this.declaredPriority = declaredPriority;
+            this.coalescable = coalescable;
+        }
+
+        int priority() {
+            if (declaredPriority != PRIORITY_DEFAULT) {
+                return declaredPriority;
+            }
+            return "GET".equals(delegate.request().method()) ? PRIORITY_POLL : PRIORITY_USER;
+        }
+
+        // Aynı sorgu: aynı metod ve URL
+        String coalesceKey() {
+            if (!coalescable) {
+                return null;
+            }
+            Request request = delegate.request();
+            return request.method() + " " + request.url();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            if (enqueued) {
+                throw new IllegalStateException("Already executed.");
+            }
+            enqueued = true;
+            submit(this, callback);
+        }
+
+        // Senkron çağrılar sıraya girmez
+        @Override
+        public Response<T> execute() throws IOException {
+            return delegate.execute();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return enqueued || delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            if (lane == null) {
+                delegate.cancel();
+                return;
+            }
+            lane.cancel(this);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || delegate.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new ScheduledCall<>(delegate.clone(), declaredPriority, coalescable);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+
+    // Sıradaki bir istek ve sonucunu bekleyen, birleştirilmiş diğer çağıranlar
+    private static final class Pending implements Comparable<Pending> {
+        final int priority;
+        final long sequence;
+        final String coalesceKey;
+        final List<ScheduledCall<Object>> calls = new ArrayList<>();
+        final List<Callback<Object>> callbacks = new ArrayList<>();
+        // Gönderilen ortak çağrı; sıradayken null
+        Call<Object> active;
+
+        Pending(ScheduledCall<Object> call, Callback<Object> callback, long sequence) {
+            this.priority = call.priority();
+            this.sequence = sequence;
+            this.coalesceKey = call.coalesceKey();
+            add(call, callback);
+        }
+
+        void add(ScheduledCall<Object> call, Callback<Object> callback) {
+            calls.add(call);
+            callbacks.add(callback);
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class Lane {
+        private final String key;
+        private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+        private final List<Pending> running = new ArrayList<>();
+        private int inFlight = 0;
+        private long sequence = 0;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        // Sıraya ekler; gönderim drain() ile başlar
+        @SuppressWarnings("unchecked")
+        synchronized <T> void add(ScheduledCall<T> call, Callback<T> callback) {
+            ScheduledCall<Object> scheduled = (ScheduledCall<Object>) call;
+            Callback<Object> objectCallback = (Callback<Object>) callback;
+
+            String coalesceKey = scheduled.coalesceKey();
+            if (coalesceKey != null) {
+                for (Pending pending : queue) {
+                    if (coalesceKey.equals(pending.coalesceKey)) {
+                        pending.add(scheduled, objectCallback);
+                        Log.d(TAG, key + " tekrar eden sorgu birleştirildi: " +
+                                scheduled.request().url().encodedPath());
+                        return;
+                    }
+                }
+            }
+            queue.add(new Pending(scheduled, objectCallback, sequence++));
+        }
+
+        /**
+         * Çağıranı sıradaki ya da gönderilmiş istekten ayırır ve iptal bildirir.
+         * Sıradaki istek son çağıranı gidince sıradan çıkar; gönderilmiş ortak istek
+         * ancak son çağıran da ayrılınca iptal edilir. Sonuç iletilmişse bir şey yapmaz.
+         */
+        void cancel(ScheduledCall<?> call) {
+            Callback<Object> canceledCallback = null;
+            Call<Object> abandoned = null;
+            synchronized (this) {
+                Pending owner = find(queue, call);
+                if (owner == null) {
+                    owner = find(running, call);
+                }
+                if (owner != null) {
+                    int index = owner.calls.indexOf(call);
+                    owner.calls.remove(index);
+                    canceledCallback = owner.callbacks.remove(index);
+                    if (owner.calls.isEmpty()) {
+                        if (owner.active == null) {
+                            queue.remove(owner);
+                        } else {
+                            abandoned = owner.active;
+                        }
+                    }
+                }
+            }
+            if (canceledCallback == null) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Call<Object> canceledCall = (Call<Object>) call;
+            canceledCallback.onFailure(canceledCall, new IOException("Canceled"));
+            if (abandoned != null) {
+                abandoned.cancel();
+            } else {
+                retireIfIdle(this);
+            }
+        }
+
+        private static Pending find(Iterable<Pending> pendings, ScheduledCall<?> call) {
+            for (Pending pending : pendings) {
+                if (pending.calls.contains(call)) {
+                    return pending;
+                }
+            }
+            return null;
+        }
+
+        synchronized int queuedCount() {
+            return queue.size();
+        }
+
+        synchronized boolean isIdle() {
+            return queue.isEmpty() && running.isEmpty();
+        }
+
+        private void drain() {
+            List<Pending> ready = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight < Constants.DEVICE_MAX_IN_FLIGHT && !queue.isEmpty()) {
+                    inFlight++;
+                    Pending pending = queue.poll();
+                    pending.active = pending.calls.get(0).delegate;
+                    running.add(pending);
+                    ready.add(pending);
+                }
+            }
+            for (Pending pending : ready) {
+                start(pending);
+            }
+        }
+
+        private void start(final Pending pending) {
+            pending.active.enqueue(new Callback<Object>() {
+                @Override
+                public void onResponse(Call<Object> call, Response<Object> response) {
+                    finish(pending, response, null);
+                }
+
+                @Override
+                public void onFailure(Call<Object> call, Throwable t) {
+                    finish(pending, null, t);
+                }
+            });
+        }
+
+        // Sonuç, o an hâlâ bağlı olan çağıranlara iletilir
+        private void finish(Pending pending, Response<Object> response, Throwable error) {
+            List<ScheduledCall<Object>> calls;
+            List<Callback<Object>> callbacks;
+            synchronized (this) {
+                inFlight--;
+                running.remove(pending);
+                calls = new ArrayList<>(pending.calls);
+                callbacks = new ArrayList<>(pending.callbacks);
+                pending.calls.clear();
+                pending.callbacks.clear();
+            }
+            drain();
+            retireIfIdle(this);
+            for (int i = 0; i < callbacks.size(); i++) {
+                if (error == null) {
+                    callbacks.get(i).onResponse(calls.get(i), response);
+                } else {
+                    callbacks.get(i).onFailure(calls.get(i), error);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
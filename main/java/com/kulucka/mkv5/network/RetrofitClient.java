@@ -1,127 +1,33 @@
 package com.kulucka.mkv5.network;
 
+import com.google.gson.Gson;
 import com.kulucka.mkv5.utils.Constants;
 
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.CacheControl;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Converter;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class RetrofitClient {
     private static Retrofit retrofit = null;
-    private static String currentBaseUrl = null;
-
-    // Geliştirilmiş timeout interceptor
-    private static Interceptor createTimeoutInterceptor() {
-        return chain -> {
-            Request request = chain.request();
-            String url = request.url().toString();
-
-            // OTA güncelleme için çok uzun timeout
-            if (url.contains("/api/ota/update")) {
-                return chain.withConnectTimeout(30, TimeUnit.SECONDS)
-                        .withReadTimeout(300, TimeUnit.SECONDS) // 5 dakika
-                        .withWriteTimeout(300, TimeUnit.SECONDS) // 5 dakika
-                        .proceed(request);
-            }
-
-            // OTA progress kontrolü için kısa timeout
-            if (url.contains("/api/ota/progress")) {
-                return chain.withConnectTimeout(3, TimeUnit.SECONDS)
-                        .withReadTimeout(5, TimeUnit.SECONDS)
-                        .withWriteTimeout(3, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Motor test endpoint'i için uzun timeout
-            if (url.contains("/api/motor/test")) {
-                return chain.withConnectTimeout(10, TimeUnit.SECONDS)
-                        .withReadTimeout(Constants.MOTOR_TEST_TIMEOUT, TimeUnit.SECONDS)
-                        .withWriteTimeout(10, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Sistem kaydetme için orta timeout
-            if (url.contains("/api/system/save")) {
-                return chain.withConnectTimeout(5, TimeUnit.SECONDS)
-                        .withReadTimeout(Constants.SYSTEM_SAVE_TIMEOUT, TimeUnit.SECONDS)
-                        .withWriteTimeout(5, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Sistem sağlık kontrolü için orta timeout
-            if (url.contains("/api/system/health")) {
-                return chain.withConnectTimeout(8, TimeUnit.SECONDS)
-                        .withReadTimeout(Constants.HEALTH_CHECK_TIMEOUT, TimeUnit.SECONDS)
-                        .withWriteTimeout(8, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Log getirme için uzun timeout
-            if (url.contains("/api/system/logs")) {
-                return chain.withConnectTimeout(10, TimeUnit.SECONDS)
-                        .withReadTimeout(Constants.LOG_FETCH_TIMEOUT, TimeUnit.SECONDS)
-                        .withWriteTimeout(10, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Sistem aksiyonları için çok uzun timeout
-            if (url.contains("/api/system/action")) {
-                return chain.withConnectTimeout(15, TimeUnit.SECONDS)
-                        .withReadTimeout(Constants.SYSTEM_ACTION_TIMEOUT, TimeUnit.SECONDS)
-                        .withWriteTimeout(15, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // WiFi mod değişimi endpoint'leri için uzun timeout
-            if (url.contains("/api/wifi/mode") || url.contains("/api/wifi/connect")) {
-                return chain.withConnectTimeout(20, TimeUnit.SECONDS)
-                        .withReadTimeout(25, TimeUnit.SECONDS)
-                        .withWriteTimeout(20, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // WiFi ağları tarama için uzun timeout
-            if (url.contains("/api/wifi/networks")) {
-                return chain.withConnectTimeout(15, TimeUnit.SECONDS)
-                        .withReadTimeout(20, TimeUnit.SECONDS)
-                        .withWriteTimeout(15, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // WiFi credential kontrolü için kısa timeout
-            if (url.contains("/api/wifi/credentials")) {
-                return chain.withConnectTimeout(5, TimeUnit.SECONDS)
-                        .withReadTimeout(8, TimeUnit.SECONDS)
-                        .withWriteTimeout(5, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Sistem doğrulama için orta timeout
-            if (url.contains("/api/system/verify")) {
-                return chain.withConnectTimeout(8, TimeUnit.SECONDS)
-                        .withReadTimeout(10, TimeUnit.SECONDS)
-                        .withWriteTimeout(8, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Ağ test etme için orta timeout
-            if (url.contains("/api/network/test")) {
-                return chain.withConnectTimeout(10, TimeUnit.SECONDS)
-                        .withReadTimeout(15, TimeUnit.SECONDS)
-                        .withWriteTimeout(10, TimeUnit.SECONDS)
-                        .proceed(request);
-            }
-
-            // Diğer endpoint'ler için normal timeout
-            return chain.proceed(request);
-        };
-    }
+    private static OkHttpClient httpClient = null;
+    private static OkHttpClient fleetHttpClient = null;
+    // Dönüştürücü, push kanalı, komut kuyruğu ve filo kaydı aynı Gson'u paylaşır
+    private static final Gson gson = new Gson();
+    private static final GsonConverterFactory converterFactory = GsonConverterFactory.create(gson);
+    // Gson'dan önce: çözümleme süresini ölçüp asıl dönüştürücüye devreder
+    private static final Converter.Factory metricsConverterFactory = HttpMetrics.getInstance().converterFactory();
+    private static final RetryCallAdapterFactory retryCallAdapterFactory = RetryCallAdapterFactory.create();
+    private static final PriorityCallAdapterFactory priorityCallAdapterFactory = PriorityCallAdapterFactory.create();
+    // Aktif cihaz adresi; değişince sadece yönlendirme hedefi değişir
+    private static final DeviceRouter deviceRouter = new DeviceRouter();
 
     // Cache control interceptor
     private static Interceptor createCacheControlInterceptor() {
@@ -151,73 +57,86 @@ public class RetrofitClient {
         };
     }
 
-    // Hata yeniden deneme interceptor'u
-    private static Interceptor createRetryInterceptor() {
-        return chain -> {
-            Request request = chain.request();
-            String url = request.url().toString();
-
-            // Kritik olmayan endpoint'ler için retry logic
-            if (url.contains("/api/status") || url.contains("/api/ping")) {
-                int maxRetries = 2;
-                int retryCount = 0;
-
-                while (retryCount < maxRetries) {
-                    try {
-                        return chain.proceed(request);
-                    } catch (Exception e) {
-                        retryCount++;
-                        if (retryCount >= maxRetries) {
-                            throw e;
-                        }
-
-                        try {
-                            Thread.sleep(1000 * retryCount); // Exponential backoff
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException(ie);
-                        }
-                    }
-                }
-            }
-
-            return chain.proceed(request);
-        };
-    }
-
-    public static synchronized Retrofit getClient(String baseUrl) {
-        // Eğer base URL değiştiyse, yeni bir Retrofit instance oluştur
-        if (retrofit == null || !baseUrl.equals(currentBaseUrl)) {
-            currentBaseUrl = baseUrl;
-
-            HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-            interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(interceptor)
+    // Tüm cihazlar için tek OkHttpClient - bağlantı havuzu ve thread'ler paylaşılır
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            // Endpoint bazlı seviyeli log; durum sorgularında gövde kopyalanmaz
+            httpClient = new OkHttpClient.Builder()
+                    // İlk sırada: sonraki interceptor'lar gerçek cihaz adresini görür
+                    .addInterceptor(deviceRouter)
+                    .addInterceptor(NetworkLogger.getInstance())
                     .addInterceptor(createCacheControlInterceptor())
-                    .addInterceptor(createTimeoutInterceptor())
-                    .addInterceptor(createRetryInterceptor())
+                    // Metod bazlı timeout'lar; yeniden denemeler RetryCallAdapterFactory'de
+                    .addInterceptor(new EndpointPolicyInterceptor())
                     .addNetworkInterceptor(createCacheControlInterceptor())
+                    // Endpoint ve cihaz bazlı süre/boyut/hata histogramları
+                    .eventListenerFactory(HttpMetrics.getInstance())
+                    .connectionPool(new ConnectionPool(Constants.HTTP_MAX_IDLE_CONNECTIONS,
+                            Constants.HTTP_KEEP_ALIVE_DURATION, TimeUnit.SECONDS))
                     .connectTimeout(Constants.CONNECTION_TIMEOUT, TimeUnit.SECONDS)
                     .readTimeout(Constants.READ_TIMEOUT, TimeUnit.SECONDS)
                     .writeTimeout(Constants.WRITE_TIMEOUT, TimeUnit.SECONDS)
                     .retryOnConnectionFailure(true)
                     .cache(null)
                     .build();
+        }
+        return httpClient;
+    }
+
+    // Filo sorguları: aynı havuz ve interceptor'lar, eşzamanlı istek sayısı sınırlı ayrı dispatcher
+    public static synchronized OkHttpClient getFleetHttpClient() {
+        if (fleetHttpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(Constants.FLEET_MAX_IN_FLIGHT);
+            dispatcher.setMaxRequestsPerHost(1); // ESP32 aynı anda tek isteği rahat işler
+
+            fleetHttpClient = getHttpClient().newBuilder()
+                    .dispatcher(dispatcher)
+                    .build();
+        }
+        return fleetHttpClient;
+    }
 
+    public static Gson getGson() {
+        return gson;
+    }
+
+    public static DeviceRouter getDeviceRouter() {
+        return deviceRouter;
+    }
+
+    // Aktif cihaz için tek Retrofit; istekler DeviceRouter ile güncel adrese gider
+    public static synchronized Retrofit getDeviceClient() {
+        if (retrofit == null) {
             retrofit = new Retrofit.Builder()
-                    .baseUrl(baseUrl)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(client)
+                    .baseUrl("http://" + Constants.DEVICE_ROUTE_HOST + "/")
+                    .addConverterFactory(metricsConverterFactory)
+                    .addConverterFactory(converterFactory)
+                    .addCallAdapterFactory(priorityCallAdapterFactory)
+                    .addCallAdapterFactory(retryCallAdapterFactory)
+                    .client(getHttpClient())
                     .build();
         }
 
         return retrofit;
     }
 
-    public static void resetClient() {
-        retrofit = null;
-        currentBaseUrl = null;
+    // Filodaki her cihaz için ayrı Retrofit, altta ortak filo client'ı
+    public static Retrofit createFleetClient(String baseUrl) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .addConverterFactory(metricsConverterFactory)
+                .addConverterFactory(converterFactory)
+                .addCallAdapterFactory(priorityCallAdapterFactory)
+                .addCallAdapterFactory(retryCallAdapterFactory)
+                .client(getFleetHttpClient())
+                .build();
+    }
+
+    public static synchronized void resetClient() {
+        // Bozuk kalmış keep-alive bağlantılarını at, client'ı yeniden kurmaya gerek yok
+        if (httpClient != null) {
+            httpClient.connectionPool().evictAll();
+        }
     }
 }
\ No newline at end of file
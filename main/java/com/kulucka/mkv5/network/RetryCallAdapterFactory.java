@@ -0,0 +1,215 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * @EndpointPolicy ile idempotent işaretlenmiş ve yeniden deneme hakkı olan metodların
+ * çağrılarını sarar. Başarısız deneme OkHttp thread'ini bekletmez: çağrının kopyası
+ * jitter'lı üstel gecikmeyle zamanlayıcıya bırakılır. Sonuç Retrofit'in callback
+ * executor'ı (Android'de ana thread) üzerinden tek sefer bildirilir.
+ * DeviceRouter'ın adres değişiminde kestiği çağrılar beklemeden yeni adrese tekrar gönderilir.
+ */
+public class RetryCallAdapterFactory extends CallAdapter.Factory {
+    private static final String TAG = "RetryCallAdapter";
+    private static final long MAX_BACKOFF_MS = 8000;
+
+    private static final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "api-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public static RetryCallAdapterFactory create() {
+        return new RetryCallAdapterFactory();
+    }
+
+    private RetryCallAdapterFactory() {
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !(returnType instanceof ParameterizedType)) {
+            return null;
+        }
+
+        EndpointPolicy policy = null;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof EndpointPolicy) {
+                policy = (EndpointPolicy) annotation;
+                break;
+            }
+        }
+
+        // Yeniden denenmeyecek metodlar Retrofit'in varsayılan adapter'ına kalır
+        if (policy == null || !policy.idempotent() || policy.maxRetries() <= 0) {
+            return null;
+        }
+
+        final Type responseType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        final EndpointPolicy retryPolicy = policy;
+        final Executor callbackExecutor = retrofit.callbackExecutor();
+
+        return new CallAdapter<Object, Call<?>>() {
+            @Override
+            public Type responseType() {
+                return responseType;
+            }
+
+            @Override
+            public Call<?> adapt(Call<Object> call) {
+                return new RetryingCall<>(call, retryPolicy, callbackExecutor);
+            }
+        };
+    }
+
+    // Eşit jitter: üstel gecikmenin yarısı sabit, yarısı rastgele
+    static long backoffDelay(EndpointPolicy policy, int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, policy.backoffMs() << Math.min(attempt - 1, 10));
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    // Ağ hatası veya cihazın geçici olarak meşgul olduğunu bildiren yanıtlar
+    private static boolean isRetryable(Response<?> response) {
+        int code = response.code();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    private static final class RetryingCall<T> implements Call<T> {
+        private final Call<T> original;
+        private final EndpointPolicy policy;
+        private final Executor callbackExecutor;
+
+        private volatile Call<T> current;
+        private volatile boolean canceled;
+        private int attempt = 0;
+
+        RetryingCall(Call<T> original, EndpointPolicy policy, Executor callbackExecutor) {
+            this.original = original;
+            this.current = original;
+            this.policy = policy;
+            this.callbackExecutor = callbackExecutor;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            current.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    if (!response.isSuccessful() && isRetryable(response) && scheduleRetry(this)) {
+                        ResponseBody errorBody = response.errorBody();
+                        if (errorBody != null) {
+                            errorBody.close();
+                        }
+                        return;
+                    }
+                    deliver(() -> callback.onResponse(RetryingCall.this, response));
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    // Cihaz adresi değişti; deneme hakkı harcanmadan yeni adrese gönderilir
+                    if (t instanceof DeviceRouter.RouteChangedException && !canceled) {
+                        Log.d(TAG, current.request().url().encodedPath() + " yeni cihaz adresine gönderiliyor");
+                        current = current.clone();
+                        current.enqueue(this);
+                        return;
+                    }
+                    if (t instanceof IOException && !call.isCanceled() && scheduleRetry(this)) {
+                        return;
+                    }
+                    deliver(() -> callback.onFailure(RetryingCall.this, t));
+                }
+
+                private void deliverCanceled() {
+                    deliver(() -> callback.onFailure(RetryingCall.this, new IOException("Canceled")));
+                }
+
+                private boolean scheduleRetry(Callback<T> self) {
+                    if (canceled || attempt >= policy.maxRetries()) {
+                        return false;
+                    }
+                    attempt++;
+                    long delay = backoffDelay(policy, attempt);
+                    Log.d(TAG, current.request().url().encodedPath() + " yeniden denenecek (" +
+                            attempt + "/" + policy.maxRetries() + ", " + delay + " ms)");
+
+                    scheduler.schedule(() -> {
+                        if (canceled) {
+                            deliverCanceled();
+                            return;
+                        }
+                        current = current.clone();
+                        current.enqueue(self);
+                    }, delay, TimeUnit.MILLISECONDS);
+                    return true;
+                }
+            });
+        }
+
+        private void deliver(Runnable runnable) {
+            if (callbackExecutor != null) {
+                callbackExecutor.execute(runnable);
+            } else {
+                runnable.run();
+            }
+        }
+
+        // Senkron çağrılar yeniden denenmez; çağıran thread'i bekletmemek için
+        @Override
+        public Response<T> execute() throws IOException {
+            return current.execute();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return current.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            current.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || current.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new RetryingCall<>(original.clone(), policy, callbackExecutor);
+        }
+
+        @Override
+        public Request request() {
+            return current.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return current.timeout();
+        }
+    }
+}
\ No newline at end of file
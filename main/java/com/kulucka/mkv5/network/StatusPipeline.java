@@ -0,0 +1,311 @@
+package com.kulucka.mkv5.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.kulucka.mkv5.R;
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.models.StatusDiff;
+import com.kulucka.mkv5.utils.AlarmEvaluator;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durum snapshot'larını ana thread dışında StatusViewModel'e çevirir.
+ * Doğrulama, değişen alanların tespiti (StatusDiff), alarm değerlendirmesi ve tüm metin
+ * biçimlendirmesi işçi thread'inde yapılır; ana thread'e yalnızca hazır model iletilir
+ * ve ekran sadece dolu alanları görünümlere yazar.
+ * Her tüketici kendi örneğini tutar (değişim takibi örneğe özeldir); tüm örnekler tek bir
+ * işçi thread'ini paylaşır, snapshot'lar gönderildikleri sırayla işlenir.
+ * Snapshot deposu verildiyse geçerli okumalar aynı thread'de diske de yazılır.
+ */
+public class StatusPipeline {
+    private static final String TAG = "StatusPipeline";
+    private static final long STATS_LOG_INTERVAL = 60000;
+
+    // Ana thread'de çağrılır
+    public interface Callback {
+        void onViewModel(StatusViewModel model);
+    }
+
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "status-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final StatusDiff statusDiff = new StatusDiff();
+    private volatile StatusSnapshotStore snapshotStore;
+
+    // Yalnızca işçi thread'inde kullanılır
+    private long lastPersist = 0;
+    private long lastStatsLog = 0;
+    private long processedCount = 0;
+    private long processingNanos = 0;
+
+    public void process(final StatusSnapshot snapshot, final Callback callback) {
+        worker.execute(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            final StatusViewModel model = build(snapshot);
+            processingNanos += SystemClock.elapsedRealtimeNanos() - start;
+            processedCount++;
+            logStats();
+            mainHandler.post(() -> callback.onViewModel(model));
+            persist(model);
+        });
+    }
+
+    // Geçerli okumalar STATUS_SNAPSHOT_PERSIST_INTERVAL_MS'de bir bu depoya yazılır
+    public void setSnapshotStore(StatusSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Kayıtlı son snapshot'ı okur ve modelini callback'e iletir; kayıt yoksa callback çağrılmaz.
+     * Canlı snapshot'lardan önce çağrılmalıdır; sonraki model kayıtlı değerlere göre fark alır.
+     */
+    public void restore(final Callback callback) {
+        final StatusSnapshotStore store = snapshotStore;
+        if (store == null) {
+            return;
+        }
+        worker.execute(() -> {
+            StatusSnapshot snapshot = store.load();
+            if (snapshot == null) {
+                return;
+            }
+            final StatusViewModel model = build(snapshot);
+            mainHandler.post(() -> callback.onViewModel(model));
+        });
+    }
+
+    private void persist(StatusViewModel model) {
+        StatusSnapshotStore store = snapshotStore;
+        if (store == null || !model.isValid() || model.isStale()) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (lastPersist != 0 && now - lastPersist < Constants.STATUS_SNAPSHOT_PERSIST_INTERVAL_MS) {
+            return;
+        }
+        lastPersist = now;
+        store.save(model.getSnapshot());
+    }
+
+    // Bir sonraki model tüm alanları dolu üretilir (ör. görünümler başka metinle ezildiğinde)
+    public void reset() {
+        statusDiff.reset();
+    }
+
+    private StatusViewModel build(StatusSnapshot snapshot) {
+        DeviceStatus status = snapshot.getDeviceStatus();
+        int changes = statusDiff.diff(status);
+        boolean valid = StatusDiff.isReadingValid(status);
+        // Geçersiz ya da eski okumada limit karşılaştırması anlamsız; alarm sonucu bilinmiyor sayılır
+        boolean cached = snapshot.getSource() == StatusSnapshot.SOURCE_CACHED;
+        String alarmMessage = valid && !cached ? AlarmEvaluator.evaluate(status) : null;
+
+        StatusViewModel model = new StatusViewModel(snapshot, changes, valid, alarmMessage,
+                String.format("%s / %s | Gün: %d/%d",
+                        valid ? String.format("%.1f°C", status.getTemperature()) : "--°C",
+                        valid ? String.format("%d%%", Math.round(status.getHumidity())) : "--%",
+                        status.getDisplayDay(),
+                        status.getTotalDays()));
+
+        // Temperature
+        if ((changes & StatusDiff.TEMPERATURE) != 0) {
+            model.currentTemp = new StatusViewModel.Text(valid ?
+                    String.format("%.1f°C", status.getTemperature()) : "--°C");
+        }
+        if ((changes & StatusDiff.TARGET_TEMP) != 0) {
+            model.targetTemp = new StatusViewModel.Text(String.format("Hedef: %.1f°C", status.getTargetTemp()));
+        }
+        if ((changes & StatusDiff.HEATER) != 0) {
+            model.heater = deviceState(status.isHeaterState());
+        }
+
+        // Humidity
+        if ((changes & StatusDiff.HUMIDITY) != 0) {
+            model.currentHumid = new StatusViewModel.Text(valid ?
+                    String.format("%d%%", Math.round(status.getHumidity())) : "--%");
+        }
+        if ((changes & StatusDiff.TARGET_HUMID) != 0) {
+            model.targetHumid = new StatusViewModel.Text(String.format("Hedef: %d%%", Math.round(status.getTargetHumid())));
+        }
+        if ((changes & StatusDiff.HUMIDIFIER) != 0) {
+            model.humidifier = deviceState(status.isHumidifierState());
+        }
+
+        // Incubation
+        if ((changes & StatusDiff.INCUBATION_TYPE) != 0) {
+            model.incubationType = new StatusViewModel.Text(getIncubationTypeName(status.getIncubationType()));
+        }
+        if ((changes & StatusDiff.DAY) != 0) {
+            model.dayCount = new StatusViewModel.Text(String.format("%d/%d", status.getDisplayDay(), status.getTotalDays()));
+        }
+        if ((changes & StatusDiff.INCUBATION_STATE) != 0) {
+            buildIncubationStatus(model, status);
+        }
+
+        // Motor
+        DeviceStatus.MotorInfo motorInfo = status.getMotor();
+        if ((changes & StatusDiff.MOTOR_STATE) != 0) {
+            model.motorStatus = deviceState(motorInfo != null ? motorInfo.isState() : status.isMotorState());
+        }
+        if ((changes & StatusDiff.MOTOR_TIMING) != 0) {
+            if (motorInfo != null) {
+                model.motorTiming = new StatusViewModel.Text(String.format("Bekleme: %d dk\nÇalışma: %d sn",
+                        motorInfo.getWaitTime(), motorInfo.getRunTime()));
+            } else {
+                model.motorTiming = new StatusViewModel.Text(String.format("Bekleme: %d dk\nÇalışma: %d sn",
+                        status.getMotorWaitTime(), status.getMotorRunTime()));
+            }
+        }
+
+        // PID; ayrıntılı PID durumu geldiyse her turda onun değerleri gösterilir
+        if (snapshot.getPidStatus() != null) {
+            buildPidCard(model, snapshot.getPidStatus());
+        } else if ((changes & (StatusDiff.PID_MODE | StatusDiff.PID_VALUES)) != 0) {
+            buildPidStatus(model, status, changes);
+        }
+
+        // Alarm
+        if ((changes & StatusDiff.ALARM) != 0) {
+            model.alarmStatus = status.isAlarmEnabled() ?
+                    new StatusViewModel.Text("Açık", R.color.success) :
+                    new StatusViewModel.Text("Kapalı", R.color.error);
+        }
+
+        // Güvenilirlik bilgileri
+        DeviceStatus.ReliabilityInfo reliability = status.getReliability();
+        if (reliability != null) {
+            if ((changes & StatusDiff.LAST_SAVE) != 0) {
+                long lastSaveSeconds = reliability.getLastSave();
+                if (lastSaveSeconds < 60) {
+                    model.lastSave = new StatusViewModel.Text(lastSaveSeconds + " saniye önce");
+                } else if (lastSaveSeconds < 3600) {
+                    model.lastSave = new StatusViewModel.Text((lastSaveSeconds / 60) + " dakika önce");
+                } else {
+                    model.lastSave = new StatusViewModel.Text((lastSaveSeconds / 3600) + " saat önce");
+                }
+            }
+            if ((changes & StatusDiff.RELIABILITY) != 0) {
+                model.pendingChanges = new StatusViewModel.Text(String.valueOf(reliability.getPendingChanges()));
+                model.autoSaveStatus = reliability.isAutoSaveEnabled() ?
+                        new StatusViewModel.Text("✓ Otomatik kayıt aktif", R.color.success) :
+                        new StatusViewModel.Text("✗ Otomatik kayıt kapalı", R.color.error);
+            }
+        }
+
+        // RTC durumu
+        if (status.getTimestamp() > 0) {
+            ApiService.RTCStatusResponse rtcStatus = snapshot.getRtcStatus();
+            model.rtcTime = new StatusViewModel.Text(rtcStatus != null ? rtcStatus.getTime() : "--:--");
+        }
+
+        return model;
+    }
+
+    private static StatusViewModel.Text deviceState(boolean isOn) {
+        return isOn ? new StatusViewModel.Text("AÇIK", R.color.active) :
+                new StatusViewModel.Text("KAPALI", R.color.inactive);
+    }
+
+    private static void buildIncubationStatus(StatusViewModel model, DeviceStatus status) {
+        if (status.isIncubationRunning()) {
+            model.incubationStatus = new StatusViewModel.Text("Çalışıyor", R.color.success);
+            if (status.isIncubationCompleted()) {
+                model.completionStatus = new StatusViewModel.Text(
+                        String.format("Kuluçka süresi tamamlandı! (Gerçek Gün: %d)", status.getActualDay()));
+            } else {
+                model.completionStatus = new StatusViewModel.Text(null, 0, false);
+            }
+        } else {
+            model.incubationStatus = new StatusViewModel.Text("Durduruldu", R.color.error);
+            model.completionStatus = new StatusViewModel.Text(null, 0, false);
+        }
+    }
+
+    private static void buildPidStatus(StatusViewModel model, DeviceStatus status, int changes) {
+        if ((changes & StatusDiff.PID_VALUES) != 0) {
+            model.pidValues = new StatusViewModel.Text(String.format("Kp: %.2f\nKi: %.2f\nKd: %.2f",
+                    status.getPidKp(), status.getPidKi(), status.getPidKd()));
+        }
+        if ((changes & StatusDiff.PID_MODE) == 0) {
+            return;
+        }
+
+        switch (status.getPidMode()) {
+            case Constants.PID_MODE_MANUAL:
+                model.pidMode = new StatusViewModel.Text("Manuel", R.color.warning);
+                break;
+            case Constants.PID_MODE_AUTO:
+                model.pidMode = new StatusViewModel.Text("Otomatik", R.color.success);
+                break;
+            default:
+                model.pidMode = new StatusViewModel.Text("Kapalı", R.color.inactive);
+                break;
+        }
+    }
+
+    private static void buildPidCard(StatusViewModel model, ApiService.PidStatusResponse status) {
+        if (status.isActive()) {
+            model.pidMode = new StatusViewModel.Text(status.getModeString(), R.color.success);
+            model.pidValues = new StatusViewModel.Text(String.format(
+                    "Kp: %.2f Ki: %.2f Kd: %.2f\nHata: %.2f°C Çıkış: %.1f%%",
+                    status.getKp(), status.getKi(), status.getKd(),
+                    status.getError(), status.getOutput()
+            ));
+        } else {
+            model.pidMode = new StatusViewModel.Text(status.getModeString(), R.color.inactive);
+            model.pidValues = new StatusViewModel.Text(String.format("Kp: %.2f\nKi: %.2f\nKd: %.2f",
+                    status.getKp(), status.getKi(), status.getKd()
+            ));
+        }
+    }
+
+    private static String getIncubationTypeName(String type) {
+        if (type == null) return "--";
+
+        switch (type) {
+            case "0":
+                return "Tavuk";
+            case "1":
+                return "Bıldırcın";
+            case "2":
+                return "Kaz";
+            case "3":
+                return "Manuel";
+            default:
+                switch (type.toLowerCase()) {
+                    case "tavuk":
+                        return "Tavuk";
+                    case "bıldırcın":
+                        return "Bıldırcın";
+                    case "kaz":
+                        return "Kaz";
+                    case "manuel":
+                        return "Manuel";
+                    default:
+                        return type;
+                }
+        }
+    }
+
+    // Dakikada bir, atlanan görünüm güncellemesi ve ortalama işleme süresi loglanır
+    private void logStats() {
+        long now = System.currentTimeMillis();
+        if (now - lastStatsLog < STATS_LOG_INTERVAL) {
+            return;
+        }
+        lastStatsLog = now;
+        Log.d(TAG, "Atlanan görünüm güncellemesi: " + statusDiff.getAvoidedUpdatesPerMinute() +
+                "/dk (toplam " + statusDiff.getTotalAvoidedUpdates() + "), ortalama işleme: " +
+                (processingNanos / processedCount / 1000) + " µs");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.kulucka.mkv5.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * Cihazla tek bir uzun ömürlü WebSocket üzerinden durum push kanalı.
+ * Bağlantı açılınca cihaz tam durumu ("full"), sonrasında yalnızca değişen alanları ("delta") gönderir:
+ * {"type":"full","status":{...}} / {"type":"delta","status":{"temperature":37.6}}
+ * Deltalar son tam durumun üzerine birleştirilip DeviceStatus olarak iletilir.
+ * Firmware WebSocket desteklemiyorsa (upgrade yerine HTTP yanıtı) kanal bir süre denemez;
+ * StatusStream bu sürede normal sorguya devam eder.
+ */
+public class StatusPushChannel {
+    private static final String TAG = "StatusPushChannel";
+
+    private static OkHttpClient pushClient;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Gson gson = RetrofitClient.getGson();
+
+    private StatusStream.PushReceiver receiver;
+    private String baseUrl;
+    private WebSocket webSocket;
+    private boolean open = false;
+    private int reconnectAttempt = 0;
+    private long unsupportedUntil = 0;
+
+    private final Runnable reconnectRunnable = this::connect;
+
+    // Ortak havuz ve interceptor'lar; ölü bağlantıyı fark etmek için ping
+    private static synchronized OkHttpClient getPushClient() {
+        if (pushClient == null) {
+            pushClient = RetrofitClient.getHttpClient().newBuilder()
+                    .pingInterval(Constants.STATUS_PUSH_PING_INTERVAL, TimeUnit.SECONDS)
+                    .build();
+        }
+        return pushClient;
+    }
+
+    // Ana thread'den çağrılır
+    void start(String baseUrl, StatusStream.PushReceiver receiver) {
+        this.receiver = receiver;
+        this.baseUrl = baseUrl;
+        reconnectAttempt = 0;
+        connect();
+    }
+
+    void stop() {
+        receiver = null;
+        handler.removeCallbacks(reconnectRunnable);
+        close();
+    }
+
+    // IP değiştiğinde yeni cihaza bağlan; eski cihazın destek bilgisi geçersizdir
+    void setBaseUrl(String baseUrl) {
+        if (baseUrl == null || baseUrl.equals(this.baseUrl)) {
+            return;
+        }
+        this.baseUrl = baseUrl;
+        unsupportedUntil = 0;
+        reconnectAttempt = 0;
+
+        if (receiver != null) {
+            close();
+            handler.removeCallbacks(reconnectRunnable);
+            connect();
+        }
+    }
+
+    private void connect() {
+        if (receiver == null || baseUrl == null || webSocket != null) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (now < unsupportedUntil) {
+            handler.postDelayed(reconnectRunnable, unsupportedUntil - now);
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(baseUrl + Constants.STATUS_PUSH_PATH)
+                .build();
+        webSocket = getPushClient().newWebSocket(request, new PushListener());
+    }
+
+    private void close() {
+        if (webSocket != null) {
+            webSocket.close(1000, null);
+            webSocket = null;
+        }
+        setOpen(false);
+    }
+
+    private void setOpen(boolean open) {
+        if (this.open == open) {
+            return;
+        }
+        this.open = open;
+        Log.d(TAG, open ? "Push kanalı açıldı" : "Push kanalı kapandı, sorguya dönülüyor");
+        if (receiver != null) {
+            receiver.onPushAvailable(open);
+        }
+    }
+
+    // Bağlantı koptu: sorguya dön ve artan gecikmeyle yeniden bağlan
+    private void onLost(WebSocket socket, boolean unsupported) {
+        if (socket != webSocket) {
+            return;
+        }
+        webSocket = null;
+        setOpen(false);
+
+        if (receiver == null) {
+            return;
+        }
+
+        long delay;
+        if (unsupported) {
+            unsupportedUntil = SystemClock.elapsedRealtime() + Constants.STATUS_PUSH_REPROBE_INTERVAL;
+            delay = Constants.STATUS_PUSH_REPROBE_INTERVAL;
+        } else {
+            delay = Math.min(Constants.STATUS_PUSH_MAX_BACKOFF, 1000L << Math.min(reconnectAttempt, 5));
+            reconnectAttempt++;
+        }
+        handler.removeCallbacks(reconnectRunnable);
+        handler.postDelayed(reconnectRunnable, delay);
+    }
+
+    // Mesajlar OkHttp'nin okuma thread'inde sırayla gelir; birleştirme orada yapılır
+    private class PushListener extends WebSocketListener {
+        private JsonObject state;
+
+        @Override
+        public void onOpen(WebSocket socket, Response response) {
+            handler.post(() -> {
+                if (socket == webSocket) {
+                    reconnectAttempt = 0;
+                    setOpen(true);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocket socket, String text) {
+            DeviceStatus status;
+            try {
+                JsonObject message = gson.fromJson(text, JsonObject.class);
+                if (message == null || !message.has("status") || !message.get("status").isJsonObject()) {
+                    return;
+                }
+
+                JsonObject payload = message.getAsJsonObject("status");
+                String type = message.has("type") ? message.get("type").getAsString() : "full";
+                if ("full".equals(type)) {
+                    state = payload;
+                } else if ("delta".equals(type) && state != null) {
+                    merge(state, payload);
+                } else {
+                    // Tam durum gelmeden delta birleştirilemez
+                    return;
+                }
+                status = gson.fromJson(state, DeviceStatus.class);
+            } catch (Exception e) {
+                Log.w(TAG, "Push mesajı çözümlenemedi: " + e.getMessage());
+                return;
+            }
+
+            final long timestamp = System.currentTimeMillis();
+            handler.post(() -> {
+                if (socket == webSocket && receiver != null) {
+                    receiver.onPushStatus(status, timestamp);
+                }
+            });
+        }
+
+        @Override
+        public void onClosing(WebSocket socket, int code, String reason) {
+            socket.close(1000, null);
+        }
+
+        @Override
+        public void onClosed(WebSocket socket, int code, String reason) {
+            handler.post(() -> onLost(socket, false));
+        }
+
+        @Override
+        public void onFailure(WebSocket socket, Throwable t, Response response) {
+            // Upgrade yerine normal HTTP yanıtı: firmware push desteklemiyor
+            boolean unsupported = response != null && response.code() != 101;
+            if (unsupported) {
+                Log.d(TAG, "Cihaz push desteklemiyor (HTTP " + response.code() + ")");
+            } else {
+                Log.w(TAG, "Push bağlantı hatası: " + t.getMessage());
+            }
+            handler.post(() -> onLost(socket, unsupported));
+        }
+    }
+
+    // İç içe nesneler (motor, sensors, alarms...) alan bazında birleştirilir
+    private static void merge(JsonObject target, JsonObject delta) {
+        for (Map.Entry<String, JsonElement> entry : delta.entrySet()) {
+            JsonElement current = target.get(entry.getKey());
+            JsonElement value = entry.getValue();
+            if (current != null && current.isJsonObject() && value.isJsonObject()) {
+                merge(current.getAsJsonObject(), value.getAsJsonObject());
+            } else {
+                target.add(entry.getKey(), value);
+            }
+        }
+    }
+}
\ No newline at end of file
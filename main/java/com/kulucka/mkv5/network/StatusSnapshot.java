@@ -0,0 +1,57 @@
+package com.kulucka.mkv5.network;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+
+/**
+ * Bir güncelleme turunda cihazdan alınan tüm durum verisi.
+ * Oluşturulduktan sonra değişmez; dashboard, PID kartı ve RTC alanı aynı örneği paylaşır.
+ * Tüketiciler içerdiği model nesnelerini değiştirmemelidir.
+ */
+public final class StatusSnapshot {
+    // Snapshot'ın nasıl toplandığı
+    public static final int SOURCE_COMPLETE = 0;  // Tek istek: /api/status/complete
+    public static final int SOURCE_FAN_OUT = 1;   // Paralel istekler: status + pid + rtc
+    public static final int SOURCE_PUSH = 2;      // WebSocket deltası; diğer alanlar son sorgudan
+    public static final int SOURCE_CACHED = 3;    // Önceki oturumdan kalan, StatusSnapshotStore'dan okunan
+
+    private final DeviceStatus deviceStatus;
+    private final ApiService.PidStatusResponse pidStatus;
+    private final ApiService.RTCStatusResponse rtcStatus;
+    private final ApiService.MotorStatusResponse motorStatus;
+    private final ApiService.SystemHealthResponse systemHealth;
+    private final int source;
+    private final int requestCount;
+    private final long timestamp;
+
+    StatusSnapshot(DeviceStatus deviceStatus,
+                   ApiService.PidStatusResponse pidStatus,
+                   ApiService.RTCStatusResponse rtcStatus,
+                   ApiService.MotorStatusResponse motorStatus,
+                   ApiService.SystemHealthResponse systemHealth,
+                   int source, int requestCount, long timestamp) {
+        this.deviceStatus = deviceStatus;
+        this.pidStatus = pidStatus;
+        this.rtcStatus = rtcStatus;
+        this.motorStatus = motorStatus;
+        this.systemHealth = systemHealth;
+        this.source = source;
+        this.requestCount = requestCount;
+        this.timestamp = timestamp;
+    }
+
+    public DeviceStatus getDeviceStatus() { return deviceStatus; }
+
+    // Firmware göndermediyse veya istek başarısızsa null olabilir
+    public ApiService.PidStatusResponse getPidStatus() { return pidStatus; }
+    public ApiService.RTCStatusResponse getRtcStatus() { return rtcStatus; }
+    public ApiService.MotorStatusResponse getMotorStatus() { return motorStatus; }
+    public ApiService.SystemHealthResponse getSystemHealth() { return systemHealth; }
+
+    public int getSource() { return source; }
+
+    // Bu snapshot için cihaza gönderilen HTTP istek sayısı
+    public int getRequestCount() { return requestCount; }
+
+    // Snapshot'ın oluşturulduğu an (System.currentTimeMillis)
+    public long getTimestamp() { return timestamp; }
+}
\ No newline at end of file
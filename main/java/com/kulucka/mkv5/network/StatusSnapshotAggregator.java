@@ -0,0 +1,250 @@
+package com.kulucka.mkv5.network;
+
+import android.util.Log;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Dashboard için gereken durum, PID ve RTC verisini tek bir snapshot'ta toplar.
+ * Firmware destekliyorsa /api/status/complete ile tek istek yapar; desteklemiyorsa
+ * üç isteği paralel gönderip sonuçları birleştirir.
+ */
+public class StatusSnapshotAggregator {
+    private static final String TAG = "SnapshotAggregator";
+
+    // Eski akışta her tick'te yapılan istek sayısı: status + pid + rtc
+    private static final int LEGACY_REQUESTS_PER_TICK = 3;
+    private static final long SAVINGS_WINDOW_MS = 60000;
+
+    public interface SnapshotCallback {
+        void onSnapshot(StatusSnapshot snapshot);
+        void onFailure(Throwable t);
+    }
+
+    private volatile boolean completeStatusSupported = true;
+    private volatile long completeStatusProbeTime = 0;
+
+    private ApiService.RTCStatusResponse cachedRtcStatus;
+    private long cachedRtcTime = 0;
+
+    // Son bir dakikadaki (zaman, kazanılan istek) kayıtları
+    private final ArrayDeque<long[]> savingsWindow = new ArrayDeque<>();
+
+    public void fetch(ApiService apiService, SnapshotCallback callback) {
+        long now = System.currentTimeMillis();
+        if (!completeStatusSupported &&
+                now - completeStatusProbeTime > Constants.COMPLETE_STATUS_REPROBE_INTERVAL) {
+            // OTA sonrası firmware complete endpoint'ini kazanmış olabilir
+            completeStatusSupported = true;
+        }
+
+        if (completeStatusSupported) {
+            fetchComplete(apiService, callback);
+        } else {
+            fetchFanOut(apiService, callback);
+        }
+    }
+
+    private void fetchComplete(ApiService apiService, SnapshotCallback callback) {
+        apiService.getCompleteSystemStatus().enqueue(new Callback<ApiService.CompleteSystemStatusResponse>() {
+            @Override
+            public void onResponse(Call<ApiService.CompleteSystemStatusResponse> call,
+                                   Response<ApiService.CompleteSystemStatusResponse> response) {
+                ApiService.CompleteSystemStatusResponse body = response.body();
+                if (response.isSuccessful() && body != null && body.getDeviceStatus() != null) {
+                    deliverComplete(apiService, body, callback);
+                    return;
+                }
+
+                if (response.code() == Constants.API_NOT_FOUND || response.isSuccessful()) {
+                    // Endpoint yok veya eksik veri döndü - paralel isteklere geç
+                    Log.w(TAG, "Complete status desteklenmiyor (HTTP " + response.code() +
+                            "), paralel isteklere geçiliyor");
+                    completeStatusSupported = false;
+                    completeStatusProbeTime = System.currentTimeMillis();
+                    fetchFanOut(apiService, callback);
+                } else {
+                    callback.onFailure(new IOException("Veri alınamadı - HTTP: " + response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiService.CompleteSystemStatusResponse> call, Throwable t) {
+                callback.onFailure(t);
+            }
+        });
+    }
+
+    private void deliverComplete(ApiService apiService,
+                                 ApiService.CompleteSystemStatusResponse body,
+                                 SnapshotCallback callback) {
+        ApiService.RTCStatusResponse rtc = body.getRtcStatus();
+        if (rtc != null || !isRtcStale()) {
+            if (rtc != null) {
+                cacheRtc(rtc);
+            }
+            callback.onSnapshot(createSnapshot(body.getDeviceStatus(), body.getPidStatus(),
+                    cachedRtc(), body.getMotorStatus(), body.getSystemHealth(),
+                    StatusSnapshot.SOURCE_COMPLETE, 1));
+            return;
+        }
+
+        // Firmware RTC bilgisini complete yanıtına koymuyor, seyrek olarak ayrıca al
+        apiService.getRTCStatus().enqueue(new Callback<ApiService.RTCStatusResponse>() {
+            @Override
+            public void onResponse(Call<ApiService.RTCStatusResponse> call,
+                                   Response<ApiService.RTCStatusResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    cacheRtc(response.body());
+                }
+                callback.onSnapshot(createSnapshot(body.getDeviceStatus(), body.getPidStatus(),
+                        cachedRtc(), body.getMotorStatus(), body.getSystemHealth(),
+                        StatusSnapshot.SOURCE_COMPLETE, 2));
+            }
+
+            @Override
+            public void onFailure(Call<ApiService.RTCStatusResponse> call, Throwable t) {
+                // Eski RTC bilgisi boş göstermekten iyidir
+                callback.onSnapshot(createSnapshot(body.getDeviceStatus(), body.getPidStatus(),
+                        cachedRtc(), body.getMotorStatus(), body.getSystemHealth(),
+                        StatusSnapshot.SOURCE_COMPLETE, 2));
+            }
+        });
+    }
+
+    private void fetchFanOut(ApiService apiService, SnapshotCallback callback) {
+        final boolean includeRtc = isRtcStale();
+        final int requestCount = includeRtc ? 3 : 2;
+        final AtomicInteger pending = new AtomicInteger(requestCount);
+        final FanOutResult result = new FanOutResult();
+
+        apiService.getStatus().enqueue(new Callback<DeviceStatus>() {
+            @Override
+            public void onResponse(Call<DeviceStatus> call, Response<DeviceStatus> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    result.deviceStatus = response.body();
+                } else {
+                    result.error = new IOException("Veri alınamadı - HTTP: " + response.code());
+                }
+                if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+            }
+
+            @Override
+            public void onFailure(Call<DeviceStatus> call, Throwable t) {
+                result.error = t;
+                if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+            }
+        });
+
+        apiService.getPidStatus().enqueue(new Callback<ApiService.PidStatusResponse>() {
+            @Override
+            public void onResponse(Call<ApiService.PidStatusResponse> call,
+                                   Response<ApiService.PidStatusResponse> response) {
+                if (response.isSuccessful()) {
+                    result.pidStatus = response.body();
+                }
+                if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+            }
+
+            @Override
+            public void onFailure(Call<ApiService.PidStatusResponse> call, Throwable t) {
+                // PID bilgisi opsiyonel, mevcut gösterim korunur
+                if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+            }
+        });
+
+        if (includeRtc) {
+            apiService.getRTCStatus().enqueue(new Callback<ApiService.RTCStatusResponse>() {
+                @Override
+                public void onResponse(Call<ApiService.RTCStatusResponse> call,
+                                       Response<ApiService.RTCStatusResponse> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        cacheRtc(response.body());
+                    }
+                    if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+                }
+
+                @Override
+                public void onFailure(Call<ApiService.RTCStatusResponse> call, Throwable t) {
+                    if (pending.decrementAndGet() == 0) deliverFanOut(result, requestCount, callback);
+                }
+            });
+        }
+    }
+
+    private void deliverFanOut(FanOutResult result, int requestCount, SnapshotCallback callback) {
+        if (result.deviceStatus == null) {
+            callback.onFailure(result.error != null ? result.error : new IOException("Veri alınamadı"));
+            return;
+        }
+        callback.onSnapshot(createSnapshot(result.deviceStatus, result.pidStatus, cachedRtc(),
+                null, null, StatusSnapshot.SOURCE_FAN_OUT, requestCount));
+    }
+
+    private StatusSnapshot createSnapshot(DeviceStatus deviceStatus,
+                                          ApiService.PidStatusResponse pidStatus,
+                                          ApiService.RTCStatusResponse rtcStatus,
+                                          ApiService.MotorStatusResponse motorStatus,
+                                          ApiService.SystemHealthResponse systemHealth,
+                                          int source, int requestCount) {
+        long now = System.currentTimeMillis();
+        recordSavings(now, LEGACY_REQUESTS_PER_TICK - requestCount);
+        return new StatusSnapshot(deviceStatus, pidStatus, rtcStatus, motorStatus, systemHealth,
+                source, requestCount, now);
+    }
+
+    private synchronized boolean isRtcStale() {
+        return cachedRtcStatus == null ||
+                System.currentTimeMillis() - cachedRtcTime > Constants.RTC_REFRESH_INTERVAL;
+    }
+
+    // Ağ callback'leri farklı thread'lerden okur; yazıldığı kilitle okunur
+    private synchronized ApiService.RTCStatusResponse cachedRtc() {
+        return cachedRtcStatus;
+    }
+
+    private synchronized void cacheRtc(ApiService.RTCStatusResponse rtc) {
+        cachedRtcStatus = rtc;
+        cachedRtcTime = System.currentTimeMillis();
+    }
+
+    private synchronized void recordSavings(long now, int saved) {
+        savingsWindow.addLast(new long[]{now, saved});
+        pruneSavings(now);
+    }
+
+    private void pruneSavings(long now) {
+        while (!savingsWindow.isEmpty() && now - savingsWindow.peekFirst()[0] > SAVINGS_WINDOW_MS) {
+            savingsWindow.removeFirst();
+        }
+    }
+
+    // Son bir dakikada eski üç istekli akışa göre gönderilmeyen istek sayısı
+    public synchronized int getSavedRequestsPerMinute() {
+        pruneSavings(System.currentTimeMillis());
+        int total = 0;
+        for (long[] entry : savingsWindow) {
+            total += (int) entry[1];
+        }
+        return total;
+    }
+
+    public boolean isCompleteStatusSupported() {
+        return completeStatusSupported;
+    }
+
+    private static class FanOutResult {
+        volatile DeviceStatus deviceStatus;
+        volatile ApiService.PidStatusResponse pidStatus;
+        volatile Throwable error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+import com.kulucka.mkv5.utils.SharedPreferencesManager;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Son geçerli durum snapshot'ını (durum, PID ve RTC) küçük bir ikili dosyada saklar.
+ * Açılışta dosya birkaç milisaniyede okunur ve dashboard bağlantı kurulmadan önce son
+ * bilinen değerlerle çizilir; okunan snapshot SOURCE_CACHED ile işaretlidir.
+ * Yazma AtomicFile ile yapılır; yarım kalan yazma önceki dosyayı bozmaz.
+ * Biçim değişirse FORMAT_VERSION artırılır; eski sürümdeki dosya yok sayılır.
+ * Disk işlemi yapar, ana thread'den çağrılmamalıdır.
+ */
+public class StatusSnapshotStore {
+    private static final String TAG = "StatusSnapshotStore";
+    private static final int MAGIC = 0x4B534E50; // "KSNP"
+    private static final int FORMAT_VERSION = 1;
+
+    // Opsiyonel bölümlerin varlık bayrakları
+    private static final int HAS_MOTOR = 1;
+    private static final int HAS_RELIABILITY = 1 << 1;
+    private static final int HAS_SENSOR1 = 1 << 2;
+    private static final int HAS_SENSOR2 = 1 << 3;
+    private static final int HAS_ALARMS = 1 << 4;
+    private static final int HAS_PID = 1 << 5;
+    private static final int HAS_RTC = 1 << 6;
+
+    private static StatusSnapshotStore instance;
+
+    private final AtomicFile file;
+    private final SharedPreferencesManager prefsManager;
+
+    private StatusSnapshotStore(Context context) {
+        file = new AtomicFile(new File(context.getFilesDir(), Constants.STATUS_SNAPSHOT_FILE));
+        prefsManager = SharedPreferencesManager.getInstance(context);
+    }
+
+    public static synchronized StatusSnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new StatusSnapshotStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public synchronized void save(StatusSnapshot snapshot) {
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(snapshot.getTimestamp());
+            writeString(out, currentDevice());
+            write(out, snapshot);
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            Log.e(TAG, "Snapshot yazılamadı: " + e.getMessage());
+            if (stream != null) {
+                file.failWrite(stream);
+            }
+        }
+    }
+
+    /**
+     * Kayıtlı snapshot'ı döndürür. Dosya yoksa, bozuksa, eski biçimdeyse, başka bir cihaza
+     * aitse ya da STATUS_SNAPSHOT_MAX_AGE_MS'den eskiyse null.
+     */
+    public synchronized StatusSnapshot load() {
+        long start = SystemClock.elapsedRealtime();
+        byte[] data;
+        try {
+            data = file.readFully();
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.e(TAG, "Snapshot okunamadı: " + e.getMessage());
+            return null;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                Log.w(TAG, "Snapshot biçimi tanınmadı, yok sayılıyor");
+                return null;
+            }
+            long savedAt = in.readLong();
+            String device = readString(in);
+            long age = System.currentTimeMillis() - savedAt;
+            if (age > Constants.STATUS_SNAPSHOT_MAX_AGE_MS || age < 0) {
+                Log.d(TAG, "Snapshot çok eski (" + (age / 60000) + " dk), gösterilmiyor");
+                return null;
+            }
+            if (device != null && !device.equals(currentDevice())) {
+                Log.d(TAG, "Snapshot başka bir cihaza ait (" + device + "), gösterilmiyor");
+                return null;
+            }
+
+            StatusSnapshot snapshot = read(in, savedAt);
+            Log.d(TAG, "Snapshot okundu: " + data.length + " B, " +
+                    (SystemClock.elapsedRealtime() - start) + " ms, " + (age / 1000) + " sn önce");
+            return snapshot;
+        } catch (IOException e) {
+            // Kısa ya da bozuk dosya (EOFException dahil)
+            Log.w(TAG, "Snapshot bozuk, yok sayılıyor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void clear() {
+        file.delete();
+    }
+
+    private String currentDevice() {
+        return prefsManager.getDeviceIp() + ":" + prefsManager.getDevicePort();
+    }
+
+    private static void write(DataOutputStream out, StatusSnapshot snapshot) throws IOException {
+        DeviceStatus status = snapshot.getDeviceStatus();
+        DeviceStatus.SensorsInfo sensors = status.getSensors();
+        ApiService.PidStatusResponse pid = snapshot.getPidStatus();
+        ApiService.RTCStatusResponse rtc = snapshot.getRtcStatus();
+
+        int flags = 0;
+        if (status.getMotor() != null) flags |= HAS_MOTOR;
+        if (status.getReliability() != null) flags |= HAS_RELIABILITY;
+        if (sensors != null && sensors.getSensor1() != null) flags |= HAS_SENSOR1;
+        if (sensors != null && sensors.getSensor2() != null) flags |= HAS_SENSOR2;
+        if (status.getAlarms() != null) flags |= HAS_ALARMS;
+        if (pid != null) flags |= HAS_PID;
+        if (rtc != null) flags |= HAS_RTC;
+        out.writeShort(flags);
+
+        // Ekranda gösterilen ya da doğrulamada kullanılan alanlar
+        out.writeFloat(status.getTemperature());
+        out.writeFloat(status.getHumidity());
+        out.writeFloat(status.getTargetTemp());
+        out.writeFloat(status.getTargetHumid());
+        out.writeBoolean(status.isHeaterState());
+        out.writeBoolean(status.isHumidifierState());
+        out.writeBoolean(status.isMotorState());
+        writeString(out, status.getIncubationType());
+        out.writeInt(status.getCurrentDay());
+        out.writeInt(status.getTotalDays());
+        out.writeInt(status.getActualDay());
+        out.writeInt(status.getDisplayDay());
+        out.writeBoolean(status.isIncubationRunning());
+        out.writeBoolean(status.isIncubationCompleted());
+        out.writeInt(status.getPidMode());
+        out.writeFloat(status.getPidKp());
+        out.writeFloat(status.getPidKi());
+        out.writeFloat(status.getPidKd());
+        out.writeBoolean(status.isAlarmEnabled());
+        out.writeInt(status.getMotorWaitTime());
+        out.writeInt(status.getMotorRunTime());
+        out.writeLong(status.getTimestamp());
+
+        if ((flags & HAS_MOTOR) != 0) {
+            DeviceStatus.MotorInfo motor = status.getMotor();
+            out.writeBoolean(motor.isState());
+            out.writeInt(motor.getWaitTime());
+            out.writeInt(motor.getRunTime());
+        }
+        if ((flags & HAS_RELIABILITY) != 0) {
+            DeviceStatus.ReliabilityInfo reliability = status.getReliability();
+            out.writeLong(reliability.getLastSave());
+            out.writeInt(reliability.getPendingChanges());
+            out.writeBoolean(reliability.isAutoSaveEnabled());
+        }
+        if ((flags & HAS_SENSOR1) != 0) {
+            writeSensor(out, sensors.getSensor1());
+        }
+        if ((flags & HAS_SENSOR2) != 0) {
+            writeSensor(out, sensors.getSensor2());
+        }
+        if ((flags & HAS_ALARMS) != 0) {
+            DeviceStatus.AlarmsInfo alarms = status.getAlarms();
+            out.writeBoolean(alarms.isEnabled());
+            out.writeFloat(alarms.getTempLow());
+            out.writeFloat(alarms.getTempHigh());
+            out.writeFloat(alarms.getHumidLow());
+            out.writeFloat(alarms.getHumidHigh());
+        }
+        if ((flags & HAS_PID) != 0) {
+            out.writeInt(pid.getMode());
+            writeString(out, pid.getModeString());
+            out.writeBoolean(pid.isActive());
+            out.writeFloat(pid.getKp());
+            out.writeFloat(pid.getKi());
+            out.writeFloat(pid.getKd());
+            out.writeFloat(pid.getError());
+            out.writeFloat(pid.getOutput());
+        }
+        if ((flags & HAS_RTC) != 0) {
+            writeString(out, rtc.getTime());
+            writeString(out, rtc.getDate());
+            out.writeLong(rtc.getTimestamp());
+        }
+    }
+
+    private static StatusSnapshot read(DataInputStream in, long savedAt) throws IOException {
+        int flags = in.readUnsignedShort();
+
+        DeviceStatus status = new DeviceStatus();
+        status.setTemperature(in.readFloat());
+        status.setHumidity(in.readFloat());
+        status.setTargetTemp(in.readFloat());
+        status.setTargetHumid(in.readFloat());
+        status.setHeaterState(in.readBoolean());
+        status.setHumidifierState(in.readBoolean());
+        status.setMotorState(in.readBoolean());
+        status.setIncubationType(readString(in));
+        status.setCurrentDay(in.readInt());
+        status.setTotalDays(in.readInt());
+        status.setActualDay(in.readInt());
+        status.setDisplayDay(in.readInt());
+        status.setIncubationRunning(in.readBoolean());
+        status.setIncubationCompleted(in.readBoolean());
+        status.setPidMode(in.readInt());
+        status.setPidKp(in.readFloat());
+        status.setPidKi(in.readFloat());
+        status.setPidKd(in.readFloat());
+        status.setAlarmEnabled(in.readBoolean());
+        status.setMotorWaitTime(in.readInt());
+        status.setMotorRunTime(in.readInt());
+        status.setTimestamp(in.readLong());
+
+        if ((flags & HAS_MOTOR) != 0) {
+            DeviceStatus.MotorInfo motor = new DeviceStatus.MotorInfo();
+            motor.setState(in.readBoolean());
+            motor.setWaitTime(in.readInt());
+            motor.setRunTime(in.readInt());
+            status.setMotor(motor);
+        }
+        if ((flags & HAS_RELIABILITY) != 0) {
+            DeviceStatus.ReliabilityInfo reliability = new DeviceStatus.ReliabilityInfo();
+            reliability.setLastSave(in.readLong());
+            reliability.setPendingChanges(in.readInt());
+            reliability.setAutoSaveEnabled(in.readBoolean());
+            status.setReliability(reliability);
+        }
+        if ((flags & (HAS_SENSOR1 | HAS_SENSOR2)) != 0) {
+            DeviceStatus.SensorsInfo sensors = new DeviceStatus.SensorsInfo();
+            if ((flags & HAS_SENSOR1) != 0) {
+                sensors.setSensor1(readSensor(in));
+            }
+            if ((flags & HAS_SENSOR2) != 0) {
+                sensors.setSensor2(readSensor(in));
+            }
+            status.setSensors(sensors);
+        }
+        if ((flags & HAS_ALARMS) != 0) {
+            DeviceStatus.AlarmsInfo alarms = new DeviceStatus.AlarmsInfo();
+            alarms.setEnabled(in.readBoolean());
+            alarms.setTempLow(in.readFloat());
+            alarms.setTempHigh(in.readFloat());
+            alarms.setHumidLow(in.readFloat());
+            alarms.setHumidHigh(in.readFloat());
+            status.setAlarms(alarms);
+        }
+
+        ApiService.PidStatusResponse pid = null;
+        if ((flags & HAS_PID) != 0) {
+            pid = new ApiService.PidStatusResponse();
+            pid.setMode(in.readInt());
+            pid.setModeString(readString(in));
+            pid.setActive(in.readBoolean());
+            pid.setKp(in.readFloat());
+            pid.setKi(in.readFloat());
+            pid.setKd(in.readFloat());
+            pid.setError(in.readFloat());
+            pid.setOutput(in.readFloat());
+        }
+
+        ApiService.RTCStatusResponse rtc = null;
+        if ((flags & HAS_RTC) != 0) {
+            rtc = new ApiService.RTCStatusResponse();
+            rtc.setTime(readString(in));
+            rtc.setDate(readString(in));
+            rtc.setTimestamp(in.readLong());
+        }
+
+        return new StatusSnapshot(status, pid, rtc, null, null,
+                StatusSnapshot.SOURCE_CACHED, 0, savedAt);
+    }
+
+    private static void writeSensor(DataOutputStream out, DeviceStatus.SensorsInfo.SensorDetail sensor)
+            throws IOException {
+        out.writeFloat(sensor.getTemperature());
+        out.writeFloat(sensor.getHumidity());
+        out.writeBoolean(sensor.isWorking());
+    }
+
+    private static DeviceStatus.SensorsInfo.SensorDetail readSensor(DataInputStream in) throws IOException {
+        DeviceStatus.SensorsInfo.SensorDetail sensor = new DeviceStatus.SensorsInfo.SensorDetail();
+        sensor.setTemperature(in.readFloat());
+        sensor.setHumidity(in.readFloat());
+        sensor.setWorking(in.readBoolean());
+        return sensor;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package com.kulucka.mkv5.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Uygulama genelinde tek bir durum sorgu döngüsü.
+ * Aboneler kendi aralıklarını ister; döngü en kısa aralıkla çalışır ve her aboneye
+ * yalnızca kendi aralığı dolduğunda sonuç iletir. Son abone ayrıldığında döngü durur.
+ * Push kaynağı bağlıyken değişiklikler anında uyarlanır abonelere iletilir ve bu
+ * abonelerin sorgusu yalnızca STATUS_PUSH_RESYNC_INTERVAL aralığında tam senkron
+ * için yapılır. Uyarlanır aboneliklerin aralığı AdaptivePollPolicy ile makinenin
+ * durumuna göre kısalır ya da uzar. Ayar ekranları gibi sabit aralık isteyenler
+ * ikisinden de etkilenmez: push almazlar, PID/RTC/motor verisi kendi aralıklarında
+ * sorgudan gelir.
+ * Tüm çağrılar ve bildirimler ana thread üzerinde yapılır.
+ */
+public class StatusStream {
+    private static final String TAG = "StatusStream";
+
+    public interface StatusListener {
+        void onStatusSnapshot(StatusSnapshot snapshot);
+        void onStatusError(Throwable t);
+    }
+
+    // Snapshot'ı getiren kaynak (NetworkManager.getStatusSnapshot)
+    interface SnapshotSource {
+        void fetch(StatusSnapshotAggregator.SnapshotCallback callback);
+    }
+
+    // Push kanalı; abone varken receiver verilir, son abone çıkınca null ile kapatılır
+    interface PushSource {
+        void setReceiver(PushReceiver receiver);
+    }
+
+    // Ana thread'de çağrılır
+    interface PushReceiver {
+        void onPushAvailable(boolean available);
+        void onPushStatus(DeviceStatus status, long timestamp);
+    }
+
+    private static class Subscription {
+        final long interval;
+        final boolean adaptive;
+        long lastDelivery;
+
+        Subscription(long interval, boolean adaptive) {
+            this.interval = interval;
+            this.adaptive = adaptive;
+        }
+    }
+
+    private final SnapshotSource source;
+    private final PushSource pushSource;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<StatusListener, Subscription> subscribers = new LinkedHashMap<>();
+    private final AdaptivePollPolicy pollPolicy = new AdaptivePollPolicy();
+
+    private long pollInterval = 0;
+    private long lastPollTime = 0;
+    private boolean running = false;
+    private boolean inFlight = false;
+    private boolean forceDelivery = false;
+    private boolean refreshPending = false;
+    private boolean pushActive = false;
+    private boolean pushStarted = false;
+    private StatusSnapshot lastSnapshot;
+    private long lastSnapshotTime = 0;
+
+    private final Runnable pollRunnable = this::poll;
+
+    private final PushReceiver pushReceiver = new PushReceiver() {
+        @Override
+        public void onPushAvailable(boolean available) {
+            if (pushActive == available) {
+                return;
+            }
+            pushActive = available;
+            updateSchedule();
+        }
+
+        @Override
+        public void onPushStatus(DeviceStatus status, long timestamp) {
+            deliverPush(status, timestamp);
+        }
+    };
+
+    StatusStream(SnapshotSource source) {
+        this(source, null);
+    }
+
+    StatusStream(SnapshotSource source, PushSource pushSource) {
+        this.source = source;
+        this.pushSource = pushSource;
+    }
+
+    public void subscribe(StatusListener listener, long intervalMs) {
+        subscribe(listener, intervalMs, true);
+    }
+
+    // adaptive=false: aralık makinenin durumuna göre değiştirilmez
+    public void subscribe(StatusListener listener, long intervalMs, boolean adaptive) {
+        Subscription existing = subscribers.get(listener);
+        if (existing != null && existing.interval == intervalMs && existing.adaptive == adaptive) {
+            return;
+        }
+
+        Subscription subscription = new Subscription(intervalMs, adaptive);
+        subscribers.put(listener, subscription);
+        Log.d(TAG, "Abone eklendi (" + intervalMs + " ms), toplam: " + subscribers.size());
+
+        // Elimizde güncel veri varsa yeni aboneyi bekletme; push snapshot'ının detayları sabit aboneye eskidir
+        long now = SystemClock.elapsedRealtime();
+        boolean usable = lastSnapshot != null
+                && (adaptive || lastSnapshot.getSource() != StatusSnapshot.SOURCE_PUSH);
+        if (usable && now - lastSnapshotTime < intervalMs) {
+            subscription.lastDelivery = lastSnapshotTime;
+            listener.onStatusSnapshot(lastSnapshot);
+        }
+
+        updateSchedule();
+    }
+
+    public void unsubscribe(StatusListener listener) {
+        if (subscribers.remove(listener) == null) {
+            return;
+        }
+        Log.d(TAG, "Abone çıkarıldı, kalan: " + subscribers.size());
+        updateSchedule();
+    }
+
+    // Aboneleri beklemeden hemen bir sorgu yap ve sonucu herkese ilet
+    public void refresh() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        forceDelivery = true;
+        if (inFlight) {
+            refreshPending = true;
+            return;
+        }
+        handler.removeCallbacks(pollRunnable);
+        handler.post(pollRunnable);
+    }
+
+    public StatusSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public boolean isPushActive() {
+        return pushActive;
+    }
+
+    private void updateSchedule() {
+        if (subscribers.isEmpty()) {
+            if (running) {
+                Log.d(TAG, "Son abone ayrıldı, sorgu döngüsü durduruldu");
+            }
+            running = false;
+            pollInterval = 0;
+            pollPolicy.reset();
+            handler.removeCallbacks(pollRunnable);
+            if (pushStarted) {
+                pushStarted = false;
+                pushActive = false;
+                pushSource.setReceiver(null);
+            }
+            return;
+        }
+
+        if (pushSource != null && !pushStarted) {
+            pushStarted = true;
+            pushSource.setReceiver(pushReceiver);
+        }
+
+        long fastest = computePollInterval();
+        boolean intervalChanged = fastest != pollInterval;
+        pollInterval = fastest;
+
+        if (!running || intervalChanged) {
+            running = true;
+            if (!inFlight) {
+                // Bir sonraki sorguyu yeni aralığa göre yeniden planla
+                long elapsed = SystemClock.elapsedRealtime() - lastPollTime;
+                handler.removeCallbacks(pollRunnable);
+                handler.postDelayed(pollRunnable, Math.max(0, pollInterval - elapsed));
+            }
+        }
+    }
+
+    private long computePollInterval() {
+        long fastest = Long.MAX_VALUE;
+        for (Subscription subscription : subscribers.values()) {
+            long interval = effectiveInterval(subscription);
+            // Push açıkken uyarlanır abonelerin sorgusu sadece PID/RTC/motor detayları ve kaçan deltalar için
+            if (pushActive && subscription.adaptive) {
+                interval = Math.max(interval, Constants.STATUS_PUSH_RESYNC_INTERVAL);
+            }
+            fastest = Math.min(fastest, interval);
+        }
+        return fastest;
+    }
+
+    private long effectiveInterval(Subscription subscription) {
+        return subscription.adaptive ? pollPolicy.apply(subscription.interval) : subscription.interval;
+    }
+
+    private void poll() {
+        if (!running || inFlight) {
+            return;
+        }
+
+        inFlight = true;
+        lastPollTime = SystemClock.elapsedRealtime();
+
+        source.fetch(new StatusSnapshotAggregator.SnapshotCallback() {
+            @Override
+            public void onSnapshot(StatusSnapshot snapshot) {
+                handler.post(() -> {
+                    lastSnapshot = snapshot;
+                    lastSnapshotTime = SystemClock.elapsedRealtime();
+                    pollPolicy.update(snapshot.getDeviceStatus(), lastSnapshotTime);
+                    dispatch(snapshot, null);
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                handler.post(() -> dispatch(null, t));
+            }
+        });
+    }
+
+    // Push ile gelen durum, son sorgunun PID/RTC/motor verisiyle birleştirilip uyarlanır abonelere
+    // hemen iletilir. Bu alanlar push'ta eskidir; sabit aralıklı aboneler onları taze sorgudan alır.
+    private void deliverPush(DeviceStatus status, long timestamp) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        StatusSnapshot previous = lastSnapshot;
+        StatusSnapshot snapshot = new StatusSnapshot(status,
+                previous != null ? previous.getPidStatus() : null,
+                previous != null ? previous.getRtcStatus() : null,
+                previous != null ? previous.getMotorStatus() : null,
+                previous != null ? previous.getSystemHealth() : null,
+                StatusSnapshot.SOURCE_PUSH, 0, timestamp);
+
+        long now = SystemClock.elapsedRealtime();
+        lastSnapshot = snapshot;
+        lastSnapshotTime = now;
+        pollPolicy.update(status, now);
+
+        List<Map.Entry<StatusListener, Subscription>> targets = new ArrayList<>(subscribers.entrySet());
+        for (Map.Entry<StatusListener, Subscription> entry : targets) {
+            Subscription subscription = entry.getValue();
+            if (subscribers.get(entry.getKey()) != subscription || !subscription.adaptive) {
+                continue;
+            }
+            subscription.lastDelivery = now;
+            entry.getKey().onStatusSnapshot(snapshot);
+        }
+    }
+
+    private void dispatch(StatusSnapshot snapshot, Throwable error) {
+        inFlight = false;
+        long now = SystemClock.elapsedRealtime();
+        boolean force = forceDelivery;
+        forceDelivery = false;
+
+        if (running) {
+            long interval = computePollInterval();
+            if (Math.abs(interval - pollInterval) * 4 > pollInterval) {
+                Log.d(TAG, "Sorgu aralığı " + pollInterval + " -> " + interval + " ms (katsayı " +
+                        String.format(Locale.US, "%.2f", pollPolicy.getFactor()) + ")");
+            }
+            pollInterval = interval;
+        }
+
+        // Bildirim sırasında abone listesi değişebilir
+        List<Map.Entry<StatusListener, Subscription>> targets = new ArrayList<>(subscribers.entrySet());
+        for (Map.Entry<StatusListener, Subscription> entry : targets) {
+            Subscription subscription = entry.getValue();
+            if (subscribers.get(entry.getKey()) != subscription) {
+                continue;
+            }
+
+            // Aralığı yarım tur içinde dolacak aboneler de bu turda alır
+            boolean due = now - subscription.lastDelivery + pollInterval / 2 >= effectiveInterval(subscription);
+            if (!force && !due) {
+                continue;
+            }
+
+            subscription.lastDelivery = now;
+            if (error == null) {
+                entry.getKey().onStatusSnapshot(snapshot);
+            } else {
+                entry.getKey().onStatusError(error);
+            }
+        }
+
+        if (!running) {
+            return;
+        }
+
+        handler.removeCallbacks(pollRunnable);
+        if (refreshPending) {
+            refreshPending = false;
+            forceDelivery = true;
+            handler.post(pollRunnable);
+        } else {
+            handler.postDelayed(pollRunnable, pollInterval);
+        }
+    }
+}
\ No newline at end of file
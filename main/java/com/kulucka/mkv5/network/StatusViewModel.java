@@ -0,0 +1,111 @@
+package com.kulucka.mkv5.network;
+
+/**
+ * Bir snapshot'ın ekrana yazılmaya hazır hali; StatusPipeline tarafından arka plan
+ * thread'inde üretilir. Metinler biçimlendirilmiş, renkler kaynak kimliği olarak seçilmiştir.
+ * Alan null ise ilgili görünüm önceki gösterimden bu yana değişmemiştir ve dokunulmamalıdır.
+ * Oluşturulduktan sonra değişmez.
+ */
+public final class StatusViewModel {
+
+    // Tek bir TextView'a yazılacak değer
+    public static final class Text {
+        private final String text;
+        private final int colorRes;
+        private final boolean visible;
+
+        Text(String text) {
+            this(text, 0, true);
+        }
+
+        Text(String text, int colorRes) {
+            this(text, colorRes, true);
+        }
+
+        Text(String text, int colorRes, boolean visible) {
+            this.text = text;
+            this.colorRes = colorRes;
+            this.visible = visible;
+        }
+
+        public String getText() { return text; }
+
+        // 0 ise metin rengi değiştirilmez
+        public int getColorRes() { return colorRes; }
+
+        // false ise görünüm gizlenir, metin yazılmaz
+        public boolean isVisible() { return visible; }
+    }
+
+    final StatusSnapshot snapshot;
+    final int changes;
+    final boolean valid;
+    final String alarmMessage;
+    final String notificationText;
+
+    Text currentTemp;
+    Text targetTemp;
+    Text heater;
+    Text currentHumid;
+    Text targetHumid;
+    Text humidifier;
+    Text incubationType;
+    Text dayCount;
+    Text incubationStatus;
+    Text completionStatus;
+    Text motorStatus;
+    Text motorTiming;
+    Text pidMode;
+    Text pidValues;
+    Text alarmStatus;
+    Text lastSave;
+    Text pendingChanges;
+    Text autoSaveStatus;
+    Text rtcTime;
+
+    StatusViewModel(StatusSnapshot snapshot, int changes, boolean valid,
+                    String alarmMessage, String notificationText) {
+        this.snapshot = snapshot;
+        this.changes = changes;
+        this.valid = valid;
+        this.alarmMessage = alarmMessage;
+        this.notificationText = notificationText;
+    }
+
+    public StatusSnapshot getSnapshot() { return snapshot; }
+
+    // Önceki modele göre değişen StatusDiff grupları
+    public int getChanges() { return changes; }
+
+    // false: sıcaklık/nem okunamadı (sensör hatası ya da geçersiz değer); alarm değerlendirilmedi
+    public boolean isValid() { return valid; }
+
+    // true: değerler önceki oturumdan kalan kayıtlı snapshot'tan; alarm değerlendirilmedi
+    public boolean isStale() { return snapshot.getSource() == StatusSnapshot.SOURCE_CACHED; }
+
+    // Limit dışı değer yoksa null
+    public String getAlarmMessage() { return alarmMessage; }
+
+    // Durum bildirimi metni; her modelde dolu
+    public String getNotificationText() { return notificationText; }
+
+    public Text getCurrentTemp() { return currentTemp; }
+    public Text getTargetTemp() { return targetTemp; }
+    public Text getHeater() { return heater; }
+    public Text getCurrentHumid() { return currentHumid; }
+    public Text getTargetHumid() { return targetHumid; }
+    public Text getHumidifier() { return humidifier; }
+    public Text getIncubationType() { return incubationType; }
+    public Text getDayCount() { return dayCount; }
+    public Text getIncubationStatus() { return incubationStatus; }
+    public Text getCompletionStatus() { return completionStatus; }
+    public Text getMotorStatus() { return motorStatus; }
+    public Text getMotorTiming() { return motorTiming; }
+    public Text getPidMode() { return pidMode; }
+    public Text getPidValues() { return pidValues; }
+    public Text getAlarmStatus() { return alarmStatus; }
+    public Text getLastSave() { return lastSave; }
+    public Text getPendingChanges() { return pendingChanges; }
+    public Text getAutoSaveStatus() { return autoSaveStatus; }
+    public Text getRtcTime() { return rtcTime; }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.kulucka.mkv5.network;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.LinkAddress;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Bağlı WiFi ağının alt ağını LinkProperties'ten alıp her adrese /api/discovery isteği gönderir.
+ * Broadcast'in engellendiği ağlarda da cihazları bulur ve tüm cihazları raporlar.
+ * İstekler kısa timeout'larla yüksek paralellikte yapılır; bir /24 birkaç saniyede taranır.
+ * Etkin ağ WiFi değilse (yalnız hücresel veri ya da VPN) veya alt ağ /22-/30 dışındaysa
+ * tarama yapılmaz; yanlış ağda yüzlerce adres yoklanmaz.
+ */
+public class SubnetScanner {
+    private static final String TAG = "SubnetScanner";
+
+    // Bu aralık dışındaki alt ağlar taranmaz (çok büyük ya da host'u yok)
+    private static final int MIN_SCAN_PREFIX = 22;
+    private static final int MAX_SCAN_PREFIX = 30;
+
+    public interface ScanListener {
+        void onHostFound(String ipAddress, int port, ApiService.DiscoveryResponse info);
+        void onScanComplete(int probedHosts);
+    }
+
+    private static OkHttpClient scanClient;
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Gson gson = new Gson();
+    private final List<Call> activeCalls = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean cancelled = false;
+
+    // Tarama için ayrı client: retry, log ve uzun timeout'lar burada istenmez
+    private static synchronized OkHttpClient getScanClient() {
+        if (scanClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(Constants.SUBNET_SCAN_PARALLELISM);
+            dispatcher.setMaxRequestsPerHost(1);
+
+            scanClient = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectTimeout(Constants.SUBNET_SCAN_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .readTimeout(Constants.SUBNET_SCAN_READ_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .writeTimeout(Constants.SUBNET_SCAN_READ_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .retryOnConnectionFailure(false)
+                    .followRedirects(false)
+                    .build();
+        }
+        return scanClient;
+    }
+
+    public SubnetScanner(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void start(ScanListener listener) {
+        cancelled = false;
+
+        List<String> hosts = getSubnetHosts(context);
+        if (hosts.isEmpty()) {
+            Log.w(TAG, "Taranacak alt ağ bulunamadı");
+            mainHandler.post(() -> listener.onScanComplete(0));
+            return;
+        }
+
+        Log.d(TAG, hosts.size() + " adres taranıyor");
+        AtomicInteger pending = new AtomicInteger(hosts.size());
+
+        for (String host : hosts) {
+            Request request = new Request.Builder()
+                    .url("http://" + host + ":" + Constants.DEFAULT_PORT + "/api/discovery")
+                    .header("Accept", "application/json")
+                    .build();
+
+            Call call = getScanClient().newCall(request);
+            activeCalls.add(call);
+            call.enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (ResponseBody body = response.body()) {
+                        if (response.isSuccessful() && body != null) {
+                            ApiService.DiscoveryResponse info =
+                                    gson.fromJson(body.charStream(), ApiService.DiscoveryResponse.class);
+                            if (info != null && info.getDevice() != null && !cancelled) {
+                                int port = info.getPort() > 0 ? info.getPort() : Constants.DEFAULT_PORT;
+                                Log.d(TAG, "Cihaz bulundu: " + host + ":" + port);
+                                mainHandler.post(() -> listener.onHostFound(host, port, info));
+                            }
+                        }
+                    } catch (Exception e) {
+                        // Kuluçka makinesi olmayan bir HTTP sunucusu - yok say
+                    }
+                    finish(call);
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    finish(call);
+                }
+
+                private void finish(Call call) {
+                    activeCalls.remove(call);
+                    if (pending.decrementAndGet() == 0) {
+                        mainHandler.post(() -> listener.onScanComplete(hosts.size()));
+                    }
+                }
+            });
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        synchronized (activeCalls) {
+            for (Call call : activeCalls) {
+                call.cancel();
+            }
+            activeCalls.clear();
+        }
+    }
+
+    // WiFi ağının IPv4 adresinden ve prefix uzunluğundan host listesini çıkar
+    static List<String> getSubnetHosts(Context context) {
+        List<String> hosts = new ArrayList<>();
+        LinkProperties linkProperties = getWifiLinkProperties(context);
+        if (linkProperties == null) {
+            Log.d(TAG, "Etkin ağ WiFi değil, alt ağ taranmayacak");
+            return hosts;
+        }
+
+        for (LinkAddress linkAddress : linkProperties.getLinkAddresses()) {
+            InetAddress address = linkAddress.getAddress();
+            if (!(address instanceof Inet4Address)) {
+                continue;
+            }
+
+            int prefix = linkAddress.getPrefixLength();
+            if (prefix < MIN_SCAN_PREFIX || prefix > MAX_SCAN_PREFIX) {
+                Log.d(TAG, "WiFi alt ağı /" + prefix + " taranmayacak");
+                continue;
+            }
+
+            int self = toInt(address.getAddress());
+            int mask = -1 << (32 - prefix);
+            int network = self & mask;
+            int broadcast = network | ~mask;
+
+            for (int ip = network + 1; ip < broadcast; ip++) {
+                if (ip != self) {
+                    hosts.add(toAddress(ip));
+                }
+            }
+            Log.d(TAG, "Alt ağ: " + toAddress(network) + "/" + prefix +
+                    " (" + linkProperties.getInterfaceName() + ")");
+            return hosts;
+        }
+        return hosts;
+    }
+
+    // Etkin ağ WiFi ise bağlantı özellikleri; hücresel veri ve VPN'de null
+    static LinkProperties getWifiLinkProperties(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return null;
+        }
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return null;
+        }
+        Network network = connectivityManager.getActiveNetwork();
+        if (network == null) {
+            return null;
+        }
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(network);
+        if (capabilities == null || !capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            return null;
+        }
+        return connectivityManager.getLinkProperties(network);
+    }
+
+    private static int toInt(byte[] bytes) {
+        return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) |
+                ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+
+    private static String toAddress(int ip) {
+        return ((ip >>> 24) & 0xFF) + "." + ((ip >>> 16) & 0xFF) + "." +
+                ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+    }
+}
\ No newline at end of file
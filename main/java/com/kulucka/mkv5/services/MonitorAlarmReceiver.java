@@ -0,0 +1,16 @@
+package com.kulucka.mkv5.services;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Planlanan kısa kontrol zamanı geldi. Alarm takibi API 31+ hızlandırılmış iş olarak, diğer
+ * kontroller Doze ertelemesin diye alarmın izin penceresinde doğrudan burada çalıştırılır.
+ */
+public class MonitorAlarmReceiver extends BroadcastReceiver {
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        MonitorJobService.runScheduledCheck(context, intent, goAsync());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,342 @@
+package com.kulucka.mkv5.services;
+
+import android.app.AlarmManager;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.kulucka.mkv5.MainActivity;
+import com.kulucka.mkv5.R;
+import com.kulucka.mkv5.models.StatusDiff;
+import com.kulucka.mkv5.network.NetworkManager;
+import com.kulucka.mkv5.network.StatusPipeline;
+import com.kulucka.mkv5.network.StatusSnapshot;
+import com.kulucka.mkv5.network.StatusSnapshotAggregator;
+import com.kulucka.mkv5.network.StatusSnapshotStore;
+import com.kulucka.mkv5.network.StatusViewModel;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Arka plan izlemesi. Sürekli çalışan bir servis yerine sistem, kontrolü periyodik bir iş olarak
+ * diğer uygulamaların işleriyle aynı pencerede çalıştırır; Doze ve App Standby kurallarına uyar.
+ * Uygulama açıkken durum akışı zaten sorgu yapıyorsa son snapshot kullanılır, ağ kullanılmaz.
+ * Periyodik iş Doze'da saatlerce ertelenebildiğinden her kontrol, Doze'da da tetiklenen bir
+ * sonraki kısa kontrolü planlar (MonitorAlarmReceiver): alarm yokken MONITOR_WATCH_INTERVAL,
+ * alarm sürerken MONITOR_ALARM_RECHECK_DELAY sonra. Böylece yeni bir alarm normalde ve Doze'da
+ * en geç ~9 dakikada fark edilir; periyodik iş, yeniden başlatma sonrası zinciri kurar.
+ * Alarm takibi API 31+ hızlandırılmış iş olarak, diğer kontroller alıcı içinde süre sınırıyla çalışır.
+ */
+public class MonitorJobService extends JobService {
+    private static final String TAG = "MonitorJobService";
+    private static final int MAX_FAILURES_BEFORE_NOTIFICATION = 2; // 2 başarısız kontrol sonrası bildirim
+    private static final String ALARM_CHANNEL_ID = "alarm_channel";
+
+    // Bildirim metnindeki alanlar değişmedikçe bildirim yeniden oluşturulmaz
+    private static final int NOTIFICATION_FIELDS = StatusDiff.TEMPERATURE | StatusDiff.HUMIDITY | StatusDiff.DAY;
+    // Değişim takibi, alarm değerlendirmesi ve bildirim metni ana thread dışında hazırlanır
+    private static final StatusPipeline statusPipeline = new StatusPipeline();
+
+    private static final int CHECK_PERIODIC = 0;
+    private static final int CHECK_WATCH = 1;
+    private static final int CHECK_ALARM = 2;
+    private static final String EXTRA_ALARM_FOLLOW_UP = "alarm_follow_up";
+
+    private static int alarmFollowUps = 0;
+
+    // Periyodik izleme işini planlar; zaten planlıysa dokunmaz
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N &&
+                scheduler.getPendingJob(Constants.MONITOR_JOB_ID) != null) {
+            return;
+        }
+
+        JobInfo.Builder builder = new JobInfo.Builder(Constants.MONITOR_JOB_ID,
+                new ComponentName(context, MonitorJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setPersisted(true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            builder.setPeriodic(Constants.MONITOR_JOB_INTERVAL, Constants.MONITOR_JOB_FLEX);
+        } else {
+            builder.setPeriodic(Constants.MONITOR_JOB_INTERVAL);
+        }
+        scheduler.schedule(builder.build());
+        Log.d(TAG, "Periyodik izleme planlandı");
+    }
+
+    /**
+     * Planlanan kısa kontrolü çalıştırır (MonitorAlarmReceiver'dan). Alarm takibi API 31+
+     * hızlandırılmış iş olarak planlanır; diğer durumlarda iş Doze'da ertelendiği için kontrol,
+     * alarmın verdiği izin penceresinde alıcı içinde yapılır.
+     */
+    static void runScheduledCheck(Context context, Intent intent, BroadcastReceiver.PendingResult result) {
+        boolean followUp = intent.getBooleanExtra(EXTRA_ALARM_FOLLOW_UP, false);
+        if (followUp && Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && scheduleExpeditedCheck(context)) {
+            result.finish();
+            return;
+        }
+        runBoundedCheck(context.getApplicationContext(), followUp ? CHECK_ALARM : CHECK_WATCH, result);
+    }
+
+    private static boolean scheduleExpeditedCheck(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return false;
+        }
+        JobInfo job = new JobInfo.Builder(Constants.MONITOR_ALARM_JOB_ID,
+                new ComponentName(context, MonitorJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setExpedited(true)
+                .build();
+        if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "Alarm kontrolü planlanamadı, alıcı içinde yapılacak");
+            return false;
+        }
+        return true;
+    }
+
+    // goAsync alıcısı ~10 sn sonra sonlandırılır; ağ yolu (bağlantı + okuma zaman aşımı) daha uzun
+    // sürebildiği için result süre sınırında kapatılır ve sonraki kontrol önceden planlanır
+    private static void runBoundedCheck(final Context context, final int kind,
+                                        final BroadcastReceiver.PendingResult result) {
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final Runnable timeout = () -> {
+            if (finished.compareAndSet(false, true)) {
+                Log.w(TAG, "Kontrol alıcı süresini aştı, sonraki kontrol planlandı");
+                // Süreç kapatılsa da zincir kopmaz; sonuç gelirse plan yeniden yapılır
+                scheduleNextCheck(context, kind == CHECK_ALARM);
+                result.finish();
+            }
+        };
+        handler.postDelayed(timeout, Constants.MONITOR_RECEIVER_BUDGET);
+
+        runCheck(context, kind, () -> {
+            handler.removeCallbacks(timeout);
+            if (finished.compareAndSet(false, true)) {
+                result.finish();
+            }
+        });
+    }
+
+    // Aynı PendingIntent ile kurulan önceki plan değiştirilir
+    private static void scheduleNextCheck(Context context, boolean alarmFollowUp) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+        long delay = alarmFollowUp ? Constants.MONITOR_ALARM_RECHECK_DELAY : Constants.MONITOR_WATCH_INTERVAL;
+        // Doze'da da tetiklenir (sistem en sık ~9 dakikada bire izin verir)
+        alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                SystemClock.elapsedRealtime() + delay, checkIntent(context, alarmFollowUp));
+    }
+
+    private static PendingIntent checkIntent(Context context, boolean alarmFollowUp) {
+        Intent intent = new Intent(context, MonitorAlarmReceiver.class)
+                .putExtra(EXTRA_ALARM_FOLLOW_UP, alarmFollowUp);
+        return PendingIntent.getBroadcast(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        int kind = params.getJobId() == Constants.MONITOR_ALARM_JOB_ID ? CHECK_ALARM : CHECK_PERIODIC;
+        runCheck(this, kind, () -> jobFinished(params, false));
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // Sistem işi kesti; sonraki pencerede tekrar denensin
+        return true;
+    }
+
+    // Durumu kontrol eder; done, sonuç işlendikten sonra ana thread'de çağrılır
+    private static void runCheck(final Context context, final int kind, final Runnable done) {
+        final boolean alarmCheck = kind == CHECK_ALARM;
+        final NetworkManager networkManager = NetworkManager.getInstance(context);
+        final MonitorMetrics metrics = MonitorMetrics.getInstance(context);
+        // Arka planda alınan durum da saklanır; uygulama açılınca daha yeni veri gösterilir
+        statusPipeline.setSnapshotStore(StatusSnapshotStore.getInstance(context));
+        long now = System.currentTimeMillis();
+
+        if (kind == CHECK_PERIODIC) {
+            metrics.onPeriodicRun(now);
+        }
+
+        // Uygulama açıkken akış zaten sorguluyor; taze veri varken radyo uyandırılmaz
+        StatusSnapshot last = networkManager.getLastStatusSnapshot();
+        if (!alarmCheck && last != null && now - last.getTimestamp() < Constants.MONITOR_FRESH_SNAPSHOT_AGE) {
+            metrics.onCheck(now, false, true);
+            statusPipeline.process(last, model -> {
+                handleStatus(context, model, false);
+                done.run();
+            });
+            return;
+        }
+
+        networkManager.getStatusSnapshot(new StatusSnapshotAggregator.SnapshotCallback() {
+            @Override
+            public void onSnapshot(StatusSnapshot snapshot) {
+                metrics.onCheck(System.currentTimeMillis(), true, true);
+                statusPipeline.process(snapshot, model -> {
+                    handleStatus(context, model, alarmCheck);
+                    done.run();
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                Log.e(TAG, "Durum kontrolü başarısız: " + t.getMessage());
+                metrics.onCheck(System.currentTimeMillis(), networkManager.isNetworkAvailable(), false);
+                if (metrics.getConsecutiveFailures() >= MAX_FAILURES_BEFORE_NOTIFICATION) {
+                    updateNotification(context, networkManager.isNetworkAvailable() ?
+                            "Bağlantı hatası" : "Ağ bağlantısı yok");
+                    // Bildirim hata metnini gösteriyor; bağlantı gelince durum yeniden yazılmalı
+                    statusPipeline.reset();
+                }
+                // Alarm sürerken cihaza ulaşılamadıysa takip sürdürülür
+                if (alarmCheck || alarmFollowUps > 0) {
+                    continueAlarmFollowUp(context);
+                } else {
+                    scheduleNextCheck(context, false);
+                }
+                done.run();
+            }
+        });
+    }
+
+    private static void handleStatus(Context context, StatusViewModel model, boolean alarmCheck) {
+        if ((model.getChanges() & NOTIFICATION_FIELDS) != 0) {
+            updateNotification(context, model.getNotificationText());
+        }
+
+        // Okuma geçersizse alarmın bitip bitmediği bilinmiyor; takip sürdürülür
+        if (!model.isValid()) {
+            if (alarmCheck || alarmFollowUps > 0) {
+                continueAlarmFollowUp(context);
+            } else {
+                scheduleNextCheck(context, false);
+            }
+            return;
+        }
+
+        String alarmMessage = model.getAlarmMessage();
+        if (alarmMessage != null) {
+            showAlarmNotification(context, alarmMessage);
+            // Sayaç yalnızca alarm bitince sıfırlanır; periyodik iş sınırı aşılmış takibi yeniden başlatmaz
+            continueAlarmFollowUp(context);
+        } else {
+            if (alarmCheck || alarmFollowUps > 0) {
+                Log.d(TAG, "Alarm durumu sona erdi");
+                alarmFollowUps = 0;
+            }
+            scheduleNextCheck(context, false);
+        }
+    }
+
+    // Alarm sürdükçe kısa aralıklı kontrol; sınırsız uyanmayı önlemek için sayı sınırlı
+    private static void continueAlarmFollowUp(Context context) {
+        if (alarmFollowUps >= Constants.MONITOR_ALARM_MAX_FOLLOW_UPS) {
+            Log.w(TAG, "Alarm takibi sınırına ulaşıldı, normal aralıklı kontrole dönülüyor");
+            scheduleNextCheck(context, false);
+            return;
+        }
+        alarmFollowUps++;
+        scheduleNextCheck(context, true);
+    }
+
+    private static void createNotificationChannel(NotificationManager manager) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    Constants.NOTIFICATION_CHANNEL_ID,
+                    "Kuluçka Servisi",
+                    NotificationManager.IMPORTANCE_LOW
+            );
+            channel.setDescription("Kuluçka sistemi arka plan izlemesi");
+            channel.setShowBadge(false);
+            channel.enableVibration(false);
+            channel.setSound(null, null);
+            manager.createNotificationChannel(channel);
+        }
+    }
+
+    private static void updateNotification(Context context, String content) {
+        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager == null) return;
+        createNotificationChannel(manager);
+
+        Intent notificationIntent = new Intent(context, MainActivity.class);
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+                context, 0, notificationIntent, PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Notification notification = new NotificationCompat.Builder(context, Constants.NOTIFICATION_CHANNEL_ID)
+                .setContentTitle("KULUCKA MK v5.0")
+                .setContentText(content)
+                .setSmallIcon(R.drawable.ic_notification)
+                .setContentIntent(pendingIntent)
+                .setOngoing(true)
+                .setSilent(true)
+                .setShowWhen(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .build();
+
+        manager.notify(Constants.NOTIFICATION_ID, notification);
+    }
+
+    private static void showAlarmNotification(Context context, String message) {
+        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager == null) return;
+
+        Intent intent = new Intent(context, MainActivity.class);
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+                context, 0, intent, PendingIntent.FLAG_IMMUTABLE
+        );
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel alarmChannel = new NotificationChannel(
+                    ALARM_CHANNEL_ID,
+                    "Kuluçka Alarmları",
+                    NotificationManager.IMPORTANCE_HIGH
+            );
+            alarmChannel.setDescription("Kritik kuluçka alarmları");
+            alarmChannel.enableVibration(true);
+            alarmChannel.setVibrationPattern(new long[]{0, 250, 250, 250});
+            manager.createNotificationChannel(alarmChannel);
+        }
+
+        Notification notification = new NotificationCompat.Builder(context, ALARM_CHANNEL_ID)
+                .setContentTitle("ALARM - KULUCKA MK v5.0")
+                .setContentText(message)
+                .setSmallIcon(R.drawable.ic_warning)
+                .setContentIntent(pendingIntent)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setAutoCancel(true)
+                .setVibrate(new long[]{0, 250, 250, 250})
+                .build();
+
+        manager.notify(Constants.NOTIFICATION_ID + 1, notification);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.kulucka.mkv5.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.kulucka.mkv5.utils.Constants;
+import com.kulucka.mkv5.utils.SharedPreferencesManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Arka plan izlemesinin pil maliyeti ve güvenilirliği.
+ * Radyo uyanması: ağ kullanan her kontrol (ön planda taze veri varken yapılan kontroller sayılmaz).
+ * Kaçan kontrol: periyodik işin iki çalışması arasında planlanan aralığın katları kadar süre geçtiyse
+ * aradaki çalışmalar kaçmış sayılır (Doze, App Standby veya sistemin işi ertelemesi).
+ * Değerler SharedPreferences'ta tutulur; süreç ölse de işler arasında korunur.
+ */
+public class MonitorMetrics {
+    private static final String TAG = "MonitorMetrics";
+    private static final long WINDOW_MS = 24 * 60 * 60 * 1000L;
+    private static MonitorMetrics instance;
+
+    // Kalıcı durum
+    private static class State {
+        List<Long> wakeups = new ArrayList<>();
+        long firstCheckTime;
+        long lastPeriodicRun;
+        long expectedChecks;
+        long missedChecks;
+        int consecutiveFailures;
+    }
+
+    private final SharedPreferencesManager prefsManager;
+    private final Gson gson = new Gson();
+    private State state;
+
+    private MonitorMetrics(Context context) {
+        prefsManager = SharedPreferencesManager.getInstance(context);
+        load();
+    }
+
+    public static synchronized MonitorMetrics getInstance(Context context) {
+        if (instance == null) {
+            instance = new MonitorMetrics(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Periyodik iş çalıştı; önceki çalışmadan bu yana kaçan kontroller hesaplanır
+    synchronized void onPeriodicRun(long now) {
+        if (state.lastPeriodicRun > 0) {
+            long elapsed = now - state.lastPeriodicRun;
+            // Esneme payı kadar gecikme normaldir
+            long slots = Math.max(1, (elapsed + Constants.MONITOR_JOB_FLEX / 2) / Constants.MONITOR_JOB_INTERVAL);
+            state.expectedChecks += slots;
+            state.missedChecks += slots - 1;
+        }
+        state.lastPeriodicRun = now;
+        save();
+    }
+
+    synchronized void onCheck(long now, boolean usedNetwork, boolean success) {
+        if (state.firstCheckTime == 0) {
+            state.firstCheckTime = now;
+        }
+        if (usedNetwork) {
+            state.wakeups.add(now);
+        }
+        pruneWakeups(now);
+        state.consecutiveFailures = success ? 0 : state.consecutiveFailures + 1;
+        save();
+        Log.d(TAG, String.format(Locale.US, "Radyo uyanması/saat: %.2f, kaçan kontrol: %%%.1f",
+                getWakeupsPerHour(), getMissedCheckRate() * 100));
+    }
+
+    synchronized int getConsecutiveFailures() {
+        return state.consecutiveFailures;
+    }
+
+    // Son 24 saatteki (izleme daha yeni başladıysa o süredeki) saatlik ortalama
+    public synchronized double getWakeupsPerHour() {
+        long now = System.currentTimeMillis();
+        pruneWakeups(now);
+        if (state.firstCheckTime == 0) {
+            return 0;
+        }
+        long window = Math.min(WINDOW_MS, now - state.firstCheckTime);
+        double hours = Math.max(window, Constants.MONITOR_JOB_INTERVAL) / 3600000.0;
+        return state.wakeups.size() / hours;
+    }
+
+    // Planlanan periyodik kontrollerin zamanında çalışmayan oranı (0..1)
+    public synchronized double getMissedCheckRate() {
+        if (state.expectedChecks == 0) {
+            return 0;
+        }
+        return (double) state.missedChecks / state.expectedChecks;
+    }
+
+    public synchronized void reset() {
+        state = new State();
+        save();
+    }
+
+    private void pruneWakeups(long now) {
+        Iterator<Long> iterator = state.wakeups.iterator();
+        while (iterator.hasNext() && now - iterator.next() > WINDOW_MS) {
+            iterator.remove();
+        }
+    }
+
+    private void load() {
+        String json = prefsManager.getMonitorMetrics();
+        try {
+            state = json != null ? gson.fromJson(json, State.class) : null;
+        } catch (Exception e) {
+            Log.e(TAG, "İzleme ölçümleri okunamadı: " + e.getMessage());
+        }
+        if (state == null) {
+            state = new State();
+        }
+    }
+
+    private void save() {
+        prefsManager.saveMonitorMetrics(gson.toJson(state));
+    }
+}
\ No newline at end of file
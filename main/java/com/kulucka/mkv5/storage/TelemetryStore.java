@@ -0,0 +1,419 @@
+package com.kulucka.mkv5.storage;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kuluçka boyunca sıcaklık, nem, ısıtıcı/nemlendirici ve PID çıkış geçmişi.
+ * Ham örnekler yaklaşık bir günlük dairesel dosyada tutulur; aynı örneklerden
+ * 1 dakikalık, 10 dakikalık ve saatlik özet katmanları üretilir.
+ * 25 günlük bir kaz kuluçkası toplamda ~1.5 MB yer kaplar.
+ *
+ * Tüm dosya işlemleri tek bir arka plan thread'inde yapılır, sorgu sonuçları ana thread'e döner.
+ * Katmanlar zamana göre sıralı olduğundan aralık sorgusu ikili aramayla başlar ve yalnızca
+ * seçilen katmanın aralıktaki kayıtlarını okur.
+ */
+public class TelemetryStore {
+    private static final String TAG = "TelemetryStore";
+    private static TelemetryStore instance;
+
+    // Ham kayıt: zaman(4) sıcaklık(2) nem(2) pid çıkışı(2) durum bayrakları(1) boş(1)
+    private static final int RAW_RECORD_SIZE = 12;
+    // Özet kayıt: zaman(4) sıcaklık ort/min/max(6) nem ort/min/max(6) pid ort(2)
+    //             ısıtıcı oranı(2) nemlendirici oranı(2) örnek sayısı(2)
+    private static final int ROLLUP_RECORD_SIZE = 24;
+
+    private static final int FLAG_HEATER = 1;
+    private static final int FLAG_HUMIDIFIER = 1 << 1;
+    private static final int FLAG_MOTOR = 1 << 2;
+
+    // Değerler 0.01 hassasiyetle short olarak saklanır
+    private static final float SCALE = 100f;
+    private static final float DUTY_SCALE = 1000f;
+
+    public interface QueryCallback {
+        void onResult(List<Point> points);
+    }
+
+    /**
+     * Tek bir zaman noktası. Ham katmandan gelen noktalarda ort/min/max aynıdır
+     * ve çalışma oranları 0 veya 1'dir.
+     */
+    public static class Point {
+        private final long time;
+        private final float temperature, minTemperature, maxTemperature;
+        private final float humidity, minHumidity, maxHumidity;
+        private final float pidOutput;
+        private final float heaterDuty, humidifierDuty;
+        private final int sampleCount;
+
+        Point(long time, float temperature, float minTemperature, float maxTemperature,
+              float humidity, float minHumidity, float maxHumidity, float pidOutput,
+              float heaterDuty, float humidifierDuty, int sampleCount) {
+            this.time = time;
+            this.temperature = temperature;
+            this.minTemperature = minTemperature;
+            this.maxTemperature = maxTemperature;
+            this.humidity = humidity;
+            this.minHumidity = minHumidity;
+            this.maxHumidity = maxHumidity;
+            this.pidOutput = pidOutput;
+            this.heaterDuty = heaterDuty;
+            this.humidifierDuty = humidifierDuty;
+            this.sampleCount = sampleCount;
+        }
+
+        // Epoch milisaniye (özet noktalarında aralığın başlangıcı)
+        public long getTime() { return time; }
+        public float getTemperature() { return temperature; }
+        public float getMinTemperature() { return minTemperature; }
+        public float getMaxTemperature() { return maxTemperature; }
+        public float getHumidity() { return humidity; }
+        public float getMinHumidity() { return minHumidity; }
+        public float getMaxHumidity() { return maxHumidity; }
+        public float getPidOutput() { return pidOutput; }
+
+        // 0..1 arası, aralıkta rölenin açık kaldığı örnek oranı
+        public float getHeaterDuty() { return heaterDuty; }
+        public float getHumidifierDuty() { return humidifierDuty; }
+        public int getSampleCount() { return sampleCount; }
+    }
+
+    // Bir özet katmanının henüz kapanmamış aralığı
+    private static class Accumulator {
+        long bucket = -1;
+        int count;
+        float tempSum, tempMin, tempMax;
+        float humidSum, humidMin, humidMax;
+        float pidSum;
+        int heaterOn, humidifierOn;
+
+        void add(float temp, float humid, float pid, int flags) {
+            if (count == 0) {
+                tempMin = tempMax = temp;
+                humidMin = humidMax = humid;
+            } else {
+                tempMin = Math.min(tempMin, temp);
+                tempMax = Math.max(tempMax, temp);
+                humidMin = Math.min(humidMin, humid);
+                humidMax = Math.max(humidMax, humid);
+            }
+            tempSum += temp;
+            humidSum += humid;
+            pidSum += pid;
+            if ((flags & FLAG_HEATER) != 0) heaterOn++;
+            if ((flags & FLAG_HUMIDIFIER) != 0) humidifierOn++;
+            count++;
+        }
+
+        void reset(long newBucket) {
+            bucket = newBucket;
+            count = 0;
+            tempSum = humidSum = pidSum = 0;
+            heaterOn = humidifierOn = 0;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final File directory;
+
+    private TelemetryTier rawTier;
+    private TelemetryTier[] rollupTiers;
+    private Accumulator[] accumulators;
+    private long lastRawTime = -1;
+    // Depo açılamadıysa örnekler atlanır
+    private volatile boolean available = false;
+
+    private TelemetryStore(Context context) {
+        directory = new File(context.getApplicationContext().getFilesDir(), "telemetry");
+        executor.execute(this::open);
+    }
+
+    public static synchronized TelemetryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new TelemetryStore(context);
+        }
+        return instance;
+    }
+
+    private void open() {
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Dizin oluşturulamadı: " + directory);
+            }
+
+            rawTier = new TelemetryTier(new File(directory, "raw.bin"), "raw", 0,
+                    RAW_RECORD_SIZE, Constants.TELEMETRY_RAW_CAPACITY);
+            rollupTiers = new TelemetryTier[] {
+                    new TelemetryTier(new File(directory, "minute.bin"), "1dk", 60,
+                            ROLLUP_RECORD_SIZE, Constants.TELEMETRY_MINUTE_CAPACITY),
+                    new TelemetryTier(new File(directory, "ten_minute.bin"), "10dk", 600,
+                            ROLLUP_RECORD_SIZE, Constants.TELEMETRY_TEN_MINUTE_CAPACITY),
+                    new TelemetryTier(new File(directory, "hour.bin"), "1sa", 3600,
+                            ROLLUP_RECORD_SIZE, Constants.TELEMETRY_HOUR_CAPACITY)
+            };
+            accumulators = new Accumulator[rollupTiers.length];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = new Accumulator();
+            }
+
+            restoreAccumulators();
+            lastRawTime = rawTier.newestTime();
+            available = true;
+            Log.d(TAG, "Telemetri deposu açıldı, ham kayıt: " + rawTier.size());
+        } catch (IOException e) {
+            Log.e(TAG, "Telemetri deposu açılamadı: " + e.getMessage());
+        }
+    }
+
+    // Uygulama kapanırken yarım kalan aralıkları ham katmandan yeniden oluştur
+    private void restoreAccumulators() {
+        MappedByteBuffer raw = rawTier.buffer();
+        for (int t = 0; t < rollupTiers.length; t++) {
+            TelemetryTier tier = rollupTiers[t];
+            long flushedUntil = tier.size() == 0 ? -1 : tier.newestTime() + tier.resolution;
+            int start = rawTier.lowerBound(Math.max(0, flushedUntil));
+            for (int i = start; i < rawTier.size(); i++) {
+                int offset = rawTier.offsetOf(i);
+                addToAccumulator(t, raw.getInt(offset),
+                        raw.getShort(offset + 4) / SCALE,
+                        raw.getShort(offset + 6) / SCALE,
+                        raw.getShort(offset + 8) / SCALE,
+                        raw.get(offset + 10));
+            }
+        }
+    }
+
+    /**
+     * Yeni bir cihaz durumunu kaydeder. Ana thread'den çağrılabilir;
+     * TELEMETRY_SAMPLE_INTERVAL'dan sık gelen örnekler atlanır.
+     */
+    public void record(DeviceStatus status, long timestampMs) {
+        if (status == null) {
+            return;
+        }
+
+        final long timeSec = timestampMs / 1000;
+        final float temp = status.getTemperature();
+        final float humid = status.getHumidity();
+        final float pid = status.getPidOutput();
+        final int flags = (status.isHeaterState() ? FLAG_HEATER : 0) |
+                (status.isHumidifierState() ? FLAG_HUMIDIFIER : 0) |
+                (status.isMotorState() ? FLAG_MOTOR : 0);
+
+        executor.execute(() -> append(timeSec, temp, humid, pid, flags));
+    }
+
+    private void append(long timeSec, float temp, float humid, float pid, int flags) {
+        if (!available) {
+            return;
+        }
+        // Saat geri alınmışsa veya örnek çok sıksa sıralamayı bozma
+        if (lastRawTime >= 0 &&
+                timeSec - lastRawTime < Constants.TELEMETRY_SAMPLE_INTERVAL / 1000) {
+            return;
+        }
+        lastRawTime = timeSec;
+
+        MappedByteBuffer raw = rawTier.buffer();
+        int offset = rawTier.nextWriteOffset();
+        raw.putInt(offset, (int) timeSec);
+        raw.putShort(offset + 4, toShort(temp, SCALE));
+        raw.putShort(offset + 6, toShort(humid, SCALE));
+        raw.putShort(offset + 8, toShort(pid, SCALE));
+        raw.put(offset + 10, (byte) flags);
+        raw.put(offset + 11, (byte) 0);
+        rawTier.commit();
+
+        for (int t = 0; t < rollupTiers.length; t++) {
+            addToAccumulator(t, timeSec, temp, humid, pid, flags);
+        }
+    }
+
+    private void addToAccumulator(int tierIndex, long timeSec, float temp, float humid,
+                                  float pid, int flags) {
+        TelemetryTier tier = rollupTiers[tierIndex];
+        Accumulator acc = accumulators[tierIndex];
+        long bucket = timeSec - timeSec % tier.resolution;
+
+        if (bucket != acc.bucket) {
+            if (acc.count > 0 && bucket > acc.bucket) {
+                writeRollup(tier, acc);
+            }
+            acc.reset(bucket);
+        }
+        acc.add(temp, humid, pid, flags);
+    }
+
+    private void writeRollup(TelemetryTier tier, Accumulator acc) {
+        MappedByteBuffer buffer = tier.buffer();
+        int offset = tier.nextWriteOffset();
+        buffer.putInt(offset, (int) acc.bucket);
+        buffer.putShort(offset + 4, toShort(acc.tempSum / acc.count, SCALE));
+        buffer.putShort(offset + 6, toShort(acc.tempMin, SCALE));
+        buffer.putShort(offset + 8, toShort(acc.tempMax, SCALE));
+        buffer.putShort(offset + 10, toShort(acc.humidSum / acc.count, SCALE));
+        buffer.putShort(offset + 12, toShort(acc.humidMin, SCALE));
+        buffer.putShort(offset + 14, toShort(acc.humidMax, SCALE));
+        buffer.putShort(offset + 16, toShort(acc.pidSum / acc.count, SCALE));
+        buffer.putShort(offset + 18, toShort((float) acc.heaterOn / acc.count, DUTY_SCALE));
+        buffer.putShort(offset + 20, toShort((float) acc.humidifierOn / acc.count, DUTY_SCALE));
+        buffer.putShort(offset + 22, (short) Math.min(acc.count, Short.MAX_VALUE));
+        tier.commit();
+
+        // Saatlik kapanışlarda diske yaz, ara kayıtlar sayfa önbelleğinde kalabilir
+        if (tier.resolution >= 3600) {
+            rawTier.force();
+            for (TelemetryTier rollup : rollupTiers) {
+                rollup.force();
+            }
+        }
+    }
+
+    /**
+     * [fromMs, toMs] aralığını en fazla maxPoints noktayla döndürür.
+     * Aralığı kapsayan katmanlardan nokta sınırına sığan en ince olanı seçilir; hiçbiri
+     * sığmıyorsa kapsayan en kaba katman okunup komşu noktalar birleştirilir.
+     */
+    public void query(long fromMs, long toMs, int maxPoints, QueryCallback callback) {
+        executor.execute(() -> {
+            List<Point> points = available ? queryInternal(fromMs / 1000, toMs / 1000, maxPoints)
+                    : new ArrayList<>();
+            mainHandler.post(() -> callback.onResult(points));
+        });
+    }
+
+    private List<Point> queryInternal(long fromSec, long toSec, int maxPoints) {
+        long range = Math.max(1, toSec - fromSec);
+        long rawStep = Math.max(1, Constants.TELEMETRY_SAMPLE_INTERVAL / 1000);
+
+        TelemetryTier selected = null;
+        if (covers(rawTier, fromSec)) {
+            selected = rawTier;
+        }
+        if (selected == null || range / rawStep > maxPoints) {
+            for (TelemetryTier tier : rollupTiers) {
+                if (covers(tier, fromSec)) {
+                    selected = tier;
+                    if (range / tier.resolution <= maxPoints) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (selected == null) {
+            // Hiçbiri tam kapsamıyorsa en uzun geçmişi tutan katmanı kullan
+            selected = rollupTiers[rollupTiers.length - 1];
+        }
+
+        List<Point> points = new ArrayList<>();
+        int end = selected.lowerBound(toSec + 1);
+        for (int i = selected.lowerBound(fromSec); i < end; i++) {
+            points.add(selected == rawTier ? readRaw(i) : readRollup(selected, i));
+        }
+        return downsample(points, maxPoints);
+    }
+
+    private boolean covers(TelemetryTier tier, long fromSec) {
+        long oldest = tier.oldestTime();
+        return oldest >= 0 && oldest <= fromSec + tier.resolution;
+    }
+
+    private Point readRaw(int index) {
+        MappedByteBuffer raw = rawTier.buffer();
+        int offset = rawTier.offsetOf(index);
+        float temp = raw.getShort(offset + 4) / SCALE;
+        float humid = raw.getShort(offset + 6) / SCALE;
+        int flags = raw.get(offset + 10);
+        return new Point(raw.getInt(offset) * 1000L, temp, temp, temp, humid, humid, humid,
+                raw.getShort(offset + 8) / SCALE,
+                (flags & FLAG_HEATER) != 0 ? 1f : 0f,
+                (flags & FLAG_HUMIDIFIER) != 0 ? 1f : 0f, 1);
+    }
+
+    private Point readRollup(TelemetryTier tier, int index) {
+        MappedByteBuffer buffer = tier.buffer();
+        int offset = tier.offsetOf(index);
+        return new Point(buffer.getInt(offset) * 1000L,
+                buffer.getShort(offset + 4) / SCALE,
+                buffer.getShort(offset + 6) / SCALE,
+                buffer.getShort(offset + 8) / SCALE,
+                buffer.getShort(offset + 10) / SCALE,
+                buffer.getShort(offset + 12) / SCALE,
+                buffer.getShort(offset + 14) / SCALE,
+                buffer.getShort(offset + 16) / SCALE,
+                buffer.getShort(offset + 18) / DUTY_SCALE,
+                buffer.getShort(offset + 20) / DUTY_SCALE,
+                buffer.getShort(offset + 22));
+    }
+
+    // Katman seçildikten sonra hâlâ fazla nokta varsa komşuları örnek sayısına göre birleştir
+    private List<Point> downsample(List<Point> points, int maxPoints) {
+        if (maxPoints <= 0 || points.size() <= maxPoints) {
+            return points;
+        }
+
+        int group = (points.size() + maxPoints - 1) / maxPoints;
+        List<Point> result = new ArrayList<>(maxPoints);
+        for (int start = 0; start < points.size(); start += group) {
+            int end = Math.min(points.size(), start + group);
+            float temp = 0, humid = 0, pid = 0, heater = 0, humidifier = 0;
+            float tempMin = Float.MAX_VALUE, tempMax = -Float.MAX_VALUE;
+            float humidMin = Float.MAX_VALUE, humidMax = -Float.MAX_VALUE;
+            int samples = 0;
+            for (int i = start; i < end; i++) {
+                Point p = points.get(i);
+                int n = Math.max(1, p.sampleCount);
+                temp += p.temperature * n;
+                humid += p.humidity * n;
+                pid += p.pidOutput * n;
+                heater += p.heaterDuty * n;
+                humidifier += p.humidifierDuty * n;
+                tempMin = Math.min(tempMin, p.minTemperature);
+                tempMax = Math.max(tempMax, p.maxTemperature);
+                humidMin = Math.min(humidMin, p.minHumidity);
+                humidMax = Math.max(humidMax, p.maxHumidity);
+                samples += n;
+            }
+            result.add(new Point(points.get(start).time, temp / samples, tempMin, tempMax,
+                    humid / samples, humidMin, humidMax, pid / samples,
+                    heater / samples, humidifier / samples, samples));
+        }
+        return result;
+    }
+
+    // Yeni kuluçka başlatıldığında önceki kuluçkanın geçmişi silinir
+    public void clear() {
+        executor.execute(() -> {
+            if (!available) {
+                return;
+            }
+            rawTier.clear();
+            for (int i = 0; i < rollupTiers.length; i++) {
+                rollupTiers[i].clear();
+                accumulators[i].reset(-1);
+            }
+            lastRawTime = -1;
+            Log.d(TAG, "Telemetri geçmişi temizlendi");
+        });
+    }
+
+    private static short toShort(float value, float scale) {
+        float scaled = Math.round(value * scale);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+    }
+}
\ No newline at end of file
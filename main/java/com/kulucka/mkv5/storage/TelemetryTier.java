@@ -0,0 +1,134 @@
+package com.kulucka.mkv5.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sabit genişlikli kayıtlardan oluşan, memory-mapped dairesel (ring) dosya.
+ * Dolduğunda en eski kaydın üzerine yazar. Her kaydın ilk 4 byte'ı epoch saniyesidir
+ * ve kayıtlar zamana göre sıralı eklenir; bu yüzden aralık sorguları ikili arama ile yapılır.
+ *
+ * Dosya düzeni: [başlık 32 byte][kapasite x kayıt boyutu]
+ * Başlık: magic(4) versiyon(2) kayıt boyutu(2) kapasite(4) çözünürlük(4) toplam kayıt(8) boş(8)
+ */
+class TelemetryTier {
+    private static final int MAGIC = 0x4B4D5453; // "KMTS"
+    private static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    private static final int TOTAL_OFFSET = 16;
+
+    final String name;
+    final int resolution;   // saniye, ham kayıtlar için 0
+    final int recordSize;
+    final int capacity;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private long total;
+
+    TelemetryTier(File path, String name, int resolution, int recordSize, int capacity) throws IOException {
+        this.name = name;
+        this.resolution = resolution;
+        this.recordSize = recordSize;
+        this.capacity = capacity;
+
+        long length = HEADER_SIZE + (long) capacity * recordSize;
+        file = new RandomAccessFile(path, "rw");
+        boolean valid = file.length() == length && readHeader();
+        if (!valid) {
+            // Yeni dosya veya format değişmiş - sıfırdan başla
+            file.setLength(0);
+            file.setLength(length);
+        }
+
+        FileChannel channel = file.getChannel();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+        if (valid) {
+            total = buffer.getLong(TOTAL_OFFSET);
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, (short) recordSize);
+            buffer.putInt(8, capacity);
+            buffer.putInt(12, resolution);
+            buffer.putLong(TOTAL_OFFSET, 0);
+            total = 0;
+        }
+    }
+
+    private boolean readHeader() throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        file.seek(0);
+        return file.readInt() == MAGIC &&
+                file.readShort() == VERSION &&
+                file.readShort() == recordSize &&
+                file.readInt() == capacity &&
+                file.readInt() == resolution;
+    }
+
+    int size() {
+        return (int) Math.min(total, capacity);
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    // Mantıksal sıra (0 = en eski) için dosyadaki byte konumu
+    int offsetOf(int index) {
+        long physical = (total - size() + index) % capacity;
+        return HEADER_SIZE + (int) physical * recordSize;
+    }
+
+    // Yazılacak bir sonraki kaydın konumu; commit() çağrılana kadar görünmez
+    int nextWriteOffset() {
+        return HEADER_SIZE + (int) (total % capacity) * recordSize;
+    }
+
+    void commit() {
+        total++;
+        buffer.putLong(TOTAL_OFFSET, total);
+    }
+
+    int timeAt(int index) {
+        return buffer.getInt(offsetOf(index));
+    }
+
+    // Zamanı timeSec'ten küçük olmayan ilk kaydın sırası
+    int lowerBound(long timeSec) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(mid) < timeSec) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long oldestTime() {
+        return size() == 0 ? -1 : timeAt(0);
+    }
+
+    long newestTime() {
+        return size() == 0 ? -1 : timeAt(size() - 1);
+    }
+
+    void clear() {
+        total = 0;
+        buffer.putLong(TOTAL_OFFSET, 0);
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.kulucka.mkv5.utils;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+
+/**
+ * Cihaz durumunu alarm limitlerine göre değerlendirir.
+ * Android bağımlılığı yoktur; bildirim gösterimi çağıran tarafa kalır.
+ */
+public final class AlarmEvaluator {
+
+    private AlarmEvaluator() {
+    }
+
+    /**
+     * Limit dışındaki değerler için alarm metnini döndürür; alarm yoksa veya
+     * alarmlar kapalıysa null döner.
+     */
+    public static String evaluate(DeviceStatus status) {
+        if (status == null || !status.isAlarmEnabled()) {
+            return null;
+        }
+
+        boolean hasAlarm = false;
+        StringBuilder alarmMessage = new StringBuilder();
+
+        // Temperature alarms
+        if (status.getTemperature() < status.getTempLowAlarm()) {
+            hasAlarm = true;
+            alarmMessage.append("Düşük sıcaklık! ");
+        } else if (status.getTemperature() > status.getTempHighAlarm()) {
+            hasAlarm = true;
+            alarmMessage.append("Yüksek sıcaklık! ");
+        }
+
+        // Humidity alarms
+        if (status.getHumidity() < status.getHumidLowAlarm()) {
+            hasAlarm = true;
+            alarmMessage.append("Düşük nem! ");
+        } else if (status.getHumidity() > status.getHumidHighAlarm()) {
+            hasAlarm = true;
+            alarmMessage.append("Yüksek nem! ");
+        }
+
+        return hasAlarm ? alarmMessage.toString() : null;
+    }
+}
\ No newline at end of file
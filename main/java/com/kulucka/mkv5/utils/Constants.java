@@ -23,6 +23,10 @@ public class Constants {
     // mDNS Configuration
     public static final String MDNS_HOSTNAME = "kulucka.local";
     public static final int MDNS_RESOLUTION_TIMEOUT = 5000; // 5 saniye
+    public static final String MDNS_SERVICE_TYPE = "_http._tcp.local";
+    public static final String MDNS_INSTANCE_PREFIX = "kulucka"; // kulucka, kulucka-2, ...
+    public static final long MDNS_BROWSE_WINDOW_MS = 800; // tarama sırasında yanıt toplama süresi
+    public static final long MDNS_PREWARM_TIMEOUT = 30000; // cihaz duyurusu gelmezse ısıtma dinlemesi 30 sn'de biter
 
     // API Endpoints
     public static final String API_STATUS = "/api/status";
@@ -66,13 +70,24 @@ public class Constants {
 
     // Update Intervals
     public static final long STATUS_UPDATE_INTERVAL = 2000; // 2 seconds
-    public static final long BACKGROUND_UPDATE_INTERVAL = 60000; // 1 minute
     public static final long RECONNECT_INTERVAL = 30000; // 30 seconds
 
     // Notification
     public static final int NOTIFICATION_ID = 1001;
     public static final String NOTIFICATION_CHANNEL_ID = "kulucka_service_channel";
 
+    // Arka plan izlemesi (MonitorJobService)
+    public static final int MONITOR_JOB_ID = 2001;
+    public static final int MONITOR_ALARM_JOB_ID = 2002;
+    public static final long MONITOR_JOB_INTERVAL = 15 * 60 * 1000; // sistemin izin verdiği en kısa periyot
+    public static final long MONITOR_JOB_FLEX = 5 * 60 * 1000;      // sistem bu pencerede diğer işlerle birleştirir
+    public static final long MONITOR_FRESH_SNAPSHOT_AGE = 60000;    // ön plan akışının verisi bu kadar tazeyse ağ kullanılmaz
+    public static final long MONITOR_ALARM_RECHECK_DELAY = 60000;   // alarm sürerken yeniden kontrol
+    public static final long MONITOR_WATCH_INTERVAL = 9 * 60 * 1000; // Doze'da alarmların izin verilen en kısa aralığı
+    public static final long MONITOR_RECEIVER_BUDGET = 8000;        // goAsync alıcısı ~10 sn sonra sonlandırılır
+    public static final int MONITOR_ALARM_MAX_FOLLOW_UPS = 30;
+    public static final String KEY_MONITOR_METRICS = "monitor_metrics";
+
     // Request Timeouts - WiFi mod değişimleri için optimize edildi
     public static final int CONNECTION_TIMEOUT = 10; // seconds (genel bağlantılar için)
     public static final int READ_TIMEOUT = 15; // seconds
@@ -164,6 +179,83 @@ public class Constants {
     public static final long PID_STATUS_POLL_INTERVAL = 2000; // 2 saniye
     public static final long HEALTH_CHECK_POLL_INTERVAL = 30000; // 30 saniye
     public static final long WIFI_MODE_CHANGE_POLL_INTERVAL = 2000; // 2 saniye
+    public static final long RTC_REFRESH_INTERVAL = 10000; // 10 saniye
+    public static final long COMPLETE_STATUS_REPROBE_INTERVAL = 300000; // 5 dakika
+
+    // Telemetri geçmişi - katman kapasiteleri kayıt sayısıdır
+    public static final long TELEMETRY_SAMPLE_INTERVAL = 5000; // 5 saniye
+    public static final int TELEMETRY_RAW_CAPACITY = 17280; // 24 saat, 5 sn aralıkla
+    public static final int TELEMETRY_MINUTE_CAPACITY = 43200; // 30 gün
+    public static final int TELEMETRY_TEN_MINUTE_CAPACITY = 4320; // 30 gün
+    public static final int TELEMETRY_HOUR_CAPACITY = 2160; // 90 gün
+
+    // HTTP bağlantı havuzu - filo modunda her cihaz için bir keep-alive bağlantı
+    public static final int HTTP_MAX_IDLE_CONNECTIONS = 48;
+    public static final long HTTP_KEEP_ALIVE_DURATION = 60; // saniye
+
+    // Aktif cihaza giden isteklerin yer tutucu adresi; DeviceRouter gerçek adrese çevirir
+    public static final String DEVICE_ROUTE_HOST = "device.kulucka.invalid";
+
+    // Filo modu
+    public static final String KEY_FLEET_DEVICES = "fleet_devices";
+    public static final long FLEET_POLL_INTERVAL = 5000; // 5 saniye, her cihaz için
+    public static final int FLEET_MAX_IN_FLIGHT = 8; // tüm filo için eşzamanlı istek sınırı
+    public static final int FLEET_OFFLINE_THRESHOLD = 3; // art arda hata sonrası çevrimdışı
+
+    // Cihaz başına istek sırası: ESP32 biri işlenirken biri beklerken rahat çalışır
+    public static final int DEVICE_MAX_IN_FLIGHT = 2;
+
+    // Ayar yazmalarının tek istekte birleştirildiği süre
+    public static final long COMMAND_BATCH_WINDOW_MS = 300;
+
+    // Çevrimdışı komut kuyruğu
+    public static final String KEY_COMMAND_OUTBOX = "command_outbox";
+    public static final String HEADER_IDEMPOTENCY_KEY = "X-Idempotency-Key";
+    public static final long OUTBOX_REPLAY_DELAY_MS = 2000;       // bağlantı geldikten sonra ilk bekleme
+    public static final long OUTBOX_REPLAY_JITTER_MS = 3000;      // rastgele ek bekleme
+    public static final long OUTBOX_RETRY_MAX_DELAY_MS = 5 * 60 * 1000;
+    public static final long OUTBOX_MAX_AGE_MS = 60 * 60 * 1000;  // 1 saatten eski komut gönderilmez
+    public static final int OUTBOX_MAX_ATTEMPTS = 5;
+
+    // Bağlantı yarışı: aday yollar arasında başlangıç aralığı, toplam süre ve kazanan yol
+    public static final String KEY_CONNECTION_PATH = "connection_path";
+    public static final long CONNECTION_RACE_STAGGER_MS = 250;
+    public static final long CONNECTION_RACE_TIMEOUT_MS = 15000;
+    public static final long CONNECTION_RACE_DISCOVERY_COOLDOWN_MS = 30000; // alt ağ taraması en fazla bu sıklıkta
+
+    // Son bilinen durum: açılışta bağlantı kurulana kadar soluk gösterilir
+    public static final String STATUS_SNAPSHOT_FILE = "status_snapshot.bin";
+    public static final long STATUS_SNAPSHOT_PERSIST_INTERVAL_MS = 30000; // en fazla 30 sn'de bir yazılır
+    public static final long STATUS_SNAPSHOT_MAX_AGE_MS = 24 * 60 * 60 * 1000L; // daha eskisi gösterilmez
+
+    // Alt ağ taraması
+    public static final int SUBNET_SCAN_PARALLELISM = 64;
+    public static final int SUBNET_SCAN_CONNECT_TIMEOUT = 400; // ms
+    public static final int SUBNET_SCAN_READ_TIMEOUT = 800; // ms
+
+    // HTTP log
+    public static final int HTTP_LOG_RING_SIZE = 200; // son 200 istek özeti
+    public static final int HTTP_LOG_MAX_BODY_BYTES = 4096;
+
+    // Push durum kanalı (WebSocket)
+    public static final String STATUS_PUSH_PATH = "/ws/status";
+    public static final long STATUS_PUSH_RESYNC_INTERVAL = 15000; // push açıkken tam sorgu aralığı
+
+    // Uyarlanır sorgu aralığı (AdaptivePollPolicy)
+    public static final float ADAPTIVE_POLL_MIN_FACTOR = 0.5f;     // en hızlı: istenen aralığın yarısı
+    public static final float ADAPTIVE_POLL_MAX_FACTOR = 4.0f;     // en yavaş: istenen aralığın 4 katı
+    public static final long ADAPTIVE_POLL_MIN_INTERVAL = 1000;    // hızlanırken inilecek en kısa aralık
+    public static final long ADAPTIVE_RATE_WINDOW = 30000;         // değişim hızı ölçüm penceresi
+    public static final float ADAPTIVE_TEMP_RATE_FAST = 0.3f;      // °C/dk, üstünde en hızlı sorgu
+    public static final float ADAPTIVE_HUMID_RATE_FAST = 3.0f;     // %/dk
+    public static final float ADAPTIVE_PID_ERROR_FAST = 0.5f;      // °C
+    public static final float ADAPTIVE_TEMP_ALARM_NEAR = 0.3f;     // alarm sınırına bu kadar °C yakında en hızlı
+    public static final float ADAPTIVE_HUMID_ALARM_NEAR = 2.0f;    // alarm sınırına % mesafe
+    public static final float ADAPTIVE_WORST_TEMP_DRIFT = 0.5f;    // °C/dk, ısıtıcı arızasında beklenen sapma
+    public static final float ADAPTIVE_WORST_HUMID_DRIFT = 5.0f;   // %/dk
+    public static final long STATUS_PUSH_PING_INTERVAL = 15; // saniye
+    public static final long STATUS_PUSH_REPROBE_INTERVAL = 300000; // destek yoksa 5 dakika sonra tekrar dene
+    public static final long STATUS_PUSH_MAX_BACKOFF = 30000; // yeniden bağlanma için üst sınır
 
     // Shared Preferences Keys - Yeni ayarlar
     public static final String KEY_MOTOR_TEST_ENABLED = "motor_test_enabled";
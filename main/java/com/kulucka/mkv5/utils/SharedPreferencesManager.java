@@ -45,6 +45,15 @@ public class SharedPreferencesManager {
         return sharedPreferences.getInt(Constants.KEY_CONNECTION_MODE, Constants.MODE_AP);
     }
 
+    // Son bağlantı yarışını kazanan yol (ConnectionRacer.Path adı)
+    public void saveConnectionPath(String path) {
+        sharedPreferences.edit().putString(Constants.KEY_CONNECTION_PATH, path).apply();
+    }
+
+    public String getConnectionPath() {
+        return sharedPreferences.getString(Constants.KEY_CONNECTION_PATH, null);
+    }
+
     public void saveAPCredentials(String ssid, String password) {
         sharedPreferences.edit()
                 .putString(Constants.KEY_AP_SSID, ssid)
@@ -257,6 +266,39 @@ public class SharedPreferencesManager {
         return sharedPreferences.getLong("last_successful_connection", 0);
     }
 
+    // Filo cihaz listesi (JSON)
+    public void saveFleetDevices(String json) {
+        sharedPreferences.edit()
+                .putString(Constants.KEY_FLEET_DEVICES, json)
+                .apply();
+    }
+
+    public String getFleetDevices() {
+        return sharedPreferences.getString(Constants.KEY_FLEET_DEVICES, null);
+    }
+
+    // Arka plan izleme ölçümleri (JSON)
+    public void saveMonitorMetrics(String json) {
+        sharedPreferences.edit()
+                .putString(Constants.KEY_MONITOR_METRICS, json)
+                .apply();
+    }
+
+    public String getMonitorMetrics() {
+        return sharedPreferences.getString(Constants.KEY_MONITOR_METRICS, null);
+    }
+
+    // Çevrimdışı komut kuyruğu (JSON)
+    public void saveCommandOutbox(String json) {
+        sharedPreferences.edit()
+                .putString(Constants.KEY_COMMAND_OUTBOX, json)
+                .apply();
+    }
+
+    public String getCommandOutbox() {
+        return sharedPreferences.getString(Constants.KEY_COMMAND_OUTBOX, null);
+    }
+
     // Debug ve sorun giderme için
     public String getDebugInfo() {
         StringBuilder sb = new StringBuilder();
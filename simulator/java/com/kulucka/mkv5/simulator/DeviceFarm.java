@@ -0,0 +1,127 @@
+package com.kulucka.mkv5.simulator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * simulator/ kaynak kümesi JVM'de çalışır (android.util.Log için jvm-shims/java kaynak yoluna eklenir).
+ * Aynı süreçte çok sayıda sanal cihaz. Her cihaz ayrı bir loopback adresinde (127.0.x.y) çalışır.
+ * Tek başına çalıştırıldığında cihaz adreslerini yazar ve süreç sonlanana kadar açık kalır:
+ * java ... DeviceFarm [cihaz sayısı] [--latency=ms] [--jitter=ms] [--loss=oran]
+ *          [--stall=oran] [--service=ms] [--reboot=ms] [--time-scale=kat] [--seed=n]
+ */
+public class DeviceFarm {
+    private final List<VirtualDevice> devices = new ArrayList<>();
+
+    public DeviceFarm(int count, SimulatorConfig config) {
+        for (int i = 0; i < count; i++) {
+            devices.add(new VirtualDevice(i, config));
+        }
+    }
+
+    public void start() throws IOException {
+        for (VirtualDevice device : devices) {
+            device.start();
+        }
+    }
+
+    public void stop() {
+        for (VirtualDevice device : devices) {
+            device.stop();
+        }
+    }
+
+    public List<VirtualDevice> getDevices() {
+        return Collections.unmodifiableList(devices);
+    }
+
+    public List<String> getBaseUrls() {
+        List<String> urls = new ArrayList<>();
+        for (VirtualDevice device : devices) {
+            urls.add(device.getBaseUrl());
+        }
+        return urls;
+    }
+
+    // Tüm cihazların toplam sayaçları: istek, düşürülen, takılan, yeniden başlatma
+    public long[] getCounters() {
+        long[] counters = new long[4];
+        for (VirtualDevice device : devices) {
+            counters[0] += device.requests.get();
+            counters[1] += device.dropped.get();
+            counters[2] += device.stalled.get();
+            counters[3] += device.reboots.get();
+        }
+        return counters;
+    }
+
+    // "--ad=değer" biçimindeki seçeneklerden yapılandırma; SoakRunner ile ortak
+    static SimulatorConfig parseConfig(String[] args) {
+        SimulatorConfig.Builder builder = SimulatorConfig.builder();
+        long latency = 15;
+        long jitter = 10;
+        double stallRate = 0;
+        long stallMs = 30000;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                continue;
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "latency":
+                    latency = Long.parseLong(value);
+                    break;
+                case "jitter":
+                    jitter = Long.parseLong(value);
+                    break;
+                case "loss":
+                    builder.lossRate(Double.parseDouble(value));
+                    break;
+                case "stall":
+                    stallRate = Double.parseDouble(value);
+                    break;
+                case "stall-ms":
+                    stallMs = Long.parseLong(value);
+                    break;
+                case "service":
+                    builder.serviceTimeMs(Long.parseLong(value));
+                    break;
+                case "reboot":
+                    builder.rebootMs(Long.parseLong(value));
+                    break;
+                case "time-scale":
+                    builder.timeScale(Double.parseDouble(value));
+                    break;
+                case "seed":
+                    builder.seed(Long.parseLong(value));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return builder.latency(latency, jitter).stall(stallRate, stallMs).build();
+    }
+
+    static int parseCount(String[] args, int fallback) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                return Integer.parseInt(arg);
+            }
+        }
+        return fallback;
+    }
+
+    public static void main(String[] args) throws Exception {
+        DeviceFarm farm = new DeviceFarm(parseCount(args, 100), parseConfig(args));
+        farm.start();
+        for (String url : farm.getBaseUrls()) {
+            System.out.println(url);
+        }
+        System.out.println(farm.getDevices().size() + " sanal cihaz çalışıyor");
+        Runtime.getRuntime().addShutdownHook(new Thread(farm::stop));
+        Thread.currentThread().join();
+    }
+}
\ No newline at end of file
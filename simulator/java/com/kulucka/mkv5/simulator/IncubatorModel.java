@@ -0,0 +1,272 @@
+package com.kulucka.mkv5.simulator;
+
+import java.util.Random;
+
+/**
+ * Bir kuluçka makinesinin fiziksel durumu: hava sıcaklığı ısıtıcı gücü ve ortama ısı kaybıyla,
+ * nem nemlendirici ve ortam nemine doğru sönümle değişir. Isıtıcı firmware'deki gibi
+ * PID (veya mod kapalıyken histerezisli aç/kapa) ile sürülür.
+ * Model istek geldikçe geçen süre kadar ilerletilir; boşta duran cihaz CPU harcamaz.
+ */
+final class IncubatorModel {
+    // Tam güçte ısınma ve ortama kayıp katsayısı; ~%55 çıkışla 37.8°C'de dengelenir
+    private static final double HEATER_RATE = 0.02;      // °C/s
+    private static final double HEAT_LOSS = 0.0008;      // 1/s
+    private static final double HUMIDIFIER_RATE = 0.06;  // %RH/s
+    private static final double HUMIDITY_DECAY = 0.002;  // 1/s
+    private static final double HUMIDITY_HYSTERESIS = 2.0;
+    private static final double TEMP_HYSTERESIS = 0.2;
+    private static final double MAX_STEP = 1.0;          // s, Euler adımı
+    private static final int MAX_STEPS = 20000;
+
+    static final int PID_MODE_OFF = 0;
+    static final int PID_MODE_MANUAL = 1;
+    static final int PID_MODE_AUTO = 2;
+
+    private final Random random;
+    private final double ambientTemp;
+    private final double ambientHumid;
+
+    // Fiziksel durum
+    double temperature;
+    double humidity;
+    boolean heaterState;
+    boolean humidifierState;
+    boolean motorState;
+
+    // Ayarlar
+    float targetTemp = 37.8f;
+    float targetHumid = 60f;
+    int pidMode = PID_MODE_AUTO;
+    float pidKp = 20f;
+    float pidKi = 0.05f;
+    float pidKd = 30f;
+    boolean pidAutoTuneActive = false;
+    boolean alarmEnabled = true;
+    float tempLowAlarm = 36.5f;
+    float tempHighAlarm = 38.5f;
+    float humidLowAlarm = 50f;
+    float humidHighAlarm = 75f;
+    int motorWaitTime = 120;   // dakika
+    int motorRunTime = 14;     // saniye
+    float tempCalibration1 = 0f;
+    float tempCalibration2 = 0f;
+    float humidCalibration1 = 0f;
+    float humidCalibration2 = 0f;
+    int incubationType = 0;
+    float manualDevTemp = 37.8f;
+    float manualHatchTemp = 37.2f;
+    int manualDevHumid = 60;
+    int manualHatchHumid = 70;
+    int manualDevDays = 18;
+    int manualHatchDays = 3;
+    boolean incubationRunning = false;
+
+    // PID iç durumu
+    double pidIntegral;
+    double pidOutput;
+    private double lastMeasurement;
+
+    // Simülasyon zamanı (s) ve olay zamanları
+    double simTime;
+    private double incubationStart;
+    private double motorCycleStart;
+    double lastMotorRun = -1;
+    int totalMotorRuns;
+    private double motorTestUntil = -1;
+
+    // Kayıt durumu
+    int pendingChanges;
+    double lastSaveTime;
+
+    IncubatorModel(long seed) {
+        random = new Random(seed);
+        ambientTemp = 22 + random.nextDouble() * 4;
+        ambientHumid = 40 + random.nextDouble() * 10;
+        // Sıcak başlangıç: cihaz bir süredir çalışıyormuş gibi setpoint yakınında
+        temperature = targetTemp - 0.3 + random.nextDouble() * 0.4;
+        humidity = targetHumid - 3 + random.nextDouble() * 6;
+        pidIntegral = HEAT_LOSS * (targetTemp - ambientTemp) / HEATER_RATE * 100 / pidKi;
+        lastMeasurement = temperature;
+        motorCycleStart = -random.nextDouble() * motorWaitTime * 60;
+    }
+
+    // Simülasyonu dt saniye ilerletir
+    void advance(double dt) {
+        if (dt <= 0) {
+            return;
+        }
+        double step = Math.max(MAX_STEP, dt / MAX_STEPS);
+        while (dt > 0) {
+            double h = Math.min(step, dt);
+            step(h);
+            dt -= h;
+        }
+    }
+
+    private void step(double h) {
+        simTime += h;
+
+        double heaterPower = controlHeater(h);
+        temperature += (HEATER_RATE * heaterPower - HEAT_LOSS * (temperature - ambientTemp)) * h;
+
+        // Nemlendirici histerezisli aç/kapa
+        if (humidity < targetHumid - HUMIDITY_HYSTERESIS) {
+            humidifierState = true;
+        } else if (humidity > targetHumid + HUMIDITY_HYSTERESIS) {
+            humidifierState = false;
+        }
+        humidity += ((humidifierState ? HUMIDIFIER_RATE : 0) - HUMIDITY_DECAY * (humidity - ambientHumid)) * h;
+        humidity = Math.max(0, Math.min(100, humidity));
+
+        updateMotor();
+    }
+
+    // Isıtıcı gücü 0..1; durum (heaterState) zaman oransal çıkıştan türetilir
+    private double controlHeater(double h) {
+        double error = targetTemp - temperature;
+        if (pidMode == PID_MODE_OFF) {
+            if (temperature < targetTemp - TEMP_HYSTERESIS) {
+                heaterState = true;
+            } else if (temperature > targetTemp + TEMP_HYSTERESIS) {
+                heaterState = false;
+            }
+            pidOutput = heaterState ? 100 : 0;
+            return heaterState ? 1 : 0;
+        }
+
+        pidIntegral += error * h;
+        pidIntegral = Math.max(0, Math.min(100 / pidKi, pidIntegral)); // anti-windup
+        double derivative = (temperature - lastMeasurement) / h;
+        lastMeasurement = temperature;
+
+        pidOutput = Math.max(0, Math.min(100, pidKp * error + pidKi * pidIntegral - pidKd * derivative));
+        // 10 s'lik zaman oransal pencere: çıkış yüzdesi kadar süre röle açık
+        heaterState = (simTime % 10) * 10 < pidOutput;
+        return pidOutput / 100;
+    }
+
+    private void updateMotor() {
+        if (motorTestUntil >= 0) {
+            motorState = simTime < motorTestUntil;
+            if (!motorState) {
+                motorTestUntil = -1;
+            }
+            return;
+        }
+
+        double cycle = motorWaitTime * 60.0 + motorRunTime;
+        if (!incubationRunning || cycle <= 0) {
+            motorState = false;
+            return;
+        }
+        double position = (simTime - motorCycleStart) % cycle;
+        boolean running = position >= motorWaitTime * 60.0;
+        if (running && !motorState) {
+            lastMotorRun = simTime;
+            totalMotorRuns++;
+        }
+        motorState = running;
+    }
+
+    void startMotorTest(int durationSeconds) {
+        motorTestUntil = simTime + durationSeconds;
+        motorState = true;
+        lastMotorRun = simTime;
+        totalMotorRuns++;
+    }
+
+    void setIncubationRunning(boolean running) {
+        if (running && !incubationRunning) {
+            incubationStart = simTime;
+            motorCycleStart = simTime;
+        }
+        incubationRunning = running;
+    }
+
+    // Kalibrasyon uygulanmış, gürültülü sensör okumaları
+    float sensorTemperature(int sensor) {
+        float calibration = sensor == 1 ? tempCalibration1 : tempCalibration2;
+        return round2(temperature + calibration + random.nextGaussian() * 0.04);
+    }
+
+    float sensorHumidity(int sensor) {
+        float calibration = sensor == 1 ? humidCalibration1 : humidCalibration2;
+        return round2(Math.max(0, Math.min(100, humidity + calibration + random.nextGaussian() * 0.3)));
+    }
+
+    int totalDays() {
+        switch (incubationType) {
+            case 1:
+                return 18;
+            case 2:
+                return 30;
+            case 3:
+                return manualDevDays + manualHatchDays;
+            default:
+                return 21;
+        }
+    }
+
+    int actualDay() {
+        if (!incubationRunning) {
+            return 0;
+        }
+        return (int) ((simTime - incubationStart) / 86400) + 1;
+    }
+
+    boolean isIncubationCompleted() {
+        return incubationRunning && actualDay() > totalDays();
+    }
+
+    String incubationTypeName() {
+        switch (incubationType) {
+            case 1:
+                return "Bıldırcın";
+            case 2:
+                return "Kaz";
+            case 3:
+                return "Manuel";
+            default:
+                return "Tavuk";
+        }
+    }
+
+    String pidModeString() {
+        switch (pidMode) {
+            case PID_MODE_MANUAL:
+                return "Manuel";
+            case PID_MODE_AUTO:
+                return "Otomatik";
+            default:
+                return "Kapalı";
+        }
+    }
+
+    void markChanged() {
+        pendingChanges++;
+    }
+
+    void save() {
+        pendingChanges = 0;
+        lastSaveTime = simTime;
+    }
+
+    long secondsSinceSave() {
+        return (long) (simTime - lastSaveTime);
+    }
+
+    // Motor dönüşü ve kuluçka süresi için kalan saniye
+    int motorWaitTimeLeft() {
+        double cycle = motorWaitTime * 60.0 + motorRunTime;
+        if (!incubationRunning || cycle <= 0) {
+            return 0;
+        }
+        double position = (simTime - motorCycleStart) % cycle;
+        return (int) Math.max(0, motorWaitTime * 60.0 - position);
+    }
+
+    static float round2(double value) {
+        return Math.round(value * 100) / 100f;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.kulucka.mkv5.simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OTA yüklemesindeki multipart/form-data gövdesini parça adına göre ayırır.
+ * Yalnızca simülatörün ihtiyacı kadar: gövde bellekte, başlıklardan sadece "name" okunur.
+ */
+final class Multipart {
+
+    private Multipart() {
+    }
+
+    static Map<String, byte[]> parse(String contentType, byte[] body) {
+        Map<String, byte[]> parts = new HashMap<>();
+        String boundary = boundary(contentType);
+        if (boundary == null) {
+            return parts;
+        }
+
+        byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        int position = indexOf(body, delimiter, 0);
+        while (position >= 0) {
+            int headerStart = position + delimiter.length;
+            // "--boundary--" gövdenin sonu
+            if (headerStart + 1 < body.length && body[headerStart] == '-' && body[headerStart + 1] == '-') {
+                break;
+            }
+            headerStart += 2; // CRLF
+
+            int headerEnd = indexOf(body, "\r\n\r\n".getBytes(StandardCharsets.US_ASCII), headerStart);
+            if (headerEnd < 0) {
+                break;
+            }
+            int next = indexOf(body, delimiter, headerEnd + 4);
+            if (next < 0) {
+                break;
+            }
+
+            String headers = new String(body, headerStart, headerEnd - headerStart, StandardCharsets.UTF_8);
+            String name = partName(headers);
+            int dataStart = headerEnd + 4;
+            int dataEnd = next - 2; // parça sonundaki CRLF
+            if (name != null && dataEnd >= dataStart) {
+                byte[] data = new byte[dataEnd - dataStart];
+                System.arraycopy(body, dataStart, data, 0, data.length);
+                parts.put(name, data);
+            }
+            position = next;
+        }
+        return parts;
+    }
+
+    private static String boundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("boundary=")) {
+                return trimmed.substring("boundary=".length()).replace("\"", "");
+            }
+        }
+        return null;
+    }
+
+    private static String partName(String headers) {
+        int index = headers.indexOf("name=\"");
+        if (index < 0) {
+            return null;
+        }
+        int start = index + "name=\"".length();
+        int end = headers.indexOf('"', start);
+        return end > start ? headers.substring(start, end) : null;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.kulucka.mkv5.simulator;
+
+/**
+ * Sanal cihazların ağ ve işlem davranışı. Tüm cihazlar aynı yapılandırmayı paylaşır;
+ * rastgelelik cihaz başına seed + cihaz numarasından türetilir, koşular tekrarlanabilir.
+ */
+public final class SimulatorConfig {
+    final long latencyMs;
+    final long latencyJitterMs;
+    final double lossRate;
+    final double stallRate;
+    final long stallMs;
+    final long serviceTimeMs;
+    final long rebootMs;
+    final double timeScale;
+    final long seed;
+
+    private SimulatorConfig(Builder builder) {
+        this.latencyMs = builder.latencyMs;
+        this.latencyJitterMs = builder.latencyJitterMs;
+        this.lossRate = builder.lossRate;
+        this.stallRate = builder.stallRate;
+        this.stallMs = builder.stallMs;
+        this.serviceTimeMs = builder.serviceTimeMs;
+        this.rebootMs = builder.rebootMs;
+        this.timeScale = builder.timeScale;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private long latencyMs = 15;
+        private long latencyJitterMs = 10;
+        private double lossRate = 0;
+        private double stallRate = 0;
+        private long stallMs = 30000;
+        private long serviceTimeMs = 25;
+        private long rebootMs = 4000;
+        private double timeScale = 1.0;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        // Yanıt yazılmadan önce eklenen ağ gecikmesi (ms) ve ± sapması
+        public Builder latency(long latencyMs, long jitterMs) {
+            this.latencyMs = latencyMs;
+            this.latencyJitterMs = jitterMs;
+            return this;
+        }
+
+        // Bu oranda istekte bağlantı yanıtsız kapatılır (istemci "unexpected end of stream" alır)
+        public Builder lossRate(double lossRate) {
+            this.lossRate = lossRate;
+            return this;
+        }
+
+        // Bu oranda istek stallMs boyunca yanıtsız bekletilir (istemci timeout'u)
+        public Builder stall(double stallRate, long stallMs) {
+            this.stallRate = stallRate;
+            this.stallMs = stallMs;
+            return this;
+        }
+
+        // Cihazın tek işleyicisinin her isteğe harcadığı süre; istekler sırayla işlenir
+        public Builder serviceTimeMs(long serviceTimeMs) {
+            this.serviceTimeMs = serviceTimeMs;
+            return this;
+        }
+
+        // WiFi mod değişimi, restart ve OTA sonrası cihazın erişilemez kaldığı süre
+        public Builder rebootMs(long rebootMs) {
+            this.rebootMs = rebootMs;
+            return this;
+        }
+
+        // Isıl model, motor döngüsü ve kuluçka günü için zaman hızlandırma katsayısı
+        public Builder timeScale(double timeScale) {
+            this.timeScale = timeScale;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SimulatorConfig build() {
+            return new SimulatorConfig(this);
+        }
+    }
+}
\ No newline at end of file
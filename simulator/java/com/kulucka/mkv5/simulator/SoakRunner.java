@@ -0,0 +1,175 @@
+package com.kulucka.mkv5.simulator;
+
+import com.kulucka.mkv5.models.DeviceStatus;
+import com.kulucka.mkv5.network.ApiService;
+import com.kulucka.mkv5.network.RetrofitClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Uygulamanın ağ katmanını (RetrofitClient'ın filo istemcisi, interceptor'lar,
+ * yeniden deneme adapter'ı) sanal cihaz filosuna karşı uzun süre çalıştırır.
+ * Her cihaz uygulamadaki gibi 2 sn'de bir sorgulanır; arada ayar yazma + kayıt ve
+ * seyrek olarak WiFi mod değişimi (cihaz reboot'u) yapılır. 10 sn'de bir başarı oranı,
+ * hata türleri ve gecikme yüzdelikleri yazılır.
+ * java ... SoakRunner [cihaz sayısı] [--duration=sn] [--poll=ms] [DeviceFarm seçenekleri]
+ */
+public class SoakRunner {
+    private static final long REPORT_INTERVAL_MS = 10000;
+    private static final double WRITE_PROBABILITY = 0.02;
+    private static final double MODE_CHANGE_PROBABILITY = 0.0005;
+
+    // 1 ms çözünürlükte gecikme histogramı, 0..9999 ms
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(10000);
+    private final AtomicLong success = new AtomicLong();
+    private final AtomicLong httpErrors = new AtomicLong();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "soak-driver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static void main(String[] args) throws Exception {
+        int count = DeviceFarm.parseCount(args, 200);
+        long durationSeconds = 300;
+        long pollMs = 2000;
+        for (String arg : args) {
+            if (arg.startsWith("--duration=")) {
+                durationSeconds = Long.parseLong(arg.substring("--duration=".length()));
+            } else if (arg.startsWith("--poll=")) {
+                pollMs = Long.parseLong(arg.substring("--poll=".length()));
+            }
+        }
+
+        DeviceFarm farm = new DeviceFarm(count, DeviceFarm.parseConfig(args));
+        farm.start();
+        System.out.println(count + " sanal cihaz başlatıldı, " + durationSeconds + " sn soak");
+
+        SoakRunner runner = new SoakRunner();
+        runner.run(farm, pollMs, durationSeconds * 1000);
+        farm.stop();
+        System.exit(0);
+    }
+
+    void run(DeviceFarm farm, long pollMs, long durationMs) throws InterruptedException {
+        List<ApiService> services = new ArrayList<>();
+        for (String url : farm.getBaseUrls()) {
+            services.add(RetrofitClient.createFleetClient(url).create(ApiService.class));
+        }
+
+        // Cihazların sorguları aralığa yayılır, hepsi aynı anda başlamaz
+        for (int i = 0; i < services.size(); i++) {
+            final ApiService service = services.get(i);
+            long offset = pollMs * i / services.size();
+            scheduler.scheduleAtFixedRate(() -> cycle(service), offset, pollMs, TimeUnit.MILLISECONDS);
+        }
+
+        long end = System.currentTimeMillis() + durationMs;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(REPORT_INTERVAL_MS, Math.max(1, end - System.currentTimeMillis())));
+            report(farm);
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void cycle(ApiService service) {
+        double roll = Math.random();
+        if (roll < MODE_CHANGE_PROBABILITY) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("mode", "station");
+            track(service.changeWifiMode(params));
+            return;
+        }
+        if (roll < WRITE_PROBABILITY) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("targetTemp", 37.5f + (float) Math.round(Math.random() * 6) / 10f);
+            track(service.setTemperature(params));
+            track(service.saveSystem());
+        }
+        track(service.getStatus());
+    }
+
+    private <T> void track(Call<T> call) {
+        final long start = System.nanoTime();
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    success.incrementAndGet();
+                    record(start);
+                } else {
+                    httpErrors.incrementAndGet();
+                }
+                Object body = response.body();
+                if (body instanceof ResponseBody) {
+                    ((ResponseBody) body).close();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                failures.computeIfAbsent(t.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+            }
+        });
+    }
+
+    private void record(long startNanos) {
+        long ms = (System.nanoTime() - startNanos) / 1_000_000;
+        latencyHistogram.incrementAndGet((int) Math.min(latencyHistogram.length() - 1, ms));
+    }
+
+    private void report(DeviceFarm farm) {
+        long ok = success.get();
+        long failed = httpErrors.get();
+        for (AtomicLong value : failures.values()) {
+            failed += value.get();
+        }
+        long total = ok + failed;
+        long[] counters = farm.getCounters();
+
+        System.out.println(String.format(Locale.US,
+                "istek=%d başarı=%.2f%% p50=%dms p90=%dms p99=%dms http_hata=%d hatalar=%s " +
+                        "| cihaz: istek=%d düşen=%d takılan=%d reboot=%d",
+                total, total == 0 ? 0 : ok * 100.0 / total,
+                percentile(0.50), percentile(0.90), percentile(0.99), httpErrors.get(), failures,
+                counters[0], counters[1], counters[2], counters[3]));
+    }
+
+    private long percentile(double p) {
+        long[] counts = new long[latencyHistogram.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyHistogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i;
+            }
+        }
+        return counts.length - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,847 @@
+package com.kulucka.mkv5.simulator;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ApiService'teki tüm endpoint'leri sunan tek bir sanal ESP32 kontrolcüsü.
+ * Her cihaz kendi loopback adresinde bir HttpServer çalıştırır; istekler
+ * firmware'deki gibi sırayla, tek işleyicide (serviceTimeMs) işlenir. Ağ gecikmesi,
+ * kayıp ve takılma yanıt yazılırken ortak zamanlayıcıda uygulanır, işleyiciyi meşgul etmez.
+ * /api/wifi/mode, /api/wifi/connect, /api/wifi/ap, restart ve OTA sonrası cihaz rebootMs
+ * boyunca erişilemez olur ve aynı portta yeniden açılır.
+ */
+public class VirtualDevice {
+    private static final String FIRMWARE_VERSION = "5.0.3";
+    private static final String AP_IP = "192.168.4.1";
+    private static final long WIFI_SCAN_MS = 1500;
+    private static final int MAX_LOGS = 50;
+    private static final long TOTAL_HEAP = 327680;
+
+    // Tüm cihazlar için ortak thread'ler; cihaz başına yalnızca HttpServer'ın dispatcher'ı vardır
+    private static final ScheduledExecutorService network = Executors.newScheduledThreadPool(4, r -> {
+        Thread thread = new Thread(r, "sim-network");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "sim-device");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Gson gson = new Gson();
+
+    static {
+        // HttpServer başlık ve gövdeyi ayrı yazar; Nagle açıkken keep-alive bağlantıda her yanıt ~40 ms gecikir
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final int id;
+    private final SimulatorConfig config;
+    private final Random netRandom;
+    private final IncubatorModel model;
+    private final Executor serialExecutor = new SerialExecutor(workers);
+    private final ArrayDeque<Map<String, Object>> logs = new ArrayDeque<>();
+
+    private HttpServer server;
+    private InetAddress address;
+    private int port;
+    private volatile boolean online;
+    private long bootNanos;
+    private long lastAdvanceNanos;
+    private long rtcOffsetSeconds;
+
+    // WiFi durumu
+    private boolean apMode = false;
+    private String stationSsid = "KuluckaEv";
+    private String stationPassword = "12345678";
+    private int rssi;
+
+    // OTA durumu (0 boşta, 1 sürüyor, 2 başarılı, 3 hata)
+    private int otaState;
+    private long otaTotal;
+    private long otaWritten;
+    private String otaError;
+
+    // Sayaçlar
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong dropped = new AtomicLong();
+    final AtomicLong stalled = new AtomicLong();
+    final AtomicLong reboots = new AtomicLong();
+
+    public VirtualDevice(int id, SimulatorConfig config) {
+        this.id = id;
+        this.config = config;
+        this.netRandom = new Random(config.seed * 31 + id);
+        this.model = new IncubatorModel(config.seed * 17 + id);
+        this.rssi = -45 - netRandom.nextInt(30);
+    }
+
+    public synchronized void start() throws IOException {
+        bootNanos = System.nanoTime();
+        lastAdvanceNanos = bootNanos;
+        address = deviceAddress(id);
+        try {
+            bind(0);
+        } catch (IOException e) {
+            // 127.0.0.0/8'in tamamı her sistemde loopback'e yönlenmez (ör. macOS)
+            address = InetAddress.getLoopbackAddress();
+            bind(0);
+        }
+        log("INFO", "Sistem başlatıldı", "system");
+    }
+
+    public synchronized void stop() {
+        online = false;
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://" + address.getHostAddress() + ":" + port + "/";
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    private void bind(int requestedPort) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(address, requestedPort), 50);
+        server.createContext("/", this::handle);
+        server.setExecutor(serialExecutor);
+        server.start();
+        port = server.getAddress().getPort();
+        online = true;
+    }
+
+    // ---- İstek işleme ----
+
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+
+        // Kayıp: bağlantı yanıt yazılmadan kapanır
+        double roll = netRandom.nextDouble();
+        if (roll < config.lossRate) {
+            dropped.incrementAndGet();
+            exchange.close();
+            return;
+        }
+        // Takılma: yanıt hiç gelmez, bağlantı stallMs sonra kapanır
+        if (roll < config.lossRate + config.stallRate) {
+            stalled.incrementAndGet();
+            network.schedule(exchange::close, config.stallMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        Reply reply;
+        try {
+            sleep(config.serviceTimeMs);
+            byte[] body = readBody(exchange.getRequestBody());
+            synchronized (this) {
+                advanceModel();
+                reply = route(exchange, body);
+            }
+        } catch (Exception e) {
+            reply = Reply.json(500, map("status", "error", "message", String.valueOf(e.getMessage())));
+        }
+
+        final Reply response = reply;
+        long delay = Math.max(0, config.latencyMs +
+                (long) ((netRandom.nextDouble() * 2 - 1) * config.latencyJitterMs));
+        network.schedule(() -> send(exchange, response), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(HttpExchange exchange, Reply reply) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", reply.contentType);
+            exchange.sendResponseHeaders(reply.code, reply.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(reply.body);
+            }
+        } catch (IOException ignored) {
+            // İstemci vazgeçmiş
+        } finally {
+            exchange.close();
+        }
+        if (reply.afterSend != null) {
+            reply.afterSend.run();
+        }
+    }
+
+    private void advanceModel() {
+        long now = System.nanoTime();
+        model.advance((now - lastAdvanceNanos) / 1e9 * config.timeScale);
+        lastAdvanceNanos = now;
+    }
+
+    private Reply route(HttpExchange exchange, byte[] body) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+
+        if ("GET".equals(method)) {
+            switch (path) {
+                case "/api/status":
+                    return Reply.json(200, statusJson());
+                case "/api/pid/status":
+                    return Reply.json(200, pidStatusJson());
+                case "/api/motor/status":
+                    return Reply.json(200, motorStatusJson());
+                case "/api/wifi/networks":
+                    sleep(WIFI_SCAN_MS); // Tarama süresince cihaz başka isteğe cevap vermez
+                    return Reply.json(200, wifiNetworksJson());
+                case "/api/wifi/status":
+                    return Reply.json(200, wifiStatusJson());
+                case "/api/wifi/mode/status":
+                    return Reply.json(200, map("status", "completed", "currentMode", modeName(),
+                            "targetMode", modeName(), "progress", 100, "message", "Mod değişimi tamamlandı",
+                            "estimatedTimeRemaining", 0));
+                case "/api/wifi/credentials":
+                    return Reply.json(200, map("currentMode", modeName(), "apSSID", "KULUCKA_MK_v5",
+                            "hasStationCredentials", stationSsid != null, "stationSSID", stationSsid,
+                            "stationSaved", stationSsid != null,
+                            "stationPasswordLength", stationPassword != null ? stationPassword.length() : 0,
+                            "connected", !apMode, "ipAddress", ipAddress()));
+                case "/api/system/verify":
+                    return Reply.json(200, verificationJson());
+                case "/api/system/health":
+                    return Reply.json(200, healthJson());
+                case "/api/system/logs":
+                    return Reply.json(200, map("status", "ok", "logs", new ArrayList<>(logs),
+                            "totalCount", logs.size(), "timestamp", epochSeconds()));
+                case "/api/status/complete":
+                    return Reply.json(200, map("status", "ok", "deviceStatus", statusJson(),
+                            "systemHealth", healthJson(), "wifiStatus", wifiStatusJson(),
+                            "motorStatus", motorStatusJson(), "pidStatus", pidStatusJson(),
+                            "rtcStatus", rtcJson()));
+                case "/api/discovery":
+                    return Reply.json(200, map("device", "KULUCKA_MK_v5", "version", FIRMWARE_VERSION,
+                            "ip", ipAddress(), "mode", modeName(), "port", port));
+                case "/api/ping":
+                    return Reply.text(200, "pong");
+                case "/api/sensors/details":
+                    return Reply.json(200, sensorDetailsJson());
+                case "/api/rtc/status":
+                    return Reply.json(200, rtcJson());
+                case "/api/ota/info":
+                    return Reply.json(200, map("currentVersion", FIRMWARE_VERSION, "buildDate", "2025-01-15",
+                            "updateAvailable", false, "updateInProgress", otaState == 1,
+                            "partition", "ota_0", "freeSpace", 1966080, "chipModel", "ESP32-D0WD", "cpuFreq", 240));
+                case "/api/ota/progress":
+                    return Reply.json(200, map("state", otaState,
+                            "progress", otaTotal > 0 ? (int) (otaWritten * 100 / otaTotal) : 0,
+                            "totalSize", otaTotal, "writtenSize", otaWritten, "error", otaError));
+                default:
+                    return notFound();
+            }
+        }
+
+        if (!"POST".equals(method)) {
+            return notFound();
+        }
+
+        if ("/api/ota/update".equals(path)) {
+            return handleOta(exchange, body);
+        }
+
+        JsonObject params = parseParams(body);
+        switch (path) {
+            case "/api/temperature":
+                model.targetTemp = getFloat(params, "targetTemp", model.targetTemp);
+                return changed("Sıcaklık ayarlandı");
+            case "/api/humidity":
+                model.targetHumid = getFloat(params, "targetHumid", model.targetHumid);
+                return changed("Nem ayarlandı");
+            case "/api/pid":
+                model.pidKp = getFloat(params, "kp", getFloat(params, "pidKp", model.pidKp));
+                model.pidKi = Math.max(0.001f, getFloat(params, "ki", getFloat(params, "pidKi", model.pidKi)));
+                model.pidKd = getFloat(params, "kd", getFloat(params, "pidKd", model.pidKd));
+                model.pidMode = (int) getFloat(params, "pidMode", model.pidMode);
+                return changed("PID ayarlandı");
+            case "/api/motor":
+                model.motorWaitTime = (int) getFloat(params, "waitTime", model.motorWaitTime);
+                model.motorRunTime = (int) getFloat(params, "runTime", model.motorRunTime);
+                return changed("Motor ayarlandı");
+            case "/api/motor/test": {
+                int duration = (int) getFloat(params, "duration", model.motorRunTime);
+                model.startMotorTest(duration);
+                return Reply.json(200, map("status", "success", "message", "Motor testi başlatıldı",
+                        "duration", duration, "motorState", true, "timestamp", epochSeconds()));
+            }
+            case "/api/alarm":
+                model.alarmEnabled = getBoolean(params, "alarmEnabled", model.alarmEnabled);
+                model.tempLowAlarm = getFloat(params, "tempLowAlarm", model.tempLowAlarm);
+                model.tempHighAlarm = getFloat(params, "tempHighAlarm", model.tempHighAlarm);
+                model.humidLowAlarm = getFloat(params, "humidLowAlarm", model.humidLowAlarm);
+                model.humidHighAlarm = getFloat(params, "humidHighAlarm", model.humidHighAlarm);
+                return changed("Alarm ayarlandı");
+            case "/api/calibration":
+                model.tempCalibration1 = getFloat(params, "tempCalibration1", model.tempCalibration1);
+                model.tempCalibration2 = getFloat(params, "tempCalibration2", model.tempCalibration2);
+                model.humidCalibration1 = getFloat(params, "humidCalibration1", model.humidCalibration1);
+                model.humidCalibration2 = getFloat(params, "humidCalibration2", model.humidCalibration2);
+                return changed("Kalibrasyon ayarlandı");
+            case "/api/incubation":
+                model.incubationType = (int) getFloat(params, "incubationType", model.incubationType);
+                model.manualDevTemp = getFloat(params, "manualDevTemp", model.manualDevTemp);
+                model.manualHatchTemp = getFloat(params, "manualHatchTemp", model.manualHatchTemp);
+                model.manualDevHumid = (int) getFloat(params, "manualDevHumid", model.manualDevHumid);
+                model.manualHatchHumid = (int) getFloat(params, "manualHatchHumid", model.manualHatchHumid);
+                model.manualDevDays = (int) getFloat(params, "manualDevDays", model.manualDevDays);
+                model.manualHatchDays = (int) getFloat(params, "manualHatchDays", model.manualHatchDays);
+                if (params.has("isIncubationRunning")) {
+                    model.setIncubationRunning(getBoolean(params, "isIncubationRunning", false));
+                }
+                return changed("Kuluçka ayarlandı");
+            case "/api/incubation/manual": {
+                JsonObject development = params.has("development") ? params.getAsJsonObject("development") : new JsonObject();
+                JsonObject hatching = params.has("hatching") ? params.getAsJsonObject("hatching") : new JsonObject();
+                model.manualDevTemp = getFloat(development, "temperature", model.manualDevTemp);
+                model.manualDevHumid = (int) getFloat(development, "humidity", model.manualDevHumid);
+                model.manualDevDays = (int) getFloat(development, "days", model.manualDevDays);
+                model.manualHatchTemp = getFloat(hatching, "temperature", model.manualHatchTemp);
+                model.manualHatchHumid = (int) getFloat(hatching, "humidity", model.manualHatchHumid);
+                model.manualHatchDays = (int) getFloat(hatching, "days", model.manualHatchDays);
+                return changed("Manuel parametreler ayarlandı");
+            }
+            case "/api/wifi/connect": {
+                String ssid = getString(params, "ssid", null);
+                if (ssid == null || ssid.isEmpty()) {
+                    return Reply.json(400, map("status", "error", "message", "SSID gerekli"));
+                }
+                stationSsid = ssid;
+                stationPassword = getString(params, "password", "");
+                return modeChange(false);
+            }
+            case "/api/wifi/ap":
+                return modeChange(true);
+            case "/api/wifi/mode": {
+                String mode = getString(params, "mode", "ap");
+                return modeChange("ap".equalsIgnoreCase(mode));
+            }
+            case "/api/wifi/save":
+                log("INFO", "WiFi ayarları kaydedildi", "wifi");
+                return ok("WiFi ayarları kaydedildi");
+            case "/api/system/save":
+                model.save();
+                log("INFO", "Ayarlar kaydedildi", "storage");
+                return Reply.json(200, map("status", "success", "message", "Ayarlar kaydedildi",
+                        "pendingChanges", 0, "timestamp", epochSeconds()));
+            case "/api/system/action": {
+                String action = getString(params, "action", "");
+                if ("restart".equals(action)) {
+                    return Reply.json(200, map("status", "success", "message", "Yeniden başlatılıyor"))
+                            .then(() -> reboot(null));
+                }
+                if ("factory_reset".equals(action)) {
+                    return Reply.json(200, map("status", "success", "message", "Fabrika ayarlarına dönülüyor"))
+                            .then(() -> reboot(this::factoryReset));
+                }
+                return Reply.json(400, map("status", "error", "message", "Bilinmeyen işlem: " + action));
+            }
+            case "/api/network/test":
+                return Reply.json(200, map("status", "success", "targetIP", getString(params, "targetIP", ""),
+                        "reachable", netRandom.nextDouble() > 0.05, "pingTime", 2 + netRandom.nextInt(40),
+                        "error", null));
+            case "/api/rtc/time": {
+                LocalDateTime now = rtcNow();
+                LocalDateTime target = now.withHour((int) getFloat(params, "hour", now.getHour()))
+                        .withMinute((int) getFloat(params, "minute", now.getMinute()));
+                rtcOffsetSeconds += java.time.Duration.between(now, target).getSeconds();
+                return ok("Saat ayarlandı");
+            }
+            case "/api/rtc/date": {
+                LocalDateTime now = rtcNow();
+                LocalDateTime target = now.withYear((int) getFloat(params, "year", now.getYear()))
+                        .withMonth((int) getFloat(params, "month", now.getMonthValue()))
+                        .withDayOfMonth((int) getFloat(params, "day", now.getDayOfMonth()));
+                rtcOffsetSeconds += java.time.Duration.between(now, target).getSeconds();
+                return ok("Tarih ayarlandı");
+            }
+            default:
+                return notFound();
+        }
+    }
+
+    // Yanıt gönderildikten sonra cihaz yeniden başlar; istemci yeni IP'yi yanıttan alır
+    private Reply modeChange(boolean toAp) {
+        String newMode = toAp ? "AP" : "STA";
+        String newIp = toAp ? AP_IP : address.getHostAddress();
+        log("INFO", newMode + " moduna geçiliyor", "wifi");
+        Map<String, Object> preserved = map("temperature", round(model.temperature),
+                "humidity", round(model.humidity), "targetTemp", model.targetTemp,
+                "targetHumid", model.targetHumid, "heaterState", model.heaterState,
+                "humidifierState", model.humidifierState, "motorState", model.motorState);
+        return Reply.json(200, map("status", "success", "message", newMode + " moduna geçiliyor",
+                "newMode", newMode, "ipAddress", newIp, "connected", !toAp, "preservedData", preserved,
+                "estimatedTime", (int) Math.ceil(config.rebootMs / 1000.0), "credentialsSaved", stationSsid != null))
+                .then(() -> reboot(() -> apMode = toAp));
+    }
+
+    private Reply handleOta(HttpExchange exchange, byte[] body) {
+        otaState = 1;
+        otaTotal = body.length;
+        otaWritten = 0;
+        otaError = null;
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        Map<String, byte[]> parts = Multipart.parse(contentType, body);
+        byte[] firmware = parts.get("firmware");
+        if (firmware == null || firmware.length == 0) {
+            return otaFailed("Firmware parçası yok");
+        }
+        otaTotal = firmware.length;
+        otaWritten = firmware.length;
+
+        String expected = exchange.getRequestHeaders().getFirst("X-MD5");
+        if (expected == null && parts.containsKey("md5")) {
+            expected = new String(parts.get("md5"), StandardCharsets.US_ASCII).trim();
+        }
+        String actual = md5(firmware);
+        if (expected != null && !expected.equalsIgnoreCase(actual)) {
+            return otaFailed("MD5 uyuşmuyor: " + actual);
+        }
+
+        otaState = 2;
+        log("INFO", "OTA tamamlandı (" + firmware.length + " bayt)", "ota");
+        return Reply.text(200, "OK").then(() -> reboot(() -> otaState = 0));
+    }
+
+    private Reply otaFailed(String message) {
+        otaState = 3;
+        otaError = message;
+        log("ERROR", "OTA hatası: " + message, "ota");
+        return Reply.json(400, map("status", "error", "message", message));
+    }
+
+    // ---- Yeniden başlatma ----
+
+    private void reboot(Runnable onBoot) {
+        reboots.incrementAndGet();
+        final int bootPort = port;
+        synchronized (this) {
+            online = false;
+            if (server != null) {
+                server.stop(0);
+                server = null;
+            }
+        }
+        network.schedule(() -> boot(bootPort, onBoot), config.rebootMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void boot(int bootPort, Runnable onBoot) {
+        synchronized (this) {
+            advanceModel();
+            if (onBoot != null) {
+                onBoot.run();
+            }
+            bootNanos = System.nanoTime();
+            try {
+                bind(bootPort);
+                log("INFO", "Sistem yeniden başlatıldı", "system");
+                return;
+            } catch (BindException e) {
+                // Eski soket henüz bırakılmadı; kısa süre sonra tekrar dene
+            } catch (IOException e) {
+                log("ERROR", "Sunucu başlatılamadı: " + e.getMessage(), "system");
+            }
+        }
+        network.schedule(() -> boot(bootPort, null), 500, TimeUnit.MILLISECONDS);
+    }
+
+    private void factoryReset() {
+        IncubatorModel defaults = new IncubatorModel(config.seed * 17 + id);
+        model.targetTemp = defaults.targetTemp;
+        model.targetHumid = defaults.targetHumid;
+        model.pidMode = defaults.pidMode;
+        model.pidKp = defaults.pidKp;
+        model.pidKi = defaults.pidKi;
+        model.pidKd = defaults.pidKd;
+        model.alarmEnabled = defaults.alarmEnabled;
+        model.tempLowAlarm = defaults.tempLowAlarm;
+        model.tempHighAlarm = defaults.tempHighAlarm;
+        model.humidLowAlarm = defaults.humidLowAlarm;
+        model.humidHighAlarm = defaults.humidHighAlarm;
+        model.motorWaitTime = defaults.motorWaitTime;
+        model.motorRunTime = defaults.motorRunTime;
+        model.tempCalibration1 = model.tempCalibration2 = 0;
+        model.humidCalibration1 = model.humidCalibration2 = 0;
+        model.incubationType = 0;
+        model.setIncubationRunning(false);
+        model.save();
+        apMode = true;
+        stationSsid = null;
+        stationPassword = null;
+    }
+
+    // ---- Yanıt gövdeleri ----
+
+    private Map<String, Object> statusJson() {
+        float t1 = model.sensorTemperature(1);
+        float t2 = model.sensorTemperature(2);
+        float h1 = model.sensorHumidity(1);
+        float h2 = model.sensorHumidity(2);
+        int actualDay = model.actualDay();
+
+        Map<String, Object> status = map(
+                "temperature", round((t1 + t2) / 2), "humidity", round((h1 + h2) / 2),
+                "heaterState", model.heaterState, "humidifierState", model.humidifierState,
+                "motorState", model.motorState, "currentDay", actualDay, "totalDays", model.totalDays(),
+                "incubationType", model.incubationTypeName(), "targetTemp", model.targetTemp,
+                "targetHumid", model.targetHumid, "isIncubationRunning", model.incubationRunning,
+                "isIncubationCompleted", model.isIncubationCompleted(), "actualDay", actualDay,
+                "displayDay", Math.min(actualDay, model.totalDays()),
+                "pidMode", model.pidMode, "pidKp", model.pidKp, "pidKi", model.pidKi, "pidKd", model.pidKd,
+                "pidActive", model.pidMode != IncubatorModel.PID_MODE_OFF,
+                "pidAutoTuneActive", model.pidAutoTuneActive,
+                "pidError", round(model.targetTemp - model.temperature), "pidOutput", round(model.pidOutput),
+                "pidModeString", model.pidModeString(), "alarmEnabled", model.alarmEnabled,
+                "tempLowAlarm", model.tempLowAlarm, "tempHighAlarm", model.tempHighAlarm,
+                "humidLowAlarm", model.humidLowAlarm, "humidHighAlarm", model.humidHighAlarm,
+                "motorWaitTime", model.motorWaitTime, "motorRunTime", model.motorRunTime,
+                "tempCalibration1", model.tempCalibration1, "tempCalibration2", model.tempCalibration2,
+                "humidCalibration1", model.humidCalibration1, "humidCalibration2", model.humidCalibration2,
+                "manualDevTemp", model.manualDevTemp, "manualHatchTemp", model.manualHatchTemp,
+                "manualDevHumid", model.manualDevHumid, "manualHatchHumid", model.manualHatchHumid,
+                "manualDevDays", model.manualDevDays, "manualHatchDays", model.manualHatchDays,
+                "timestamp", epochSeconds(), "freeHeap", freeHeap(), "uptime", uptimeSeconds());
+        status.put("motor", map("state", model.motorState, "waitTime", model.motorWaitTime,
+                "runTime", model.motorRunTime, "testAvailable", true));
+        status.put("reliability", reliabilityJson());
+        status.put("sensors", map(
+                "sensor1", map("temperature", t1, "humidity", h1, "working", true,
+                        "tempCalibration", model.tempCalibration1, "humidCalibration", model.humidCalibration1),
+                "sensor2", map("temperature", t2, "humidity", h2, "working", true,
+                        "tempCalibration", model.tempCalibration2, "humidCalibration", model.humidCalibration2)));
+        status.put("alarms", map("enabled", model.alarmEnabled, "tempLow", model.tempLowAlarm,
+                "tempHigh", model.tempHighAlarm, "humidLow", model.humidLowAlarm, "humidHigh", model.humidHighAlarm));
+        return status;
+    }
+
+    private Map<String, Object> pidStatusJson() {
+        return map("status", "ok", "mode", model.pidMode, "modeString", model.pidModeString(),
+                "active", model.pidMode != IncubatorModel.PID_MODE_OFF,
+                "kp", model.pidKp, "ki", model.pidKi, "kd", model.pidKd,
+                "error", round(model.targetTemp - model.temperature), "output", round(model.pidOutput),
+                "autoTuneActive", model.pidAutoTuneActive);
+    }
+
+    private Map<String, Object> motorStatusJson() {
+        return map("status", "ok", "isRunning", model.motorState, "waitTime", model.motorWaitTime,
+                "runTime", model.motorRunTime, "testAvailable", true,
+                "lastRunTime", model.lastMotorRun < 0 ? 0 : (long) model.lastMotorRun,
+                "totalRuns", model.totalMotorRuns,
+                "timing", map("waitTime", model.motorWaitTime, "runTime", model.motorRunTime,
+                        "waitTimeLeft", model.motorWaitTimeLeft(),
+                        "runTimeLeft", model.motorState ? model.motorRunTime : 0));
+    }
+
+    private Map<String, Object> reliabilityJson() {
+        return map("lastSave", model.secondsSinceSave(), "pendingChanges", model.pendingChanges,
+                "autoSaveEnabled", true, "criticalParamsProtected", true);
+    }
+
+    private Map<String, Object> wifiStatusJson() {
+        return map("mode", modeName(), "connected", !apMode, "ssid", apMode ? "KULUCKA_MK_v5" : stationSsid,
+                "ip", ipAddress(), "rssi", currentRssi(), "status", "ok");
+    }
+
+    private Map<String, Object> wifiNetworksJson() {
+        List<Map<String, Object>> networks = new ArrayList<>();
+        String[] names = {"KuluckaEv", "TurkTelekom_ZT4K", "SUPERONLINE_WiFi_2", "Kumes_AP", "Misafir"};
+        for (String name : names) {
+            networks.add(map("ssid", name, "rssi", -40 - netRandom.nextInt(50),
+                    "encryption", "Misafir".equals(name) ? "open" : "WPA2"));
+        }
+        return map("networks", networks);
+    }
+
+    private Map<String, Object> verificationJson() {
+        return map("status", "ok", "timestamp", epochSeconds(), "freeHeap", freeHeap(),
+                "wifi", map("mode", modeName(), "connected", !apMode, "ssid", stationSsid,
+                        "ip", ipAddress(), "rssi", currentRssi()),
+                "parameters", map("temperature", round(model.temperature), "humidity", round(model.humidity),
+                        "targetTemp", model.targetTemp, "targetHumid", model.targetHumid,
+                        "heaterState", model.heaterState, "humidifierState", model.humidifierState,
+                        "motorState", model.motorState, "alarmEnabled", model.alarmEnabled,
+                        "pidMode", model.pidMode),
+                "incubation", incubationJson(true),
+                "firmwareVersion", FIRMWARE_VERSION,
+                "reliability", reliabilityJson());
+    }
+
+    private Map<String, Object> healthJson() {
+        return map("status", "ok", "uptime", uptimeSeconds(), "freeHeap", freeHeap(), "totalHeap", TOTAL_HEAP,
+                "heapFragmentation", 8 + netRandom.nextInt(10), "wifiRssi", currentRssi(),
+                "storage", map("initialized", true, "pendingChanges", model.pendingChanges,
+                        "lastSaveTime", model.secondsSinceSave(), "criticalParameters", true),
+                "sensors", map("temperature", round(model.temperature), "humidity", round(model.humidity),
+                        "tempValid", true, "humidValid", true),
+                "control", map("pidMode", model.pidMode, "heaterState", model.heaterState,
+                        "humidifierState", model.humidifierState, "motorState", model.motorState,
+                        "alarmEnabled", model.alarmEnabled),
+                "wifi", map("mode", modeName(), "connected", !apMode, "rssi", currentRssi(), "ip", ipAddress()),
+                "incubation", incubationJson(false));
+    }
+
+    private Map<String, Object> incubationJson(boolean withType) {
+        Map<String, Object> incubation = map("running", model.incubationRunning,
+                "currentDay", model.actualDay(), "totalDays", model.totalDays(),
+                "completed", model.isIncubationCompleted());
+        if (withType) {
+            incubation.put("type", model.incubationTypeName());
+        }
+        return incubation;
+    }
+
+    private Map<String, Object> sensorDetailsJson() {
+        float t1 = model.sensorTemperature(1);
+        float t2 = model.sensorTemperature(2);
+        float h1 = model.sensorHumidity(1);
+        float h2 = model.sensorHumidity(2);
+        return map("average", map("temperature", round((t1 + t2) / 2), "humidity", round((h1 + h2) / 2)),
+                "sensor1", map("id", "SHT31-1", "address", "0x44", "temperature", t1, "humidity", h1,
+                        "working", true, "calibration", map("temperature", model.tempCalibration1,
+                                "humidity", model.humidCalibration1)),
+                "sensor2", map("id", "SHT31-2", "address", "0x45", "temperature", t2, "humidity", h2,
+                        "working", true, "calibration", map("temperature", model.tempCalibration2,
+                                "humidity", model.humidCalibration2)),
+                "health", map("sensorsWorking", true, "allSensorsWorking", true,
+                        "temperatureValid", true, "humidityValid", true));
+    }
+
+    private Map<String, Object> rtcJson() {
+        LocalDateTime now = rtcNow();
+        return map("status", "ok",
+                "time", String.format("%02d:%02d:%02d", now.getHour(), now.getMinute(), now.getSecond()),
+                "date", String.format("%02d/%02d/%04d", now.getDayOfMonth(), now.getMonthValue(), now.getYear()),
+                "timestamp", epochSeconds(), "errorCount", 0,
+                "details", map("hour", now.getHour(), "minute", now.getMinute(), "second", now.getSecond(),
+                        "day", now.getDayOfMonth(), "month", now.getMonthValue(), "year", now.getYear()));
+    }
+
+    // ---- Yardımcılar ----
+
+    private Reply changed(String message) {
+        model.markChanged();
+        log("INFO", message, "api");
+        return ok(message);
+    }
+
+    private static Reply ok(String message) {
+        return Reply.json(200, map("status", "success", "message", message));
+    }
+
+    private static Reply notFound() {
+        return Reply.json(404, map("status", "error", "message", "Not found"));
+    }
+
+    private void log(String level, String message, String source) {
+        if (logs.size() >= MAX_LOGS) {
+            logs.removeFirst();
+        }
+        logs.addLast(map("timestamp", epochSeconds(), "level", level, "message", message, "source", source));
+    }
+
+    private String modeName() {
+        return apMode ? "AP" : "STA";
+    }
+
+    private String ipAddress() {
+        return apMode ? AP_IP : address.getHostAddress();
+    }
+
+    /**
+     * Her cihaz ayrı bir loopback adresinde (127.0.1.1, 127.0.1.2, ...) çalışır.
+     * OkHttp eşzamanlı istek sınırını host adına göre uyguladığından, tüm cihazlar
+     * 127.0.0.1'de olsaydı filo istemcisinin cihaz başına sınırı tüm filoyu tek isteğe indirirdi.
+     */
+    private static InetAddress deviceAddress(int id) throws IOException {
+        return InetAddress.getByAddress(new byte[]{127, 0, (byte) (1 + id / 250), (byte) (1 + id % 250)});
+    }
+
+    private int currentRssi() {
+        return rssi + netRandom.nextInt(5) - 2;
+    }
+
+    private long freeHeap() {
+        return 180000 + netRandom.nextInt(8000);
+    }
+
+    private long uptimeSeconds() {
+        return (System.nanoTime() - bootNanos) / 1_000_000_000L;
+    }
+
+    private long epochSeconds() {
+        return System.currentTimeMillis() / 1000 + rtcOffsetSeconds;
+    }
+
+    private LocalDateTime rtcNow() {
+        return LocalDateTime.now().plusSeconds(rtcOffsetSeconds);
+    }
+
+    private static float round(double value) {
+        return IncubatorModel.round2(value);
+    }
+
+    private static JsonObject parseParams(byte[] body) {
+        if (body.length == 0) {
+            return new JsonObject();
+        }
+        JsonElement element = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+        return element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+    }
+
+    private static float getFloat(JsonObject params, String name, float fallback) {
+        JsonElement value = params.get(name);
+        return value != null && !value.isJsonNull() ? value.getAsFloat() : fallback;
+    }
+
+    private static boolean getBoolean(JsonObject params, String name, boolean fallback) {
+        JsonElement value = params.get(name);
+        return value != null && !value.isJsonNull() ? value.getAsBoolean() : fallback;
+    }
+
+    private static String getString(JsonObject params, String name, String fallback) {
+        JsonElement value = params.get(name);
+        return value != null && !value.isJsonNull() ? value.getAsString() : fallback;
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Anahtar/değer çiftlerinden sıralı map; JSON alan sırası firmware ile aynı kalır
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static final class Reply {
+        final int code;
+        final String contentType;
+        final byte[] body;
+        Runnable afterSend;
+
+        private Reply(int code, String contentType, byte[] body) {
+            this.code = code;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Reply json(int code, Object body) {
+            return new Reply(code, "application/json", gson.toJson(body).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Reply text(int code, String body) {
+            return new Reply(code, "text/plain", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Yanıt istemciye yazıldıktan sonra çalışır (ör. yeniden başlatma)
+        Reply then(Runnable afterSend) {
+            this.afterSend = afterSend;
+            return this;
+        }
+    }
+
+    /**
+     * Görevleri ortak havuzda ama sırayla çalıştırır: cihaz başına tek işleyici,
+     * yüzlerce cihaz için cihaz sayısı kadar thread gerekmez.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Executor executor;
+        private Runnable active;
+
+        SerialExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.addLast(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.pollFirst();
+            if (active != null) {
+                executor.execute(active);
+            }
+        }
+    }
+}
\ No newline at end of file